@@ -1,14 +1,19 @@
 package com.safetynet.alerts.api;
 
 import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.WriteAheadLog;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Paths;
 
 @SpringBootApplication
+@EnableScheduling
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class SafetyNetAlertsApiApplication  implements CommandLineRunner {
 
@@ -21,8 +26,27 @@ public class SafetyNetAlertsApiApplication  implements CommandLineRunner {
 	@Value( "${datasource.filepath}" )
 	private String dataSourceFilePath;
 
+	@Value( "${datasource.snapshot.filepath:}" )
+	private String snapshotFilePath;
+
+	@Value( "${datasource.wal.filepath:}" )
+	private String writeAheadLogFilePath;
+
+	@Value( "${datasource.wal.fsync:ALWAYS}" )
+	private WriteAheadLog.FsyncPolicy writeAheadLogFsyncPolicy;
+
+	@Value( "${datasource.wal.fsync-interval-ms:100}" )
+	private long writeAheadLogFsyncIntervalMillis;
+
 	@Override
 	public void run(String... args) throws Exception {
-		dataSource.load(dataSourceFilePath);
+		if (snapshotFilePath.isBlank()) {
+			dataSource.load(dataSourceFilePath);
+		} else {
+			dataSource.load(dataSourceFilePath, snapshotFilePath);
+		}
+		if (!writeAheadLogFilePath.isBlank()) {
+			dataSource.openWriteAheadLog(Paths.get(writeAheadLogFilePath), writeAheadLogFsyncPolicy, writeAheadLogFsyncIntervalMillis);
+		}
 	}
 }
@@ -1,35 +1,65 @@
 package com.safetynet.alerts.api.controller;
 
-import com.safetynet.alerts.api.controller.uitls.DtoFilter;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.dto.FloodDto;
+import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
 import com.safetynet.alerts.api.service.IFireStationService;
+import com.safetynet.alerts.api.controller.uitls.DtoFilter;
+import com.safetynet.alerts.api.controller.uitls.EndpointMetrics;
+import com.safetynet.alerts.api.controller.uitls.IEndpointMetrics;
 import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
+import com.safetynet.alerts.api.controller.uitls.IResponseBytesCache;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.annotation.PostConstruct;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  *  Fire station endpoint
  */
 @RestController
+@Timed(value = EndpointMetrics.ENDPOINT_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor(onConstructor= @__(@Autowired))
 public class FireStationController {
     private final IFireStationService fireStationService;
     private final IRequestLogger requestLogger;
+    private final IResponseBytesCache responseBytesCache;
+    private final IEndpointMetrics endpointMetrics;
+
+    /*projections of the responses, built once*/
+    private static final DtoFilter FIRE_STATION_PERSONS_FILTER = DtoFilter.of(Map.of(PersonDto.class, FireStationPersonMixIn.class));
+    private static final DtoFilter FLOOD_FILTER = DtoFilter.of(Map.of(PersonDto.class, FloodPersonMixIn.class,
+                                                                     MedicalRecordDto.class, TreatmentMixIn.class));
+
+    @JsonIncludeProperties({"firstName","lastName","address","city", "zip", "phone"})
+    private interface FireStationPersonMixIn {}
 
+    @JsonIncludeProperties({"firstName","lastName","phone","age", "medicalRecord"})
+    private interface FloodPersonMixIn {}
+
+    @JsonIncludeProperties({"medications","allergies"})
+    private interface TreatmentMixIn {}
+
+
+    @PostConstruct
+    void registerFilters() {
+        responseBytesCache.register(FIRE_STATION_PERSONS_FILTER, FLOOD_FILTER);
+    }
 
     /**
      * Delete a fire station  mapping.
@@ -107,6 +137,57 @@ public class FireStationController {
         }
     }
 
+    /**
+     * Add several new fire station mappings, as a single data modification.
+     *
+     * @param fireStations - A list of fire station mappings
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 201 if created, 409 if it already exists.
+     *            - Http status code set to "200-OK".
+     */
+    @PostMapping("/firestation/batch")
+    public ResponseEntity<List<BatchResultDto>> createFireStations(@RequestBody List<FireStation> fireStations) {
+        requestLogger.logRequest("POST /firestation/batch (" + fireStations.size() + " items)");
+        List<BatchResultDto> results = fireStationService.createFireStations(fireStations);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Update several existing fire station mappings, as a single data modification.
+     *
+     * @param fireStations - A list of fire station mappings
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 200 if updated, 404 if not found.
+     *            - Http status code set to "200-OK".
+     */
+    @PutMapping("/firestation/batch")
+    public ResponseEntity<List<BatchResultDto>> updateFireStations(@RequestBody List<FireStation> fireStations) {
+        requestLogger.logRequest("PUT /firestation/batch (" + fireStations.size() + " items)");
+        List<BatchResultDto> results = fireStationService.updateFireStations(fireStations);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Delete several fire station mappings, as a single data modification.
+     *
+     * @param fireStations - A list of fire station mappings, only their key fields are read
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 204 if deleted, 404 if not found.
+     *            - Http status code set to "200-OK".
+     */
+    @DeleteMapping("/firestation/batch")
+    public ResponseEntity<List<BatchResultDto>> deleteFireStations(@RequestBody List<FireStation> fireStations) {
+        requestLogger.logRequest("DELETE /firestation/batch (" + fireStations.size() + " items)");
+        List<BatchResultDto> results = fireStationService.deleteFireStations(fireStations);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
+
     /**
      * Get the list of persons that depends on the given fire station.
      *
@@ -119,14 +200,16 @@ public class FireStationController {
      * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
      */
     @GetMapping("/firestation")
-    public ResponseEntity<MappingJacksonValue> getFireStationPersons(@RequestParam Integer stationNumber) throws DataNotFoundException {
-        requestLogger.logRequest("GET /firestation?stationNumber="+ stationNumber);
+    public ResponseEntity<byte[]> getFireStationPersons(@RequestParam Integer stationNumber,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /firestation?stationNumber="+ stationNumber;
+        requestLogger.logRequest(request);
         try{
-            FireStationPersonsDto fireStationPersonsDto = fireStationService.getPersons(stationNumber);
-            Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter", Set.of("firstName","lastName","address","city", "zip", "phone"));
-            MappingJacksonValue fireStationPersonsDtoFiltered = DtoFilter.apply(fireStationPersonsDto, dtoFilterSpec);
-            requestLogger.logResponseSuccess(HttpStatus.OK ,"");
-            return ResponseEntity.ok(fireStationPersonsDtoFiltered);
+            ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, FIRE_STATION_PERSONS_FILTER,
+                    () -> fireStationService.getPersons(stationNumber),
+                    fireStationPersonsDto -> endpointMetrics.stationResultSize("/firestation", "persons", stationNumber, fireStationPersonsDto.getPersons().size()));
+            requestLogger.logResponseSuccess(response.getStatusCode() ,"");
+            return response;
         } catch (DataNotFoundException e){
             requestLogger.logResponseFailure(e.getHttpStatus() ,e.getMessage());
             throw e;
@@ -145,12 +228,16 @@ public class FireStationController {
      * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
      */
     @GetMapping("/phoneAlert")
-    public ResponseEntity<List<String>> getPhoneAlert(@RequestParam Integer firestation) throws DataNotFoundException {
-        requestLogger.logRequest("GET /phoneAlert?firestation="+ firestation);
+    public ResponseEntity<byte[]> getPhoneAlert(@RequestParam Integer firestation,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /phoneAlert?firestation="+ firestation;
+        requestLogger.logRequest(request);
         try{
-            List<String> phones = fireStationService.getPhones(firestation);
-            requestLogger.logResponseSuccess(HttpStatus.OK ,"");
-            return ResponseEntity.ok(phones);
+            ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, DtoFilter.NONE,
+                    () -> fireStationService.getPhones(firestation),
+                    phones -> endpointMetrics.stationResultSize("/phoneAlert", "phones", firestation, phones.size()));
+            requestLogger.logResponseSuccess(response.getStatusCode() ,"");
+            return response;
         } catch (DataNotFoundException e){
             requestLogger.logResponseFailure(e.getHttpStatus() ,e.getMessage());
             throw e;
@@ -168,13 +255,15 @@ public class FireStationController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/flood/stations")
-    public ResponseEntity<MappingJacksonValue> getFloodStations(@RequestParam List<Integer> stations) {
-        requestLogger.logRequest("GET /flood/stations?stations="+ stations.toString());
-        List<FloodDto> floodDtos = fireStationService.getFloodHomes(stations);
-        Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter", Set.of("firstName","lastName","phone","age", "medicalRecord"),
-                                                        "MedicalRecordDtoFilter", Set.of("medications","allergies"));
-        MappingJacksonValue floodDtoFiltered = DtoFilter.apply(floodDtos, dtoFilterSpec);
-        requestLogger.logResponseSuccess(HttpStatus.OK ,"");
-        return ResponseEntity.ok(floodDtoFiltered);
+    public ResponseEntity<byte[]> getFloodStations(@RequestParam List<Integer> stations,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /flood/stations?stations="+ stations.toString();
+        requestLogger.logRequest(request);
+        ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, FLOOD_FILTER,
+                () -> fireStationService.getFloodHomes(stations),
+                floodDtos -> endpointMetrics.resultSize("/flood/stations", "addresses", floodDtos.size())
+                        .and(endpointMetrics.resultSize("/flood/stations", "persons", floodDtos.stream().mapToInt(f -> f.getPersons().size()).sum())));
+        requestLogger.logResponseSuccess(response.getStatusCode() ,"");
+        return response;
     }
 }
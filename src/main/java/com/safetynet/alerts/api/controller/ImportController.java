@@ -0,0 +1,56 @@
+package com.safetynet.alerts.api.controller;
+
+import com.safetynet.alerts.api.controller.uitls.EndpointMetrics;
+import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
+import com.safetynet.alerts.api.model.dto.ImportSummaryDto;
+import com.safetynet.alerts.api.service.IImportService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ *  Bulk import endpoint
+ */
+@RestController
+@Timed(value = EndpointMetrics.ENDPOINT_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImportController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final IImportService importService;
+    private final IRequestLogger requestLogger;
+
+    /**
+     * Import persons, fire station mappings and medical records, one json record per line :
+     *      {"person":{"firstName":"John","lastName":"Boyd",...}}
+     *      {"firestation":{"address":"1509 Culver St","station":"3"}}
+     *      {"medicalrecord":{"firstName":"John","lastName":"Boyd","birthdate":"03/06/1984",...}}
+     * The request body is read as a stream and records are applied by batches.
+     *
+     * @param update - true to update the entities that already exist, false (default) to report them as conflicts.
+     * @param body - the newline-delimited json records.
+     *
+     * @return  HTTP response with :
+     *            - body : numbers of created, updated, conflicting and invalid records, and the first errors with their line number.
+     *            - Http status code set to "200-OK".
+     *
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ResponseEntity<ImportSummaryDto> importRecords(@RequestParam(value = "update", defaultValue = "false") final boolean update,
+                                                          final InputStream body) throws IOException {
+        requestLogger.logRequest("POST /import?update=" + update);
+        ImportSummaryDto summary = importService.importRecords(body, update);
+        requestLogger.logResponseSuccess(HttpStatus.OK, summary.toString());
+        return ResponseEntity.ok(summary);
+    }
+}
@@ -2,9 +2,12 @@ package com.safetynet.alerts.api.controller;
 
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.MedicalRecord;
 import com.safetynet.alerts.api.service.IMedicalRecordService;
+import com.safetynet.alerts.api.controller.uitls.EndpointMetrics;
 import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,11 +16,13 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 /**
  *  Medical record endpoint
  */
 @RestController
+@Timed(value = EndpointMetrics.ENDPOINT_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class MedicalRecordController {
 
@@ -102,4 +107,55 @@ public class MedicalRecordController {
             throw e;
         }
     }
+
+    /**
+     * Add several new medical records, as a single data modification.
+     *
+     * @param medicalRecords - A list of medical records
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 201 if created, 409 if it already exists.
+     *            - Http status code set to "200-OK".
+     */
+    @PostMapping("/medicalRecord/batch")
+    public ResponseEntity<List<BatchResultDto>> createMedicalRecords(@RequestBody List<MedicalRecord> medicalRecords) {
+        requestLogger.logRequest("POST /medicalRecord/batch (" + medicalRecords.size() + " items)");
+        List<BatchResultDto> results = medicalRecordService.createMedicalRecords(medicalRecords);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Update several existing medical records, as a single data modification.
+     *
+     * @param medicalRecords - A list of medical records
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 200 if updated, 404 if not found.
+     *            - Http status code set to "200-OK".
+     */
+    @PutMapping("/medicalRecord/batch")
+    public ResponseEntity<List<BatchResultDto>> updateMedicalRecords(@RequestBody List<MedicalRecord> medicalRecords) {
+        requestLogger.logRequest("PUT /medicalRecord/batch (" + medicalRecords.size() + " items)");
+        List<BatchResultDto> results = medicalRecordService.updateMedicalRecords(medicalRecords);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Delete several medical records, as a single data modification.
+     *
+     * @param medicalRecords - A list of medical records, only their key fields are read
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 204 if deleted, 404 if not found.
+     *            - Http status code set to "200-OK".
+     */
+    @DeleteMapping("/medicalRecord/batch")
+    public ResponseEntity<List<BatchResultDto>> deleteMedicalRecords(@RequestBody List<MedicalRecord> medicalRecords) {
+        requestLogger.logRequest("DELETE /medicalRecord/batch (" + medicalRecords.size() + " items)");
+        List<BatchResultDto> results = medicalRecordService.deleteMedicalRecords(medicalRecords);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
 }
@@ -1,35 +1,74 @@
 package com.safetynet.alerts.api.controller;
 
-import com.safetynet.alerts.api.controller.uitls.DtoFilter;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 import com.safetynet.alerts.api.model.dto.ChildAlertDto;
 import com.safetynet.alerts.api.model.dto.FireDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 import com.safetynet.alerts.api.service.IPersonService;
+import com.safetynet.alerts.api.controller.uitls.DtoFilter;
+import com.safetynet.alerts.api.controller.uitls.EndpointMetrics;
+import com.safetynet.alerts.api.controller.uitls.IEndpointMetrics;
 import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
+import com.safetynet.alerts.api.controller.uitls.IResponseBytesCache;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.annotation.PostConstruct;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  *  Person endpoint
  */
 @RestController
+@Timed(value = EndpointMetrics.ENDPOINT_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class PersonController {
 
     private final IPersonService personService;
     private final IRequestLogger requestLogger;
+    private final IResponseBytesCache responseBytesCache;
+    private final IEndpointMetrics endpointMetrics;
+
+    /*projections of the responses, built once*/
+    private static final DtoFilter CHILD_ALERT_FILTER = DtoFilter.of(Map.of(ChildAlertDto.class, ChildAlertMixIn.class));
+    private static final DtoFilter FIRE_FILTER = DtoFilter.of(Map.of(PersonDto.class, FirePersonMixIn.class,
+                                                                    MedicalRecordDto.class, TreatmentMixIn.class));
+    private static final DtoFilter PERSON_INFO_FILTER = DtoFilter.of(Map.of(PersonDto.class, PersonInfoMixIn.class,
+                                                                           MedicalRecordDto.class, TreatmentMixIn.class));
+
+    private abstract static class ChildAlertMixIn {
+        @JsonIncludeProperties({"firstName","lastName","age"})
+        private List<PersonDto> children;
+        @JsonIncludeProperties({"firstName","lastName"})
+        private List<PersonDto> adults;
+    }
+
+    @JsonIncludeProperties({"firstName","lastName","phone","age", "medicalRecord"})
+    private interface FirePersonMixIn {}
+
+    @JsonIncludeProperties({"firstName","lastName","address","city", "zip", "email", "age", "medicalRecord"})
+    private interface PersonInfoMixIn {}
+
+    @JsonIncludeProperties({"medications","allergies"})
+    private interface TreatmentMixIn {}
+
+    @PostConstruct
+    void registerFilters() {
+        responseBytesCache.register(CHILD_ALERT_FILTER, FIRE_FILTER, PERSON_INFO_FILTER);
+    }
 
     /**
      * Delete a person.
@@ -113,6 +152,57 @@ public class PersonController {
         }
     }
 
+    /**
+     * Add several new persons, as a single data modification.
+     *
+     * @param persons - A list of persons
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 201 if created, 409 if it already exists.
+     *            - Http status code set to "200-OK".
+     */
+    @PostMapping("/person/batch")
+    public ResponseEntity<List<BatchResultDto>> createPersons(@RequestBody List<Person> persons) {
+        requestLogger.logRequest("POST /person/batch (" + persons.size() + " items)");
+        List<BatchResultDto> results = personService.createPersons(persons);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Update several existing persons, as a single data modification.
+     *
+     * @param persons - A list of persons
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 200 if updated, 404 if not found.
+     *            - Http status code set to "200-OK".
+     */
+    @PutMapping("/person/batch")
+    public ResponseEntity<List<BatchResultDto>> updatePersons(@RequestBody List<Person> persons) {
+        requestLogger.logRequest("PUT /person/batch (" + persons.size() + " items)");
+        List<BatchResultDto> results = personService.updatePersons(persons);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Delete several persons, as a single data modification.
+     *
+     * @param persons - A list of persons, only their key fields are read
+     *
+     * @return  HTTP response with :
+     *            - body : the result of each item, in the order of the list : status 204 if deleted, 404 if not found.
+     *            - Http status code set to "200-OK".
+     */
+    @DeleteMapping("/person/batch")
+    public ResponseEntity<List<BatchResultDto>> deletePersons(@RequestBody List<Person> persons) {
+        requestLogger.logRequest("DELETE /person/batch (" + persons.size() + " items)");
+        List<BatchResultDto> results = personService.deletePersons(persons);
+        requestLogger.logResponseSuccess(HttpStatus.OK, null);
+        return ResponseEntity.ok(results);
+    }
+
     /**
      * Get a list of children that leave to a given address.
      *
@@ -123,21 +213,19 @@ public class PersonController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/childAlert")
-    public ResponseEntity<MappingJacksonValue> getChildrenAtAddress(@RequestParam String address) {
-        requestLogger.logRequest("GET /childAlert?address="+ address);
+    public ResponseEntity<byte[]> getChildrenAtAddress(@RequestParam String address,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /childAlert?address="+ address;
+        requestLogger.logRequest(request);
 
-        ChildAlertDto childAlertDto = personService.getChildren(address.trim());
-
-        requestLogger.logResponseSuccess(HttpStatus.OK, "");
-        if(childAlertDto.getChildren().isEmpty()){
+        ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, CHILD_ALERT_FILTER, () -> {
+            ChildAlertDto childAlertDto = personService.getChildren(address.trim());
             /*No child lives at this address : return an empty string*/
-            return  ResponseEntity.ok().build();
-        } else {
-            Map<String, Set<String>> dtoFilterSpec = Map.of("ChildAlertDtoChildrenFilter", Set.of("firstName","lastName","age"),
-                                                        "ChildAlertDtoAdultFilter", Set.of("firstName","lastName"));
-            MappingJacksonValue childAlertDtoFiltered = DtoFilter.apply(childAlertDto, dtoFilterSpec);
-            return ResponseEntity.ok(childAlertDtoFiltered);
-        }
+            return childAlertDto.getChildren().isEmpty() ? null : childAlertDto;
+        }, childAlertDto -> endpointMetrics.resultSize("/childAlert", "children", childAlertDto == null ? 0 : childAlertDto.getChildren().size()));
+
+        requestLogger.logResponseSuccess(response.getStatusCode(), "");
+        return response;
     }
 
     /**
@@ -150,16 +238,64 @@ public class PersonController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/fire")
-    public ResponseEntity<MappingJacksonValue> getFiredPersons(@RequestParam String address) throws DataNotFoundException {
-        requestLogger.logRequest("GET /fire?address="+ address);
-        FireDto fireDto = personService.getFiredPersons(address.trim());
+    public ResponseEntity<byte[]> getFiredPersons(@RequestParam String address,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /fire?address="+ address;
+        requestLogger.logRequest(request);
+
+        ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, FIRE_FILTER,
+                () -> personService.getFiredPersons(address.trim()),
+                fireDto -> endpointMetrics.resultSize("/fire", "persons", fireDto.getPersons().size()));
+
+        requestLogger.logResponseSuccess(response.getStatusCode() ,"");
+        return response;
+    }
+
+    /**
+     * Get the children that live at several addresses, as a single request.
+     *
+     * @param addresses list of addresses
+     *
+     * @retun HTTP response with :
+     *              Body : a {@link ChildAlertDto} by address, only addresses where children live.
+     *              Http status code : "200-Ok" .
+     */
+    @GetMapping("/childAlert/addresses")
+    public ResponseEntity<byte[]> getChildrenAtAddresses(@RequestParam List<String> addresses,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /childAlert/addresses?addresses="+ addresses;
+        requestLogger.logRequest(request);
+
+        ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, CHILD_ALERT_FILTER,
+                () -> personService.getChildrenByAddress(addresses),
+                childAlertDtos -> endpointMetrics.resultSize("/childAlert/addresses", "addresses", childAlertDtos.size()));
+
+        requestLogger.logResponseSuccess(response.getStatusCode(), "");
+        return response;
+    }
+
+    /**
+     * Get the persons that live at several addresses, their medical record and the associated fire station,
+     * as a single request.
+     *
+     * @param addresses list of addresses where the fire is
+     *
+     * @retun HTTP response with :
+     *              Body : a {@link FireDto} by address, addresses with neither person nor fire station are left out.
+     *              Http status code : "200-Ok" .
+     */
+    @GetMapping("/fire/addresses")
+    public ResponseEntity<byte[]> getFiredPersonsAtAddresses(@RequestParam List<String> addresses,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /fire/addresses?addresses="+ addresses;
+        requestLogger.logRequest(request);
 
-        Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter", Set.of("firstName","lastName","phone","age", "medicalRecord"),
-                                                        "MedicalRecordDtoFilter", Set.of("medications","allergies"));
-        MappingJacksonValue fireDtoFiltered = DtoFilter.apply(fireDto, dtoFilterSpec);
+        ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, FIRE_FILTER,
+                () -> personService.getFiredPersonsByAddress(addresses),
+                fireDtos -> endpointMetrics.resultSize("/fire/addresses", "addresses", fireDtos.size()));
 
-        requestLogger.logResponseSuccess(HttpStatus.OK ,"");
-        return ResponseEntity.ok(fireDtoFiltered);
+        requestLogger.logResponseSuccess(response.getStatusCode() ,"");
+        return response;
     }
 
     /**
@@ -173,17 +309,18 @@ public class PersonController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/personInfo")
-    public ResponseEntity<MappingJacksonValue> getCommunityEmail(@RequestParam String firstName,
-                                                                 @RequestParam String lastName ) throws DataNotFoundException {
-        requestLogger.logRequest("GET /personInfo?firstName="+firstName+"&lastName="+ lastName);
+    public ResponseEntity<byte[]> getCommunityEmail(@RequestParam String firstName,
+                                                    @RequestParam String lastName,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /personInfo?firstName="+firstName+"&lastName="+ lastName;
+        requestLogger.logRequest(request);
 
-        List<PersonDto> personDtos = personService.getPersonInfo(firstName.trim(), lastName.trim());
-        Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter",  Set.of("firstName","lastName","address","city", "zip", "email", "age", "medicalRecord"),
-                                                        "MedicalRecordDtoFilter", Set.of("medications","allergies"));
-        MappingJacksonValue fireDtoFiltered = DtoFilter.apply(personDtos, dtoFilterSpec);
+        ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, PERSON_INFO_FILTER,
+                () -> personService.getPersonInfo(firstName.trim(), lastName.trim()),
+                personDtos -> endpointMetrics.resultSize("/personInfo", "persons", personDtos.size()));
 
-        requestLogger.logResponseSuccess(HttpStatus.OK ,"");
-        return ResponseEntity.ok(fireDtoFiltered);
+        requestLogger.logResponseSuccess(response.getStatusCode() ,"");
+        return response;
     }
 
     /**
@@ -196,10 +333,14 @@ public class PersonController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/communityEmail")
-    public ResponseEntity<List<String >> getCommunityEmail(@RequestParam String city) throws DataNotFoundException {
-        requestLogger.logRequest("GET /communityEmail?city="+city);
-        List<String> emails = personService.getEmailsByCity(city.trim());
-        requestLogger.logResponseSuccess(HttpStatus.OK ,"");
-        return ResponseEntity.ok(emails);
+    public ResponseEntity<byte[]> getCommunityEmail(@RequestParam String city,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws DataNotFoundException {
+        String request = "GET /communityEmail?city="+city;
+        requestLogger.logRequest(request);
+        ResponseEntity<byte[]> response = responseBytesCache.get(request, ifNoneMatch, DtoFilter.NONE,
+                () -> personService.getEmailsByCity(city.trim()),
+                emails -> endpointMetrics.resultSize("/communityEmail", "emails", emails.size()));
+        requestLogger.logResponseSuccess(response.getStatusCode() ,"");
+        return response;
     }
 }
@@ -1,23 +1,39 @@
 package com.safetynet.alerts.api.controller.uitls;
 
-import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
-import org.springframework.http.converter.json.MappingJacksonValue;
-
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
-public class DtoFilter {
-    public static <T> MappingJacksonValue apply(T dtoToFilter,  Map<String, Set<String>> filters ){
-        SimpleFilterProvider filterList = new SimpleFilterProvider();
-        for(String filterName : filters.keySet()){
-            SimpleBeanPropertyFilter filter = SimpleBeanPropertyFilter.filterOutAllExcept(filters.get(filterName));
-            filterList.addFilter(filterName, filter);
-        }
-        MappingJacksonValue filtererDto = new MappingJacksonValue(dtoToFilter);
-        filtererDto.setFilters(filterList);
-        return filtererDto;
+/**
+ * Projection of a response dto : Jackson mixins, by dto class, declaring the properties to serialize
+ * (with @JsonIncludeProperties on the mixin, or on its fields for the properties of a field).
+ *
+ * Projections are built once, as constants of the endpoints. The mixins are resolved when the writer of
+ * the projection is built : the serialization does not filter the properties one by one.
+ */
+public final class DtoFilter {
+
+    /** No projection : all the properties are serialized. */
+    public static final DtoFilter NONE = of(Map.of());
+
+    private final Map<Class<?>, Class<?>> mixIns;
+
+    private DtoFilter(Map<Class<?>, Class<?>> mixIns) {
+        this.mixIns = mixIns;
+    }
+
+    /**
+     * Build a projection applying the given mixins.
+     *
+     * @param mixIns mixin by dto class.
+     * @return the projection.
+     */
+    public static DtoFilter of(Map<Class<?>, Class<?>> mixIns) {
+        return new DtoFilter(Map.copyOf(mixIns));
+    }
+
+    /**
+     * @return the Jackson mixins of the projection, by dto class.
+     */
+    public Map<Class<?>, Class<?>> getMixIns() {
+        return mixIns;
     }
 }
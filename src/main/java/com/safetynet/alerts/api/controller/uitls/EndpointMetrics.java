@@ -0,0 +1,62 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics of the endpoints.
+ *
+ * alerts.endpoint : timer of each endpoint, with a percentile histogram and the 50th, 95th and 99th percentiles,
+ * tagged by uri, method, status, outcome and exception (DataNotFoundException, DataAlreadyExistsException or None).
+ * Recorded for the controllers annotated with {@code @Timed(ENDPOINT_TIMER)}.
+ *
+ * alerts.result.size : size of the responses, tagged by endpoint, unit and station ("none" for the
+ * responses not related to a single fire station). The size is kept with the cached response : responses
+ * served from the cache and "304-Not Modified" responses are counted with the size of the cached response.
+ * Its summary is registered once by tag set.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class EndpointMetrics implements IEndpointMetrics {
+
+    public static final String ENDPOINT_TIMER = "alerts.endpoint";
+    static final String RESULT_SIZE = "alerts.result.size";
+
+    private static final String NO_STATION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    /*summaries by endpoint, unit and station*/
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    public ResultSize resultSize(String endpoint, String unit, int size) {
+        DistributionSummary summary = summary(endpoint, unit, NO_STATION);
+        return () -> summary.record(size);
+    }
+
+    @Override
+    public ResultSize stationResultSize(String endpoint, String unit, int stationNumber, int size) {
+        DistributionSummary summary = summary(endpoint, unit, Integer.toString(stationNumber));
+        return () -> summary.record(size);
+    }
+
+    private DistributionSummary summary(String endpoint, String unit, String station) {
+        String tags = endpoint + " " + unit + " " + station;
+        DistributionSummary summary = summaries.get(tags);
+        if (summary == null) {
+            summary = summaries.computeIfAbsent(tags, t -> DistributionSummary.builder(RESULT_SIZE)
+                    .baseUnit(unit)
+                    .tags("endpoint", endpoint, "unit", unit, "station", station)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        return summary;
+    }
+}
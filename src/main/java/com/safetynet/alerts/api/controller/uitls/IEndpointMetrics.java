@@ -0,0 +1,47 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+public interface IEndpointMetrics {
+
+    /**
+     * Size of a computed response, recorded for each response served from it.
+     */
+    @FunctionalInterface
+    interface ResultSize {
+        /**
+         * Record the size once more.
+         */
+        void record();
+
+        /**
+         * @param other another size of the same response.
+         * @return a recording of both sizes.
+         */
+        default ResultSize and(ResultSize other) {
+            return () -> {
+                record();
+                other.record();
+            };
+        }
+    }
+
+    /**
+     * Size of a computed response.
+     *
+     * @param endpoint path of the endpoint.
+     * @param unit what is counted : persons, addresses, phones...
+     * @param size the size.
+     * @return the size, to record for each response.
+     */
+    ResultSize resultSize(String endpoint, String unit, int size);
+
+    /**
+     * Size of a computed response of a fire station.
+     *
+     * @param endpoint path of the endpoint.
+     * @param unit what is counted : persons, addresses, phones...
+     * @param stationNumber number of the fire station.
+     * @param size the size.
+     * @return the size, to record for each response.
+     */
+    ResultSize stationResultSize(String endpoint, String unit, int stationNumber, int size);
+}
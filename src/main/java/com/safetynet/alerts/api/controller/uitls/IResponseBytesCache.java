@@ -0,0 +1,55 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import org.springframework.http.ResponseEntity;
+
+public interface IResponseBytesCache {
+
+    /**
+     * Computation of the dto of a response, called when the response is not cached.
+     *
+     * @param <T> type of the dto
+     */
+    @FunctionalInterface
+    interface DtoSupplier<T> {
+        /**
+         * @return the dto, null for an empty response body.
+         */
+        T get() throws DataNotFoundException;
+    }
+
+    /**
+     * Size of the dto of a response, kept with the cached response.
+     *
+     * @param <T> type of the dto
+     */
+    @FunctionalInterface
+    interface ResultSizer<T> {
+        /**
+         * @param dto the computed dto, null for an empty response body.
+         * @return its size, recorded for each response served from it.
+         */
+        IEndpointMetrics.ResultSize sizeOf(T dto);
+    }
+
+    /**
+     * Build the writers of the projections of an endpoint, before it serves its first request.
+     *
+     * @param dtoFilters projections of the responses of the endpoint.
+     */
+    void register(DtoFilter... dtoFilters);
+
+    /**
+     * Get the response to a GET request, with an ETag of the data version.
+     *
+     * @param request the request (method, path and parameters).
+     * @param ifNoneMatch "If-None-Match" header of the request, null if absent.
+     * @param dtoFilter projection of the dto, registered beforehand.
+     * @param dtoSupplier computation of the dto.
+     * @param resultSizer size of the dto.
+     * @return 304 if the ETag of the response matches "If-None-Match", else 200 with the serialized dto.
+     * @throws DataNotFoundException thrown by the dto computation.
+     */
+    <T> ResponseEntity<byte[]> get(String request, String ifNoneMatch, DtoFilter dtoFilter,
+                                   DtoSupplier<T> dtoSupplier, ResultSizer<? super T> resultSizer) throws DataNotFoundException;
+}
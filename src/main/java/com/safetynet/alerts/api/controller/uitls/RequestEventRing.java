@@ -0,0 +1,85 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer, written by many threads and read by a single one.
+ *
+ * Each slot holds a sequence number : a slot is free for the writer of position p when its sequence
+ * is p, and readable at position p when its sequence is p + 1. An event offered to a full ring is
+ * refused, the writers never wait.
+ *
+ * @param <E> type of the events
+ */
+class RequestEventRing<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong writePosition = new AtomicLong();
+    /*read by the single reader thread only*/
+    private long readPosition;
+
+    /**
+     * @param capacity minimum number of events, rounded up to a power of two.
+     */
+    RequestEventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an event, from any thread.
+     *
+     * @param event the event.
+     * @return false if the ring is full : the event is dropped.
+     */
+    boolean offer(E event) {
+        while (true) {
+            long position = writePosition.get();
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (writePosition.compareAndSet(position, position + 1)) {
+                    slots.set(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                return false;
+            }
+            //else another writer took the position : retry with the next one
+        }
+    }
+
+    /**
+     * @return true if no event is readable, from the reader thread only.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) (readPosition & mask)) != readPosition + 1;
+    }
+
+    /**
+     * Take the oldest event, from the reader thread only.
+     *
+     * @return the event, null if the ring is empty.
+     */
+    E poll() {
+        if (isEmpty()) {
+            return null;
+        }
+        int index = (int) (readPosition & mask);
+        E event = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, readPosition + mask + 1);
+        readPosition++;
+        return event;
+    }
+}
@@ -0,0 +1,29 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Remove the request kept in the thread context by {@link RequestLogger} once the request is processed,
+ * also when an exception is not handled by the endpoint : the thread serves the next request without it.
+ */
+@Component
+public class RequestLogContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ThreadContext.remove(RequestLogger.REQUEST_KEY);
+        }
+    }
+}
@@ -1,28 +1,151 @@
 package com.safetynet.alerts.api.controller.uitls;
 
 import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logger of the requests and of their responses.
+ *
+ * The request being processed is kept in the thread context (key "request") of the thread processing it,
+ * removed once its response is logged, or by {@link RequestLogContextFilter} if the request ends without it.
+ * Log events are queued in a ring buffer of "request-logger.buffer-size" events, formatted and written
+ * by a background thread : request threads neither build the messages nor write the log file.
+ * The writer sleeps while the buffer is empty and is woken by the next event.
+ * Events are dropped when the buffer is full, the number of dropped events is logged.
+ */
 @Log4j2
 @Component
 public class RequestLogger implements IRequestLogger {
 
-    private String request;
+    /*thread context key of the request*/
+    static final String REQUEST_KEY = "request";
+
+    @Value( "${request-logger.buffer-size:8192}" )
+    private int bufferSize;
+
+    private RequestEventRing<Event> events;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private volatile boolean running;
+    /*set by the writer before it checks the buffer a last time and sleeps*/
+    private volatile boolean writerWaiting;
+    private Thread writer;
+
+    @PostConstruct
+    void start() {
+        events = new RequestEventRing<>(bufferSize);
+        running = true;
+        writer = new Thread(this::writeEvents, "request-logger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the writer, once the queued events are written.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
 
     @Override
     public void logRequest(String request) {
-        this.request = request;
-        log.info("Request : '" + request + "'");
+        ThreadContext.put(REQUEST_KEY, request);
+        queue(new Event(Event.REQUEST, request, null));
     }
 
     @Override
     public void logResponseSuccess(HttpStatus httpStatus, String response) {
-        log.info("SUCCES ! Response to request : '" + this.request + "' : " + response);
+        queue(new Event(Event.SUCCESS, ThreadContext.get(REQUEST_KEY), response));
+        ThreadContext.remove(REQUEST_KEY);
     }
 
     @Override
     public void logResponseFailure(HttpStatus httpStatus,String response) {
-        log.error("FAILURE ! Response to request : '" + this.request + "' : " + response);
+        queue(new Event(Event.FAILURE, ThreadContext.get(REQUEST_KEY), response));
+        ThreadContext.remove(REQUEST_KEY);
+    }
+
+    private void queue(Event event) {
+        if (!events.offer(event)) {
+            droppedEvents.incrementAndGet();
+        }
+        //the event is visible to the writer before the flag is read : either the writer sees it, or it is woken
+        if (writerWaiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeEvents() {
+        boolean stopping = false;
+        while (true) {
+            Event event = events.poll();
+            if (event != null) {
+                write(event);
+                continue;
+            }
+            long dropped = droppedEvents.getAndSet(0);
+            if (dropped > 0) {
+                log.error("Request log buffer full : " + dropped + " events dropped");
+            }
+            if (stopping) {
+                return;
+            }
+            //one more pass once stopped, for the events queued meanwhile
+            stopping = !running;
+            if (!stopping) {
+                waitEvent();
+            }
+        }
+    }
+
+    private void waitEvent() {
+        writerWaiting = true;
+        //an event queued before the flag has been set is polled, a later one wakes the writer
+        if (events.isEmpty() && running) {
+            LockSupport.park(this);
+        }
+        writerWaiting = false;
+    }
+
+    private static void write(Event event) {
+        switch (event.type) {
+            case Event.REQUEST:
+                log.info("Request : '" + event.request + "'");
+                break;
+            case Event.SUCCESS:
+                log.info("SUCCES ! Response to request : '" + event.request + "' : " + event.response);
+                break;
+            default:
+                log.error("FAILURE ! Response to request : '" + event.request + "' : " + event.response);
+        }
+    }
+
+    /**
+     * Log event, formatted by the writer.
+     */
+    private static final class Event {
+        private static final int REQUEST = 0;
+        private static final int SUCCESS = 1;
+        private static final int FAILURE = 2;
+
+        private final int type;
+        private final String request;
+        private final String response;
+
+        private Event(int type, String request, String response) {
+            this.type = type;
+            this.request = request;
+            this.response = response;
+        }
     }
 }
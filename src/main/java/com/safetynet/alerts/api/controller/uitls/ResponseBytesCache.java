@@ -0,0 +1,170 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.utils.IAgeUtil;
+import com.safetynet.alerts.api.utils.SingleFlight;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of serialized GET responses, by request, bounded by "response-cache.bytes.maximum-entries".
+ *
+ * The ETag of a response is built from the notified data version and the day (ages change with the day).
+ * A cached response is served again as long as its ETag is current : a request whose "If-None-Match"
+ * header matches it is answered 304 without computing nor serializing the response. Without a cached
+ * response, the response is computed first : a resource that does not exist is answered 404, never 304.
+ *
+ * Identical requests arriving while their response is computed share this computation, and its
+ * exception if the computation fails.
+ *
+ * The size of the dto is kept with the cached response and recorded for each response served, 304 included.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ResponseBytesCache implements IResponseBytesCache {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final IAlertsDataSource dataSource;
+    private final IAgeUtil ageUtil;
+    private final ObjectMapper objectMapper;
+
+    @Value( "${response-cache.bytes.maximum-entries:1000}" )
+    private long maximumEntries;
+
+    /*data versions restart at each run : the start time tells ETags of successive runs apart*/
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private Cache<String, Response> cache;
+    /*writers by projection, built when the endpoints register their projections : the properties of a
+    projection are resolved once, by a copy of the mapper with its mixins*/
+    private final Map<DtoFilter, ObjectWriter> writers = new ConcurrentHashMap<>();
+    /*computations in flight, by ETag and request*/
+    private final SingleFlight<String, Response> flights = new SingleFlight<>();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder().maximumSize(maximumEntries).build();
+        register(DtoFilter.NONE);
+    }
+
+    /**
+     * Build the writers of the projections of an endpoint, before it serves its first request.
+     *
+     * @param dtoFilters projections of the responses of the endpoint.
+     */
+    @Override
+    public void register(DtoFilter... dtoFilters) {
+        for (DtoFilter dtoFilter : dtoFilters) {
+            writers.computeIfAbsent(dtoFilter, this::writer);
+        }
+    }
+
+    /**
+     * Get the response to a GET request, with an ETag of the data version.
+     *
+     * @param request the request (method, path and parameters).
+     * @param ifNoneMatch "If-None-Match" header of the request, null if absent.
+     * @param dtoFilter projection of the dto, registered beforehand.
+     * @param dtoSupplier computation of the dto.
+     * @param resultSizer size of the dto.
+     * @return 304 if the ETag of the response matches "If-None-Match", else 200 with the serialized dto.
+     * @throws DataNotFoundException thrown by the dto computation, whatever "If-None-Match".
+     */
+    @Override
+    public <T> ResponseEntity<byte[]> get(String request, String ifNoneMatch, DtoFilter dtoFilter,
+                                          DtoSupplier<T> dtoSupplier, ResultSizer<? super T> resultSizer) throws DataNotFoundException {
+        //ETag read before the computation : a change published meanwhile makes it stale, never wrong. The
+        //version of a change is only used once the caches the dto is computed from have dropped their results
+        String eTag = "\"" + runId + "-" + dataSource.getNotifiedVersion() + "-" + ageUtil.today() + "\"";
+        Response response = cache.getIfPresent(request);
+        if (response == null || !response.eTag.equals(eTag)) {
+            response = flights.get(eTag + " " + request, () -> {
+                T dto = dtoSupplier.get();
+                Response computedResponse = new Response(eTag, serialize(dto, dtoFilter), resultSizer.sizeOf(dto));
+                cache.put(request, computedResponse);
+                return computedResponse;
+            });
+        }
+        response.resultSize.record();
+        if (matches(ifNoneMatch, response.eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(response.eTag).build();
+        }
+        if (response.body.length == 0) {
+            return ResponseEntity.ok().eTag(response.eTag).build();
+        }
+        return ResponseEntity.ok().eTag(response.eTag).contentType(MediaType.APPLICATION_JSON).body(response.body);
+    }
+
+    private ObjectWriter writer(DtoFilter dtoFilter) {
+        if (dtoFilter.getMixIns().isEmpty()) {
+            return objectMapper.writer();
+        }
+        ObjectMapper projectionMapper = objectMapper.copy();
+        dtoFilter.getMixIns().forEach(projectionMapper::addMixIn);
+        return projectionMapper.writer();
+    }
+
+    private byte[] serialize(Object dto, DtoFilter dtoFilter) {
+        if (dto == null) {
+            return EMPTY_BODY;
+        }
+        ObjectWriter writer = writers.get(dtoFilter);
+        if (writer == null) {
+            throw new IllegalStateException("Projection of the response not registered");
+        }
+        try {
+            return writer.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String requestETag : ifNoneMatch.split(",")) {
+            String value = requestETag.trim();
+            //weak comparison, as required for If-None-Match
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Serialized response, with its ETag and the size of its dto.
+     */
+    private static final class Response {
+        private final String eTag;
+        private final byte[] body;
+        private final IEndpointMetrics.ResultSize resultSize;
+
+        private Response(String eTag, byte[] body, IEndpointMetrics.ResultSize resultSize) {
+            this.eTag = eTag;
+            this.body = body;
+            this.resultSize = resultSize;
+        }
+    }
+}
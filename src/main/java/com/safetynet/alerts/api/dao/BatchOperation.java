@@ -0,0 +1,38 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.exception.ServiceException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operation applied to each item of a batch.
+ *
+ * @param <T> type of the items.
+ */
+@FunctionalInterface
+interface BatchOperation<T> {
+
+    void apply(T item) throws ServiceException;
+
+    /**
+     * Apply an operation to each item of a batch. The failure of an item does not prevent
+     * the next items from being applied.
+     *
+     * @param items items of the batch.
+     * @param operation operation to apply to each item.
+     * @return failure of each item, in the order of the items : null if the item has been applied.
+     */
+    static <T> List<ServiceException> applyEach(List<T> items, BatchOperation<T> operation) {
+        List<ServiceException> failures = new ArrayList<>(items.size());
+        for (T item : items) {
+            try {
+                operation.apply(item);
+                failures.add(null);
+            } catch (ServiceException e) {
+                failures.add(e);
+            }
+        }
+        return failures;
+    }
+}
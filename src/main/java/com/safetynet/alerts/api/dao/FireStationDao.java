@@ -1,15 +1,18 @@
 package com.safetynet.alerts.api.dao;
 
+import com.safetynet.alerts.api.datasource.DataSnapshot;
 import com.safetynet.alerts.api.datasource.IAlertsDataSource;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
@@ -25,11 +28,7 @@ public class FireStationDao implements IFireStationDao{
      */
     @Override
     public Optional<FireStation> getFireStation(String address) {
-        List<FireStation> fireStations = dataSource.getData().getFirestations();
-        Optional<FireStation> firesStationResult = fireStations.stream()
-                .filter(f -> f.getAddress().equalsIgnoreCase(address))
-                .findFirst();
-        return firesStationResult;
+        return dataSource.getData().getFireStations(address).stream().findFirst();
     }
 
     /**
@@ -41,11 +40,8 @@ public class FireStationDao implements IFireStationDao{
      */
     @Override
     public  List<String> getAddresses(Integer stationNumber){
-        List<FireStation> fireStations = dataSource.getData().getFirestations();
-        return fireStations.stream()
-                .filter(f -> stationNumber.equals(f.getStation()))
-                .map(f -> f.getAddress())
-                .collect(Collectors.toList());
+        if (stationNumber == null) return new ArrayList<>();
+        return dataSource.getData().getStationAddresses(stationNumber);
     }
 
     /**
@@ -57,14 +53,10 @@ public class FireStationDao implements IFireStationDao{
      */
     @Override
     public void deleteFireStation(String address) throws DataNotFoundException {
-        FireStation fireStation;
-        Optional<FireStation> firesStationResult = getFireStation(address);
-        if(firesStationResult.isPresent()){
-            fireStation = firesStationResult.get();
-            dataSource.getData().getFirestations().remove(fireStation);
-        } else {
-            throw new DataNotFoundException("Fire station at " + address);
-        }
+        dataSource.update(data -> {
+            deleteFireStation(data, address);
+            return null;
+        });
     }
     /**
      * Update a fire station into a datasource.
@@ -75,15 +67,7 @@ public class FireStationDao implements IFireStationDao{
      */
     @Override
     public FireStation updateFireStation(FireStation fireStationToUpdate) throws DataNotFoundException {
-        FireStation fireStation;
-        Optional<FireStation> firesStationResult = getFireStation(fireStationToUpdate.getAddress());
-        if (firesStationResult.isPresent()) {
-            fireStation = firesStationResult.get();
-            fireStation.setStation(fireStationToUpdate.getStation());
-            return fireStation;
-        } else {
-            throw new DataNotFoundException("Fire station at " + fireStationToUpdate.getAddress());
-        }
+        return dataSource.update(data -> updateFireStation(data, fireStationToUpdate));
     }
 
     /**
@@ -94,15 +78,7 @@ public class FireStationDao implements IFireStationDao{
      *  @throws DataAlreadyExistsException if fire station to create already exists at the given address.
      */
     public FireStation createFireStation(FireStation fireStationToCreate) throws DataAlreadyExistsException {
-        FireStation fireStation;
-        Optional<FireStation> firesStationResult = getFireStation(fireStationToCreate.getAddress());
-        if (firesStationResult.isEmpty()) {
-            fireStation = new FireStation(fireStationToCreate);
-            dataSource.getData().getFirestations().add(fireStation);
-            return fireStation;
-        } else {
-            throw new DataAlreadyExistsException("Fire station at " + fireStationToCreate.getAddress());
-        }
+        return dataSource.update(data -> createFireStation(data, fireStationToCreate));
     }
 
 
@@ -123,4 +99,87 @@ public class FireStationDao implements IFireStationDao{
         }
     }
 
+    /**
+     * Delete several fire station mappings from a datasource, as a single data modification.
+     *
+     * @param fireStationsToDelete fire station mappings to delete.
+     * @return failure of each item, in the order of the items : null if the item has been deleted,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    @Override
+    public List<ServiceException> deleteFireStations(List<FireStation> fireStationsToDelete) {
+        return dataSource.update(data -> BatchOperation.applyEach(fireStationsToDelete,
+                fireStation -> deleteFireStation(data, fireStation.getAddress())));
+    }
+
+    /**
+     * Update several existing fire station mappings into a datasource, as a single data modification.
+     *
+     * @param fireStationsToUpdate fire station mappings to update.
+     * @return failure of each item, in the order of the items : null if the item has been updated,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    @Override
+    public List<ServiceException> updateFireStations(List<FireStation> fireStationsToUpdate) {
+        return dataSource.update(data -> BatchOperation.applyEach(fireStationsToUpdate, fireStation -> updateFireStation(data, fireStation)));
+    }
+
+    /**
+     * Create several fire station mappings into a datasource, as a single data modification.
+     *
+     * @param fireStationsToCreate fire station mappings to create.
+     * @return failure of each item, in the order of the items : null if the item has been created,
+     * DataAlreadyExistsException if it already exists in the datasource.
+     */
+    @Override
+    public List<ServiceException> createFireStations(List<FireStation> fireStationsToCreate) {
+        return dataSource.update(data -> BatchOperation.applyEach(fireStationsToCreate, fireStation -> createFireStation(data, fireStation)));
+    }
+
+    private static void deleteFireStation(DataSnapshot.Editor data, String address) throws DataNotFoundException {
+        Optional<FireStation> firesStationResult = data.getFireStations(address).stream().findFirst();
+        if(firesStationResult.isPresent()){
+            data.removeFireStation(firesStationResult.get());
+        } else {
+            throw new DataNotFoundException("Fire station at " + address);
+        }
+    }
+
+    private static FireStation updateFireStation(DataSnapshot.Editor data, FireStation fireStationToUpdate) throws DataNotFoundException {
+        FireStation fireStation;
+        Optional<FireStation> firesStationResult = data.getFireStations(fireStationToUpdate.getAddress()).stream().findFirst();
+        if (firesStationResult.isPresent()) {
+            //snapshot entities are immutable : replace the mapping by an updated copy
+            fireStation = updatedFireStation(firesStationResult.get(), fireStationToUpdate);
+            data.replaceFireStation(firesStationResult.get(), fireStation);
+            return fireStation;
+        } else {
+            throw new DataNotFoundException("Fire station at " + fireStationToUpdate.getAddress());
+        }
+    }
+
+    /**
+     * Copy a fire station mapping with the updatable fields of another one, the address being the key of the mapping.
+     * Shared with the bulk import : both update the same fields.
+     *
+     * @param fireStation the mapping to update.
+     * @param fireStationToUpdate the new values.
+     * @return the updated copy.
+     */
+    static FireStation updatedFireStation(FireStation fireStation, FireStation fireStationToUpdate) {
+        FireStation updatedFireStation = new FireStation(fireStation);
+        updatedFireStation.setStation(fireStationToUpdate.getStation());
+        return updatedFireStation;
+    }
+
+    private static FireStation createFireStation(DataSnapshot.Editor data, FireStation fireStationToCreate) throws DataAlreadyExistsException {
+        FireStation fireStation;
+        if (data.getFireStations(fireStationToCreate.getAddress()).isEmpty()) {
+            fireStation = new FireStation(fireStationToCreate);
+            data.addFireStation(fireStation);
+            return fireStation;
+        } else {
+            throw new DataAlreadyExistsException("Fire station at " + fireStationToCreate.getAddress());
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.datasource.DataSnapshot;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.Household;
+import com.safetynet.alerts.api.model.Person;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Households read from the address indexes of the datasource : the residents of an address
+ * and its fire station are got without scanning persons nor fire station mappings.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class HouseholdDao implements IHouseholdDao {
+
+    private final IAlertsDataSource dataSource;
+
+    /**
+     * Get the household living at an address from a datasource.
+     *
+     * @param address the address.
+     * @return the household, without resident if nobody lives at the address.
+     */
+    @Override
+    public Household getHousehold(String address) {
+        return getHousehold(dataSource.getData(), address);
+    }
+
+    /**
+     * Get the households living at several addresses from a datasource. All households are
+     * read from the same data snapshot.
+     *
+     * @param addresses the addresses.
+     * @return the households, in the order of the addresses.
+     */
+    @Override
+    public List<Household> getHouseholds(Collection<String> addresses) {
+        DataSnapshot data = dataSource.getData();
+        List<Household> households = new ArrayList<>(addresses.size());
+        for (String address : addresses) {
+            households.add(getHousehold(data, address));
+        }
+        return households;
+    }
+
+    private static Household getHousehold(DataSnapshot data, String address) {
+        List<Person> residents = data.getPersonsByAddress(address);
+        List<FireStation> fireStations = data.getFireStations(address);
+        Integer stationNumber = fireStations.isEmpty() ? null : fireStations.get(0).getStation();
+        //address as written in data, whatever the case of the query
+        if (!fireStations.isEmpty()) {
+            address = fireStations.get(0).getAddress();
+        } else if (!residents.isEmpty()) {
+            address = residents.get(0).getAddress();
+        }
+        return new Household(address, stationNumber, residents);
+    }
+}
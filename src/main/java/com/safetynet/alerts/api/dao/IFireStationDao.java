@@ -3,6 +3,7 @@ package com.safetynet.alerts.api.dao;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 
 import java.util.List;
 import java.util.Optional;
@@ -56,4 +57,28 @@ public interface IFireStationDao {
      * @throws DataNotFoundException if no fire station at given address exists in datasource
      */
     int getFireStationNumber(String address) throws DataNotFoundException;
+    /**
+     * Delete several fire station mappings from a datasource, as a single data modification.
+     *
+     * @param fireStationsToDelete fire station mappings to delete.
+     * @return failure of each item, in the order of the items : null if the item has been deleted,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    List<ServiceException> deleteFireStations(List<FireStation> fireStationsToDelete);
+    /**
+     * Update several existing fire station mappings into a datasource, as a single data modification.
+     *
+     * @param fireStationsToUpdate fire station mappings to update.
+     * @return failure of each item, in the order of the items : null if the item has been updated,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    List<ServiceException> updateFireStations(List<FireStation> fireStationsToUpdate);
+    /**
+     * Create several fire station mappings into a datasource, as a single data modification.
+     *
+     * @param fireStationsToCreate fire station mappings to create.
+     * @return failure of each item, in the order of the items : null if the item has been created,
+     * DataAlreadyExistsException if it already exists in the datasource.
+     */
+    List<ServiceException> createFireStations(List<FireStation> fireStationsToCreate);
 }
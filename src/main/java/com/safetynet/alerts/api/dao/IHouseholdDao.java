@@ -0,0 +1,24 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.model.Household;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IHouseholdDao {
+    /**
+     * Get the household living at an address from a datasource.
+     *
+     * @param address the address.
+     * @return the household, without resident if nobody lives at the address.
+     */
+    Household getHousehold(String address);
+
+    /**
+     * Get the households living at several addresses from a datasource.
+     *
+     * @param addresses the addresses.
+     * @return the households, in the order of the addresses.
+     */
+    List<Household> getHouseholds(Collection<String> addresses);
+}
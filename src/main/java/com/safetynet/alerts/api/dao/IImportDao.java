@@ -0,0 +1,25 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.model.dto.ImportRecordDto;
+
+import java.util.List;
+
+public interface IImportDao {
+    /**
+     * Outcome of the import of one record.
+     */
+    enum ImportResult {
+        CREATED,
+        UPDATED,
+        CONFLICT
+    }
+    /**
+     * Add or update a batch of persons, fire station mappings and medical records into a datasource,
+     * as a single data modification.
+     *
+     * @param records records to import, each holding a single entity.
+     * @param update true to update the entities that already exist, false to leave them unchanged.
+     * @return outcome of the import of each record, in the order of the records.
+     */
+    List<ImportResult> importRecords(List<ImportRecordDto> records, boolean update);
+}
@@ -2,9 +2,14 @@ package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface IMedicalRecordDao {
@@ -16,6 +21,13 @@ public interface IMedicalRecordDao {
      * @return the medical record if found.
      */
     public Optional<MedicalRecord> getMedicalRecord(final String firstName, final String lastName);
+    /**
+     * Get the medical records of several persons in one pass.
+     *
+     * @param persons persons whose medical record is requested.
+     * @return medical records by person. Persons without medical record are not in the map.
+     */
+    Map<Person, MedicalRecord> getMedicalRecords(Collection<Person> persons);
     /**
      * Delete a person's medical record from a datasource.
      *
@@ -52,4 +64,28 @@ public interface IMedicalRecordDao {
      * @throws DataNotFoundException if medical record of the person does not exist in the datasource,
      */
     public Date getPersonBirthdate(String firstName, String lastName) throws DataNotFoundException;
+    /**
+     * Delete several medical records from a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToDelete medical records to delete.
+     * @return failure of each item, in the order of the items : null if the item has been deleted,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    List<ServiceException> deleteMedicalRecords(List<MedicalRecord> medicalRecordsToDelete);
+    /**
+     * Update several existing medical records into a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToUpdate medical records to update.
+     * @return failure of each item, in the order of the items : null if the item has been updated,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    List<ServiceException> updateMedicalRecords(List<MedicalRecord> medicalRecordsToUpdate);
+    /**
+     * Create several medical records into a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToCreate medical records to create.
+     * @return failure of each item, in the order of the items : null if the item has been created,
+     * DataAlreadyExistsException if it already exists in the datasource.
+     */
+    List<ServiceException> createMedicalRecords(List<MedicalRecord> medicalRecordsToCreate);
 }
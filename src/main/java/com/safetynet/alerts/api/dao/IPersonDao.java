@@ -2,6 +2,7 @@ package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.Person;
 
 import java.util.List;
@@ -68,4 +69,28 @@ public interface IPersonDao {
      * @return a list of person
      */
     List<Person> getPersons(String firstName, String lastName);
+    /**
+     * Delete several persons from a datasource, as a single data modification.
+     *
+     * @param personsToDelete persons to delete.
+     * @return failure of each item, in the order of the items : null if the item has been deleted,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    List<ServiceException> deletePersons(List<Person> personsToDelete);
+    /**
+     * Update several existing persons into a datasource, as a single data modification.
+     *
+     * @param personsToUpdate persons to update.
+     * @return failure of each item, in the order of the items : null if the item has been updated,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    List<ServiceException> updatePersons(List<Person> personsToUpdate);
+    /**
+     * Create several persons into a datasource, as a single data modification.
+     *
+     * @param personsToCreate persons to create.
+     * @return failure of each item, in the order of the items : null if the item has been created,
+     * DataAlreadyExistsException if it already exists in the datasource.
+     */
+    List<ServiceException> createPersons(List<Person> personsToCreate);
 }
@@ -0,0 +1,84 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.datasource.DataSnapshot;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.ImportRecordDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImportDao implements IImportDao {
+
+    private final IAlertsDataSource dataSource;
+
+    /**
+     * Add or update a batch of persons, fire station mappings and medical records into a datasource,
+     * as a single data modification.
+     *
+     * @param records records to import, each holding a single entity.
+     * @param update true to update the entities that already exist, false to leave them unchanged.
+     * @return outcome of the import of each record, in the order of the records.
+     */
+    @Override
+    public List<ImportResult> importRecords(List<ImportRecordDto> records, boolean update) {
+        //the whole batch is applied under a single write lock and published as a single snapshot
+        return dataSource.update(data -> {
+            List<ImportResult> results = new ArrayList<>(records.size());
+            for (ImportRecordDto record : records) {
+                if (record.getPerson() != null) {
+                    results.add(importPerson(data, record.getPerson(), update));
+                } else if (record.getFirestation() != null) {
+                    results.add(importFireStation(data, record.getFirestation(), update));
+                } else {
+                    results.add(importMedicalRecord(data, record.getMedicalrecord(), update));
+                }
+            }
+            return results;
+        });
+    }
+
+    private ImportResult importPerson(DataSnapshot.Editor data, Person personToImport, boolean update) {
+        Optional<Person> personResult = data.getPersons(personToImport.getFirstName(), personToImport.getLastName()).stream().findFirst();
+        if (personResult.isEmpty()) {
+            data.addPerson(new Person(personToImport));
+            return ImportResult.CREATED;
+        } else if (update) {
+            data.replacePerson(personResult.get(), PersonDao.updatedPerson(personResult.get(), personToImport));
+            return ImportResult.UPDATED;
+        }
+        return ImportResult.CONFLICT;
+    }
+
+    private ImportResult importFireStation(DataSnapshot.Editor data, FireStation fireStationToImport, boolean update) {
+        Optional<FireStation> fireStationResult = data.getFireStations(fireStationToImport.getAddress()).stream().findFirst();
+        if (fireStationResult.isEmpty()) {
+            data.addFireStation(new FireStation(fireStationToImport));
+            return ImportResult.CREATED;
+        } else if (update) {
+            data.replaceFireStation(fireStationResult.get(), FireStationDao.updatedFireStation(fireStationResult.get(), fireStationToImport));
+            return ImportResult.UPDATED;
+        }
+        return ImportResult.CONFLICT;
+    }
+
+    private ImportResult importMedicalRecord(DataSnapshot.Editor data, MedicalRecord medicalRecordToImport, boolean update) {
+        Optional<MedicalRecord> medicalRecordResult = data.getMedicalRecords(medicalRecordToImport.getFirstName(), medicalRecordToImport.getLastName()).stream().findFirst();
+        if (medicalRecordResult.isEmpty()) {
+            data.addMedicalRecord(new MedicalRecord(medicalRecordToImport));
+            return ImportResult.CREATED;
+        } else if (update) {
+            data.replaceMedicalRecord(medicalRecordResult.get(), MedicalRecordDao.updatedMedicalRecord(medicalRecordResult.get(), medicalRecordToImport));
+            return ImportResult.UPDATED;
+        }
+        return ImportResult.CONFLICT;
+    }
+}
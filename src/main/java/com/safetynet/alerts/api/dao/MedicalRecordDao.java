@@ -1,15 +1,21 @@
 package com.safetynet.alerts.api.dao;
 
+import com.safetynet.alerts.api.datasource.DataSnapshot;
 import com.safetynet.alerts.api.datasource.IAlertsDataSource;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -28,13 +34,26 @@ public class MedicalRecordDao implements IMedicalRecordDao{
      */
     @Override
     public Optional<MedicalRecord> getMedicalRecord(String firstName, String lastName) {
-        List<MedicalRecord> medicalRecords = dataSource.getData().getMedicalrecords();
-        Optional<MedicalRecord> medicalRecordResult =
-                medicalRecords.stream()
-                        .filter(m -> m.getFirstName().equalsIgnoreCase(firstName) &&
-                                m.getLastName().equalsIgnoreCase(lastName))
-                        .findFirst();
-        return medicalRecordResult;
+        return dataSource.getData().getMedicalRecords(firstName, lastName).stream().findFirst();
+    }
+
+    /**
+     * Get the medical records of several persons in one pass.
+     *
+     * @param persons persons whose medical record is requested.
+     * @return medical records by person. Persons without medical record are not in the map.
+     */
+    @Override
+    public Map<Person, MedicalRecord> getMedicalRecords(Collection<Person> persons) {
+        DataSnapshot data = dataSource.getData();
+        Map<Person, MedicalRecord> medicalRecords = new IdentityHashMap<>(persons.size());
+        for (Person person : persons) {
+            List<MedicalRecord> personMedicalRecords = data.getMedicalRecords(person.getFirstName(), person.getLastName());
+            if (!personMedicalRecords.isEmpty()) {
+                medicalRecords.put(person, personMedicalRecords.get(0));
+            }
+        }
+        return medicalRecords;
     }
     /**
      * Delete a person's medical record from a datasource.
@@ -47,14 +66,10 @@ public class MedicalRecordDao implements IMedicalRecordDao{
      */
     @Override
     public void deleteMedicalRecord(String firstName, String lastName) throws DataNotFoundException {
-        MedicalRecord medicalRecord;
-        Optional<MedicalRecord> medicalRecordResult = getMedicalRecord(firstName, lastName);
-        if(medicalRecordResult.isPresent()){
-            medicalRecord = medicalRecordResult.get();
-            dataSource.getData().getMedicalrecords().remove(medicalRecord);
-        } else {
-            throw new DataNotFoundException("Medical record of " + firstName + " " + lastName);
-        }
+        dataSource.update(data -> {
+            deleteMedicalRecord(data, firstName, lastName);
+            return null;
+        });
     }
     /**
      * Update an existing person's medical record into a datasource.
@@ -65,17 +80,7 @@ public class MedicalRecordDao implements IMedicalRecordDao{
      *           belonging to the given person has been found).
      */
     public MedicalRecord updateMedicalRecord(MedicalRecord medicalRecordToUpdate) throws DataNotFoundException {
-        MedicalRecord medicalRecord;
-        Optional<MedicalRecord> medicalRecordResult = getMedicalRecord(medicalRecordToUpdate.getFirstName(), medicalRecordToUpdate.getLastName());
-        if(medicalRecordResult.isPresent()){
-            medicalRecord = medicalRecordResult.get();
-            medicalRecord.setBirthdate(medicalRecordToUpdate.getBirthdate());
-            medicalRecord.setMedications(medicalRecordToUpdate.getMedications());
-            medicalRecord.setAllergies(medicalRecordToUpdate.getAllergies());
-        } else {
-            throw new DataNotFoundException("Medical record of " + medicalRecordToUpdate.getFirstName() + " " + medicalRecordToUpdate.getLastName());
-        }
-        return medicalRecord;
+        return dataSource.update(data -> updateMedicalRecord(data, medicalRecordToUpdate));
     }
     /**
      * Create a person's medical record into a datasource.
@@ -85,15 +90,7 @@ public class MedicalRecordDao implements IMedicalRecordDao{
      * @throws DataAlreadyExistsException if medical record already exists in datasource.
      */
     public MedicalRecord createMedicalRecord(MedicalRecord medicalRecordToCreate) throws DataAlreadyExistsException {
-        MedicalRecord medicalRecord;
-        Optional<MedicalRecord> medicalRecordResult = getMedicalRecord(medicalRecordToCreate.getFirstName(), medicalRecordToCreate.getLastName());
-        if (medicalRecordResult.isEmpty()) {
-            medicalRecord = new MedicalRecord(medicalRecordToCreate);
-            dataSource.getData().getMedicalrecords().add(medicalRecord);
-        } else {
-            throw new DataAlreadyExistsException("Medical record of " + medicalRecordToCreate.getFirstName() + " " + medicalRecordToCreate.getLastName());
-        }
-        return medicalRecord;
+        return dataSource.update(data -> createMedicalRecord(data, medicalRecordToCreate));
     }
 
     /**
@@ -115,4 +112,89 @@ public class MedicalRecordDao implements IMedicalRecordDao{
         }
     }
 
+    /**
+     * Delete several medical records from a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToDelete medical records to delete.
+     * @return failure of each item, in the order of the items : null if the item has been deleted,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    @Override
+    public List<ServiceException> deleteMedicalRecords(List<MedicalRecord> medicalRecordsToDelete) {
+        return dataSource.update(data -> BatchOperation.applyEach(medicalRecordsToDelete,
+                medicalRecord -> deleteMedicalRecord(data, medicalRecord.getFirstName(), medicalRecord.getLastName())));
+    }
+
+    /**
+     * Update several existing medical records into a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToUpdate medical records to update.
+     * @return failure of each item, in the order of the items : null if the item has been updated,
+     * DataNotFoundException if it does not exist in the datasource.
+     */
+    @Override
+    public List<ServiceException> updateMedicalRecords(List<MedicalRecord> medicalRecordsToUpdate) {
+        return dataSource.update(data -> BatchOperation.applyEach(medicalRecordsToUpdate, medicalRecord -> updateMedicalRecord(data, medicalRecord)));
+    }
+
+    /**
+     * Create several medical records into a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToCreate medical records to create.
+     * @return failure of each item, in the order of the items : null if the item has been created,
+     * DataAlreadyExistsException if it already exists in the datasource.
+     */
+    @Override
+    public List<ServiceException> createMedicalRecords(List<MedicalRecord> medicalRecordsToCreate) {
+        return dataSource.update(data -> BatchOperation.applyEach(medicalRecordsToCreate, medicalRecord -> createMedicalRecord(data, medicalRecord)));
+    }
+
+    private static void deleteMedicalRecord(DataSnapshot.Editor data, String firstName, String lastName) throws DataNotFoundException {
+        Optional<MedicalRecord> medicalRecordResult = data.getMedicalRecords(firstName, lastName).stream().findFirst();
+        if(medicalRecordResult.isPresent()){
+            data.removeMedicalRecord(medicalRecordResult.get());
+        } else {
+            throw new DataNotFoundException("Medical record of " + firstName + " " + lastName);
+        }
+    }
+
+    private static MedicalRecord updateMedicalRecord(DataSnapshot.Editor data, MedicalRecord medicalRecordToUpdate) throws DataNotFoundException {
+        MedicalRecord medicalRecord;
+        Optional<MedicalRecord> medicalRecordResult = data.getMedicalRecords(medicalRecordToUpdate.getFirstName(), medicalRecordToUpdate.getLastName()).stream().findFirst();
+        if(medicalRecordResult.isPresent()){
+            //snapshot entities are immutable : replace the medical record by an updated copy
+            medicalRecord = updatedMedicalRecord(medicalRecordResult.get(), medicalRecordToUpdate);
+            data.replaceMedicalRecord(medicalRecordResult.get(), medicalRecord);
+        } else {
+            throw new DataNotFoundException("Medical record of " + medicalRecordToUpdate.getFirstName() + " " + medicalRecordToUpdate.getLastName());
+        }
+        return medicalRecord;
+    }
+
+    /**
+     * Copy a medical record with the updatable fields of another one, the name being the key of the record.
+     * Shared with the bulk import : both update the same fields.
+     *
+     * @param medicalRecord the medical record to update.
+     * @param medicalRecordToUpdate the new values.
+     * @return the updated copy.
+     */
+    static MedicalRecord updatedMedicalRecord(MedicalRecord medicalRecord, MedicalRecord medicalRecordToUpdate) {
+        MedicalRecord updatedMedicalRecord = new MedicalRecord(medicalRecord);
+        updatedMedicalRecord.setBirthdate(medicalRecordToUpdate.getBirthdate());
+        updatedMedicalRecord.setMedications(medicalRecordToUpdate.getMedications());
+        updatedMedicalRecord.setAllergies(medicalRecordToUpdate.getAllergies());
+        return updatedMedicalRecord;
+    }
+
+    private static MedicalRecord createMedicalRecord(DataSnapshot.Editor data, MedicalRecord medicalRecordToCreate) throws DataAlreadyExistsException {
+        MedicalRecord medicalRecord;
+        if (data.getMedicalRecords(medicalRecordToCreate.getFirstName(), medicalRecordToCreate.getLastName()).isEmpty()) {
+            medicalRecord = new MedicalRecord(medicalRecordToCreate);
+            data.addMedicalRecord(medicalRecord);
+        } else {
+            throw new DataAlreadyExistsException("Medical record of " + medicalRecordToCreate.getFirstName() + " " + medicalRecordToCreate.getLastName());
+        }
+        return medicalRecord;
+    }
 }
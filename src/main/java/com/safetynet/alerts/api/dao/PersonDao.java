@@ -1,16 +1,18 @@
 package com.safetynet.alerts.api.dao;
 
+import com.safetynet.alerts.api.datasource.DataSnapshot;
 import com.safetynet.alerts.api.datasource.IAlertsDataSource;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.Person;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
@@ -27,12 +29,7 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public Optional<Person> getPerson(final String firstName, final String lastName){
-        List<Person> persons = dataSource.getData().getPersons();
-        Optional<Person> personResult = persons.stream()
-                .filter(p -> p.getFirstName().equalsIgnoreCase(firstName) &&
-                        p.getLastName().equalsIgnoreCase(lastName))
-                .findFirst();
-        return personResult;
+        return dataSource.getData().getPersons(firstName, lastName).stream().findFirst();
     }
     /**
      * Delete a person from a datasource.
@@ -45,14 +42,10 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public void deletePerson(final String firstName, final String lastName) throws DataNotFoundException {
-        Person person;
-        Optional<Person> personResult = getPerson(firstName, lastName);
-        if(personResult.isPresent()){
-            person = personResult.get();
-            dataSource.getData().getPersons().remove(person);
-        } else {
-            throw new DataNotFoundException("Person " + firstName + " " + lastName);
-        }
+        dataSource.update(data -> {
+            deletePerson(data, firstName, lastName);
+            return null;
+        });
     }
     /**
      * Update an existing person into a datasource.
@@ -65,19 +58,7 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public Person updatePerson(Person personToUpdate) throws DataNotFoundException {
-        Person person;
-        Optional<Person> personResult = getPerson(personToUpdate.getFirstName(), personToUpdate.getLastName());
-        if(personResult.isPresent()){
-            person = personResult.get();
-            person.setAddress(personToUpdate.getAddress());
-            person.setCity(personToUpdate.getCity());
-            person.setZip(personToUpdate.getZip());
-            person.setEmail(personToUpdate.getEmail());
-            person.setPhone(personToUpdate.getPhone());
-        } else {
-            throw new DataNotFoundException("Person " + personToUpdate.getFirstName() + " " + personToUpdate.getLastName());
-        }
-        return person;
+        return dataSource.update(data -> updatePerson(data, personToUpdate));
     }
 
     /**
@@ -91,15 +72,7 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public Person createPerson(Person personToCreate) throws DataAlreadyExistsException {
-        Person person;
-        Optional<Person> personResult = getPerson(personToCreate.getFirstName(), personToCreate.getLastName());
-        if(personResult.isEmpty()){
-            person = new Person(personToCreate);
-            dataSource.getData().getPersons().add(person);
-        } else {
-            throw new DataAlreadyExistsException("Person " + personToCreate.getFirstName() + " " + personToCreate.getLastName());
-        }
-        return person;
+        return dataSource.update(data -> createPerson(data, personToCreate));
     }
 
     /**
@@ -110,10 +83,7 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public List<Person> getPersonsByAddress(String address){
-        List<Person> persons = dataSource.getData().getPersons();
-        return persons.stream()
-                .filter(p -> p.getAddress().equalsIgnoreCase(address))
-                .collect(Collectors.toList());
+        return new ArrayList<>(dataSource.getData().getPersonsByAddress(address));
     }
     /**
      * Get a list of persons that live in a given city.
@@ -123,10 +93,7 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public List<Person> getPersonsByCity(String city){
-        List<Person> persons = dataSource.getData().getPersons();
-        return persons.stream()
-                .filter(p -> p.getCity().equalsIgnoreCase(city))
-                .collect(Collectors.toList());
+        return new ArrayList<>(dataSource.getData().getPersonsByCity(city));
     }
 
     /**
@@ -138,10 +105,94 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public List<Person> getPersons(String firstName, String lastName) {
-        List<Person> persons = dataSource.getData().getPersons();
-        return  persons
-                .stream()
-                .filter(p -> p.getFirstName().equalsIgnoreCase(firstName) && p.getLastName().equalsIgnoreCase(lastName))
-                .collect(Collectors.toList());
+        return new ArrayList<>(dataSource.getData().getPersons(firstName, lastName));
+    }
+
+    /**
+     * Delete several persons from a datasource, as a single data modification.
+     *
+     * @param personsToDelete persons to delete, identified by their firstName and lastName.
+     * @return failure of each person, in the order of the persons : null if the person has been deleted,
+     * DataNotFoundException if the person does not exist in the datasource.
+     */
+    @Override
+    public List<ServiceException> deletePersons(List<Person> personsToDelete) {
+        return dataSource.update(data -> BatchOperation.applyEach(personsToDelete,
+                person -> deletePerson(data, person.getFirstName(), person.getLastName())));
+    }
+
+    /**
+     * Update several existing persons into a datasource, as a single data modification.
+     *
+     * @param personsToUpdate persons to update.
+     * @return failure of each person, in the order of the persons : null if the person has been updated,
+     * DataNotFoundException if the person does not exist in the datasource.
+     */
+    @Override
+    public List<ServiceException> updatePersons(List<Person> personsToUpdate) {
+        return dataSource.update(data -> BatchOperation.applyEach(personsToUpdate, person -> updatePerson(data, person)));
+    }
+
+    /**
+     * Add several new persons into a datasource, as a single data modification.
+     *
+     * @param personsToCreate persons to add.
+     * @return failure of each person, in the order of the persons : null if the person has been added,
+     * DataAlreadyExistsException if the person already exists in the datasource.
+     */
+    @Override
+    public List<ServiceException> createPersons(List<Person> personsToCreate) {
+        return dataSource.update(data -> BatchOperation.applyEach(personsToCreate, person -> createPerson(data, person)));
+    }
+
+    private static void deletePerson(DataSnapshot.Editor data, String firstName, String lastName) throws DataNotFoundException {
+        Optional<Person> personResult = data.getPersons(firstName, lastName).stream().findFirst();
+        if(personResult.isPresent()){
+            data.removePerson(personResult.get());
+        } else {
+            throw new DataNotFoundException("Person " + firstName + " " + lastName);
+        }
+    }
+
+    private static Person updatePerson(DataSnapshot.Editor data, Person personToUpdate) throws DataNotFoundException {
+        Person person;
+        Optional<Person> personResult = data.getPersons(personToUpdate.getFirstName(), personToUpdate.getLastName()).stream().findFirst();
+        if(personResult.isPresent()){
+            //snapshot entities are immutable : replace the person by an updated copy
+            person = updatedPerson(personResult.get(), personToUpdate);
+            data.replacePerson(personResult.get(), person);
+        } else {
+            throw new DataNotFoundException("Person " + personToUpdate.getFirstName() + " " + personToUpdate.getLastName());
+        }
+        return person;
+    }
+
+    /**
+     * Copy a person with the updatable fields of another one, the name being the key of the person.
+     * Shared with the bulk import : both update the same fields.
+     *
+     * @param person the person to update.
+     * @param personToUpdate the new values.
+     * @return the updated copy.
+     */
+    static Person updatedPerson(Person person, Person personToUpdate) {
+        Person updatedPerson = new Person(person);
+        updatedPerson.setAddress(personToUpdate.getAddress());
+        updatedPerson.setCity(personToUpdate.getCity());
+        updatedPerson.setZip(personToUpdate.getZip());
+        updatedPerson.setEmail(personToUpdate.getEmail());
+        updatedPerson.setPhone(personToUpdate.getPhone());
+        return updatedPerson;
+    }
+
+    private static Person createPerson(DataSnapshot.Editor data, Person personToCreate) throws DataAlreadyExistsException {
+        Person person;
+        if(data.getPersons(personToCreate.getFirstName(), personToCreate.getLastName()).isEmpty()){
+            person = new Person(personToCreate);
+            data.addPerson(person);
+        } else {
+            throw new DataAlreadyExistsException("Person " + personToCreate.getFirstName() + " " + personToCreate.getLastName());
+        }
+        return person;
     }
 }
@@ -1,43 +1,544 @@
 package com.safetynet.alerts.api.datasource;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
  * AlertsDataSource class enables to
  *  - load SafetyNet Alerts data from Json file by calling load method.
  *  - give access to that loaded data
+ *
+ * The current data snapshot is held by a volatile field : reads never lock. Updates
+ * are serialized by a lock and only copy the parts of the snapshot they modify.
+ * Updates are made durable by a write-ahead log, see {@link #openWriteAheadLog} : the snapshot
+ * of an update is then published once its modifications are written to the log.
  */
+@Log4j2
 @Component
+@ConditionalOnProperty(name = "datasource.type", havingValue = "heap", matchIfMissing = true)
 public class AlertsDataSource implements IAlertsDataSource {
 
-    private Data data;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private volatile DataSnapshot data = DataSnapshot.empty();
+    /*last snapshot built by an update, guarded by writeLock : ahead of data while the modifications
+    of updates are written to the write-ahead log*/
+    private DataSnapshot head = data;
+    /*snapshots built by updates and not published yet, in sequence order, guarded by writeLock*/
+    private final Deque<Publication> unpublished = new ArrayDeque<>();
+    /*version of the last snapshot whose change listeners have all been notified*/
+    private volatile long notifiedVersion;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /*serializes snapshot writes of the compaction with data replacements*/
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private JsonDataReader jsonDataReader = new JsonDataReader();
+    private final BinarySnapshotFormat binarySnapshotFormat = new BinarySnapshotFormat();
+    /*modification time of the last loaded json file, 0 if data have not been loaded from a file*/
+    private long dataSourceLastModified;
+    private volatile WriteAheadLog writeAheadLog;
+    private final List<DataChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Select how Json data files are read, by the "datasource.parallel-load" application property.
+     *
+     * @param parallelLoad true : sections of a file are parsed and indexed in parallel, after a scan of the
+     *                     whole file. Only worth it on several cores. false : files are read sequentially.
+     */
+    @Value( "${datasource.parallel-load:false}" )
+    public void setParallelLoad(boolean parallelLoad) {
+        jsonDataReader = parallelLoad ? new JsonDataReader(ForkJoinPool.commonPool()) : new JsonDataReader();
+    }
 
     /**
      * Load SafetyNet Alerts data from Json file given in parameter.
      * Shall be called first before accessing to data through getData method
      *
-     * @param dataSourceFilePath path to the json data file.
+     * A file is read sequentially, or section by section in parallel (see {@link #setParallelLoad(boolean)}).
+     * A classpath resource packaged in a jar is streamed and parsed sequentially.
+     *
+     * @param dataSourceFilePath path to the json data file : a filesystem path, or a classpath
+     *                           resource path if no such file exists.
      */
     public void load(String dataSourceFilePath) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        File resource = new ClassPathResource(dataSourceFilePath).getFile();
-        data = mapper.readValue(resource, Data.class);
+        if (dataSourceFilePath == null) {
+            throw new IllegalArgumentException("Data source file path must not be null");
+        }
+        Path path = Paths.get(dataSourceFilePath);
+        loadedFrom(dataSourceFilePath);
+        if (Files.isRegularFile(path)) {
+            setData(jsonDataReader.read(path));
+            return;
+        }
+        ClassPathResource resource = new ClassPathResource(dataSourceFilePath);
+        if (resource.isFile()) {
+            setData(jsonDataReader.read(resource.getFile().toPath()));
+        } else {
+            try (InputStream inputStream = resource.getInputStream()) {
+                loadJson(inputStream);
+            }
+        }
+    }
+
+    /**
+     * Reload SafetyNet Alerts data from a Json file incrementally : the file is parsed without
+     * building indexes, then only the differences with the current data (see {@link DataDiff})
+     * are applied, as one update. Data then match the file : as on {@link #load(String)}, the
+     * write-ahead log restarts from them, its records applied to the previous file are discarded.
+     * A classpath resource that is not a file is loaded by {@link #load(String)}.
+     *
+     * @param dataSourceFilePath path to the json data file, see {@link #load(String)}.
+     */
+    public void reload(String dataSourceFilePath) throws IOException {
+        if (dataSourceFilePath == null) {
+            throw new IllegalArgumentException("Data source file path must not be null");
+        }
+        Path path = Paths.get(dataSourceFilePath);
+        if (!Files.isRegularFile(path)) {
+            ClassPathResource resource = new ClassPathResource(dataSourceFilePath);
+            if (!resource.isFile()) {
+                load(dataSourceFilePath);
+                return;
+            }
+            path = resource.getFile().toPath();
+        }
+        long start = System.nanoTime();
+        DataDiff diff = jsonDataReader.readDiff(path);
+        long read = System.nanoTime();
+        //no update between the diff and the log reset : they would be discarded
+        writeLock.lock();
+        try {
+            update(diff::apply);
+            loadedFrom(dataSourceFilePath);
+            if (writeAheadLog != null) {
+                writeAheadLog.reset(dataSourceLastModified, head.getLogSequence());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Data reloaded from " + path + " in " + (System.nanoTime() - start) / 1_000_000 + " ms (diff applied in "
+                + (System.nanoTime() - read) / 1_000_000 + " ms) : " + diff.getInserted() + " inserted, "
+                + diff.getUpdated() + " updated, " + diff.getDeleted() + " deleted");
+    }
+
+    /**
+     * Load SafetyNet Alerts data from the binary snapshot file if it is newer than the
+     * Json file, from the Json file otherwise. In the latter case, the snapshot file is
+     * written afterwards for the next load. If the snapshot cannot be read, data are
+     * loaded from the Json file.
+     *
+     * @param dataSourceFilePath path to the json data file, see {@link #load(String)}.
+     * @param snapshotFilePath filesystem path to the binary snapshot file.
+     */
+    public void load(String dataSourceFilePath, String snapshotFilePath) throws IOException {
+        Path snapshotPath = Paths.get(snapshotFilePath);
+        if (isNewerThan(snapshotPath, dataSourceFilePath)) {
+            try {
+                loadSnapshot(snapshotPath);
+                loadedFrom(dataSourceFilePath);
+                return;
+            } catch (IOException e) {
+                log.error("Failed to load snapshot " + snapshotPath + ", loading " + dataSourceFilePath + " : " + e.getMessage());
+            }
+        }
+        load(dataSourceFilePath);
+        try {
+            writeSnapshot(snapshotPath);
+        } catch (IOException e) {
+            log.error("Failed to write snapshot " + snapshotPath + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param snapshotPath path to a snapshot file.
+     * @param dataSourceFilePath path to the json data file, see {@link #load(String)}.
+     * @return true if the snapshot file exists and is newer than the json data file.
+     */
+    static boolean isNewerThan(Path snapshotPath, String dataSourceFilePath) throws IOException {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        return Files.getLastModifiedTime(snapshotPath).toMillis() > lastModified(dataSourceFilePath);
+    }
+
+    /**
+     * Record the json data file the loaded data come from, directly or through a snapshot.
+     *
+     * @param dataSourceFilePath path to the json data file, see {@link #load(String)}.
+     */
+    void loadedFrom(String dataSourceFilePath) throws IOException {
+        dataSourceLastModified = lastModified(dataSourceFilePath);
+    }
+
+    private static long lastModified(String dataSourceFilePath) throws IOException {
+        Path path = Paths.get(dataSourceFilePath);
+        return Files.isRegularFile(path)
+                ? Files.getLastModifiedTime(path).toMillis()
+                : new ClassPathResource(dataSourceFilePath).lastModified();
+    }
+
+    /**
+     * Replay the modifications logged in a write-ahead log file on top of the loaded data, then
+     * log the modifications of all following updates to it. The log is discarded if it does not apply
+     * to the loaded data : data loaded from another version of the json data file than the log one,
+     * the file then holds the reference data, unless data come from a snapshot holding all records
+     * dropped from the log. The opening fails, leaving the log file and the loaded data unchanged, if the
+     * log has been compacted beyond the loaded data (the snapshot holding the dropped records has not been
+     * loaded), or if a modification cannot be replayed on the loaded data.
+     *
+     * @param logPath path to the write-ahead log file, created if it does not exist.
+     * @param fsyncPolicy when logged modifications are forced to the storage device.
+     * @param fsyncIntervalMillis interval between two fsyncs for the {@link WriteAheadLog.FsyncPolicy#INTERVAL} policy.
+     * @throws IOException if the log cannot be read, or has been compacted beyond the loaded data.
+     * @throws IllegalStateException if a logged modification does not apply to the loaded data.
+     */
+    public void openWriteAheadLog(Path logPath, WriteAheadLog.FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        WriteAheadLog wal = WriteAheadLog.open(logPath, dataSourceLastModified, fsyncPolicy, fsyncIntervalMillis);
+        writeLock.lock();
+        DataSnapshot replayedData = data;
+        try {
+            if (writeAheadLog != null) {
+                throw new IllegalStateException("A write-ahead log is already open");
+            }
+            boolean sameDataFile = wal.getDataFileMillis() == dataSourceLastModified;
+            boolean snapshotFollowsLog = data.getLogSequence() > 0 && data.getLogSequence() >= wal.getBaseSequence();
+            if (!sameDataFile && !snapshotFollowsLog) {
+                log.warn("Write-ahead log " + logPath + " discarded : it applies to another version of the data file");
+                wal.reset(dataSourceLastModified, data.getLogSequence());
+            } else if (wal.getCompactedSequence() > data.getLogSequence()) {
+                //the dropped records are only held by a snapshot that has not been loaded : the log does not follow the data
+                throw new IOException("Write-ahead log " + logPath + " has been compacted up to record " + wal.getCompactedSequence()
+                        + " but the loaded data only hold records up to " + data.getLogSequence()
+                        + " : load the snapshot holding the dropped records, or remove the log to start from the data file");
+            } else {
+                replay(wal, logPath);
+                wal.advanceTo(data.getLogSequence());
+            }
+            writeAheadLog = wal;
+            head = data;
+            if (data != replayedData) {
+                notifyChange(replayedData, data, DataChangeSet.all());
+            }
+        } catch (IOException | RuntimeException e) {
+            data = replayedData;
+            head = data;
+            wal.close();
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void replay(WriteAheadLog wal, Path logPath) throws IOException {
+        long start = System.nanoTime();
+        long loadedSequence = data.getLogSequence();
+        int records = wal.replay((changes, sequence) -> {
+            //records already held by the loaded snapshot are skipped
+            if (sequence <= data.getLogSequence()) return;
+            DataSnapshot current = data;
+            DataSnapshot.Editor editor = current.edit();
+            try {
+                changes.forEach(editor::apply);
+            } catch (IllegalStateException e) {
+                //acknowledged modifications follow : the log is kept for the operator, not truncated
+                throw new IllegalStateException("Write-ahead log " + logPath + " record " + sequence
+                        + " does not apply to the loaded data, the log file is left unchanged : " + e.getMessage(), e);
+            }
+            data = editor.build(current.getVersion() + 1, sequence);
+        });
+        log.info(records + " write-ahead log records read from " + logPath + ", up to sequence " + loadedSequence
+                + " held by the loaded data, in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Write a snapshot of the current data, then drop the write-ahead log records it holds. The
+     * snapshot is written from the current immutable data : updates are not blocked meanwhile,
+     * their records are kept in the log. A crash between both steps is harmless : records held
+     * by the loaded snapshot are skipped on replay.
+     *
+     * @param snapshotPath path to the snapshot file, replaced atomically.
+     * @return size of the snapshot file, in bytes.
+     */
+    public long compact(Path snapshotPath) throws IOException {
+        snapshotLock.lock();
+        try {
+            DataSnapshot snapshot = data;
+            writeSnapshot(snapshot, snapshotPath);
+            WriteAheadLog wal = writeAheadLog;
+            if (wal != null) {
+                wal.discardUpTo(snapshot.getLogSequence());
+            }
+            return Files.size(snapshotPath);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of records in the write-ahead log, 0 if none is open.
+     */
+    public long getWriteAheadLogRecords() {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.getRecordCount();
+    }
+
+    /**
+     * @return size of the write-ahead log file in bytes, 0 if none is open.
+     */
+    public long getWriteAheadLogSize() {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.getSize();
+    }
+
+    /**
+     * Write pending modifications to the write-ahead log, if open, and close it.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (writeAheadLog != null) {
+                writeAheadLog.close();
+                writeAheadLog = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Get SafetyNet Alerts data loaded from Json file.
+     * Load SafetyNet Alerts data from a binary snapshot file.
      *
-     * @return SafetyNet Alerts data or null if data have not been loaded
+     * @param snapshotPath path to the snapshot file.
      */
-    public Data getData() {
+    public void loadSnapshot(Path snapshotPath) throws IOException {
+        long start = System.nanoTime();
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(snapshotPath), BUFFER_SIZE)) {
+            setData(binarySnapshotFormat.read(inputStream));
+        }
+        log.info("Data loaded from snapshot " + snapshotPath + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Write the current SafetyNet Alerts data to a binary snapshot file. The file is
+     * replaced atomically : readers never see a partially written snapshot.
+     *
+     * @param snapshotPath path to the snapshot file.
+     */
+    public void writeSnapshot(Path snapshotPath) throws IOException {
+        writeSnapshot(data, snapshotPath);
+    }
+
+    private void writeSnapshot(DataSnapshot snapshot, Path snapshotPath) throws IOException {
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(directory, snapshotPath.getFileName().toString(), ".tmp");
+        try {
+            writeSnapshotFile(snapshot, tempFile);
+            Files.move(tempFile, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Write data to a snapshot file, in the snapshot format of this data source.
+     *
+     * @param snapshot data to write.
+     * @param file destination file.
+     */
+    void writeSnapshotFile(DataSnapshot snapshot, Path file) throws IOException {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE)) {
+            binarySnapshotFormat.write(snapshot, outputStream);
+        }
+    }
+
+    /**
+     * Load SafetyNet Alerts data from a Json stream. Entities are parsed one by one
+     * into the new data snapshot, which is published once the whole stream is read.
+     *
+     * @param inputStream json data, not closed by this method.
+     */
+    public void loadJson(InputStream inputStream) throws IOException {
+        setData(jsonDataReader.read(inputStream));
+    }
+
+    /**
+     * Get the current snapshot of SafetyNet Alerts data.
+     *
+     * @return SafetyNet Alerts data, empty if data have not been loaded
+     */
+    public DataSnapshot getData() {
         return data;
     }
 
+    /**
+     * @return version of the last snapshot whose change listeners have all been notified : results
+     * computed from data read after this call reflect at least this version, including the results
+     * kept by the listeners.
+     */
+    public long getNotifiedVersion() {
+        return notifiedVersion;
+    }
 
+    /**
+     * Replace all SafetyNet Alerts data. The new snapshot gets the next version.
+     * The write-ahead log, if open, is discarded : new data are the reference data.
+     *
+     * @param data new data.
+     */
+    public void setData(DataSnapshot data) {
+        snapshotLock.lock();
+        writeLock.lock();
+        try {
+            if (writeAheadLog != null) {
+                writeAheadLog.reset(dataSourceLastModified, data.getLogSequence());
+            }
+            //updates being written to the log are replaced too
+            unpublished.clear();
+            DataSnapshot previous = this.data;
+            this.data = data.withVersion(head.getVersion() + 1);
+            head = this.data;
+            notifyChange(previous, this.data, DataChangeSet.all());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Apply a write operation on SafetyNet Alerts data. A new snapshot is published
+     * only if the operation succeeds and has modified data.
+     *
+     * If a write-ahead log is open, the modifications are appended to the log, then written to the
+     * log file once the lock is released : concurrent write operations share the same file write and
+     * fsync. The new snapshot is published once written, in the order of the updates : readers are
+     * never served modifications that are not in the log. Following write operations edit it meanwhile.
+     * Once a write to the log file has failed, the snapshot is not published and write operations are
+     * rejected before modifying data : nothing is published that cannot be logged.
+     *
+     * @param update the write operation.
+     * @return result of the operation.
+     * @throws E exception thrown by the operation.
+     * @throws UncheckedIOException if the modifications cannot be written to the write-ahead log, or if
+     *                              the write-ahead log is unusable : the operation is then not published.
+     */
+    public <R, E extends Exception> R update(DataUpdate<R, E> update) throws E {
+        WriteAheadLog wal;
+        long sequence = 0;
+        R result;
+        writeLock.lock();
+        try {
+            wal = writeAheadLog;
+            if (wal != null) {
+                try {
+                    wal.checkUsable();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Write operation rejected : modifications cannot be logged", e);
+                }
+            }
+            DataSnapshot current = head;
+            DataSnapshot.Editor editor = wal != null || !changeListeners.isEmpty() ? current.editRecordingChanges() : current.edit();
+            result = update.apply(editor);
+            if (editor.isModified()) {
+                DataChangeSet changes = DataChangeSet.of(editor.getChanges());
+                if (wal != null) {
+                    sequence = wal.append(editor.getChanges());
+                    head = editor.build(current.getVersion() + 1, sequence);
+                    unpublished.add(new Publication(head, changes));
+                } else {
+                    head = editor.build(current.getVersion() + 1);
+                    publish(head, changes);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (sequence > 0) {
+            try {
+                wal.sync(sequence);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write modifications to the write-ahead log", e);
+            }
+            writeLock.lock();
+            try {
+                publishUpTo(sequence);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return result;
+    }
+
+    /*shall be called holding writeLock*/
+    private void publish(DataSnapshot snapshot, DataChangeSet changes) {
+        DataSnapshot previous = data;
+        data = snapshot;
+        notifyChange(previous, snapshot, changes);
+    }
+
+    /*publish the snapshots whose modifications are written to the log, up to a given sequence number :
+    the ones of earlier updates are written too. Shall be called holding writeLock*/
+    private void publishUpTo(long sequence) {
+        while (!unpublished.isEmpty() && unpublished.peekFirst().snapshot.getLogSequence() <= sequence) {
+            Publication publication = unpublished.pollFirst();
+            publish(publication.snapshot, publication.changes);
+        }
+    }
+
+    /**
+     * Register a listener notified of each snapshot published from now on. Listeners are
+     * notified while the write lock is held : in the order of the snapshots.
+     *
+     * @param listener the listener.
+     */
+    public void addChangeListener(DataChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    private void notifyChange(DataSnapshot previous, DataSnapshot current, DataChangeSet changes) {
+        for (DataChangeListener listener : changeListeners) {
+            try {
+                listener.onChange(previous, current, changes);
+            } catch (RuntimeException e) {
+                log.error("Data change listener failed on version " + current.getVersion() + " : " + e.getMessage());
+            }
+        }
+        notifiedVersion = current.getVersion();
+    }
+
+    /**
+     * Snapshot of an update, with its modifications, waiting for them to be written to the log.
+     */
+    private static final class Publication {
+        private final DataSnapshot snapshot;
+        private final DataChangeSet changes;
+
+        private Publication(DataSnapshot snapshot, DataChangeSet changes) {
+            this.snapshot = snapshot;
+            this.changes = changes;
+        }
+    }
 }
@@ -0,0 +1,183 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compact binary format of SafetyNet Alerts data, much faster to read than Json.
+ *
+ * Layout (integers are variable length encoded, 7 bits by byte) :
+ *  - magic "SNAS", format version, then sequence number of the last write-ahead log record applied to the data
+ *  - string dictionary ({@link StringDictionary}) : number of strings, then each string as its UTF-8 length followed by its bytes
+ *  - persons : count, then for each person its 7 fields as string references
+ *  - fire stations : count, then for each mapping its address reference and its station number
+ *  - medical records : count, then for each record its first and last name references, its birthdate
+ *    as an epoch day (UTC, the Json date format has a day precision), then its medications and
+ *    allergies as counts followed by string references
+ */
+class BinarySnapshotFormat {
+
+    private static final int MAGIC = 0x534E4153; // "SNAS"
+    private static final int FORMAT_VERSION = 2;
+    private static final long MS_BY_DAY = 86_400_000L;
+    private static final long NO_BIRTHDATE = Long.MIN_VALUE;
+
+    /**
+     * Write data in binary format.
+     *
+     * @param data data to write.
+     * @param outputStream destination, not closed by this method.
+     * @throws IOException if data cannot be written.
+     */
+    void write(DataSnapshot data, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        StringDictionary dictionary = StringDictionary.of(data);
+
+        out.writeInt(MAGIC);
+        writeVarLong(out, FORMAT_VERSION);
+        writeVarLong(out, data.getLogSequence());
+        writeVarLong(out, dictionary.strings().size());
+        for (String string : dictionary.strings()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+
+        writeVarLong(out, data.getPersons().size());
+        for (Person person : data.getPersons()) {
+            writeVarLong(out, dictionary.ref(person.getFirstName()));
+            writeVarLong(out, dictionary.ref(person.getLastName()));
+            writeVarLong(out, dictionary.ref(person.getAddress()));
+            writeVarLong(out, dictionary.ref(person.getCity()));
+            writeVarLong(out, dictionary.ref(person.getZip()));
+            writeVarLong(out, dictionary.ref(person.getPhone()));
+            writeVarLong(out, dictionary.ref(person.getEmail()));
+        }
+
+        writeVarLong(out, data.getFirestations().size());
+        for (FireStation fireStation : data.getFirestations()) {
+            writeVarLong(out, dictionary.ref(fireStation.getAddress()));
+            writeVarLong(out, fireStation.getStation());
+        }
+
+        writeVarLong(out, data.getMedicalrecords().size());
+        for (MedicalRecord medicalRecord : data.getMedicalrecords()) {
+            writeVarLong(out, dictionary.ref(medicalRecord.getFirstName()));
+            writeVarLong(out, dictionary.ref(medicalRecord.getLastName()));
+            Date birthdate = medicalRecord.getBirthdate();
+            out.writeLong(birthdate == null ? NO_BIRTHDATE : Math.floorDiv(birthdate.getTime(), MS_BY_DAY));
+            writeRefs(out, dictionary, medicalRecord.getMedications());
+            writeRefs(out, dictionary, medicalRecord.getAllergies());
+        }
+        out.flush();
+    }
+
+    /**
+     * Read data written in binary format.
+     *
+     * @param inputStream source, not closed by this method.
+     * @return a snapshot of the data, version 0.
+     * @throws IOException if data cannot be read or are not in binary snapshot format.
+     */
+    DataSnapshot read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a SafetyNet Alerts binary snapshot");
+        }
+        long formatVersion = readVarLong(in);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported SafetyNet Alerts binary snapshot version " + formatVersion);
+        }
+        long logSequence = readVarLong(in);
+        String[] strings = new String[readCount(in)];
+        byte[] buffer = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = readCount(in);
+            if (length > buffer.length) buffer = new byte[Math.max(length, buffer.length * 2)];
+            in.readFully(buffer, 0, length);
+            strings[i] = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        DataSnapshot.Editor data = DataSnapshot.empty().edit();
+        for (int count = readCount(in); count > 0; count--) {
+            data.addPerson(new Person(readRef(in, strings), readRef(in, strings), readRef(in, strings), readRef(in, strings),
+                    readRef(in, strings), readRef(in, strings), readRef(in, strings)));
+        }
+        for (int count = readCount(in); count > 0; count--) {
+            data.addFireStation(new FireStation(readRef(in, strings), (int) readVarLong(in)));
+        }
+        for (int count = readCount(in); count > 0; count--) {
+            String firstName = readRef(in, strings);
+            String lastName = readRef(in, strings);
+            long birthEpochDay = in.readLong();
+            Date birthdate = birthEpochDay == NO_BIRTHDATE ? null : new Date(birthEpochDay * MS_BY_DAY);
+            data.addMedicalRecord(new MedicalRecord(firstName, lastName, birthdate, readRefs(in, strings), readRefs(in, strings)));
+        }
+        return data.build(0, logSequence);
+    }
+
+    private static String readRef(DataInputStream in, String[] strings) throws IOException {
+        int ref = readCount(in);
+        if (ref > strings.length) {
+            throw new IOException("Invalid string reference " + ref);
+        }
+        return ref == 0 ? null : strings[ref - 1];
+    }
+
+    private static List<String> readRefs(DataInputStream in, String[] strings) throws IOException {
+        int count = readCount(in);
+        List<String> refs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            refs.add(readRef(in, strings));
+        }
+        return refs;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        long count = readVarLong(in);
+        if (count > Integer.MAX_VALUE) {
+            throw new IOException("Invalid count " + count);
+        }
+        return (int) count;
+    }
+
+    private static void writeRefs(DataOutputStream out, StringDictionary dictionary, List<String> values) throws IOException {
+        if (values == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, values.size());
+        for (String value : values) {
+            writeVarLong(out, dictionary.ref(value));
+        }
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Invalid variable length integer");
+    }
+}
@@ -0,0 +1,123 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map split into shards. A map is updated through a {@link Transient}
+ * which copies only the shards it modifies : other shards are shared with the original map.
+ *
+ * @param <K> key class
+ * @param <V> value class
+ */
+final class CowHashMap<K, V> {
+
+    private static final int SHARD_BITS = 8;
+    private static final int SHARDS = 1 << SHARD_BITS;
+
+    private static final CowHashMap<?, ?> EMPTY = new CowHashMap<>(newShards(), 0);
+
+    /*null for an empty shard*/
+    private final HashMap<K, V>[] shards;
+    private final int size;
+
+    private CowHashMap(HashMap<K, V>[] shards, int size) {
+        this.shards = shards;
+        this.size = size;
+    }
+
+    /*generic arrays cannot be created : the shards of any map are HashMap instances only*/
+    @SuppressWarnings("unchecked")
+    private static <K, V> HashMap<K, V>[] newShards() {
+        return (HashMap<K, V>[]) new HashMap<?, ?>[SHARDS];
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> CowHashMap<K, V> empty() {
+        return (CowHashMap<K, V>) EMPTY;
+    }
+
+    /*shards are selected by the high bits of a multiplicative hash : the low bits of the hash
+    code are used by the shard HashMap, keys of a shard shall not share them*/
+    private static int shardOf(Object key) {
+        return (key.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - SHARD_BITS);
+    }
+
+    /**
+     * @param key the key
+     * @return the value mapped to the key, or null if none.
+     */
+    V get(Object key) {
+        HashMap<K, V> shard = shards[shardOf(key)];
+        return shard == null ? null : shard.get(key);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        for (HashMap<K, V> shard : shards) {
+            if (shard != null) shard.forEach(action);
+        }
+    }
+
+    /**
+     * @return a transient copy of this map to update it.
+     */
+    Transient<K, V> edit() {
+        return new Transient<>(shards.clone(), size);
+    }
+
+    /**
+     * Mutable copy of a {@link CowHashMap}. A shard is copied the first time it is modified.
+     */
+    static final class Transient<K, V> {
+        private final HashMap<K, V>[] shards;
+        private final boolean[] owned = new boolean[SHARDS];
+        private int size;
+
+        private Transient(HashMap<K, V>[] shards, int size) {
+            this.shards = shards;
+            this.size = size;
+        }
+
+        V get(Object key) {
+            HashMap<K, V> shard = shards[shardOf(key)];
+            return shard == null ? null : shard.get(key);
+        }
+
+        V put(K key, V value) {
+            V previous = ownedShard(shardOf(key)).put(key, value);
+            if (previous == null) size++;
+            return previous;
+        }
+
+        V remove(Object key) {
+            int shardIndex = shardOf(key);
+            if (shards[shardIndex] == null) return null;
+            V previous = ownedShard(shardIndex).remove(key);
+            if (previous != null) size--;
+            return previous;
+        }
+
+        private HashMap<K, V> ownedShard(int shardIndex) {
+            if (!owned[shardIndex]) {
+                HashMap<K, V> shard = shards[shardIndex];
+                shards[shardIndex] = shard == null ? new HashMap<>() : new HashMap<>(shard);
+                owned[shardIndex] = true;
+            }
+            return shards[shardIndex];
+        }
+
+        /**
+         * @return an immutable map with the content of this transient. The transient can still be
+         * used afterwards : modified shards will be copied again.
+         */
+        CowHashMap<K, V> build() {
+            Arrays.fill(owned, false);
+            return new CowHashMap<>(shards.clone(), size);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.safetynet.alerts.api.datasource;
+
+/**
+ * Modification of one entity, recorded by a {@link DataSnapshot.Editor}. The modified entity
+ * is located by its locator key (first name and last name, or address) and its ordinal among
+ * the entities having that key, so that the modification can be applied again on the same data.
+ */
+final class DataChange {
+
+    enum Entity { PERSON, FIRE_STATION, MEDICAL_RECORD }
+
+    enum Type { ADD, REMOVE, REPLACE }
+
+    private final Entity entity;
+    private final Type type;
+    private final String key;
+    private final int ordinal;
+    private final Object oldValue;
+    private final Object newValue;
+
+    /**
+     * @param entity modified entity kind.
+     * @param type modification type.
+     * @param key locator key of the modified entity, of the added entity for an addition.
+     * @param ordinal ordinal of the modified entity among entities having the same key, -1 for an addition.
+     * @param oldValue removed or replaced entity, null for an addition or if unknown.
+     * @param newValue added or replacement entity, null for a removal.
+     */
+    DataChange(Entity entity, Type type, String key, int ordinal, Object oldValue, Object newValue) {
+        this.entity = entity;
+        this.type = type;
+        this.key = key;
+        this.ordinal = ordinal;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    Entity getEntity() {
+        return entity;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    Object getOldValue() {
+        return oldValue;
+    }
+
+    Object getNewValue() {
+        return newValue;
+    }
+}
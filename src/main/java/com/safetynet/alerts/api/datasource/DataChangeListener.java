@@ -0,0 +1,18 @@
+package com.safetynet.alerts.api.datasource;
+
+/**
+ * Listener of the snapshots published by an {@link IAlertsDataSource}, registered by
+ * {@link IAlertsDataSource#addChangeListener(DataChangeListener)}.
+ */
+@FunctionalInterface
+public interface DataChangeListener {
+    /**
+     * Called once a new snapshot has been published, before the next one is : listeners are
+     * notified of snapshots in order. Shall be fast, writers wait for it.
+     *
+     * @param previous snapshot replaced by the new one.
+     * @param current the new snapshot.
+     * @param changes entities modified from the previous snapshot to the new one.
+     */
+    void onChange(DataSnapshot previous, DataSnapshot current, DataChangeSet changes);
+}
@@ -0,0 +1,96 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entities modified from one snapshot to the next one : previous and new values of added,
+ * removed or replaced entities. When all data have been replaced (data loaded from a file
+ * for instance), modified entities are not enumerated, see {@link #isAll()}.
+ */
+public final class DataChangeSet {
+
+    private static final DataChangeSet ALL = new DataChangeSet(true, List.of(), List.of(), List.of());
+
+    private final boolean all;
+    private final List<Person> persons;
+    private final List<FireStation> fireStations;
+    private final List<MedicalRecord> medicalRecords;
+
+    private DataChangeSet(boolean all, List<Person> persons, List<FireStation> fireStations, List<MedicalRecord> medicalRecords) {
+        this.all = all;
+        this.persons = persons;
+        this.fireStations = fireStations;
+        this.medicalRecords = medicalRecords;
+    }
+
+    /**
+     * @return a change set of all data.
+     */
+    static DataChangeSet all() {
+        return ALL;
+    }
+
+    /**
+     * @param changes modifications recorded by an editor.
+     * @return the change set of the modifications.
+     */
+    static DataChangeSet of(List<DataChange> changes) {
+        List<Person> persons = new ArrayList<>();
+        List<FireStation> fireStations = new ArrayList<>();
+        List<MedicalRecord> medicalRecords = new ArrayList<>();
+        for (DataChange change : changes) {
+            switch (change.getEntity()) {
+                case PERSON:
+                    addValues(change, persons);
+                    break;
+                case FIRE_STATION:
+                    addValues(change, fireStations);
+                    break;
+                default:
+                    addValues(change, medicalRecords);
+            }
+        }
+        return new DataChangeSet(false, Collections.unmodifiableList(persons), Collections.unmodifiableList(fireStations),
+                Collections.unmodifiableList(medicalRecords));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void addValues(DataChange change, List<T> values) {
+        if (change.getOldValue() != null) values.add((T) change.getOldValue());
+        if (change.getNewValue() != null) values.add((T) change.getNewValue());
+    }
+
+    /**
+     * @return true if all data may have been modified : modified entities are then not enumerated.
+     */
+    public boolean isAll() {
+        return all;
+    }
+
+    /**
+     * @return previous and new values of the modified persons.
+     */
+    public List<Person> getPersons() {
+        return persons;
+    }
+
+    /**
+     * @return previous and new values of the modified fire station mappings.
+     */
+    public List<FireStation> getFireStations() {
+        return fireStations;
+    }
+
+    /**
+     * @return previous and new values of the modified medical records.
+     */
+    public List<MedicalRecord> getMedicalRecords() {
+        return medicalRecords;
+    }
+}
@@ -0,0 +1,122 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * New version of SafetyNet Alerts data, applied to the live data as the differences between
+ * both. Entities are matched by their natural key (first name and last name, or address) :
+ * entities having the same key are matched in order. Matched entities that differ are replaced,
+ * unmatched live entities are removed and unmatched new entities are added at the end.
+ */
+final class DataDiff {
+
+    /*new entities grouped by key, in file order*/
+    private final Map<String, List<Person>> persons;
+    private final Map<String, List<FireStation>> fireStations;
+    private final Map<String, List<MedicalRecord>> medicalRecords;
+    private int inserted;
+    private int updated;
+    private int deleted;
+
+    DataDiff(Map<String, List<Person>> persons, Map<String, List<FireStation>> fireStations,
+             Map<String, List<MedicalRecord>> medicalRecords) {
+        this.persons = persons;
+        this.fireStations = fireStations;
+        this.medicalRecords = medicalRecords;
+    }
+
+    /**
+     * Apply the differences to the live data.
+     *
+     * @param data editor of the live data.
+     * @return true if data have been modified.
+     */
+    boolean apply(DataSnapshot.Editor data) {
+        inserted = 0;
+        updated = 0;
+        deleted = 0;
+        apply(persons, data.persons(), DataView.PERSON_NAME, DataDiff::samePerson,
+                data::addPerson, data::removePerson, data::replacePerson);
+        apply(fireStations, data.fireStations(), DataView.FIRE_STATION_ADDRESS, DataDiff::sameFireStation,
+                data::addFireStation, data::removeFireStation, data::replaceFireStation);
+        apply(medicalRecords, data.medicalRecords(), DataView.MEDICAL_RECORD_NAME, DataDiff::sameMedicalRecord,
+                data::addMedicalRecord, data::removeMedicalRecord, data::replaceMedicalRecord);
+        return data.isModified();
+    }
+
+    private <T> void apply(Map<String, List<T>> newEntities, TableView<T> table, Index<T, String> locator, BiPredicate<T, T> same,
+                           Consumer<T> add, Predicate<T> remove, BiPredicate<T, T> replace) {
+        for (T entity : table.rows()) {
+            if (!newEntities.containsKey(locator.keyOf(entity)) && remove.test(entity)) {
+                deleted++;
+            }
+        }
+        newEntities.forEach((key, entities) -> {
+            List<T> liveEntities = table.get(locator, key);
+            for (int i = 0; i < Math.max(entities.size(), liveEntities.size()); i++) {
+                if (i >= liveEntities.size()) {
+                    add.accept(entities.get(i));
+                    inserted++;
+                } else if (i >= entities.size()) {
+                    remove.test(liveEntities.get(i));
+                    deleted++;
+                } else if (!same.test(liveEntities.get(i), entities.get(i))) {
+                    replace.test(liveEntities.get(i), entities.get(i));
+                    updated++;
+                }
+            }
+        });
+    }
+
+    private static boolean samePerson(Person person, Person other) {
+        return Objects.equals(person.getFirstName(), other.getFirstName())
+                && Objects.equals(person.getLastName(), other.getLastName())
+                && Objects.equals(person.getAddress(), other.getAddress())
+                && Objects.equals(person.getCity(), other.getCity())
+                && Objects.equals(person.getZip(), other.getZip())
+                && Objects.equals(person.getPhone(), other.getPhone())
+                && Objects.equals(person.getEmail(), other.getEmail());
+    }
+
+    private static boolean sameFireStation(FireStation fireStation, FireStation other) {
+        return Objects.equals(fireStation.getAddress(), other.getAddress()) && fireStation.getStation() == other.getStation();
+    }
+
+    private static boolean sameMedicalRecord(MedicalRecord medicalRecord, MedicalRecord other) {
+        return Objects.equals(medicalRecord.getFirstName(), other.getFirstName())
+                && Objects.equals(medicalRecord.getLastName(), other.getLastName())
+                && Objects.equals(medicalRecord.getBirthdate(), other.getBirthdate())
+                && Objects.equals(medicalRecord.getMedications(), other.getMedications())
+                && Objects.equals(medicalRecord.getAllergies(), other.getAllergies());
+    }
+
+    /**
+     * @return number of entities added by the last application.
+     */
+    int getInserted() {
+        return inserted;
+    }
+
+    /**
+     * @return number of entities replaced by the last application.
+     */
+    int getUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return number of entities removed by the last application.
+     */
+    int getDeleted() {
+        return deleted;
+    }
+}
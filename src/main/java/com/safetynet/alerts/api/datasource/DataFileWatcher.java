@@ -0,0 +1,138 @@
+package com.safetynet.alerts.api.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reload of the "datasource.filepath" json file when it changes, enabled by the
+ * "datasource.watch=true" application property.
+ *
+ * The file directory is watched by a background thread : once no change has been notified
+ * for "datasource.watch.quiet-period-ms" (the file is completely written), the file is parsed
+ * and indexed on that thread, then the new data snapshot replaces the current one atomically.
+ * Requests never wait for the reload and keep the snapshot they have started with. If the
+ * file cannot be parsed, the current data are kept.
+ *
+ * With "datasource.watch.incremental=true", only the differences between the file and the
+ * current data are applied (see {@link IAlertsDataSource#reload(String)}) : the reload cost
+ * depends on the size of the change rather than on the size of the data.
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "datasource.watch", havingValue = "true")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class DataFileWatcher {
+
+    private final IAlertsDataSource dataSource;
+
+    @Value( "${datasource.filepath}" )
+    private String dataSourceFilePath;
+
+    @Value( "${datasource.watch.quiet-period-ms:500}" )
+    private long quietPeriodMillis;
+
+    @Value( "${datasource.watch.incremental:false}" )
+    private boolean incremental;
+
+    private WatchService watchService;
+
+    private Path watchedFile;
+
+    /**
+     * Start watching the data file, once data have been loaded at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        Path path = Paths.get(dataSourceFilePath);
+        if (!Files.isRegularFile(path)) {
+            ClassPathResource resource = new ClassPathResource(dataSourceFilePath);
+            if (!resource.isFile()) {
+                log.warn("Data file " + dataSourceFilePath + " is not a file, it cannot be watched");
+                return;
+            }
+            path = resource.getFile().toPath();
+        }
+        watchedFile = path.toAbsolutePath();
+        watchService = watchedFile.getFileSystem().newWatchService();
+        //the directory is watched : the file may be replaced by a rename
+        watchedFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(this::watch, "data-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching data file " + watchedFile);
+    }
+
+    /**
+     * Stop watching the data file.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = isWatchedFileChanged(key);
+                if (!changed) continue;
+                //wait for the end of the file write
+                while ((key = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+                    isWatchedFileChanged(key);
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.info("Data file " + watchedFile + " no longer watched");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isWatchedFileChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= watchedFile.getFileName().equals(event.context());
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        if (!Files.isRegularFile(watchedFile)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (incremental) {
+                dataSource.reload(watchedFile.toString());
+            } else {
+                dataSource.load(watchedFile.toString());
+            }
+            log.info("Data reloaded from " + watchedFile + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to reload data from " + watchedFile + ", current data are kept : " + e.getMessage());
+        }
+    }
+}
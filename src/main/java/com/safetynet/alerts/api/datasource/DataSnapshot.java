@@ -0,0 +1,313 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable and versioned snapshot of SafetyNet Alerts data. Snapshots are never
+ * modified : an {@link Editor} builds a new snapshot that shares all unmodified
+ * data with the snapshot it has been created from.
+ * Entities of a snapshot shall not be modified either.
+ * A snapshot may be backed by a memory mapped file : its modifications are then
+ * held on heap, see {@link OverlayTable}.
+ */
+public final class DataSnapshot extends DataView {
+
+    private static final DataSnapshot EMPTY = new DataSnapshot(0, 0,
+            Table.empty(PERSON_INDEXES), Table.empty(FIRE_STATION_INDEXES), Table.empty(MEDICAL_RECORD_INDEXES));
+
+    private final long version;
+    /*sequence number of the last write-ahead log record applied to the data, 0 if none*/
+    private final long logSequence;
+    /*heap tables, or mapped tables queried in place*/
+    private final TableView<Person> persons;
+    private final TableView<FireStation> fireStations;
+    private final TableView<MedicalRecord> medicalRecords;
+
+    private DataSnapshot(long version, long logSequence, TableView<Person> persons, TableView<FireStation> fireStations,
+                         TableView<MedicalRecord> medicalRecords) {
+        this.version = version;
+        this.logSequence = logSequence;
+        this.persons = persons;
+        this.fireStations = fireStations;
+        this.medicalRecords = medicalRecords;
+    }
+
+    /**
+     * @return an empty snapshot, version 0.
+     */
+    public static DataSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a snapshot, version 0, from lists of entities.
+     *
+     * @param persons persons
+     * @param fireStations fire station mappings
+     * @param medicalRecords medical records
+     * @return the snapshot
+     */
+    public static DataSnapshot of(Collection<Person> persons, Collection<FireStation> fireStations, Collection<MedicalRecord> medicalRecords) {
+        Editor editor = EMPTY.edit();
+        persons.forEach(editor::addPerson);
+        fireStations.forEach(editor::addFireStation);
+        medicalRecords.forEach(editor::addMedicalRecord);
+        return editor.build(0);
+    }
+
+    static DataSnapshot ofTables(TableView<Person> persons, TableView<FireStation> fireStations, TableView<MedicalRecord> medicalRecords) {
+        return new DataSnapshot(0, 0, persons, fireStations, medicalRecords);
+    }
+
+    /**
+     * @return version of the snapshot, incremented each time a new snapshot is published by the data source.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    DataSnapshot withVersion(long version) {
+        return new DataSnapshot(version, logSequence, persons, fireStations, medicalRecords);
+    }
+
+    /**
+     * @return sequence number of the last write-ahead log record applied to the data, 0 if none.
+     */
+    long getLogSequence() {
+        return logSequence;
+    }
+
+    DataSnapshot withLogSequence(long logSequence) {
+        return new DataSnapshot(version, logSequence, persons, fireStations, medicalRecords);
+    }
+
+    /**
+     * @return an editor to build a new snapshot from this one.
+     */
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * @return true if all data are held by heap tables.
+     */
+    boolean isMaterialized() {
+        return persons instanceof Table && fireStations instanceof Table && medicalRecords instanceof Table;
+    }
+
+    @Override
+    TableView<Person> persons() {
+        return persons;
+    }
+
+    @Override
+    TableView<FireStation> fireStations() {
+        return fireStations;
+    }
+
+    @Override
+    TableView<MedicalRecord> medicalRecords() {
+        return medicalRecords;
+    }
+
+    /**
+     * @return an editor to build a new snapshot from this one, recording its modifications.
+     */
+    Editor editRecordingChanges() {
+        Editor editor = edit();
+        editor.changes = new ArrayList<>();
+        return editor;
+    }
+
+    /**
+     * Modifiable copy of a snapshot. Entities are located by identity : entities to
+     * remove or replace shall have been got from the editor.
+     */
+    public static final class Editor extends DataView {
+        private final TableEditor<Person> persons;
+        private final TableEditor<FireStation> fireStations;
+        private final TableEditor<MedicalRecord> medicalRecords;
+        private final long logSequence;
+        private boolean modified;
+        /*modifications, null if not recorded*/
+        private List<DataChange> changes;
+
+        private Editor(DataSnapshot snapshot) {
+            this.persons = edit(snapshot.persons);
+            this.fireStations = edit(snapshot.fireStations);
+            this.medicalRecords = edit(snapshot.medicalRecords);
+            this.logSequence = snapshot.logSequence;
+        }
+
+        /*mapped tables are edited through an overlay*/
+        private static <T> TableEditor<T> edit(TableView<T> table) {
+            if (table instanceof MappedTable) {
+                return OverlayTable.of((MappedTable<T>) table).edit();
+            }
+            if (table instanceof OverlayTable) {
+                return ((OverlayTable<T>) table).edit();
+            }
+            return ((Table<T>) table).edit();
+        }
+
+        public void addPerson(Person person) {
+            add(DataChange.Entity.PERSON, persons, PERSON_NAME, person);
+        }
+
+        public boolean removePerson(Person person) {
+            return remove(DataChange.Entity.PERSON, persons, PERSON_NAME, person);
+        }
+
+        public boolean replacePerson(Person person, Person replacement) {
+            return replace(DataChange.Entity.PERSON, persons, PERSON_NAME, person, replacement);
+        }
+
+        public void addFireStation(FireStation fireStation) {
+            add(DataChange.Entity.FIRE_STATION, fireStations, FIRE_STATION_ADDRESS, fireStation);
+        }
+
+        public boolean removeFireStation(FireStation fireStation) {
+            return remove(DataChange.Entity.FIRE_STATION, fireStations, FIRE_STATION_ADDRESS, fireStation);
+        }
+
+        public boolean replaceFireStation(FireStation fireStation, FireStation replacement) {
+            return replace(DataChange.Entity.FIRE_STATION, fireStations, FIRE_STATION_ADDRESS, fireStation, replacement);
+        }
+
+        public void addMedicalRecord(MedicalRecord medicalRecord) {
+            add(DataChange.Entity.MEDICAL_RECORD, medicalRecords, MEDICAL_RECORD_NAME, medicalRecord);
+        }
+
+        public boolean removeMedicalRecord(MedicalRecord medicalRecord) {
+            return remove(DataChange.Entity.MEDICAL_RECORD, medicalRecords, MEDICAL_RECORD_NAME, medicalRecord);
+        }
+
+        public boolean replaceMedicalRecord(MedicalRecord medicalRecord, MedicalRecord replacement) {
+            return replace(DataChange.Entity.MEDICAL_RECORD, medicalRecords, MEDICAL_RECORD_NAME, medicalRecord, replacement);
+        }
+
+        private <T> void add(DataChange.Entity entity, TableEditor<T> table, Index<T, String> locator, T value) {
+            table.add(value);
+            modified = true;
+            if (changes != null) {
+                changes.add(new DataChange(entity, DataChange.Type.ADD, locator.keyOf(value), -1, null, value));
+            }
+        }
+
+        private <T> boolean remove(DataChange.Entity entity, TableEditor<T> table, Index<T, String> locator, T value) {
+            String key = locator.keyOf(value);
+            int ordinal = changes != null ? ordinalOf(table, locator, key, value) : 0;
+            if (ordinal < 0 || !table.remove(value)) return false;
+            modified = true;
+            if (changes != null) {
+                changes.add(new DataChange(entity, DataChange.Type.REMOVE, key, ordinal, value, null));
+            }
+            return true;
+        }
+
+        private <T> boolean replace(DataChange.Entity entity, TableEditor<T> table, Index<T, String> locator, T value, T replacement) {
+            String key = locator.keyOf(value);
+            int ordinal = changes != null ? ordinalOf(table, locator, key, value) : 0;
+            if (ordinal < 0 || !table.replace(value, replacement)) return false;
+            modified = true;
+            if (changes != null) {
+                changes.add(new DataChange(entity, DataChange.Type.REPLACE, key, ordinal, value, replacement));
+            }
+            return true;
+        }
+
+        private static <T> int ordinalOf(TableEditor<T> table, Index<T, String> locator, String key, T value) {
+            List<T> located = table.get(locator, key);
+            for (int i = 0; i < located.size(); i++) {
+                if (located.get(i) == value) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Apply a modification recorded by another editor, on the data it has been recorded on.
+         *
+         * @param change the modification.
+         * @throws IllegalStateException if the modified entity is not found.
+         */
+        void apply(DataChange change) {
+            switch (change.getEntity()) {
+                case PERSON:
+                    apply(change, DataChange.Entity.PERSON, persons, PERSON_NAME);
+                    break;
+                case FIRE_STATION:
+                    apply(change, DataChange.Entity.FIRE_STATION, fireStations, FIRE_STATION_ADDRESS);
+                    break;
+                default:
+                    apply(change, DataChange.Entity.MEDICAL_RECORD, medicalRecords, MEDICAL_RECORD_NAME);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> void apply(DataChange change, DataChange.Entity entity, TableEditor<T> table, Index<T, String> locator) {
+            if (change.getType() == DataChange.Type.ADD) {
+                add(entity, table, locator, (T) change.getNewValue());
+                return;
+            }
+            List<T> located = table.get(locator, change.getKey());
+            if (change.getOrdinal() >= located.size()) {
+                throw new IllegalStateException(entity + " '" + change.getKey() + "' #" + change.getOrdinal() + " not found");
+            }
+            T value = located.get(change.getOrdinal());
+            if (change.getType() == DataChange.Type.REMOVE) {
+                remove(entity, table, locator, value);
+            } else {
+                replace(entity, table, locator, value, (T) change.getNewValue());
+            }
+        }
+
+        /**
+         * @return modifications made through this editor, in order, or an empty list if not recorded.
+         */
+        List<DataChange> getChanges() {
+            return changes == null ? List.of() : Collections.unmodifiableList(changes);
+        }
+
+        /**
+         * @return true if data have been modified through this editor.
+         */
+        public boolean isModified() {
+            return modified;
+        }
+
+        DataSnapshot build(long version) {
+            return build(version, logSequence);
+        }
+
+        /**
+         * @param version version of the new snapshot.
+         * @param logSequence sequence number of the write-ahead log record holding the modifications.
+         * @return the new snapshot.
+         */
+        DataSnapshot build(long version, long logSequence) {
+            return new DataSnapshot(version, logSequence, persons.build(), fireStations.build(), medicalRecords.build());
+        }
+
+        @Override
+        TableView<Person> persons() {
+            return persons;
+        }
+
+        @Override
+        TableView<FireStation> fireStations() {
+            return fireStations;
+        }
+
+        @Override
+        TableView<MedicalRecord> medicalRecords() {
+            return medicalRecords;
+        }
+    }
+}
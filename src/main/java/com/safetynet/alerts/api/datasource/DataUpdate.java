@@ -0,0 +1,17 @@
+package com.safetynet.alerts.api.datasource;
+
+/**
+ * Write operation on SafetyNet Alerts data, applied by {@link IAlertsDataSource#update(DataUpdate)}.
+ *
+ * @param <R> result class
+ * @param <E> exception thrown when the operation fails
+ */
+@FunctionalInterface
+public interface DataUpdate<R, E extends Exception> {
+    /**
+     * @param data editor of the current data. Modifications are published only if the operation succeeds.
+     * @return operation result
+     * @throws E if the operation fails
+     */
+    R apply(DataSnapshot.Editor data) throws E;
+}
@@ -0,0 +1,117 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read access to SafetyNet Alerts data : persons, fire station mappings and medical records.
+ * Lookups by name, address or city ignore case and leading/trailing blanks.
+ */
+public abstract class DataView {
+
+    static final Index<Person, String> PERSON_NAME = new Index<>(p -> Index.key(p.getFirstName(), p.getLastName()));
+    static final Index<Person, String> PERSON_ADDRESS = new Index<>(p -> Index.key(p.getAddress()));
+    static final Index<Person, String> PERSON_CITY = new Index<>(p -> Index.key(p.getCity()));
+    static final Index<FireStation, String> FIRE_STATION_ADDRESS = new Index<>(f -> Index.key(f.getAddress()));
+    static final Index<FireStation, Integer> FIRE_STATION_NUMBER = new Index<>(FireStation::getStation);
+    static final Index<MedicalRecord, String> MEDICAL_RECORD_NAME = new Index<>(m -> Index.key(m.getFirstName(), m.getLastName()));
+
+    static final List<Index<Person, ?>> PERSON_INDEXES = List.of(PERSON_NAME, PERSON_ADDRESS, PERSON_CITY);
+    static final List<Index<FireStation, ?>> FIRE_STATION_INDEXES = List.of(FIRE_STATION_ADDRESS, FIRE_STATION_NUMBER);
+    static final List<Index<MedicalRecord, ?>> MEDICAL_RECORD_INDEXES = List.of(MEDICAL_RECORD_NAME);
+
+    abstract TableView<Person> persons();
+
+    abstract TableView<FireStation> fireStations();
+
+    abstract TableView<MedicalRecord> medicalRecords();
+
+    /**
+     * @return all persons.
+     */
+    public List<Person> getPersons() {
+        return persons().rows();
+    }
+
+    /**
+     * @param firstName first name of the persons.
+     * @param lastName last name of the persons.
+     * @return persons named 'firstName' 'lastName'.
+     */
+    public List<Person> getPersons(String firstName, String lastName) {
+        return persons().get(PERSON_NAME, Index.key(firstName, lastName));
+    }
+
+    /**
+     * @param address the address.
+     * @return persons that live at the given address.
+     */
+    public List<Person> getPersonsByAddress(String address) {
+        return persons().get(PERSON_ADDRESS, Index.key(address));
+    }
+
+    /**
+     * @param city the city name.
+     * @return persons that live in the given city.
+     */
+    public List<Person> getPersonsByCity(String city) {
+        return persons().get(PERSON_CITY, Index.key(city));
+    }
+
+    /**
+     * @return all fire station mappings.
+     */
+    public List<FireStation> getFirestations() {
+        return fireStations().rows();
+    }
+
+    /**
+     * @param address the address.
+     * @return fire station mappings of the given address.
+     */
+    public List<FireStation> getFireStations(String address) {
+        return fireStations().get(FIRE_STATION_ADDRESS, Index.key(address));
+    }
+
+    /**
+     * @param stationNumber the number of the fire station.
+     * @return fire station mappings of the given fire station.
+     */
+    public List<FireStation> getFireStations(int stationNumber) {
+        return fireStations().get(FIRE_STATION_NUMBER, stationNumber);
+    }
+
+    /**
+     * @param stationNumber the number of the fire station.
+     * @return addresses covered by the fire station, each address once.
+     */
+    public List<String> getStationAddresses(int stationNumber) {
+        Map<String, String> addresses = new LinkedHashMap<>();
+        for (FireStation fireStation : getFireStations(stationNumber)) {
+            addresses.putIfAbsent(Index.key(fireStation.getAddress()), fireStation.getAddress());
+        }
+        return new ArrayList<>(addresses.values());
+    }
+
+    /**
+     * @return all medical records.
+     */
+    public List<MedicalRecord> getMedicalrecords() {
+        return medicalRecords().rows();
+    }
+
+    /**
+     * @param firstName first name of the person.
+     * @param lastName last name of the person.
+     * @return medical records of persons named 'firstName' 'lastName'.
+     */
+    public List<MedicalRecord> getMedicalRecords(String firstName, String lastName) {
+        return medicalRecords().get(MEDICAL_RECORD_NAME, Index.key(firstName, lastName));
+    }
+}
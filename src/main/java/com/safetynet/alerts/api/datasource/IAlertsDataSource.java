@@ -1,17 +1,16 @@
 package com.safetynet.alerts.api.datasource;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.safetynet.alerts.api.model.FireStation;
-import com.safetynet.alerts.api.model.MedicalRecord;
-import com.safetynet.alerts.api.model.Person;
-
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.nio.file.Path;
 
 /**
  * A data source to:
  *  - load SafetyNet Alerts data from Json file by calling load method.
  *  - give access to that loaded data
+ *
+ * Data are published as immutable snapshots : readers get the current snapshot
+ * without locking, writers are serialized and publish a new snapshot.
  */
 public interface IAlertsDataSource {
 
@@ -23,45 +22,112 @@ public interface IAlertsDataSource {
     void load(String dataSourceFilePath) throws IOException;
 
     /**
-     * Get SafetyNet Alerts data loaded from Json file.
+     * Reload SafetyNet Alerts data from a Json file incrementally : only the entities that
+     * differ from the current data are inserted, updated or deleted.
+     *
+     * @param dataSourceFilePath path to the json data file.
+     */
+    void reload(String dataSourceFilePath) throws IOException;
+
+    /**
+     * Load SafetyNet Alerts data from the binary snapshot file if it is newer than
+     * the Json file, from the Json file otherwise. The snapshot file is then written
+     * for the next load.
+     *
+     * @param dataSourceFilePath path to the json data file.
+     * @param snapshotFilePath path to the binary snapshot file.
+     */
+    void load(String dataSourceFilePath, String snapshotFilePath) throws IOException;
+
+    /**
+     * Load SafetyNet Alerts data from a binary snapshot file.
+     *
+     * @param snapshotPath path to the snapshot file.
+     */
+    void loadSnapshot(Path snapshotPath) throws IOException;
+
+    /**
+     * Write the current SafetyNet Alerts data to a binary snapshot file.
+     *
+     * @param snapshotPath path to the snapshot file.
+     */
+    void writeSnapshot(Path snapshotPath) throws IOException;
+
+    /**
+     * Replay the modifications logged in a write-ahead log file on top of the loaded data, then
+     * log the modifications of all following updates to it. Shall be called once data are loaded.
+     *
+     * @param logPath path to the write-ahead log file, created if it does not exist.
+     * @param fsyncPolicy when logged modifications are forced to the storage device.
+     * @param fsyncIntervalMillis interval between two fsyncs for the {@link WriteAheadLog.FsyncPolicy#INTERVAL} policy.
+     */
+    void openWriteAheadLog(Path logPath, WriteAheadLog.FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException;
+
+    /**
+     * Write a snapshot of the current data, then drop the write-ahead log records it holds.
+     * Updates are not blocked while the snapshot is written.
+     *
+     * @param snapshotPath path to the binary snapshot file.
+     * @return size of the snapshot file, in bytes.
+     */
+    long compact(Path snapshotPath) throws IOException;
+
+    /**
+     * @return number of records in the write-ahead log, 0 if none is open.
+     */
+    long getWriteAheadLogRecords();
+
+    /**
+     * @return size of the write-ahead log file in bytes, 0 if none is open.
+     */
+    long getWriteAheadLogSize();
+
+    /**
+     * Load SafetyNet Alerts data from a Json stream.
+     *
+     * @param inputStream json data, not closed by this method.
+     */
+    void loadJson(InputStream inputStream) throws IOException;
+
+    /**
+     * Get the current snapshot of SafetyNet Alerts data.
+     *
+     * @return SafetyNet Alerts data, empty if data have not been loaded
+     */
+    DataSnapshot getData();
+
+    /**
+     * Get the version of the last snapshot whose change listeners have all been notified. Results
+     * computed from data read after this call reflect at least this version, including the results
+     * kept by the listeners : unlike the version of {@link #getData()}, it can label such results.
+     *
+     * @return version of the last notified snapshot.
+     */
+    long getNotifiedVersion();
+
+    /**
+     * Replace all SafetyNet Alerts data.
+     *
+     * @param data new data.
+     */
+    void setData(DataSnapshot data);
+
+    /**
+     * Apply a write operation on SafetyNet Alerts data. Write operations are serialized :
+     * the operation edits the current data and its modifications are published as a
+     * new snapshot once it has succeeded. Nothing is published if it throws, including when its
+     * modifications cannot be made durable.
      *
-     * @return SafetyNet Alerts data or null if data have not been loaded
+     * @param update the write operation.
+     * @return result of the operation.
+     * @throws E exception thrown by the operation.
      */
-    Data getData();
+    <R, E extends Exception> R update(DataUpdate<R, E> update) throws E;
 
     /**
-     * AlertsDataSource Data class holds persons, fire stations and medical records
+     * Register a listener notified of each snapshot published from now on.
+     *
+     * @param listener the listener.
      */
-    class Data {
-        @JsonProperty(value = "persons")
-        private List<Person> persons;
-        @JsonProperty(value = "firestations")
-        private List<FireStation> firestations;
-        @JsonProperty(value = "medicalrecords")
-        private List<MedicalRecord> medicalrecords;
-
-        public List<Person> getPersons() {
-            return persons;
-        }
-
-        public void setPersons(List<Person> persons) {
-            this.persons = persons;
-        }
-
-        public List<FireStation> getFirestations() {
-            return firestations;
-        }
-
-        public void setFirestations(List<FireStation> firestations) {
-            this.firestations = firestations;
-        }
-
-        public List<MedicalRecord> getMedicalrecords() {
-            return medicalrecords;
-        }
-
-        public void setMedicalrecords(List<MedicalRecord> medicalrecords) {
-            this.medicalrecords = medicalrecords;
-        }
-    }
+    void addChangeListener(DataChangeListener listener);
 }
@@ -0,0 +1,48 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Secondary index definition of a {@link Table} : entities are looked up
+ * by the key computed from them by the index key function.
+ *
+ * @param <T> indexed entity class
+ * @param <K> key class
+ */
+final class Index<T, K> {
+
+    private static final char KEY_PARTS_SEPARATOR = '\u001F';
+
+    private final Function<T, K> keyFunction;
+
+    /**
+     * @param keyFunction function computing the key of an entity. String keys shall be built with {@link #key(String...)}
+     */
+    Index(Function<T, K> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    K keyOf(T entity) {
+        return keyFunction.apply(entity);
+    }
+
+    /**
+     * Build a normalized key from one or several parts : each part is trimmed and case-folded.
+     *
+     * @param parts key parts (ex : first name and last name), null parts are considered as empty.
+     * @return the key
+     */
+    static String key(String... parts) {
+        if (parts.length == 1) {
+            return Objects.toString(parts[0], "").trim().toLowerCase(Locale.ROOT);
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) key.append(KEY_PARTS_SEPARATOR);
+            key.append(Objects.toString(parts[i], "").trim().toLowerCase(Locale.ROOT));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,310 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader of SafetyNet Alerts Json data. Entities of the "persons", "firestations"
+ * and "medicalrecords" sections are parsed one by one and added straight into a snapshot :
+ * no intermediate tree or list of the whole data is built. Other sections are skipped.
+ *
+ * Files are read sequentially, unless a pool is given : sections are then parsed concurrently.
+ * The parallel read first scans the whole file to locate the sections, and the "persons" section
+ * dominates the load time : it is only worth it with several cores, and it is slower than the
+ * sequential read on a single core (see SnapshotLoadBenchmark).
+ */
+@Log4j2
+class JsonDataReader {
+
+    private static final String PERSONS = "persons";
+    private static final String FIRE_STATIONS = "firestations";
+    private static final String MEDICAL_RECORDS = "medicalrecords";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectReader personReader = mapper.readerFor(Person.class);
+    private final ObjectReader fireStationReader = mapper.readerFor(FireStation.class);
+    private final ObjectReader medicalRecordReader = mapper.readerFor(MedicalRecord.class);
+    /*null : files are read sequentially*/
+    private final ForkJoinPool pool;
+
+    /**
+     * Reader of files, sequentially.
+     */
+    JsonDataReader() {
+        this(null);
+    }
+
+    /**
+     * Reader of files, section by section in parallel.
+     *
+     * @param pool pool parsing the sections of a file concurrently.
+     */
+    JsonDataReader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Read SafetyNet Alerts data from a stream, sequentially.
+     *
+     * @param inputStream Json data, not closed by this method.
+     * @return a snapshot of the data, version 0.
+     * @throws IOException if the stream cannot be read or is not valid SafetyNet Alerts Json data.
+     */
+    DataSnapshot read(InputStream inputStream) throws IOException {
+        DataSnapshot.Editor data = DataSnapshot.empty().edit();
+        try (JsonParser parser = mapper.getFactory().createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            startData(parser);
+            while (nextToken(parser) == JsonToken.FIELD_NAME) {
+                String section = parser.getCurrentName();
+                nextToken(parser);
+                switch (section) {
+                    case PERSONS:
+                        readSection(parser, personReader, data::addPerson);
+                        break;
+                    case FIRE_STATIONS:
+                        readSection(parser, fireStationReader, data::addFireStation);
+                        break;
+                    case MEDICAL_RECORDS:
+                        readSection(parser, medicalRecordReader, data::addMedicalRecord);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return data.build(0);
+    }
+
+    /**
+     * Read SafetyNet Alerts data from a file. If the reader has a pool, the file is first scanned to
+     * locate its sections, then the sections are parsed and indexed concurrently, each one from its own
+     * file channel. Otherwise the file is read as a stream, see {@link #read(InputStream)}.
+     *
+     * @param path Json data file.
+     * @return a snapshot of the data, version 0.
+     * @throws IOException if the file cannot be read or is not valid SafetyNet Alerts Json data.
+     */
+    DataSnapshot read(Path path) throws IOException {
+        long start = System.nanoTime();
+        if (pool == null) {
+            DataSnapshot data;
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                data = read(inputStream);
+            }
+            log.info("Data loaded from " + path + " in " + toMillis(System.nanoTime() - start) + " ms ("
+                    + data.getPersons().size() + " persons, " + data.getFirestations().size() + " fire stations, "
+                    + data.getMedicalrecords().size() + " medical records)");
+            return data;
+        }
+        Map<String, Long> sectionOffsets = scanSections(path);
+        long scanned = System.nanoTime();
+
+        ForkJoinTask<Table<Person>> persons = ForkJoinTask.adapt(
+                () -> readTable(path, sectionOffsets.get(PERSONS), personReader, DataView.PERSON_INDEXES));
+        ForkJoinTask<Table<FireStation>> fireStations = ForkJoinTask.adapt(
+                () -> readTable(path, sectionOffsets.get(FIRE_STATIONS), fireStationReader, DataView.FIRE_STATION_INDEXES));
+        ForkJoinTask<Table<MedicalRecord>> medicalRecords = ForkJoinTask.adapt(
+                () -> readTable(path, sectionOffsets.get(MEDICAL_RECORDS), medicalRecordReader, DataView.MEDICAL_RECORD_INDEXES));
+        pool.execute(persons);
+        pool.execute(fireStations);
+        pool.execute(medicalRecords);
+        DataSnapshot data = DataSnapshot.ofTables(join(persons), join(fireStations), join(medicalRecords));
+
+        long end = System.nanoTime();
+        log.info("Data loaded from " + path + " in " + toMillis(end - start) + " ms : scan " + toMillis(scanned - start)
+                + " ms, then sections parsed and indexed in parallel in " + toMillis(end - scanned) + " ms ("
+                + data.getPersons().size() + " persons, " + data.getFirestations().size() + " fire stations, "
+                + data.getMedicalrecords().size() + " medical records)");
+        return data;
+    }
+
+    /**
+     * Read SafetyNet Alerts data from a file as differences to apply to the live data. Sections are
+     * read sequentially or concurrently as by {@link #read(Path)}, but no index is built : entities
+     * are only grouped by their natural key.
+     *
+     * @param path Json data file.
+     * @return the new data.
+     * @throws IOException if the file cannot be read or is not valid SafetyNet Alerts Json data.
+     */
+    DataDiff readDiff(Path path) throws IOException {
+        long start = System.nanoTime();
+        if (pool == null) {
+            DataDiff diff;
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                diff = readDiff(inputStream);
+            }
+            log.info("Data read from " + path + " in " + toMillis(System.nanoTime() - start) + " ms");
+            return diff;
+        }
+        Map<String, Long> sectionOffsets = scanSections(path);
+
+        ForkJoinTask<Map<String, List<Person>>> persons = ForkJoinTask.adapt(
+                () -> readGroups(path, sectionOffsets.get(PERSONS), personReader, DataView.PERSON_NAME));
+        ForkJoinTask<Map<String, List<FireStation>>> fireStations = ForkJoinTask.adapt(
+                () -> readGroups(path, sectionOffsets.get(FIRE_STATIONS), fireStationReader, DataView.FIRE_STATION_ADDRESS));
+        ForkJoinTask<Map<String, List<MedicalRecord>>> medicalRecords = ForkJoinTask.adapt(
+                () -> readGroups(path, sectionOffsets.get(MEDICAL_RECORDS), medicalRecordReader, DataView.MEDICAL_RECORD_NAME));
+        pool.execute(persons);
+        pool.execute(fireStations);
+        pool.execute(medicalRecords);
+        DataDiff diff = new DataDiff(join(persons), join(fireStations), join(medicalRecords));
+        log.info("Data read from " + path + " in " + toMillis(System.nanoTime() - start) + " ms");
+        return diff;
+    }
+
+    private DataDiff readDiff(InputStream inputStream) throws IOException {
+        Map<String, List<Person>> persons = new LinkedHashMap<>();
+        Map<String, List<FireStation>> fireStations = new LinkedHashMap<>();
+        Map<String, List<MedicalRecord>> medicalRecords = new LinkedHashMap<>();
+        try (JsonParser parser = mapper.getFactory().createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            startData(parser);
+            while (nextToken(parser) == JsonToken.FIELD_NAME) {
+                String section = parser.getCurrentName();
+                nextToken(parser);
+                switch (section) {
+                    case PERSONS:
+                        readSection(parser, personReader, group(persons, DataView.PERSON_NAME));
+                        break;
+                    case FIRE_STATIONS:
+                        readSection(parser, fireStationReader, group(fireStations, DataView.FIRE_STATION_ADDRESS));
+                        break;
+                    case MEDICAL_RECORDS:
+                        readSection(parser, medicalRecordReader, group(medicalRecords, DataView.MEDICAL_RECORD_NAME));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return new DataDiff(persons, fireStations, medicalRecords);
+    }
+
+    private static <T> Consumer<T> group(Map<String, List<T>> groups, Index<T, String> key) {
+        return entity -> groups.computeIfAbsent(key.keyOf(entity), k -> new ArrayList<>(1)).add(entity);
+    }
+
+    /**
+     * Locate the top level sections of a file without binding any entity.
+     *
+     * @return byte offset of the array of each non null section, by section name.
+     */
+    private Map<String, Long> scanSections(Path path) throws IOException {
+        Map<String, Long> sectionOffsets = new HashMap<>();
+        try (JsonParser parser = mapper.getFactory().createParser(path.toFile())) {
+            startData(parser);
+            while (nextToken(parser) == JsonToken.FIELD_NAME) {
+                String section = parser.getCurrentName();
+                JsonToken token = nextToken(parser);
+                if (token == JsonToken.START_ARRAY) {
+                    sectionOffsets.put(section, parser.getTokenLocation().getByteOffset());
+                } else if (token != JsonToken.VALUE_NULL && isKnownSection(section)) {
+                    throw new JsonParseException(parser, "Section '" + section + "' shall be a Json array");
+                }
+                parser.skipChildren();
+            }
+        }
+        return sectionOffsets;
+    }
+
+    private <T> Table<T> readTable(Path path, Long offset, ObjectReader reader, List<Index<T, ?>> indexes) throws IOException {
+        long start = System.nanoTime();
+        Table.Editor<T> table = Table.empty(indexes).edit();
+        if (offset != null) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                 JsonParser parser = mapper.getFactory().createParser(Channels.newInputStream(channel.position(offset)))) {
+                nextToken(parser);
+                readSection(parser, reader, table::add);
+            }
+        }
+        Table<T> built = table.build();
+        log.info("Section of " + reader.getValueType().getRawClass().getSimpleName() + " parsed and indexed in "
+                + toMillis(System.nanoTime() - start) + " ms");
+        return built;
+    }
+
+    private <T> Map<String, List<T>> readGroups(Path path, Long offset, ObjectReader reader, Index<T, String> key) throws IOException {
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        if (offset != null) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                 JsonParser parser = mapper.getFactory().createParser(Channels.newInputStream(channel.position(offset)))) {
+                nextToken(parser);
+                readSection(parser, reader, group(groups, key));
+            }
+        }
+        return groups;
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading data", e);
+        }
+    }
+
+    private static boolean isKnownSection(String section) {
+        return PERSONS.equals(section) || FIRE_STATIONS.equals(section) || MEDICAL_RECORDS.equals(section);
+    }
+
+    private static void startData(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "SafetyNet Alerts data shall be a Json object");
+        }
+    }
+
+    private static <T> void readSection(JsonParser parser, ObjectReader reader, Consumer<T> consumer) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Section '" + parser.getCurrentName() + "' shall be a Json array");
+        }
+        while (nextToken(parser) != JsonToken.END_ARRAY) {
+            consumer.accept(reader.readValue(parser));
+        }
+    }
+
+    private static JsonToken nextToken(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw new JsonParseException(parser, "Unexpected end of SafetyNet Alerts data");
+        }
+        return token;
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
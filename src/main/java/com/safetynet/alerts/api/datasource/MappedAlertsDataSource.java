@@ -0,0 +1,70 @@
+package com.safetynet.alerts.api.datasource;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Data source querying SafetyNet Alerts data in place from a memory mapped snapshot file
+ * (see {@link MappedSnapshotFormat}) : entities are decoded on access and the heap usage does
+ * not depend on the data size. Selected by the "datasource.type=mapped" application property.
+ *
+ * Updates are applied as by {@link AlertsDataSource}, the modified entities are held on heap
+ * (see {@link OverlayTable}) : the mapped data are neither copied nor decoded by an update.
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "datasource.type", havingValue = "mapped")
+public class MappedAlertsDataSource extends AlertsDataSource {
+
+    /**
+     * Map the snapshot file if it is newer than the Json file. Otherwise, the Json file is
+     * loaded, written to the snapshot file, then the snapshot file is mapped : Json data
+     * are held on heap only while the snapshot is written. If the snapshot cannot be
+     * written, data are kept on heap.
+     *
+     * @param dataSourceFilePath path to the json data file, see {@link #load(String)}.
+     * @param snapshotFilePath filesystem path to the mapped snapshot file.
+     */
+    @Override
+    public void load(String dataSourceFilePath, String snapshotFilePath) throws IOException {
+        Path snapshotPath = Paths.get(snapshotFilePath);
+        if (isNewerThan(snapshotPath, dataSourceFilePath)) {
+            try {
+                loadSnapshot(snapshotPath);
+                loadedFrom(dataSourceFilePath);
+                return;
+            } catch (IOException e) {
+                log.error("Failed to map snapshot " + snapshotPath + ", loading " + dataSourceFilePath + " : " + e.getMessage());
+            }
+        }
+        load(dataSourceFilePath);
+        try {
+            writeSnapshot(snapshotPath);
+            loadSnapshot(snapshotPath);
+        } catch (IOException e) {
+            log.error("Failed to write and map snapshot " + snapshotPath + ", data are kept on heap : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Map a snapshot file. Only its header is read.
+     *
+     * @param snapshotPath path to the mapped snapshot file.
+     */
+    @Override
+    public void loadSnapshot(Path snapshotPath) throws IOException {
+        long start = System.nanoTime();
+        setData(MappedSnapshotFormat.open(snapshotPath));
+        log.info("Data mapped from snapshot " + snapshotPath + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @Override
+    void writeSnapshotFile(DataSnapshot snapshot, Path file) throws IOException {
+        MappedSnapshotFormat.write(snapshot, file);
+    }
+}
@@ -0,0 +1,77 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read only memory mapping of a whole file, whatever its size : the file is mapped
+ * in regions of 1 GB. Ints and longs shall be aligned on their size so that they never
+ * span two regions. Reads use absolute positions and can be done concurrently.
+ */
+final class MappedFile {
+
+    private static final int REGION_BITS = 30;
+    private static final long REGION_MASK = (1L << REGION_BITS) - 1;
+
+    private final MappedByteBuffer[] regions;
+    private final long size;
+
+    private MappedFile(MappedByteBuffer[] regions, long size) {
+        this.regions = regions;
+        this.size = size;
+    }
+
+    /**
+     * Map a file. The mapping stays valid once the file has been closed, replaced or deleted.
+     *
+     * @param path the file to map.
+     * @return the mapped file.
+     * @throws IOException if the file cannot be mapped.
+     */
+    static MappedFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((size + REGION_MASK) >>> REGION_BITS)];
+            for (int i = 0; i < regions.length; i++) {
+                long position = (long) i << REGION_BITS;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, 1L << REGION_BITS));
+            }
+            return new MappedFile(regions, size);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    int getInt(long position) {
+        return regions[(int) (position >>> REGION_BITS)].getInt((int) (position & REGION_MASK));
+    }
+
+    long getLong(long position) {
+        return regions[(int) (position >>> REGION_BITS)].getLong((int) (position & REGION_MASK));
+    }
+
+    /**
+     * @param position position of the first byte.
+     * @param length number of bytes.
+     * @return a copy of the bytes.
+     */
+    byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long current = position + copied;
+            ByteBuffer region = regions[(int) (current >>> REGION_BITS)].duplicate();
+            region.position((int) (current & REGION_MASK));
+            int count = Math.min(length - copied, region.remaining());
+            region.get(bytes, copied, count);
+            copied += count;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,294 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Binary format of SafetyNet Alerts data designed to be memory mapped and queried in
+ * place (see {@link MappedTable}) : nothing is deserialized when the file is opened.
+ *
+ * Layout (big endian, ints and longs aligned on their size) :
+ *  - header : magic "SNAM", format version, then positions of the strings, lists, persons,
+ *    fire stations and medical records sections, then sequence number of the last write-ahead
+ *    log record applied to the data
+ *  - strings : count, then for each string ({@link StringDictionary} order) the offset of its
+ *    UTF-8 bytes, followed by the bytes of all strings
+ *  - lists : string lists of the medical records, each one as a count followed by string references
+ *  - persons, fire stations and medical records tables : row count, record size, fixed size
+ *    records, then the table indexes.
+ *      person record : 7 string references
+ *      fire station record : address reference, station number
+ *      medical record : first name and last name references, birthdate as an epoch day (UTC),
+ *                       positions of the medications and allergies lists
+ */
+final class MappedSnapshotFormat {
+
+    private static final int MAGIC = 0x534E414D; // "SNAM"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final long MS_BY_DAY = 86_400_000L;
+    private static final int NO_BIRTHDATE = Integer.MIN_VALUE;
+    private static final int PERSON_RECORD_SIZE = 7 * Integer.BYTES;
+    private static final int FIRE_STATION_RECORD_SIZE = 2 * Integer.BYTES;
+    private static final int MEDICAL_RECORD_RECORD_SIZE = 5 * Integer.BYTES;
+
+    private MappedSnapshotFormat() {
+    }
+
+    static long align(long position) {
+        return (position + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    /**
+     * Write data in mapped format.
+     *
+     * @param data data to write.
+     * @param path destination file, created or replaced.
+     * @throws IOException if data cannot be written.
+     */
+    static void write(DataSnapshot data, Path path) throws IOException {
+        StringDictionary dictionary = StringDictionary.of(data);
+        List<Person> persons = data.getPersons();
+        List<FireStation> fireStations = data.getFirestations();
+        List<MedicalRecord> medicalRecords = data.getMedicalrecords();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            Writer out = new Writer(Channels.newOutputStream(channel), HEADER_SIZE);
+
+            long stringsPosition = out.position;
+            List<String> strings = dictionary.strings();
+            out.writeInt(strings.size());
+            out.align();
+            List<byte[]> encodedStrings = new ArrayList<>(strings.size());
+            long offset = 0;
+            out.writeLong(offset);
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                encodedStrings.add(bytes);
+                offset += bytes.length;
+                out.writeLong(offset);
+            }
+            for (byte[] bytes : encodedStrings) {
+                out.write(bytes);
+            }
+            out.align();
+
+            long listsPosition = out.position;
+            int[] listPositions = new int[medicalRecords.size() * 2];
+            int listPosition = 0;
+            for (int i = 0; i < medicalRecords.size(); i++) {
+                MedicalRecord medicalRecord = medicalRecords.get(i);
+                listPositions[2 * i] = listPosition;
+                listPosition += out.writeRefs(dictionary, medicalRecord.getMedications());
+                listPositions[2 * i + 1] = listPosition;
+                listPosition += out.writeRefs(dictionary, medicalRecord.getAllergies());
+            }
+            out.align();
+
+            long personsPosition = out.position;
+            out.writeInt(persons.size());
+            out.writeInt(PERSON_RECORD_SIZE);
+            for (Person person : persons) {
+                out.writeInt(dictionary.ref(person.getFirstName()));
+                out.writeInt(dictionary.ref(person.getLastName()));
+                out.writeInt(dictionary.ref(person.getAddress()));
+                out.writeInt(dictionary.ref(person.getCity()));
+                out.writeInt(dictionary.ref(person.getZip()));
+                out.writeInt(dictionary.ref(person.getPhone()));
+                out.writeInt(dictionary.ref(person.getEmail()));
+            }
+            out.writeIndexes(persons, DataView.PERSON_INDEXES);
+
+            long fireStationsPosition = out.position;
+            out.writeInt(fireStations.size());
+            out.writeInt(FIRE_STATION_RECORD_SIZE);
+            for (FireStation fireStation : fireStations) {
+                out.writeInt(dictionary.ref(fireStation.getAddress()));
+                out.writeInt(fireStation.getStation());
+            }
+            out.writeIndexes(fireStations, DataView.FIRE_STATION_INDEXES);
+
+            long medicalRecordsPosition = out.position;
+            out.writeInt(medicalRecords.size());
+            out.writeInt(MEDICAL_RECORD_RECORD_SIZE);
+            for (int i = 0; i < medicalRecords.size(); i++) {
+                MedicalRecord medicalRecord = medicalRecords.get(i);
+                out.writeInt(dictionary.ref(medicalRecord.getFirstName()));
+                out.writeInt(dictionary.ref(medicalRecord.getLastName()));
+                Date birthdate = medicalRecord.getBirthdate();
+                out.writeInt(birthdate == null ? NO_BIRTHDATE : Math.toIntExact(Math.floorDiv(birthdate.getTime(), MS_BY_DAY)));
+                out.writeInt(listPositions[2 * i]);
+                out.writeInt(listPositions[2 * i + 1]);
+            }
+            out.writeIndexes(medicalRecords, DataView.MEDICAL_RECORD_INDEXES);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(stringsPosition).putLong(listsPosition)
+                    .putLong(personsPosition).putLong(fireStationsPosition).putLong(medicalRecordsPosition)
+                    .putLong(data.getLogSequence());
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Open data written in mapped format. Only the header is read.
+     *
+     * @param path the mapped format file.
+     * @return a snapshot of the data, version 0, backed by the file mapping.
+     * @throws IOException if the file cannot be mapped or is not in mapped format.
+     */
+    static DataSnapshot open(Path path) throws IOException {
+        MappedFile file = MappedFile.map(path);
+        if (file.size() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a SafetyNet Alerts mapped snapshot");
+        }
+        if (file.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported SafetyNet Alerts mapped snapshot version " + file.getInt(4));
+        }
+        Strings strings = new Strings(file, file.getLong(8));
+        long listsPosition = file.getLong(16);
+        MappedTable<Person> persons = new MappedTable<>(file, file.getLong(24), DataView.PERSON_INDEXES,
+                (f, position) -> new Person(strings.get(f.getInt(position)), strings.get(f.getInt(position + 4)),
+                        strings.get(f.getInt(position + 8)), strings.get(f.getInt(position + 12)),
+                        strings.get(f.getInt(position + 16)), strings.get(f.getInt(position + 20)),
+                        strings.get(f.getInt(position + 24))));
+        MappedTable<FireStation> fireStations = new MappedTable<>(file, file.getLong(32), DataView.FIRE_STATION_INDEXES,
+                (f, position) -> new FireStation(strings.get(f.getInt(position)), f.getInt(position + 4)));
+        MappedTable<MedicalRecord> medicalRecords = new MappedTable<>(file, file.getLong(40), DataView.MEDICAL_RECORD_INDEXES,
+                (f, position) -> {
+                    int birthEpochDay = f.getInt(position + 8);
+                    return new MedicalRecord(strings.get(f.getInt(position)), strings.get(f.getInt(position + 4)),
+                            birthEpochDay == NO_BIRTHDATE ? null : new Date(birthEpochDay * MS_BY_DAY),
+                            strings.getList(listsPosition, f.getInt(position + 12)),
+                            strings.getList(listsPosition, f.getInt(position + 16)));
+                });
+        if (medicalRecords.end() != file.size()) {
+            throw new IOException("Truncated SafetyNet Alerts mapped snapshot");
+        }
+        return DataSnapshot.ofTables(persons, fireStations, medicalRecords).withLogSequence(file.getLong(48));
+    }
+
+    /**
+     * Strings section of a mapped file.
+     */
+    private static final class Strings {
+        private final MappedFile file;
+        private final int count;
+        private final long offsetsPosition;
+        private final long bytesPosition;
+
+        private Strings(MappedFile file, long position) {
+            this.file = file;
+            this.count = file.getInt(position);
+            this.offsetsPosition = position + Long.BYTES;
+            this.bytesPosition = offsetsPosition + (count + 1L) * Long.BYTES;
+        }
+
+        private String get(int ref) {
+            if (ref <= 0 || ref > count) {
+                return null;
+            }
+            long start = file.getLong(offsetsPosition + (ref - 1L) * Long.BYTES);
+            long end = file.getLong(offsetsPosition + (long) ref * Long.BYTES);
+            return new String(file.getBytes(bytesPosition + start, (int) (end - start)), StandardCharsets.UTF_8);
+        }
+
+        private List<String> getList(long listsPosition, int listPosition) {
+            long position = listsPosition + (long) listPosition * Integer.BYTES;
+            int size = file.getInt(position);
+            List<String> list = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                list.add(get(file.getInt(position + (long) i * Integer.BYTES)));
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Output stream keeping track of its position in the file.
+     */
+    private static final class Writer {
+        private final DataOutputStream out;
+        private long position;
+
+        private Writer(OutputStream outputStream, long position) {
+            this.out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+            this.position = position;
+        }
+
+        private void writeInt(int value) throws IOException {
+            out.writeInt(value);
+            position += Integer.BYTES;
+        }
+
+        private void writeLong(long value) throws IOException {
+            out.writeLong(value);
+            position += Long.BYTES;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        private void align() throws IOException {
+            while (position != MappedSnapshotFormat.align(position)) {
+                out.writeByte(0);
+                position++;
+            }
+        }
+
+        /**
+         * @return number of ints written.
+         */
+        private int writeRefs(StringDictionary dictionary, List<String> values) throws IOException {
+            List<String> list = values == null ? List.of() : values;
+            writeInt(list.size());
+            for (String value : list) {
+                writeInt(dictionary.ref(value));
+            }
+            return list.size() + 1;
+        }
+
+        private <T> void writeIndexes(List<T> rows, List<Index<T, ?>> indexes) throws IOException {
+            align();
+            long[] entries = new long[rows.size()];
+            for (Index<T, ?> index : indexes) {
+                for (int id = 0; id < entries.length; id++) {
+                    entries[id] = ((long) index.keyOf(rows.get(id)).hashCode() << 32) | id;
+                }
+                Arrays.sort(entries);
+                for (long entry : entries) {
+                    writeLong(entry);
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
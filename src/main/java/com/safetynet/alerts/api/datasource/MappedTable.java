@@ -0,0 +1,153 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read only table queried in place in a memory mapped file. Rows are fixed size records,
+ * decoded on access : each access returns new entity objects.
+ *
+ * Each index is stored as one long per row, sorted : the hash code of the row key in the
+ * high 32 bits, the row id in the low ones. Rows of a key are found by binary search on
+ * the key hash code, then checked against the key to discard hash collisions.
+ *
+ * @param <T> entity class
+ */
+final class MappedTable<T> implements TableView<T> {
+
+    /**
+     * Decoder of the record of a row.
+     */
+    @FunctionalInterface
+    interface RowDecoder<T> {
+        T decode(MappedFile file, long recordPosition);
+    }
+
+    private final MappedFile file;
+    private final List<Index<T, ?>> indexes;
+    private final RowDecoder<T> decoder;
+    private final int rowCount;
+    private final int recordSize;
+    private final long recordsPosition;
+    private final long[] indexPositions;
+    private final List<T> rows = new Rows();
+
+    /**
+     * @param file mapped file.
+     * @param position position of the table in the file.
+     * @param indexes table indexes, in the order of the file.
+     * @param decoder decoder of the row records.
+     */
+    MappedTable(MappedFile file, long position, List<Index<T, ?>> indexes, RowDecoder<T> decoder) {
+        this.file = file;
+        this.indexes = indexes;
+        this.decoder = decoder;
+        this.rowCount = file.getInt(position);
+        this.recordSize = file.getInt(position + 4);
+        this.recordsPosition = position + 8;
+        this.indexPositions = new long[indexes.size()];
+        long indexPosition = MappedSnapshotFormat.align(recordsPosition + (long) rowCount * recordSize);
+        for (int i = 0; i < indexPositions.length; i++) {
+            indexPositions[i] = indexPosition;
+            indexPosition += (long) rowCount * Long.BYTES;
+        }
+    }
+
+    /**
+     * @return position following the table in the file.
+     */
+    long end() {
+        return indexPositions.length == 0
+                ? MappedSnapshotFormat.align(recordsPosition + (long) rowCount * recordSize)
+                : indexPositions[indexPositions.length - 1] + (long) rowCount * Long.BYTES;
+    }
+
+    @Override
+    public List<T> rows() {
+        return rows;
+    }
+
+    int size() {
+        return rowCount;
+    }
+
+    List<Index<T, ?>> indexes() {
+        return indexes;
+    }
+
+    @Override
+    public <K> List<T> get(Index<T, K> index, K key) {
+        long indexPosition = indexPositions[indexes.indexOf(index)];
+        int hash = key.hashCode();
+        List<T> entities = new ArrayList<>();
+        for (int i = lowerBound(indexPosition, hash); i < rowCount; i++) {
+            long entry = file.getLong(indexPosition + (long) i * Long.BYTES);
+            if ((int) (entry >> 32) != hash) break;
+            T entity = rows.get((int) entry);
+            if (key.equals(index.keyOf(entity))) {
+                entities.add(entity);
+            }
+        }
+        return Collections.unmodifiableList(entities);
+    }
+
+    /**
+     * @param index one of the table indexes
+     * @param key key built as the index key function does
+     * @return ids of the rows having that key, in increasing order.
+     */
+    <K> int[] ids(Index<T, K> index, K key) {
+        long indexPosition = indexPositions[indexes.indexOf(index)];
+        int hash = key.hashCode();
+        int[] ids = new int[4];
+        int size = 0;
+        for (int i = lowerBound(indexPosition, hash); i < rowCount; i++) {
+            long entry = file.getLong(indexPosition + (long) i * Long.BYTES);
+            if ((int) (entry >> 32) != hash) break;
+            if (key.equals(index.keyOf(rows.get((int) entry)))) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = (int) entry;
+            }
+        }
+        return Arrays.copyOf(ids, size);
+    }
+
+    /*first index entry whose key hash code is not lower than the given one*/
+    private int lowerBound(long indexPosition, int hash) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if ((int) (file.getLong(indexPosition + (long) middle * Long.BYTES) >> 32) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Rows decoded on access.
+     */
+    private final class Rows extends AbstractList<T> implements RandomAccess {
+        @Override
+        public T get(int id) {
+            if (id < 0 || id >= rowCount) {
+                throw new IndexOutOfBoundsException("Row " + id + " of " + rowCount);
+            }
+            return decoder.decode(file, recordsPosition + (long) id * recordSize);
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable table made of a {@link MappedTable} and of the modifications made since it has been
+ * mapped, held by heap tables : updating mapped data neither copies the mapped rows nor decodes
+ * the ones that are not modified. The heap usage grows with the number of modified rows only.
+ *
+ * A replaced mapped row keeps its place, a removed one is skipped, added entities follow the
+ * mapped rows. As for a {@link Table}, an {@link Editor} builds a new table that shares all
+ * unmodified data with this one.
+ *
+ * @param <T> entity class
+ */
+final class OverlayTable<T> implements TableView<T> {
+
+    private final MappedTable<T> base;
+    /*for each index of the mapped table, the same index on the replacements*/
+    private final List<Index<Replacement<T>, ?>> replacementIndexes;
+    /*mapped row id -> its replacement*/
+    private final CowHashMap<Integer, Replacement<T>> replaced;
+    private final Table<Replacement<T>> replacements;
+    /*ids of the removed mapped rows*/
+    private final CowHashMap<Integer, Boolean> removed;
+    private final Table<T> added;
+    /*ids of the removed mapped rows in increasing order, built on first positional access*/
+    private volatile int[] removedIds;
+    private final List<T> rows = new Rows();
+
+    /**
+     * @param base mapped table.
+     * @return the mapped table, not modified yet.
+     */
+    static <T> OverlayTable<T> of(MappedTable<T> base) {
+        List<Index<Replacement<T>, ?>> replacementIndexes = replacementIndexes(base.indexes());
+        return new OverlayTable<>(base, replacementIndexes, CowHashMap.empty(), Table.empty(replacementIndexes),
+                CowHashMap.empty(), Table.empty(base.indexes()));
+    }
+
+    private OverlayTable(MappedTable<T> base, List<Index<Replacement<T>, ?>> replacementIndexes,
+                         CowHashMap<Integer, Replacement<T>> replaced, Table<Replacement<T>> replacements,
+                         CowHashMap<Integer, Boolean> removed, Table<T> added) {
+        this.base = base;
+        this.replacementIndexes = replacementIndexes;
+        this.replaced = replaced;
+        this.replacements = replacements;
+        this.removed = removed;
+        this.added = added;
+    }
+
+    private static <T> List<Index<Replacement<T>, ?>> replacementIndexes(List<Index<T, ?>> indexes) {
+        List<Index<Replacement<T>, ?>> replacementIndexes = new ArrayList<>(indexes.size());
+        for (Index<T, ?> index : indexes) {
+            replacementIndexes.add(new Index<Replacement<T>, Object>(replacement -> index.keyOf(replacement.entity)));
+        }
+        return replacementIndexes;
+    }
+
+    /**
+     * @return number of mapped rows removed or replaced plus number of entities added : rows held on heap.
+     */
+    int overlaySize() {
+        return replaced.size() + removed.size() + added.size();
+    }
+
+    @Override
+    public List<T> rows() {
+        return rows;
+    }
+
+    @Override
+    public <K> List<T> get(Index<T, K> index, K key) {
+        return get(index, key, base, replacementIndexes, replacements, id -> removed.get(id) != null || replaced.get(id) != null,
+                base.rows()::get, added);
+    }
+
+    /*mapped rows of the key that are neither removed nor replaced merged by id with the replacements of the key,
+    followed by the added entities of the key*/
+    @SuppressWarnings("unchecked")
+    private static <T, K> List<T> get(Index<T, K> index, K key, MappedTable<T> base, List<Index<Replacement<T>, ?>> replacementIndexes,
+                                      TableView<Replacement<T>> replacements, IntPredicate shadowed, IntFunction<T> mappedRow,
+                                      TableView<T> added) {
+        int[] ids = base.ids(index, key);
+        Index<Replacement<T>, K> replacementIndex = (Index<Replacement<T>, K>) replacementIndexes.get(base.indexes().indexOf(index));
+        List<Replacement<T>> replacementsOfKey = new ArrayList<>(replacements.get(replacementIndex, key));
+        replacementsOfKey.sort(Comparator.comparingInt(replacement -> replacement.id));
+        List<T> addedOfKey = added.get(index, key);
+        List<T> entities = new ArrayList<>(ids.length + replacementsOfKey.size() + addedOfKey.size());
+        int next = 0;
+        for (int id : ids) {
+            if (shadowed.test(id)) continue;
+            for (; next < replacementsOfKey.size() && replacementsOfKey.get(next).id < id; next++) {
+                entities.add(replacementsOfKey.get(next).entity);
+            }
+            entities.add(mappedRow.apply(id));
+        }
+        for (; next < replacementsOfKey.size(); next++) {
+            entities.add(replacementsOfKey.get(next).entity);
+        }
+        entities.addAll(addedOfKey);
+        return Collections.unmodifiableList(entities);
+    }
+
+    private int[] removedIds() {
+        int[] ids = removedIds;
+        if (ids == null) {
+            int[] sortedIds = new int[removed.size()];
+            int[] size = new int[1];
+            removed.forEach((id, value) -> sortedIds[size[0]++] = id);
+            Arrays.sort(sortedIds);
+            ids = sortedIds;
+            removedIds = ids;
+        }
+        return ids;
+    }
+
+    Editor<T> edit() {
+        return new Editor<>(this);
+    }
+
+    /**
+     * Replacement of a mapped row.
+     */
+    private static final class Replacement<T> {
+        private final int id;
+        private final T entity;
+
+        private Replacement(int id, T entity) {
+            this.id = id;
+            this.entity = entity;
+        }
+    }
+
+    /**
+     * Rows in table order : the position of a mapped row is found by a binary search on the ids of the removed rows.
+     */
+    private final class Rows extends AbstractList<T> implements RandomAccess {
+        @Override
+        public T get(int position) {
+            int mappedRows = base.size() - removed.size();
+            if (position < 0 || position >= size()) {
+                throw new IndexOutOfBoundsException("Row " + position + " of " + size());
+            }
+            if (position >= mappedRows) {
+                return added.rows().get(position - mappedRows);
+            }
+            //removedIds[k] - k is non decreasing : the removed rows before the row are the k for which it is <= position
+            int[] ids = removedIds();
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ids[middle] - middle <= position) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int id = position + low;
+            Replacement<T> replacement = replaced.get(id);
+            return replacement != null ? replacement.entity : base.rows().get(id);
+        }
+
+        @Override
+        public int size() {
+            return base.size() - removed.size() + added.size();
+        }
+    }
+
+    /**
+     * Mutable copy of an {@link OverlayTable}. Mapped rows are decoded once by an editor : the same
+     * entity is returned each time a row is got, so that it can be located by identity.
+     */
+    static final class Editor<T> implements TableEditor<T> {
+        private final MappedTable<T> base;
+        private final List<Index<Replacement<T>, ?>> replacementIndexes;
+        private final CowHashMap.Transient<Integer, Replacement<T>> replaced;
+        private final Table.Editor<Replacement<T>> replacements;
+        private final CowHashMap.Transient<Integer, Boolean> removed;
+        private final Table.Editor<T> added;
+        /*mapped row id -> entity decoded by this editor*/
+        private final Map<Integer, T> decoded = new HashMap<>();
+
+        private Editor(OverlayTable<T> table) {
+            this.base = table.base;
+            this.replacementIndexes = table.replacementIndexes;
+            this.replaced = table.replaced.edit();
+            this.replacements = table.replacements.edit();
+            this.removed = table.removed.edit();
+            this.added = table.added.edit();
+        }
+
+        private boolean isShadowed(int id) {
+            return removed.get(id) != null || replaced.get(id) != null;
+        }
+
+        private T decode(int id) {
+            return decoded.computeIfAbsent(id, base.rows()::get);
+        }
+
+        @Override
+        public List<T> rows() {
+            List<T> rows = new ArrayList<>();
+            for (int id = 0; id < base.size(); id++) {
+                if (removed.get(id) != null) continue;
+                Replacement<T> replacement = replaced.get(id);
+                rows.add(replacement != null ? replacement.entity : decode(id));
+            }
+            rows.addAll(added.rows());
+            return Collections.unmodifiableList(rows);
+        }
+
+        @Override
+        public <K> List<T> get(Index<T, K> index, K key) {
+            return OverlayTable.get(index, key, base, replacementIndexes, replacements, this::isShadowed, this::decode, added);
+        }
+
+        @Override
+        public void add(T entity) {
+            added.add(entity);
+        }
+
+        @Override
+        public boolean remove(T entity) {
+            if (added.remove(entity)) return true;
+            int id = locate(entity);
+            if (id < 0) return false;
+            Replacement<T> replacement = replaced.remove(id);
+            if (replacement != null) {
+                replacements.remove(replacement);
+            }
+            removed.put(id, Boolean.TRUE);
+            return true;
+        }
+
+        @Override
+        public boolean replace(T entity, T replacement) {
+            if (added.replace(entity, replacement)) return true;
+            int id = locate(entity);
+            if (id < 0) return false;
+            Replacement<T> newReplacement = new Replacement<>(id, replacement);
+            Replacement<T> previous = replaced.put(id, newReplacement);
+            if (previous != null) {
+                replacements.replace(previous, newReplacement);
+            } else {
+                replacements.add(newReplacement);
+            }
+            return true;
+        }
+
+        /*id of the mapped row holding the entity, either replaced by it or decoded by this editor. -1 if none*/
+        @SuppressWarnings("unchecked")
+        private int locate(T entity) {
+            Index<T, Object> locator = (Index<T, Object>) base.indexes().get(0);
+            Object key = locator.keyOf(entity);
+            for (Replacement<T> replacement : replacements.get((Index<Replacement<T>, Object>) replacementIndexes.get(0), key)) {
+                if (replacement.entity == entity) return replacement.id;
+            }
+            for (int id : base.ids(locator, key)) {
+                if (!isShadowed(id) && decoded.get(id) == entity) return id;
+            }
+            return -1;
+        }
+
+        @Override
+        public OverlayTable<T> build() {
+            return new OverlayTable<>(base, replacementIndexes, replaced.build(), replacements.build(), removed.build(), added.build());
+        }
+    }
+}
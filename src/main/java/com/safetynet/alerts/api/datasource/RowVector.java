@@ -0,0 +1,151 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable vector of rows addressed by row id, split into fixed size chunks. Rows are
+ * appended with increasing ids, removed rows leave an empty slot. A vector is updated
+ * through a {@link Transient} which copies only the chunks it modifies.
+ *
+ * @param <T> row class
+ */
+final class RowVector<T> {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final RowVector EMPTY = new RowVector<>(new Object[0][], 0, 0);
+
+    private final Object[][] chunks;
+    private final int nextId;
+    private final int size;
+
+    private RowVector(Object[][] chunks, int nextId, int size) {
+        this.chunks = chunks;
+        this.nextId = nextId;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> RowVector<T> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param id row id
+     * @return the row, or null if removed.
+     */
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        return (T) chunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return all rows ordered by id.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> toList() {
+        List<T> rows = new ArrayList<>(size);
+        for (int id = 0; id < nextId; id++) {
+            Object row = chunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+            if (row != null) rows.add((T) row);
+        }
+        return rows;
+    }
+
+    /**
+     * @return a transient copy of this vector to update it.
+     */
+    Transient<T> edit() {
+        return new Transient<>(chunks.clone(), nextId, size);
+    }
+
+    /**
+     * Mutable copy of a {@link RowVector}. A chunk is copied the first time it is modified.
+     */
+    static final class Transient<T> {
+        private Object[][] chunks;
+        private boolean[] owned;
+        private int nextId;
+        private int size;
+
+        private Transient(Object[][] chunks, int nextId, int size) {
+            this.chunks = chunks;
+            this.owned = new boolean[chunks.length];
+            this.nextId = nextId;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(int id) {
+            return (T) chunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            List<T> rows = new ArrayList<>(size);
+            for (int id = 0; id < nextId; id++) {
+                Object row = chunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+                if (row != null) rows.add((T) row);
+            }
+            return rows;
+        }
+
+        /**
+         * Append a row.
+         *
+         * @param row row to append.
+         * @return id of the appended row.
+         */
+        int append(T row) {
+            int id = nextId++;
+            int chunkIndex = id >>> CHUNK_BITS;
+            if (chunkIndex == chunks.length) {
+                //grow the chunk table geometrically : bulk loads append millions of rows
+                chunks = Arrays.copyOf(chunks, Math.max(4, chunks.length * 2));
+                owned = Arrays.copyOf(owned, chunks.length);
+            }
+            if (chunks[chunkIndex] == null) {
+                chunks[chunkIndex] = new Object[CHUNK_SIZE];
+                owned[chunkIndex] = true;
+            }
+            ownedChunk(chunkIndex)[id & CHUNK_MASK] = row;
+            size++;
+            return id;
+        }
+
+        void set(int id, T row) {
+            ownedChunk(id >>> CHUNK_BITS)[id & CHUNK_MASK] = row;
+        }
+
+        void remove(int id) {
+            ownedChunk(id >>> CHUNK_BITS)[id & CHUNK_MASK] = null;
+            size--;
+        }
+
+        private Object[] ownedChunk(int chunkIndex) {
+            if (!owned[chunkIndex]) {
+                chunks[chunkIndex] = chunks[chunkIndex].clone();
+                owned[chunkIndex] = true;
+            }
+            return chunks[chunkIndex];
+        }
+
+        /**
+         * @return an immutable vector with the content of this transient. The transient can still be
+         * used afterwards : modified chunks will be copied again.
+         */
+        RowVector<T> build() {
+            Arrays.fill(owned, false);
+            return new RowVector<>(chunks.clone(), nextId, size);
+        }
+    }
+}
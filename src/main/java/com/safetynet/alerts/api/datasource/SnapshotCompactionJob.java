@@ -0,0 +1,86 @@
+package com.safetynet.alerts.api.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job writing a snapshot of the data to the "datasource.snapshot.filepath" file
+ * every "datasource.compaction.interval-ms", then dropping the write-ahead log records held
+ * by the snapshot : the log length, and the replay time at startup, stay bounded.
+ * The job runs only if the log holds at least "datasource.compaction.min-log-records" records.
+ *
+ * Metrics : datasource.snapshot.duration, datasource.snapshot.size (bytes),
+ * datasource.wal.records and datasource.wal.size (bytes).
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class SnapshotCompactionJob {
+
+    private final IAlertsDataSource dataSource;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value( "${datasource.snapshot.filepath:}" )
+    private String snapshotFilePath;
+
+    @Value( "${datasource.compaction.min-log-records:1}" )
+    private long minLogRecords;
+
+    private final AtomicLong snapshotSize = new AtomicLong();
+
+    private Timer snapshotTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        snapshotTimer = Timer.builder("datasource.snapshot.duration")
+                .description("Time to write a snapshot of the data and compact the write-ahead log")
+                .register(meterRegistry);
+        Gauge.builder("datasource.snapshot.size", snapshotSize, AtomicLong::get)
+                .description("Size of the last written snapshot").baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("datasource.wal.records", dataSource, IAlertsDataSource::getWriteAheadLogRecords)
+                .description("Number of records in the write-ahead log")
+                .register(meterRegistry);
+        Gauge.builder("datasource.wal.size", dataSource, IAlertsDataSource::getWriteAheadLogSize)
+                .description("Size of the write-ahead log file").baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write a snapshot and compact the write-ahead log, if a snapshot file is configured and the
+     * log is long enough. Runs on the scheduler thread, off the request path.
+     */
+    @Scheduled(initialDelayString = "${datasource.compaction.interval-ms:60000}",
+            fixedDelayString = "${datasource.compaction.interval-ms:60000}")
+    public void compact() {
+        long logRecords = dataSource.getWriteAheadLogRecords();
+        if (snapshotFilePath.isBlank() || logRecords == 0 || logRecords < minLogRecords) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            snapshotSize.set(dataSource.compact(Paths.get(snapshotFilePath)));
+            long duration = System.nanoTime() - start;
+            snapshotTimer.record(duration, TimeUnit.NANOSECONDS);
+            log.info("Snapshot " + snapshotFilePath + " written in " + duration / 1_000_000 + " ms ("
+                    + snapshotSize.get() + " bytes), write-ahead log records : " + logRecords + " -> "
+                    + dataSource.getWriteAheadLogRecords());
+        } catch (IOException e) {
+            log.error("Failed to write snapshot " + snapshotFilePath + " : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distinct strings of SafetyNet Alerts data, in order of first occurrence, used by binary
+ * formats to store each string once. A string is referred to by its index in the
+ * dictionary plus one, 0 standing for null.
+ */
+final class StringDictionary {
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> refs = new HashMap<>();
+
+    /**
+     * @param data data whose strings are collected.
+     * @return the dictionary of all strings of the data.
+     */
+    static StringDictionary of(DataSnapshot data) {
+        StringDictionary dictionary = new StringDictionary();
+        for (Person person : data.getPersons()) {
+            dictionary.add(person.getFirstName(), person.getLastName(), person.getAddress(), person.getCity(),
+                    person.getZip(), person.getPhone(), person.getEmail());
+        }
+        for (FireStation fireStation : data.getFirestations()) {
+            dictionary.add(fireStation.getAddress());
+        }
+        for (MedicalRecord medicalRecord : data.getMedicalrecords()) {
+            dictionary.add(medicalRecord.getFirstName(), medicalRecord.getLastName());
+            dictionary.addAll(medicalRecord.getMedications());
+            dictionary.addAll(medicalRecord.getAllergies());
+        }
+        return dictionary;
+    }
+
+    private void add(String... values) {
+        for (String value : values) {
+            if (value != null && !refs.containsKey(value)) {
+                strings.add(value);
+                refs.put(value, strings.size());
+            }
+        }
+    }
+
+    private void addAll(List<String> values) {
+        if (values != null) values.forEach(this::add);
+    }
+
+    List<String> strings() {
+        return strings;
+    }
+
+    /**
+     * @param value a string of the dictionary, or null.
+     * @return reference of the string.
+     */
+    int ref(String value) {
+        return value == null ? 0 : refs.get(value);
+    }
+}
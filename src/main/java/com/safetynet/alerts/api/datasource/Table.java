@@ -0,0 +1,220 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable table of entities kept in insertion order, with secondary indexes.
+ * A table is updated through an {@link Editor} : the resulting table shares
+ * all rows and index entries that have not been modified with this one.
+ *
+ * @param <T> entity class
+ */
+final class Table<T> implements TableView<T> {
+
+    private final List<Index<T, ?>> indexes;
+    private final RowVector<T> rows;
+    /*for each index : index key -> ids of the rows having that key, in insertion order*/
+    private final List<CowHashMap<Object, IdList>> indexEntries;
+    private volatile List<T> rowList;
+
+    private Table(List<Index<T, ?>> indexes, RowVector<T> rows, List<CowHashMap<Object, IdList>> indexEntries) {
+        this.indexes = indexes;
+        this.rows = rows;
+        this.indexEntries = indexEntries;
+    }
+
+    /**
+     * @param indexes table indexes, the first one is used to locate entities.
+     * @return an empty table.
+     */
+    static <T> Table<T> empty(List<Index<T, ?>> indexes) {
+        List<CowHashMap<Object, IdList>> indexEntries = new ArrayList<>(indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            indexEntries.add(CowHashMap.empty());
+        }
+        return new Table<>(indexes, RowVector.empty(), indexEntries);
+    }
+
+    @Override
+    public List<T> rows() {
+        List<T> list = rowList;
+        if (list == null) {
+            list = Collections.unmodifiableList(rows.toList());
+            rowList = list;
+        }
+        return list;
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    @Override
+    public <K> List<T> get(Index<T, K> index, K key) {
+        IdList ids = indexEntries.get(indexes.indexOf(index)).get(key);
+        if (ids == null) return List.of();
+        List<T> entities = new ArrayList<>(ids.size);
+        for (int i = 0; i < ids.size; i++) {
+            entities.add(rows.get(ids.ids[i]));
+        }
+        return Collections.unmodifiableList(entities);
+    }
+
+    Editor<T> edit() {
+        return new Editor<>(this);
+    }
+
+    /**
+     * Mutable copy of a {@link Table}. Entities are located by identity.
+     */
+    static final class Editor<T> implements TableEditor<T> {
+        private final List<Index<T, ?>> indexes;
+        private final RowVector.Transient<T> rows;
+        private final List<CowHashMap.Transient<Object, IdList>> indexEntries;
+        /*owner token of the id lists created by this editor since the last build, that can be modified in place*/
+        private Object owner = new Object();
+
+        private Editor(Table<T> table) {
+            this.indexes = table.indexes;
+            this.rows = table.rows.edit();
+            this.indexEntries = new ArrayList<>(indexes.size());
+            table.indexEntries.forEach(entries -> indexEntries.add(entries.edit()));
+        }
+
+        @Override
+        public List<T> rows() {
+            return Collections.unmodifiableList(rows.toList());
+        }
+
+        @Override
+        public <K> List<T> get(Index<T, K> index, K key) {
+            IdList ids = indexEntries.get(indexes.indexOf(index)).get(key);
+            if (ids == null) return List.of();
+            List<T> entities = new ArrayList<>(ids.size);
+            for (int i = 0; i < ids.size; i++) {
+                entities.add(rows.get(ids.ids[i]));
+            }
+            return Collections.unmodifiableList(entities);
+        }
+
+        @Override
+        public void add(T entity) {
+            int id = rows.append(entity);
+            for (int i = 0; i < indexes.size(); i++) {
+                addId(i, indexes.get(i).keyOf(entity), id);
+            }
+        }
+
+        @Override
+        public boolean remove(T entity) {
+            int id = locate(entity);
+            if (id < 0) return false;
+            rows.remove(id);
+            for (int i = 0; i < indexes.size(); i++) {
+                removeId(i, indexes.get(i).keyOf(entity), id);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean replace(T entity, T replacement) {
+            int id = locate(entity);
+            if (id < 0) return false;
+            rows.set(id, replacement);
+            for (int i = 0; i < indexes.size(); i++) {
+                Object key = indexes.get(i).keyOf(entity);
+                Object replacementKey = indexes.get(i).keyOf(replacement);
+                if (!key.equals(replacementKey)) {
+                    removeId(i, key, id);
+                    addId(i, replacementKey, id);
+                }
+            }
+            return true;
+        }
+
+        private int locate(T entity) {
+            IdList ids = indexEntries.get(0).get(indexes.get(0).keyOf(entity));
+            if (ids != null) {
+                for (int i = 0; i < ids.size; i++) {
+                    if (rows.get(ids.ids[i]) == entity) return ids.ids[i];
+                }
+            }
+            return -1;
+        }
+
+        private void addId(int indexPosition, Object key, int id) {
+            CowHashMap.Transient<Object, IdList> entries = indexEntries.get(indexPosition);
+            IdList ids = entries.get(key);
+            if (ids == null) {
+                ids = new IdList(new int[1], 0, owner);
+                entries.put(key, ids);
+            } else if (ids.owner != owner) {
+                ids = ids.copy(owner);
+                entries.put(key, ids);
+            }
+            ids.add(id);
+        }
+
+        private void removeId(int indexPosition, Object key, int id) {
+            CowHashMap.Transient<Object, IdList> entries = indexEntries.get(indexPosition);
+            IdList ids = entries.get(key);
+            if (ids == null) return;
+            if (ids.size == 1) {
+                entries.remove(key);
+                return;
+            }
+            if (ids.owner != owner) {
+                ids = ids.copy(owner);
+                entries.put(key, ids);
+            }
+            ids.remove(id);
+        }
+
+        @Override
+        public Table<T> build() {
+            owner = new Object();
+            List<CowHashMap<Object, IdList>> builtIndexEntries = new ArrayList<>(indexEntries.size());
+            indexEntries.forEach(entries -> builtIndexEntries.add(entries.build()));
+            return new Table<>(indexes, rows.build(), builtIndexEntries);
+        }
+    }
+
+    /**
+     * Growable list of row ids. Only modified by the editor that created it.
+     */
+    private static final class IdList {
+        private int[] ids;
+        private int size;
+        private final Object owner;
+
+        private IdList(int[] ids, int size, Object owner) {
+            this.ids = ids;
+            this.size = size;
+            this.owner = owner;
+        }
+
+        private IdList copy(Object owner) {
+            return new IdList(Arrays.copyOf(ids, size + 1), size, owner);
+        }
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+}
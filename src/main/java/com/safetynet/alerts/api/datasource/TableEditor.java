@@ -0,0 +1,38 @@
+package com.safetynet.alerts.api.datasource;
+
+/**
+ * Modifiable copy of a {@link TableView}. Entities are located by identity : entities to
+ * remove or replace shall have been got from the editor.
+ *
+ * @param <T> entity class
+ */
+interface TableEditor<T> extends TableView<T> {
+    /**
+     * Add an entity at the end of the table.
+     *
+     * @param entity entity to add.
+     */
+    void add(T entity);
+
+    /**
+     * Remove an entity from the table.
+     *
+     * @param entity entity to remove.
+     * @return false if the entity is not in the table.
+     */
+    boolean remove(T entity);
+
+    /**
+     * Replace an entity by another one at the same place of the table.
+     *
+     * @param entity entity to replace.
+     * @param replacement new entity.
+     * @return false if the entity to replace is not in the table.
+     */
+    boolean replace(T entity, T replacement);
+
+    /**
+     * @return an immutable table with the content of this editor. The editor can still be used afterwards.
+     */
+    TableView<T> build();
+}
@@ -0,0 +1,22 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.List;
+
+/**
+ * Read access to a {@link Table} or to a table being edited.
+ *
+ * @param <T> entity class
+ */
+interface TableView<T> {
+    /**
+     * @return all entities in insertion order.
+     */
+    List<T> rows();
+
+    /**
+     * @param index one of the table indexes
+     * @param key key built as the index key function does
+     * @return entities having that key, in insertion order.
+     */
+    <K> List<T> get(Index<T, K> index, K key);
+}
@@ -0,0 +1,642 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the data modifications, replayed on top of the loaded data at startup.
+ *
+ * Modifications are appended to an in-memory buffer by the serialized writers, then written to
+ * the file by {@link #sync(long)} : the first writer to sync writes and fsyncs the records of all
+ * writers that have appended in the meantime (group commit), which then return without I/O.
+ *
+ * Layout (integers are variable length encoded, 7 bits by byte, unless stated otherwise) :
+ *  - header : magic "SNAW" (4 bytes), format version (4 bytes), modification time in ms of the json data
+ *    file the records apply to (8 bytes), sequence number of the last record dropped from the log (8 bytes),
+ *    sequence number of the last record dropped because a snapshot holds it, 0 if none since the last reset (8 bytes)
+ *  - records : payload length (4 bytes), CRC32 of the payload (4 bytes), payload : sequence number,
+ *    number of modifications, then for each modification its entity and type (1 byte), the locator key
+ *    and the ordinal of the modified entity (except for additions), and the new entity (except for removals)
+ * Strings are encoded as their UTF-8 length + 1 (0 for null) followed by their bytes.
+ * A torn record at the end of the file, left by a crash during a write, is ignored and truncated.
+ *
+ * Records already held by a snapshot of the data are dropped by {@link #discardUpTo(long)}, which
+ * rewrites the log with the remaining records and atomically replaces the file. A new header, when
+ * the log is created or reset, replaces the file atomically too.
+ */
+@Log4j2
+public final class WriteAheadLog implements Closeable {
+
+    /**
+     * When appended records are forced to the storage device.
+     */
+    public enum FsyncPolicy {
+        /** before the write operation returns : no acknowledged modification is lost */
+        ALWAYS,
+        /** periodically in background : modifications of the last interval may be lost on a crash */
+        INTERVAL,
+        /** never : records are written to the file before the write operation returns, and flushed by the OS */
+        NEVER
+    }
+
+    private static final int MAGIC = 0x534E4157; // "SNAW"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path path;
+    private final FsyncPolicy fsyncPolicy;
+    private final ScheduledExecutorService scheduler;
+    /*guarded by syncLock once the log is replayed*/
+    private FileChannel channel;
+    /*header fields*/
+    private long dataFileMillis;
+    private long baseSequence;
+    private long compactedSequence;
+    private volatile long fileSize;
+    private volatile long recordCount;
+
+    /*records appended and not written to the file yet, guarded by this*/
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedSequence;
+    /*guards file writes : a single writer syncs at once, on behalf of all pending records*/
+    private final Object syncLock = new Object();
+    private volatile long syncedSequence;
+    /*first failed file write : the log is unusable*/
+    private volatile IOException failure;
+
+    private WriteAheadLog(Path path, long dataFileMillis, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        this.path = path;
+        this.fsyncPolicy = fsyncPolicy;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                writeHeader(dataFileMillis, 0, 0);
+            } else {
+                readHeader();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "write-ahead-log-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::syncInBackground, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Open a write-ahead log file, created if it does not exist.
+     *
+     * @param path path to the log file.
+     * @param dataFileMillis modification time of the json data file the records of a created log apply to.
+     * @param fsyncPolicy when appended records are forced to the storage device.
+     * @param fsyncIntervalMillis interval between two fsyncs for the {@link FsyncPolicy#INTERVAL} policy.
+     * @return the log, records shall be replayed before appending new ones.
+     * @throws IOException if the file cannot be opened or is not a write-ahead log.
+     */
+    static WriteAheadLog open(Path path, long dataFileMillis, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        return new WriteAheadLog(path, dataFileMillis, fsyncPolicy, fsyncIntervalMillis);
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            //read until the header is complete or the end of file is reached
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not a SafetyNet Alerts write-ahead log : " + path);
+        }
+        int formatVersion = header.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported SafetyNet Alerts write-ahead log version " + formatVersion);
+        }
+        dataFileMillis = header.getLong();
+        baseSequence = header.getLong();
+        compactedSequence = header.getLong();
+        appendedSequence = baseSequence;
+    }
+
+    private static ByteBuffer header(long dataFileMillis, long baseSequence, long compactedSequence) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION)
+                .putLong(dataFileMillis).putLong(baseSequence).putLong(compactedSequence);
+        header.flip();
+        return header;
+    }
+
+    private void writeHeader(long dataFileMillis, long baseSequence, long compactedSequence) throws IOException {
+        replaceFile(dataFileMillis, baseSequence, compactedSequence, HEADER_SIZE, HEADER_SIZE);
+        this.dataFileMillis = dataFileMillis;
+        this.baseSequence = baseSequence;
+        this.compactedSequence = compactedSequence;
+        this.recordCount = 0;
+    }
+
+    /**
+     * Replace the log file by a new header followed by a range of the current records. The new file is
+     * written aside then moved atomically : a crash leaves either the previous file or the new one.
+     *
+     * @param dataFileMillis modification time of the json data file of the new header.
+     * @param baseSequence sequence number of the last record dropped, for the new header.
+     * @param compactedSequence sequence number of the last record held by a snapshot, for the new header.
+     * @param from offset of the first record to keep in the current file.
+     * @param to offset following the last record to keep.
+     * @throws IOException if the file cannot be replaced, it is then left unchanged.
+     */
+    private void replaceFile(long dataFileMillis, long baseSequence, long compactedSequence, long from, long to) throws IOException {
+        Path tempFile = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer header = header(dataFileMillis, baseSequence, compactedSequence);
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                for (long position = from; position < to; ) {
+                    position += channel.transferTo(position, to - position, out);
+                }
+                out.force(true);
+            }
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        channel.close();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        fileSize = channel.size();
+    }
+
+    /**
+     * @return modification time of the json data file the records apply to, in ms : the log holds modifications
+     * of the data loaded from that version of the file.
+     */
+    long getDataFileMillis() {
+        return dataFileMillis;
+    }
+
+    /**
+     * @return sequence number of the last record dropped from the log : the records follow it.
+     */
+    long getBaseSequence() {
+        return baseSequence;
+    }
+
+    /**
+     * @return sequence number of the last record dropped because a snapshot holds it, 0 if no record has
+     * been dropped since the log was created or reset : data that do not hold that record cannot replay the log.
+     */
+    long getCompactedSequence() {
+        return compactedSequence;
+    }
+
+    /**
+     * @return number of records in the log, including records not written to the file yet.
+     */
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return size of the log file, in bytes.
+     */
+    long getSize() {
+        return fileSize;
+    }
+
+    /**
+     * Read all records of the log. A torn or corrupted record ends the log : it is truncated there.
+     *
+     * @param consumer called with the modifications and the sequence number of each record, in order. If it
+     *                 throws, the exception is rethrown and the log file is left unchanged.
+     * @return the number of records read.
+     * @throws IOException if the log cannot be read.
+     */
+    int replay(ObjLongConsumer<List<DataChange>> consumer) throws IOException {
+        long size = channel.size();
+        long offset = HEADER_SIZE;
+        int records = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(offset)), 1 << 16));
+        try {
+            while (offset + RECORD_HEADER_SIZE <= size) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > size - offset - RECORD_HEADER_SIZE) break;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) break;
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                long sequence = BinarySnapshotFormat.readVarLong(record);
+                consumer.accept(readChanges(record), sequence);
+                appendedSequence = sequence;
+                offset += RECORD_HEADER_SIZE + length;
+                records++;
+            }
+        } catch (EOFException e) {
+            //torn record
+        } finally {
+            //also when the consumer throws : the records it has not applied are still in the file
+            syncedSequence = appendedSequence;
+            fileSize = size;
+            recordCount = records;
+        }
+        if (offset < size) {
+            log.warn("Write-ahead log " + path + " truncated at byte " + offset + " of " + size + " : torn or corrupted record");
+            truncate(offset);
+        }
+        channel.position(offset);
+        return records;
+    }
+
+    private void truncate(long offset) throws IOException {
+        channel.truncate(offset);
+        channel.force(true);
+        channel.position(offset);
+        fileSize = offset;
+    }
+
+    /**
+     * Make the next records follow a given sequence number, the one of data loaded from a snapshot
+     * that may be more recent than the log.
+     *
+     * @param sequence sequence number of the last record applied to the data.
+     */
+    synchronized void advanceTo(long sequence) {
+        if (sequence > appendedSequence) {
+            appendedSequence = sequence;
+            syncedSequence = sequence;
+        }
+    }
+
+    /**
+     * Append the modifications of a write operation to the log, in memory. Shall be called by
+     * serialized writers, then followed by {@link #sync(long)} once writers are released.
+     *
+     * @param changes modifications of the write operation.
+     * @return sequence number of the record.
+     */
+    synchronized long append(List<DataChange> changes) {
+        long sequence = appendedSequence + 1;
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64 * changes.size());
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            BinarySnapshotFormat.writeVarLong(payload, sequence);
+            writeChanges(payload, changes);
+            CRC32 crc = new CRC32();
+            crc.update(payloadBytes.toByteArray());
+            DataOutputStream out = new DataOutputStream(pending);
+            out.writeInt(payloadBytes.size());
+            out.writeInt((int) crc.getValue());
+            payloadBytes.writeTo(out);
+        } catch (IOException e) {
+            //in-memory streams do not throw
+            throw new UncheckedIOException(e);
+        }
+        appendedSequence = sequence;
+        recordCount++;
+        return sequence;
+    }
+
+    /**
+     * Write appended records to the file, up to the given one at least, according to the fsync policy.
+     *
+     * @param sequence sequence number of the last record to write.
+     * @throws IOException if records cannot be written, the log is then unusable.
+     */
+    void sync(long sequence) throws IOException {
+        if (fsyncPolicy == FsyncPolicy.INTERVAL || syncedSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            //records of concurrent writers may have been synced while waiting for the lock
+            if (syncedSequence < sequence) {
+                flush(fsyncPolicy == FsyncPolicy.ALWAYS);
+            }
+        }
+    }
+
+    private void syncInBackground() {
+        synchronized (syncLock) {
+            try {
+                flush(true);
+            } catch (IOException e) {
+                log.error("Failed to sync write-ahead log " + path + " : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if a write to the log file has failed : modifications can no longer be logged.
+     */
+    void checkUsable() throws IOException {
+        IOException writeFailure = failure;
+        if (writeFailure != null) {
+            throw new IOException("Write-ahead log " + path + " is unusable", writeFailure);
+        }
+    }
+
+    /*shall be called holding syncLock*/
+    private void flush(boolean force) throws IOException {
+        checkUsable();
+        ByteArrayOutputStream batch;
+        long batchSequence;
+        synchronized (this) {
+            batch = pending;
+            batchSequence = appendedSequence;
+            pending = new ByteArrayOutputStream();
+        }
+        if (batch.size() == 0 && syncedSequence == batchSequence) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        fileSize += batch.size();
+        syncedSequence = batchSequence;
+    }
+
+    /**
+     * Drop the records up to a given one, held by a snapshot of the data. The remaining records are
+     * copied to a new log file which replaces the current one atomically : appends are not blocked,
+     * syncs wait for the copy.
+     *
+     * @param sequence sequence number of the last record to drop.
+     * @return the number of dropped records.
+     * @throws IOException if the log cannot be rewritten, it is then left unchanged.
+     */
+    int discardUpTo(long sequence) throws IOException {
+        synchronized (syncLock) {
+            if (!channel.isOpen()) {
+                return 0;
+            }
+            flush(fsyncPolicy == FsyncPolicy.ALWAYS);
+            long size = channel.size();
+            long offset = HEADER_SIZE;
+            int dropped = 0;
+            ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE + 10);
+            while (offset < size) {
+                recordHeader.clear();
+                channel.read(recordHeader, offset);
+                recordHeader.flip();
+                int length = recordHeader.getInt();
+                recordHeader.getInt();
+                if (readVarLong(recordHeader) > sequence) break;
+                offset += RECORD_HEADER_SIZE + length;
+                dropped++;
+            }
+            if (dropped == 0) {
+                return 0;
+            }
+
+            replaceFile(dataFileMillis, sequence, sequence, offset, size);
+            baseSequence = sequence;
+            compactedSequence = sequence;
+            synchronized (this) {
+                recordCount -= dropped;
+            }
+            return dropped;
+        }
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64 && buffer.hasRemaining(); shift += 7) {
+            int b = buffer.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Invalid variable length integer");
+    }
+
+    /**
+     * Discard all records : the log starts again from the current data. Shall be called by
+     * serialized writers.
+     *
+     * @param dataFileMillis modification time of the json data file the current data have been loaded from.
+     * @param sequence sequence number of the last record applied to the current data, the next records follow it.
+     * @throws IOException if the log cannot be written.
+     */
+    void reset(long dataFileMillis, long sequence) throws IOException {
+        synchronized (syncLock) {
+            long lastSequence;
+            synchronized (this) {
+                pending = new ByteArrayOutputStream();
+                appendedSequence = Math.max(appendedSequence, sequence);
+                lastSequence = appendedSequence;
+            }
+            writeHeader(dataFileMillis, lastSequence, 0);
+            syncedSequence = lastSequence;
+        }
+    }
+
+    /**
+     * Write pending records, unless the log is unusable, then close the log file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        synchronized (syncLock) {
+            try {
+                if (failure == null) {
+                    flush(fsyncPolicy != FsyncPolicy.NEVER);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private static void writeChanges(DataOutputStream out, List<DataChange> changes) throws IOException {
+        BinarySnapshotFormat.writeVarLong(out, changes.size());
+        for (DataChange change : changes) {
+            out.writeByte(change.getEntity().ordinal() << 2 | change.getType().ordinal());
+            if (change.getType() != DataChange.Type.ADD) {
+                writeString(out, change.getKey());
+                BinarySnapshotFormat.writeVarLong(out, change.getOrdinal());
+            }
+            if (change.getType() != DataChange.Type.REMOVE) {
+                switch (change.getEntity()) {
+                    case PERSON:
+                        writePerson(out, (Person) change.getNewValue());
+                        break;
+                    case FIRE_STATION:
+                        writeFireStation(out, (FireStation) change.getNewValue());
+                        break;
+                    default:
+                        writeMedicalRecord(out, (MedicalRecord) change.getNewValue());
+                }
+            }
+        }
+    }
+
+    private static List<DataChange> readChanges(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<DataChange> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = in.readUnsignedByte();
+            if (kind >> 2 >= DataChange.Entity.values().length || (kind & 3) >= DataChange.Type.values().length) {
+                throw new IOException("Invalid modification kind " + kind);
+            }
+            DataChange.Entity entity = DataChange.Entity.values()[kind >> 2];
+            DataChange.Type type = DataChange.Type.values()[kind & 3];
+            String key = null;
+            int ordinal = -1;
+            if (type != DataChange.Type.ADD) {
+                key = readString(in);
+                ordinal = readCount(in);
+            }
+            Object newValue = null;
+            if (type != DataChange.Type.REMOVE) {
+                switch (entity) {
+                    case PERSON:
+                        newValue = readPerson(in);
+                        break;
+                    case FIRE_STATION:
+                        newValue = readFireStation(in);
+                        break;
+                    default:
+                        newValue = readMedicalRecord(in);
+                }
+            }
+            changes.add(new DataChange(entity, type, key, ordinal, null, newValue));
+        }
+        return changes;
+    }
+
+    private static void writePerson(DataOutputStream out, Person person) throws IOException {
+        writeString(out, person.getFirstName());
+        writeString(out, person.getLastName());
+        writeString(out, person.getAddress());
+        writeString(out, person.getCity());
+        writeString(out, person.getZip());
+        writeString(out, person.getPhone());
+        writeString(out, person.getEmail());
+    }
+
+    private static Person readPerson(DataInputStream in) throws IOException {
+        return new Person(readString(in), readString(in), readString(in), readString(in),
+                readString(in), readString(in), readString(in));
+    }
+
+    private static void writeFireStation(DataOutputStream out, FireStation fireStation) throws IOException {
+        writeString(out, fireStation.getAddress());
+        BinarySnapshotFormat.writeVarLong(out, fireStation.getStation());
+    }
+
+    private static FireStation readFireStation(DataInputStream in) throws IOException {
+        return new FireStation(readString(in), (int) BinarySnapshotFormat.readVarLong(in));
+    }
+
+    private static void writeMedicalRecord(DataOutputStream out, MedicalRecord medicalRecord) throws IOException {
+        writeString(out, medicalRecord.getFirstName());
+        writeString(out, medicalRecord.getLastName());
+        Date birthdate = medicalRecord.getBirthdate();
+        //ms precision : birthdates set through the API are not truncated to the day
+        out.writeBoolean(birthdate != null);
+        if (birthdate != null) {
+            out.writeLong(birthdate.getTime());
+        }
+        writeStrings(out, medicalRecord.getMedications());
+        writeStrings(out, medicalRecord.getAllergies());
+    }
+
+    private static MedicalRecord readMedicalRecord(DataInputStream in) throws IOException {
+        String firstName = readString(in);
+        String lastName = readString(in);
+        Date birthdate = in.readBoolean() ? new Date(in.readLong()) : null;
+        return new MedicalRecord(firstName, lastName, birthdate, readStrings(in), readStrings(in));
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        BinarySnapshotFormat.writeVarLong(out, values == null ? 0 : values.size() + 1L);
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        if (count == 0) return null;
+        List<String> values = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            BinarySnapshotFormat.writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        BinarySnapshotFormat.writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readCount(in);
+        if (length == 0) return null;
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        long count = BinarySnapshotFormat.readVarLong(in);
+        if (count > Integer.MAX_VALUE) {
+            throw new IOException("Invalid count " + count);
+        }
+        return (int) count;
+    }
+}
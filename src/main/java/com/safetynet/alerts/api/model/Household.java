@@ -0,0 +1,22 @@
+package com.safetynet.alerts.api.model;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Household : persons that live at the same address, and the fire station covering the address.
+ */
+@Getter
+public class Household {
+    private final String address;
+    /*number of the fire station covering the address, null if the address is not covered*/
+    private final Integer stationNumber;
+    private final List<Person> residents;
+
+    public Household(String address, Integer stationNumber, List<Person> residents) {
+        this.address = address;
+        this.stationNumber = stationNumber;
+        this.residents = residents;
+    }
+}
@@ -0,0 +1,39 @@
+package com.safetynet.alerts.api.model.dto;
+
+import com.safetynet.alerts.api.exception.ServiceException;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Result of one item of a batch request : the HTTP status the single item request would
+ * have been answered with, and the error message if the item has been rejected.
+ */
+@Getter
+@Setter
+public class BatchResultDto {
+    private int status;
+    private String message;
+
+    public BatchResultDto(int status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * Map the failures of the items of a batch to their results.
+     *
+     * @param failures failure of each item, null if the item has been applied.
+     * @param successStatus status of the applied items.
+     * @return results, in the same order as failures.
+     */
+    public static List<BatchResultDto> fromFailures(List<ServiceException> failures, HttpStatus successStatus) {
+        return failures.stream()
+                .map(e -> e == null ? new BatchResultDto(successStatus.value(), null)
+                        : new BatchResultDto(e.getHttpStatus().value(), e.getMessage()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,23 @@
+package com.safetynet.alerts.api.model.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Household : persons that live at the same address, with their age and medical record,
+ * and the fire station covering the address.
+ */
+@Getter
+public class HouseholdDto {
+    private final String address;
+    /*number of the fire station covering the address, null if the address is not covered*/
+    private final Integer stationNumber;
+    private final List<PersonDto> residents;
+
+    public HouseholdDto(String address, Integer stationNumber, List<PersonDto> residents) {
+        this.address = address;
+        this.stationNumber = stationNumber;
+        this.residents = residents;
+    }
+}
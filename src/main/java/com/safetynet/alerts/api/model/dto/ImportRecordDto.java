@@ -0,0 +1,33 @@
+package com.safetynet.alerts.api.model.dto;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One line of a bulk import : a single entity, named like the json data file sections,
+ * e.g. {"person":{"firstName":"John", ...}}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportRecordDto {
+    private Person person;
+    private FireStation firestation;
+    private MedicalRecord medicalrecord;
+
+    public ImportRecordDto(Person person) {
+        this.person = person;
+    }
+
+    public ImportRecordDto(FireStation firestation) {
+        this.firestation = firestation;
+    }
+
+    public ImportRecordDto(MedicalRecord medicalrecord) {
+        this.medicalrecord = medicalrecord;
+    }
+}
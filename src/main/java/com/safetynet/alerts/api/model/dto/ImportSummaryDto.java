@@ -0,0 +1,22 @@
+package com.safetynet.alerts.api.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class ImportSummaryDto {
+    private int created;
+    private int updated;
+    private int conflicts;
+    private int invalid;
+    private List<String> errors = new ArrayList<>();
+
+    @Override
+    public String toString() {
+        return created + " created, " + updated + " updated, " + conflicts + " conflicts, " + invalid + " invalid";
+    }
+}
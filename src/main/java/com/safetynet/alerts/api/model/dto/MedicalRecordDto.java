@@ -1,6 +1,5 @@
 package com.safetynet.alerts.api.model.dto;
 
-import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,7 +10,6 @@ import java.util.List;
 
 @Getter
 @Setter
-@JsonFilter("MedicalRecordDtoFilter")
 public class MedicalRecordDto {
     private Date birthdate;
     private List<String> medications;
@@ -1,13 +1,11 @@
 package com.safetynet.alerts.api.model.dto;
 
-import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.lang.Nullable;
 
 @Getter
 @Setter
-@JsonFilter("PersonDtoFilter")
 public class PersonDto {
     private String firstName;
     private String lastName;
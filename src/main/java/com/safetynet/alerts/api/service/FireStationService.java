@@ -2,24 +2,21 @@ package com.safetynet.alerts.api.service;
 
 import com.safetynet.alerts.api.dao.FireStationDao;
 import com.safetynet.alerts.api.dao.IFireStationDao;
-import com.safetynet.alerts.api.dao.IPersonDao;
-import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
 import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.dto.FloodDto;
-import com.safetynet.alerts.api.model.dto.PersonDto;
-import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
-import com.safetynet.alerts.api.utils.IAgeUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -32,9 +29,8 @@ import java.util.stream.Collectors;
 public class FireStationService implements IFireStationService {
 
     private final IFireStationDao fireStationDao;
-    private final IPersonDao personDao;
-    private final IDtoMapper<Person,PersonDto> personDtoMapper;
-    private final IAgeUtil ageUtil;
+    private final IHouseholdService householdService;
+    private final IFireStationView fireStationView;
     /**
      * Delete a fire station mapping.
      *
@@ -77,31 +73,7 @@ public class FireStationService implements IFireStationService {
      * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
      */
     public FireStationPersonsDto getPersons(Integer stationNumber) throws DataNotFoundException {
-        int numberOfAdults = 0;
-        int numberOfChildren = 0;
-        final List<PersonDto> personDtos= new ArrayList<>();
-
-        final List<String> fireStationAddresses = fireStationDao.getAddresses(stationNumber);
-        if(! fireStationAddresses.isEmpty()){
-            /*For each address covered by the fire station, get all persons (Dto) that lives at that address
-            and add them to the personDtos list*/
-            for(String fireStationAddress : fireStationAddresses){
-                personDtos.addAll(
-                        personDao.getPersonsByAddress(fireStationAddress)
-                                .stream()
-                                .map(personDtoMapper::mapToDto)
-                                .collect(Collectors.toList()));
-            }
-            numberOfAdults = (int)personDtos.stream()
-                    .filter(p -> Objects.nonNull(p.getAge()) && ageUtil.isAdult(p.getAge()))
-                    .count();
-            numberOfChildren = (int)personDtos.stream()
-                    .filter(p -> Objects.nonNull(p.getAge()) && !ageUtil.isAdult(p.getAge()))
-                    .count();
-            return new FireStationPersonsDto(personDtos, numberOfAdults,numberOfChildren);
-        } else {
-            throw new DataNotFoundException("Fire station number " + stationNumber);
-        }
+        return fireStationView.getPersons(stationNumber);
     }
 
     /**
@@ -113,22 +85,7 @@ public class FireStationService implements IFireStationService {
      */
     @Override
     public List<String> getPhones(Integer stationNumber) throws DataNotFoundException {
-        List<String> phones = new ArrayList<>();
-        final List<String> fireStationAddresses = fireStationDao.getAddresses(stationNumber);
-        if (!fireStationAddresses.isEmpty()) {
-            for (String fireStationAddress : fireStationAddresses) {
-                //Get all personDtos that lives at current address and add their phone to the phones list
-                phones.addAll(
-                        personDao.getPersonsByAddress(fireStationAddress)
-                                .stream()
-                                .map(Person::getPhone)
-                                .distinct()
-                                .collect(Collectors.toList()));
-            }
-            return phones.stream().distinct().collect(Collectors.toList());
-        }else {
-            throw new DataNotFoundException("Fire station number " + stationNumber);
-        }
+        return fireStationView.getPhones(stationNumber);
     }
 
     /**
@@ -140,7 +97,6 @@ public class FireStationService implements IFireStationService {
      */
     @Override
     public  List<FloodDto> getFloodHomes(List<Integer> stations) {
-        List<PersonDto> personDtos;
         List<FloodDto> floodDtos = new ArrayList<>();
 
         /*get addresses covered by the list of stations. Some stations
@@ -151,16 +107,44 @@ public class FireStationService implements IFireStationService {
                 .distinct()
                 .collect(Collectors.toList());
 
-        for(String address : addresses)
+        /*get the household of each address*/
+        List<HouseholdDto> households = householdService.getHouseholds(addresses);
+        for(int i = 0; i < addresses.size(); i++)
         {
-            personDtos = personDao.getPersonsByAddress(address)
-                    .stream()
-                    .map(personDtoMapper::mapToDto)
-                    .collect(Collectors.toList());
-
-            floodDtos.add(new FloodDto(address,personDtos));
+            floodDtos.add(new FloodDto(addresses.get(i), new ArrayList<>(households.get(i).getResidents())));
         }
 
         return floodDtos;
     }
+
+    /**
+     * Delete several fire station mappings from a datasource, as a single data modification.
+     *
+     * @param fireStationsToDelete fire station mappings to delete.
+     * @return result of each item, in the order of the items : status 204 if deleted, 404 if not found.
+     */
+    @Override
+    public List<BatchResultDto> deleteFireStations(List<FireStation> fireStationsToDelete) {
+        return BatchResultDto.fromFailures(fireStationDao.deleteFireStations(fireStationsToDelete), HttpStatus.NO_CONTENT);
+    }
+    /**
+     * Update several existing fire station mappings into a datasource, as a single data modification.
+     *
+     * @param fireStationsToUpdate fire station mappings to update.
+     * @return result of each item, in the order of the items : status 200 if updated, 404 if not found.
+     */
+    @Override
+    public List<BatchResultDto> updateFireStations(List<FireStation> fireStationsToUpdate) {
+        return BatchResultDto.fromFailures(fireStationDao.updateFireStations(fireStationsToUpdate), HttpStatus.OK);
+    }
+    /**
+     * Create several fire station mappings into a datasource, as a single data modification.
+     *
+     * @param fireStationsToCreate fire station mappings to create.
+     * @return result of each item, in the order of the items : status 201 if created, 409 if it already exists.
+     */
+    @Override
+    public List<BatchResultDto> createFireStations(List<FireStation> fireStationsToCreate) {
+        return BatchResultDto.fromFailures(fireStationDao.createFireStations(fireStationsToCreate), HttpStatus.CREATED);
+    }
 }
@@ -0,0 +1,269 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.datasource.DataChangeSet;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.utils.IAgeUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of {@link IFireStationView} listening to datasource changes.
+ *
+ * Each queried station keeps the contribution of every address it covers (residents, number of
+ * adults and children, phones) and its pre-built results : the person list, the adult and child
+ * counts, and the distinct phones, counted by number of residents. When data change, the listener
+ * only records the modified addresses of the stations covering them before or after the change :
+ * modified persons, persons whose medical record is modified, and modified mappings. The next
+ * query of a station replaces the contribution of these addresses only, updating the counts, then
+ * serves the pre-built results again. Queries of an unmodified station are served as is.
+ *
+ * Contributions are the households of {@link IHouseholdService} : the view listens after it, so
+ * that a household read for a recorded address is never older than the change that recorded it.
+ * As ages depend on the day, stations are built again when the day changes.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class FireStationView implements IFireStationView {
+
+    private final IAlertsDataSource dataSource;
+    private final IHouseholdService householdService;
+    private final IAgeUtil ageUtil;
+
+    /*stations queried, by station number*/
+    private final Map<Integer, Station> stations = new ConcurrentHashMap<>();
+
+    /**
+     * Listen to datasource changes, after the household service it reads the contributions from.
+     */
+    @PostConstruct
+    public void listen() {
+        dataSource.addChangeListener(this::onChange);
+    }
+
+    @Override
+    public FireStationPersonsDto getPersons(int stationNumber) throws DataNotFoundException {
+        return getResults(stationNumber).persons;
+    }
+
+    @Override
+    public List<String> getPhones(int stationNumber) throws DataNotFoundException {
+        return getResults(stationNumber).phones;
+    }
+
+    private Results getResults(int stationNumber) throws DataNotFoundException {
+        LocalDate today = ageUtil.today();
+        Station station = stations.get(stationNumber);
+        if (station == null || !Objects.equals(station.day, today)) {
+            station = stations.compute(stationNumber, (number, current) ->
+                    current != null && Objects.equals(current.day, today) ? current : new Station(number, today));
+        }
+        Results results = station.getResults();
+        if (results == null) {
+            //stations covering no address are not kept
+            stations.remove(stationNumber, station);
+            throw new DataNotFoundException("Fire station number " + stationNumber);
+        }
+        return results;
+    }
+
+    private void onChange(DataSnapshot previous, DataSnapshot current, DataChangeSet changes) {
+        if (changes.isAll()) {
+            stations.clear();
+            return;
+        }
+        if (stations.isEmpty()) {
+            return;
+        }
+        Set<String> addresses = new HashSet<>();
+        for (Person person : changes.getPersons()) {
+            addresses.add(person.getAddress());
+        }
+        for (FireStation fireStation : changes.getFireStations()) {
+            addresses.add(fireStation.getAddress());
+        }
+        for (MedicalRecord medicalRecord : changes.getMedicalRecords()) {
+            previous.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName()).forEach(p -> addresses.add(p.getAddress()));
+            current.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName()).forEach(p -> addresses.add(p.getAddress()));
+        }
+        for (String address : addresses) {
+            Set<Integer> stationNumbers = new HashSet<>();
+            previous.getFireStations(address).forEach(f -> stationNumbers.add(f.getStation()));
+            current.getFireStations(address).forEach(f -> stationNumbers.add(f.getStation()));
+            for (Integer stationNumber : stationNumbers) {
+                Station station = stations.get(stationNumber);
+                if (station != null) {
+                    station.modifiedAddresses.put(key(address), address);
+                }
+            }
+        }
+    }
+
+    private static String key(String address) {
+        return Objects.toString(address, "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Results of a station, built once for all the queries made until the station is modified.
+     */
+    private static final class Results {
+        private final FireStationPersonsDto persons;
+        private final List<String> phones;
+
+        private Results(FireStationPersonsDto persons, List<String> phones) {
+            this.persons = persons;
+            this.phones = phones;
+        }
+    }
+
+    /**
+     * Contribution of an address to the results of a station.
+     */
+    private static final class Contribution {
+        private final List<PersonDto> residents;
+        private final int numberOfAdults;
+        private final int numberOfChildren;
+
+        private Contribution(List<PersonDto> residents, int numberOfAdults, int numberOfChildren) {
+            this.residents = residents;
+            this.numberOfAdults = numberOfAdults;
+            this.numberOfChildren = numberOfChildren;
+        }
+    }
+
+    /**
+     * Materialized view of a station for a day. Modified addresses are recorded without lock by the
+     * listener, a write never waits for a query ; they are applied by the next query.
+     */
+    private final class Station {
+        private final int number;
+        private final LocalDate day;
+        /*addresses modified since the last update, by normalized address*/
+        private final Map<String, String> modifiedAddresses = new ConcurrentHashMap<>();
+        /*contributions by normalized address, in the order of the station addresses, guarded by this*/
+        private final Map<String, Contribution> contributions = new LinkedHashMap<>();
+        /*number of residents having each phone, guarded by this*/
+        private final Map<String, Integer> phoneCounts = new LinkedHashMap<>();
+        private int numberOfAdults;
+        private int numberOfChildren;
+        /*null while not built, or if the station covers no address*/
+        private volatile Results results;
+        private volatile boolean built;
+
+        private Station(int number, LocalDate day) {
+            this.number = number;
+            this.day = day;
+        }
+
+        private Results getResults() {
+            if (!built || !modifiedAddresses.isEmpty()) {
+                update();
+            }
+            return results;
+        }
+
+        private synchronized void update() {
+            Map<String, String> addresses = new LinkedHashMap<>();
+            if (!built) {
+                //the station is listened to before its data are read : a change published meanwhile is applied again
+                for (String address : dataSource.getData().getStationAddresses(number)) {
+                    addresses.putIfAbsent(key(address), address);
+                }
+            }
+            for (String key : modifiedAddresses.keySet()) {
+                String address = modifiedAddresses.remove(key);
+                if (address != null) {
+                    addresses.putIfAbsent(key, address);
+                }
+            }
+            if (built && addresses.isEmpty()) {
+                //applied by another query
+                return;
+            }
+            apply(addresses);
+            List<PersonDto> persons = new ArrayList<>();
+            for (Contribution contribution : contributions.values()) {
+                persons.addAll(contribution.residents);
+            }
+            results = contributions.isEmpty() ? null : new Results(
+                    new FireStationPersonsDto(Collections.unmodifiableList(persons), numberOfAdults, numberOfChildren),
+                    Collections.unmodifiableList(new ArrayList<>(phoneCounts.keySet())));
+            built = true;
+        }
+
+        private void apply(Map<String, String> addresses) {
+            //data read after the addresses have been taken : they hold the changes that recorded them
+            DataSnapshot data = dataSource.getData();
+            List<String> coveredKeys = new ArrayList<>();
+            List<String> coveredAddresses = new ArrayList<>();
+            for (Map.Entry<String, String> address : addresses.entrySet()) {
+                if (data.getFireStations(address.getValue()).stream().anyMatch(f -> f.getStation() == number)) {
+                    coveredKeys.add(address.getKey());
+                    coveredAddresses.add(address.getValue());
+                } else {
+                    subtract(address.getKey());
+                    contributions.remove(address.getKey());
+                }
+            }
+            if (coveredAddresses.isEmpty()) {
+                return;
+            }
+            List<HouseholdDto> households = householdService.getHouseholds(coveredAddresses);
+            for (int i = 0; i < households.size(); i++) {
+                //an address still covered keeps its place : its new contribution replaces the previous one
+                subtract(coveredKeys.get(i));
+                add(coveredKeys.get(i), households.get(i).getResidents());
+            }
+        }
+
+        /*subtract the contribution of an address from the counts*/
+        private void subtract(String key) {
+            Contribution contribution = contributions.get(key);
+            if (contribution == null) {
+                return;
+            }
+            numberOfAdults -= contribution.numberOfAdults;
+            numberOfChildren -= contribution.numberOfChildren;
+            for (PersonDto resident : contribution.residents) {
+                phoneCounts.computeIfPresent(resident.getPhone(), (phone, count) -> count == 1 ? null : count - 1);
+            }
+        }
+
+        /*add the contribution of an address to the counts, in place of the previous one*/
+        private void add(String key, List<PersonDto> residents) {
+            int adults = 0;
+            int children = 0;
+            for (PersonDto resident : residents) {
+                if (resident.getAge() != null) {
+                    if (ageUtil.isAdult(resident.getAge())) adults++;
+                    else children++;
+                }
+                phoneCounts.merge(resident.getPhone(), 1, Integer::sum);
+            }
+            numberOfAdults += adults;
+            numberOfChildren += children;
+            contributions.put(key, new Contribution(residents, adults, children));
+        }
+    }
+}
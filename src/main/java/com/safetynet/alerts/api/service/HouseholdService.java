@@ -0,0 +1,162 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.dao.IHouseholdDao;
+import com.safetynet.alerts.api.datasource.DataChangeSet;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.Household;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
+import com.safetynet.alerts.api.utils.IAgeUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link IHouseholdService} keeping households by normalized address (trimmed, lower case).
+ *
+ * A household is built on first query of its address, then kept until a data change affects it :
+ * a modified person living or having lived at the address, a modified medical record of such a
+ * person, or a modified fire station mapping of the address. As ages depend on the day, households
+ * are built again when the day changes. Addresses with neither resident nor fire station are not kept.
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class HouseholdService implements IHouseholdService {
+
+    private final IAlertsDataSource dataSource;
+    private final IHouseholdDao householdDao;
+    private final IDtoMapper<Person, PersonDto> personDtoMapper;
+    private final IAgeUtil ageUtil;
+
+    private final Map<String, Entry> households = new ConcurrentHashMap<>();
+
+    /**
+     * Listen to datasource changes.
+     */
+    @PostConstruct
+    public void listen() {
+        dataSource.addChangeListener(this::onChange);
+    }
+
+    /**
+     * Get the household living at an address.
+     *
+     * @param address the address.
+     * @return the household, without resident if nobody lives at the address.
+     */
+    @Override
+    public HouseholdDto getHousehold(String address) {
+        return getHouseholds(List.of(address)).get(0);
+    }
+
+    /**
+     * Get the households living at several addresses. Residents of households that are not
+     * built yet are mapped to dto in one batch.
+     *
+     * @param addresses the addresses.
+     * @return the households, in the order of the addresses.
+     */
+    @Override
+    public List<HouseholdDto> getHouseholds(Collection<String> addresses) {
+        LocalDate today = ageUtil.today();
+        List<HouseholdDto> result = new ArrayList<>(addresses.size());
+        List<String> missingAddresses = new ArrayList<>();
+        List<Integer> missingIndexes = new ArrayList<>();
+        List<Entry> missingEntries = new ArrayList<>();
+        for (String address : addresses) {
+            Entry entry = households.get(key(address));
+            HouseholdDto household = entry != null && Objects.equals(entry.day, today) ? entry.household : null;
+            if (household == null) {
+                //the entry is kept before the data are read : a change published meanwhile drops it
+                entry = new Entry(today);
+                households.put(key(address), entry);
+                missingAddresses.add(address);
+                missingIndexes.add(result.size());
+                missingEntries.add(entry);
+            }
+            result.add(household);
+        }
+        if (!missingAddresses.isEmpty()) {
+            build(missingAddresses, missingIndexes, missingEntries, result);
+        }
+        return result;
+    }
+
+    private void build(List<String> addresses, List<Integer> missingIndexes, List<Entry> entries, List<HouseholdDto> result) {
+        List<Household> households = householdDao.getHouseholds(addresses);
+        List<PersonDto> personDtos = personDtoMapper.mapToDtos(households.stream()
+                .map(Household::getResidents)
+                .flatMap(List::stream)
+                .collect(Collectors.toList()));
+
+        int firstPersonIndex = 0;
+        for (int i = 0; i < households.size(); i++) {
+            Household household = households.get(i);
+            int nbPersons = household.getResidents().size();
+            HouseholdDto householdDto = new HouseholdDto(household.getAddress(), household.getStationNumber(),
+                    Collections.unmodifiableList(new ArrayList<>(personDtos.subList(firstPersonIndex, firstPersonIndex + nbPersons))));
+            firstPersonIndex += nbPersons;
+            if (nbPersons > 0 || household.getStationNumber() != null) {
+                entries.get(i).household = householdDto;
+            } else {
+                this.households.remove(key(addresses.get(i)), entries.get(i));
+            }
+            result.set(missingIndexes.get(i), householdDto);
+        }
+    }
+
+    private void onChange(DataSnapshot previous, DataSnapshot current, DataChangeSet changes) {
+        if (changes.isAll()) {
+            households.clear();
+            return;
+        }
+        List<String> addresses = new ArrayList<>();
+        for (Person person : changes.getPersons()) {
+            addresses.add(person.getAddress());
+        }
+        for (FireStation fireStation : changes.getFireStations()) {
+            addresses.add(fireStation.getAddress());
+        }
+        for (MedicalRecord medicalRecord : changes.getMedicalRecords()) {
+            previous.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName()).forEach(p -> addresses.add(p.getAddress()));
+            current.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName()).forEach(p -> addresses.add(p.getAddress()));
+        }
+        for (String address : addresses) {
+            households.remove(key(address));
+        }
+    }
+
+    private static String key(String address) {
+        return Objects.toString(address, "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Household of a day, set once built. An entry dropped by a data change before its
+     * household is built is not kept.
+     */
+    private static final class Entry {
+        private final LocalDate day;
+        private volatile HouseholdDto household;
+
+        private Entry(LocalDate day) {
+            this.day = day;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.dto.FloodDto;
 
 import java.util.List;
@@ -60,5 +61,25 @@ public interface IFireStationService {
      * @retun a list of objects {@link FloodDto}
      */
     List<FloodDto> getFloodHomes(List<Integer> stations);
+    /**
+     * Delete several fire station mappings from a datasource, as a single data modification.
+     *
+     * @param fireStationsToDelete fire station mappings to delete.
+     * @return result of each item, in the order of the items : status 204 if deleted, 404 if not found.
+     */
+    List<BatchResultDto> deleteFireStations(List<FireStation> fireStationsToDelete);
+    /**
+     * Update several existing fire station mappings into a datasource, as a single data modification.
+     *
+     * @param fireStationsToUpdate fire station mappings to update.
+     * @return result of each item, in the order of the items : status 200 if updated, 404 if not found.
+     */
+    List<BatchResultDto> updateFireStations(List<FireStation> fireStationsToUpdate);
+    /**
+     * Create several fire station mappings into a datasource, as a single data modification.
+     *
+     * @param fireStationsToCreate fire station mappings to create.
+     * @return result of each item, in the order of the items : status 201 if created, 409 if it already exists.
+     */
+    List<BatchResultDto> createFireStations(List<FireStation> fireStationsToCreate);
 }
-
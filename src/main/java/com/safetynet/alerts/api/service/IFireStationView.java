@@ -0,0 +1,31 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
+
+import java.util.List;
+
+/**
+ * Materialized results of fire station queries, kept by station number and maintained
+ * incrementally when the data of the station change.
+ */
+public interface IFireStationView {
+
+    /**
+     * Get the persons that depend on a fire station, with the number of adults and children.
+     *
+     * @param stationNumber the number of the fire station
+     * @return a FireStationPersonsDto object
+     * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
+     */
+    FireStationPersonsDto getPersons(int stationNumber) throws DataNotFoundException;
+
+    /**
+     * Get the distinct phone numbers of people that depend on a fire station.
+     *
+     * @param stationNumber the number of the fire station
+     * @return a list of phone numbers
+     * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
+     */
+    List<String> getPhones(int stationNumber) throws DataNotFoundException;
+}
@@ -0,0 +1,27 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Get the households living at addresses, their residents mapped to dto.
+ */
+public interface IHouseholdService {
+    /**
+     * Get the household living at an address.
+     *
+     * @param address the address.
+     * @return the household, without resident if nobody lives at the address.
+     */
+    HouseholdDto getHousehold(String address);
+
+    /**
+     * Get the households living at several addresses.
+     *
+     * @param addresses the addresses.
+     * @return the households, in the order of the addresses.
+     */
+    List<HouseholdDto> getHouseholds(Collection<String> addresses);
+}
@@ -0,0 +1,22 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.model.dto.ImportSummaryDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk import of persons, fire station mappings and medical records into a datasource.
+ */
+public interface IImportService {
+    /**
+     * Import newline-delimited json records into a datasource. Each line holds a single entity,
+     * named like the json data file sections : {"person":{...}}, {"firestation":{...}} or {"medicalrecord":{...}}.
+     *
+     * @param input newline-delimited json records, read as a stream.
+     * @param update true to update the entities that already exist, false to report them as conflicts.
+     * @return numbers of created, updated, conflicting and invalid records.
+     * @throws IOException if the records cannot be read.
+     */
+    ImportSummaryDto importRecords(InputStream input, boolean update) throws IOException;
+}
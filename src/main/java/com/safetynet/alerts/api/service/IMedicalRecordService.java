@@ -4,6 +4,10 @@ import com.safetynet.alerts.api.model.MedicalRecord;
 
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
+
+import java.util.List;
+
 /**
  * Get, delete or save a person's medical record from/to a datasource.
  */
@@ -35,4 +39,25 @@ public interface IMedicalRecordService {
      * @throws DataAlreadyExistsException if medical record already exists in datasource
      */
     public MedicalRecord createMedicalRecord(MedicalRecord medicalRecordToCreate) throws DataAlreadyExistsException;
+    /**
+     * Delete several medical records from a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToDelete medical records to delete.
+     * @return result of each item, in the order of the items : status 204 if deleted, 404 if not found.
+     */
+    List<BatchResultDto> deleteMedicalRecords(List<MedicalRecord> medicalRecordsToDelete);
+    /**
+     * Update several existing medical records into a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToUpdate medical records to update.
+     * @return result of each item, in the order of the items : status 200 if updated, 404 if not found.
+     */
+    List<BatchResultDto> updateMedicalRecords(List<MedicalRecord> medicalRecordsToUpdate);
+    /**
+     * Create several medical records into a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToCreate medical records to create.
+     * @return result of each item, in the order of the items : status 201 if created, 409 if it already exists.
+     */
+    List<BatchResultDto> createMedicalRecords(List<MedicalRecord> medicalRecordsToCreate);
 }
@@ -4,10 +4,12 @@ import com.safetynet.alerts.api.model.dto.ChildAlertDto;
 import com.safetynet.alerts.api.model.dto.FireDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.Person;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Get, delete or save a person from/to a datasource.
@@ -57,6 +59,22 @@ public interface IPersonService {
      * @return a {@link FireDto} object
      */
     FireDto getFiredPersons(String address) throws DataNotFoundException;
+    /**
+     * Get the children that live at several addresses. Addresses requested several times are resolved once.
+     *
+     * @param addresses the addresses
+     * @return a {@link ChildAlertDto} object by address, in the order of the addresses. Addresses where no child lives are left out.
+     */
+    Map<String, ChildAlertDto> getChildrenByAddress(List<String> addresses);
+    /**
+     * Get the persons that live at several addresses, their medical record and the associated fire station.
+     * Addresses requested several times are resolved once.
+     *
+     * @param addresses addresses where the fire is
+     * @return a {@link FireDto} object by address, in the order of the addresses. Addresses with neither
+     * person nor fire station are left out.
+     */
+    Map<String, FireDto> getFiredPersonsByAddress(List<String> addresses);
     /**
      * Get person information
      *
@@ -72,4 +90,25 @@ public interface IPersonService {
      * @retun a list of emails.
      */
     List<String> getEmailsByCity(String city);
+    /**
+     * Delete several persons from a datasource, as a single data modification.
+     *
+     * @param personsToDelete persons to delete.
+     * @return result of each item, in the order of the items : status 204 if deleted, 404 if not found.
+     */
+    List<BatchResultDto> deletePersons(List<Person> personsToDelete);
+    /**
+     * Update several existing persons into a datasource, as a single data modification.
+     *
+     * @param personsToUpdate persons to update.
+     * @return result of each item, in the order of the items : status 200 if updated, 404 if not found.
+     */
+    List<BatchResultDto> updatePersons(List<Person> personsToUpdate);
+    /**
+     * Create several persons into a datasource, as a single data modification.
+     *
+     * @param personsToCreate persons to create.
+     * @return result of each item, in the order of the items : status 201 if created, 409 if it already exists.
+     */
+    List<BatchResultDto> createPersons(List<Person> personsToCreate);
 }
@@ -0,0 +1,156 @@
+package com.safetynet.alerts.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.safetynet.alerts.api.dao.IImportDao;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.ImportRecordDto;
+import com.safetynet.alerts.api.model.dto.ImportSummaryDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link IImportService} : records are validated as they are read, then
+ * applied by batches of "import.batch-size" records, each batch being a single data modification.
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Log4j2
+public class ImportService implements IImportService {
+
+    /*maximum number of error messages returned in the summary*/
+    static final int MAX_ERRORS = 100;
+
+    private final IImportDao importDao;
+
+    private final ObjectReader recordReader = new ObjectMapper().readerFor(ImportRecordDto.class);
+
+    @Value( "${import.batch-size:1000}" )
+    private int batchSize;
+
+    /**
+     * Import newline-delimited json records into a datasource. Each line holds a single entity,
+     * named like the json data file sections : {"person":{...}}, {"firestation":{...}} or {"medicalrecord":{...}}.
+     *
+     * @param input newline-delimited json records, read as a stream.
+     * @param update true to update the entities that already exist, false to report them as conflicts.
+     * @return numbers of created, updated, conflicting and invalid records.
+     * @throws IOException if the records cannot be read.
+     */
+    @Override
+    public ImportSummaryDto importRecords(InputStream input, boolean update) throws IOException {
+        ImportSummaryDto summary = new ImportSummaryDto();
+        List<ImportRecordDto> batch = new ArrayList<>();
+        List<Integer> batchLines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            ImportRecordDto record;
+            try {
+                record = recordReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                summary.setInvalid(summary.getInvalid() + 1);
+                addError(summary, lineNumber, e.getOriginalMessage());
+                continue;
+            }
+            String error = validate(record);
+            if (error != null) {
+                summary.setInvalid(summary.getInvalid() + 1);
+                addError(summary, lineNumber, error);
+                continue;
+            }
+            batch.add(record);
+            batchLines.add(lineNumber);
+            if (batch.size() >= Math.max(1, batchSize)) {
+                applyBatch(batch, batchLines, update, summary);
+            }
+        }
+        applyBatch(batch, batchLines, update, summary);
+        log.info("Import of " + lineNumber + " lines : " + summary);
+        return summary;
+    }
+
+    private void applyBatch(List<ImportRecordDto> batch, List<Integer> batchLines, boolean update, ImportSummaryDto summary) {
+        if (batch.isEmpty()) return;
+        List<IImportDao.ImportResult> results = importDao.importRecords(List.copyOf(batch), update);
+        for (int i = 0; i < results.size(); i++) {
+            switch (results.get(i)) {
+                case CREATED:
+                    summary.setCreated(summary.getCreated() + 1);
+                    break;
+                case UPDATED:
+                    summary.setUpdated(summary.getUpdated() + 1);
+                    break;
+                default:
+                    summary.setConflicts(summary.getConflicts() + 1);
+                    addError(summary, batchLines.get(i), "Data '" + describe(batch.get(i)) + "' already exists !");
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private static void addError(ImportSummaryDto summary, int lineNumber, String error) {
+        if (summary.getErrors().size() < MAX_ERRORS) {
+            summary.getErrors().add("line " + lineNumber + " : " + error);
+        }
+    }
+
+    private static String describe(ImportRecordDto record) {
+        if (record.getPerson() != null) {
+            return "Person " + record.getPerson().getFirstName() + " " + record.getPerson().getLastName();
+        } else if (record.getFirestation() != null) {
+            return "Fire station at " + record.getFirestation().getAddress();
+        }
+        return "Medical record of " + record.getMedicalrecord().getFirstName() + " " + record.getMedicalrecord().getLastName();
+    }
+
+    /*return the reason why the record cannot be imported, or null if it is valid*/
+    private static String validate(ImportRecordDto record) {
+        int entities = (record.getPerson() != null ? 1 : 0) + (record.getFirestation() != null ? 1 : 0)
+                + (record.getMedicalrecord() != null ? 1 : 0);
+        if (entities != 1) {
+            return "a record must hold exactly one of person, firestation or medicalrecord";
+        }
+        if (record.getPerson() != null) {
+            Person person = record.getPerson();
+            if (isBlank(person.getFirstName()) || isBlank(person.getLastName())) {
+                return "person first name and last name are mandatory";
+            }
+        } else if (record.getFirestation() != null) {
+            FireStation fireStation = record.getFirestation();
+            if (isBlank(fireStation.getAddress()) || fireStation.getStation() <= 0) {
+                return "fire station address and station number are mandatory";
+            }
+        } else {
+            MedicalRecord medicalRecord = record.getMedicalrecord();
+            if (isBlank(medicalRecord.getFirstName()) || isBlank(medicalRecord.getLastName()) || medicalRecord.getBirthdate() == null) {
+                return "medical record first name, last name and birthdate are mandatory";
+            }
+            if (medicalRecord.getMedications() == null) medicalRecord.setMedications(new ArrayList<>());
+            if (medicalRecord.getAllergies() == null) medicalRecord.setAllergies(new ArrayList<>());
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -3,11 +3,15 @@ package com.safetynet.alerts.api.service;
 import com.safetynet.alerts.api.dao.IMedicalRecordDao;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.MedicalRecord;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Implementation of {@link IMedicalRecordService} to get,
  * delete or save a person's medical record from/to a datasource.
@@ -53,5 +57,34 @@ public class MedicalRecordService implements IMedicalRecordService {
         return medicalRecordDao.createMedicalRecord(medicalRecordToCreate);
     }
 
-
+    /**
+     * Delete several medical records from a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToDelete medical records to delete.
+     * @return result of each item, in the order of the items : status 204 if deleted, 404 if not found.
+     */
+    @Override
+    public List<BatchResultDto> deleteMedicalRecords(List<MedicalRecord> medicalRecordsToDelete) {
+        return BatchResultDto.fromFailures(medicalRecordDao.deleteMedicalRecords(medicalRecordsToDelete), HttpStatus.NO_CONTENT);
+    }
+    /**
+     * Update several existing medical records into a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToUpdate medical records to update.
+     * @return result of each item, in the order of the items : status 200 if updated, 404 if not found.
+     */
+    @Override
+    public List<BatchResultDto> updateMedicalRecords(List<MedicalRecord> medicalRecordsToUpdate) {
+        return BatchResultDto.fromFailures(medicalRecordDao.updateMedicalRecords(medicalRecordsToUpdate), HttpStatus.OK);
+    }
+    /**
+     * Create several medical records into a datasource, as a single data modification.
+     *
+     * @param medicalRecordsToCreate medical records to create.
+     * @return result of each item, in the order of the items : status 201 if created, 409 if it already exists.
+     */
+    @Override
+    public List<BatchResultDto> createMedicalRecords(List<MedicalRecord> medicalRecordsToCreate) {
+        return BatchResultDto.fromFailures(medicalRecordDao.createMedicalRecords(medicalRecordsToCreate), HttpStatus.CREATED);
+    }
 }
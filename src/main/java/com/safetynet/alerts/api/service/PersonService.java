@@ -1,11 +1,12 @@
 package com.safetynet.alerts.api.service;
 
-import com.safetynet.alerts.api.dao.IFireStationDao;
 import com.safetynet.alerts.api.dao.IPersonDao;
 import com.safetynet.alerts.api.model.dto.ChildAlertDto;
 import com.safetynet.alerts.api.model.dto.FireDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
 import com.safetynet.alerts.api.model.Person;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
@@ -13,6 +14,7 @@ import com.safetynet.alerts.api.utils.IAgeUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -28,7 +30,7 @@ import java.util.stream.Collectors;
 public class PersonService implements IPersonService {
 
     private final IPersonDao personDao;
-    private final IFireStationDao fireStationDao;
+    private final IHouseholdService householdService;
     private final IDtoMapper<Person,PersonDto> personDtoMapper;
     private final IAgeUtil ageUtil;
     /**
@@ -80,20 +82,7 @@ public class PersonService implements IPersonService {
      *
      */
     public ChildAlertDto getChildren(String address){
-
-        List<Person> persons = personDao.getPersonsByAddress(address);
-
-        List<PersonDto> adults = persons.stream()
-                .map(personDtoMapper::mapToDto)
-                .filter(p -> Objects.nonNull(p.getAge()) && ageUtil.isAdult(p.getAge()))
-                .collect(Collectors.toList());
-
-        List<PersonDto> children = persons.stream()
-                .map(personDtoMapper::mapToDto)
-                .filter(p -> Objects.nonNull(p.getAge()) && !ageUtil.isAdult(p.getAge()))
-                .collect(Collectors.toList());
-
-        return new ChildAlertDto(children,adults);
+        return toChildAlertDto(householdService.getHousehold(address).getResidents());
     }
 
     /**
@@ -104,22 +93,89 @@ public class PersonService implements IPersonService {
      */
     @Override
     public FireDto getFiredPersons(String address) throws DataNotFoundException {
-        int stationNumber=0;
-        List<PersonDto> personDtos;
+        return toFireDto(householdService.getHousehold(address));
+    }
 
-        personDtos = personDao.getPersonsByAddress(address)
-                .stream()
-                .map(personDtoMapper::mapToDto)
+    /**
+     * Get the children that live at several addresses. Addresses requested several times are resolved once,
+     * null or blank addresses are skipped.
+     *
+     * @param addresses the addresses
+     * @return a {@link ChildAlertDto} object by address, in the order of the addresses. Addresses where no child lives are left out.
+     */
+    @Override
+    public Map<String, ChildAlertDto> getChildrenByAddress(List<String> addresses) {
+        Map<String, ChildAlertDto> childAlertDtos = new LinkedHashMap<>();
+        getHouseholds(addresses).forEach((address, household) -> {
+            ChildAlertDto childAlertDto = toChildAlertDto(household.getResidents());
+            if (!childAlertDto.getChildren().isEmpty()) {
+                childAlertDtos.put(address, childAlertDto);
+            }
+        });
+        return childAlertDtos;
+    }
+
+    /**
+     * Get the persons that live at several addresses, their medical record and the associated fire station.
+     * Addresses requested several times are resolved once, null or blank addresses are skipped.
+     *
+     * @param addresses addresses where the fire is
+     * @return a {@link FireDto} object by address, in the order of the addresses. Addresses with neither
+     * person nor fire station are left out.
+     */
+    @Override
+    public Map<String, FireDto> getFiredPersonsByAddress(List<String> addresses) {
+        Map<String, FireDto> fireDtos = new LinkedHashMap<>();
+        getHouseholds(addresses).forEach((address, household) -> {
+            try {
+                fireDtos.put(address, toFireDto(household));
+            } catch (DataNotFoundException e) {
+                log.error(e.getMessage());
+            }
+        });
+        return fireDtos;
+    }
+
+    /*household of each distinct address, null or blank addresses skipped*/
+    private Map<String, HouseholdDto> getHouseholds(List<String> addresses) {
+        Map<String, String> distinctAddresses = new LinkedHashMap<>();
+        for (String address : addresses) {
+            String trimmedAddress = Objects.toString(address, "").trim();
+            if (trimmedAddress.isEmpty()) continue;
+            distinctAddresses.putIfAbsent(trimmedAddress.toLowerCase(Locale.ROOT), trimmedAddress);
+        }
+        List<HouseholdDto> households = householdService.getHouseholds(new ArrayList<>(distinctAddresses.values()));
+
+        Map<String, HouseholdDto> householdsByAddress = new LinkedHashMap<>();
+        int i = 0;
+        for (String address : distinctAddresses.values()) {
+            householdsByAddress.put(address, households.get(i++));
+        }
+        return householdsByAddress;
+    }
+
+    private ChildAlertDto toChildAlertDto(List<PersonDto> personDtos) {
+        List<PersonDto> adults = personDtos.stream()
+                .filter(p -> Objects.nonNull(p.getAge()) && ageUtil.isAdult(p.getAge()))
                 .collect(Collectors.toList());
 
-        try {
-            stationNumber = fireStationDao.getFireStationNumber(address);
-        } catch (DataNotFoundException e){
-            log.error("No fire station at address " + address + " : " + e.getMessage());
+        List<PersonDto> children = personDtos.stream()
+                .filter(p -> Objects.nonNull(p.getAge()) && !ageUtil.isAdult(p.getAge()))
+                .collect(Collectors.toList());
+
+        return new ChildAlertDto(children,adults);
+    }
+
+    private FireDto toFireDto(HouseholdDto household) throws DataNotFoundException {
+        int stationNumber=0;
+        if (household.getStationNumber() != null) {
+            stationNumber = household.getStationNumber();
+        } else {
+            log.error("No fire station at address " + household.getAddress());
             //if no person live at this address, throw an exception
-            if(personDtos.isEmpty()) throw new DataNotFoundException("Persons that live at address " + address);
+            if(household.getResidents().isEmpty()) throw new DataNotFoundException("Persons that live at address " + household.getAddress());
         }
-        return new FireDto(stationNumber,personDtos);
+        return new FireDto(stationNumber, new ArrayList<>(household.getResidents()));
     }
 
     /**
@@ -131,10 +187,7 @@ public class PersonService implements IPersonService {
      */
     @Override
     public List<PersonDto> getPersonInfo(String firstName, String lastName) {
-        return personDao.getPersons(firstName, lastName)
-                .stream()
-                .map(personDtoMapper::mapToDto)
-                .collect(Collectors.toList());
+        return personDtoMapper.mapToDtos(personDao.getPersons(firstName, lastName));
     }
     /**
      * Get email of people who live in a given city
@@ -150,4 +203,35 @@ public class PersonService implements IPersonService {
                 .distinct()
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Delete several persons from a datasource, as a single data modification.
+     *
+     * @param personsToDelete persons to delete.
+     * @return result of each item, in the order of the items : status 204 if deleted, 404 if not found.
+     */
+    @Override
+    public List<BatchResultDto> deletePersons(List<Person> personsToDelete) {
+        return BatchResultDto.fromFailures(personDao.deletePersons(personsToDelete), HttpStatus.NO_CONTENT);
+    }
+    /**
+     * Update several existing persons into a datasource, as a single data modification.
+     *
+     * @param personsToUpdate persons to update.
+     * @return result of each item, in the order of the items : status 200 if updated, 404 if not found.
+     */
+    @Override
+    public List<BatchResultDto> updatePersons(List<Person> personsToUpdate) {
+        return BatchResultDto.fromFailures(personDao.updatePersons(personsToUpdate), HttpStatus.OK);
+    }
+    /**
+     * Create several persons into a datasource, as a single data modification.
+     *
+     * @param personsToCreate persons to create.
+     * @return result of each item, in the order of the items : status 201 if created, 409 if it already exists.
+     */
+    @Override
+    public List<BatchResultDto> createPersons(List<Person> personsToCreate) {
+        return BatchResultDto.fromFailures(personDao.createPersons(personsToCreate), HttpStatus.CREATED);
+    }
 }
@@ -0,0 +1,80 @@
+package com.safetynet.alerts.api.service.cache;
+
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
+import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
+import com.safetynet.alerts.api.model.dto.FloodDto;
+import com.safetynet.alerts.api.service.FireStationService;
+import com.safetynet.alerts.api.service.IFireStationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link IFireStationService} serving flood results from a {@link ResponseCache},
+ * other operations are delegated to {@link FireStationService}. Persons and phones of a station are
+ * not cached again : the service serves them from its materialized view.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CachedFireStationService implements IFireStationService {
+
+    private final FireStationService fireStationService;
+    private final ResponseCache responseCache;
+
+    @Override
+    public void deleteFireStation(String address) throws DataNotFoundException {
+        fireStationService.deleteFireStation(address);
+    }
+
+    @Override
+    public FireStation updateFireStation(FireStation fireStationToUpdate) throws DataNotFoundException {
+        return fireStationService.updateFireStation(fireStationToUpdate);
+    }
+
+    @Override
+    public FireStation createFireStation(FireStation fireStationToCreate) throws DataAlreadyExistsException {
+        return fireStationService.createFireStation(fireStationToCreate);
+    }
+
+    @Override
+    public FireStationPersonsDto getPersons(Integer stationNumber) throws DataNotFoundException {
+        return fireStationService.getPersons(stationNumber);
+    }
+
+    @Override
+    public List<String> getPhones(Integer stationNumber) throws DataNotFoundException {
+        return fireStationService.getPhones(stationNumber);
+    }
+
+    @Override
+    public List<FloodDto> getFloodHomes(List<Integer> stations) {
+        //stations sorted and without duplicate : one result whatever the order of the request
+        List<Integer> sortedStations = stations.stream().distinct().sorted().collect(Collectors.toList());
+        return responseCache.getUnchecked("flood/stations", sortedStations,
+                sortedStations.stream().map(ResponseCache::stationTag).collect(Collectors.toSet()),
+                () -> fireStationService.getFloodHomes(sortedStations));
+    }
+
+    @Override
+    public List<BatchResultDto> deleteFireStations(List<FireStation> fireStationsToDelete) {
+        return fireStationService.deleteFireStations(fireStationsToDelete);
+    }
+
+    @Override
+    public List<BatchResultDto> updateFireStations(List<FireStation> fireStationsToUpdate) {
+        return fireStationService.updateFireStations(fireStationsToUpdate);
+    }
+
+    @Override
+    public List<BatchResultDto> createFireStations(List<FireStation> fireStationsToCreate) {
+        return fireStationService.createFireStations(fireStationsToCreate);
+    }
+}
@@ -0,0 +1,108 @@
+package com.safetynet.alerts.api.service.cache;
+
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
+import com.safetynet.alerts.api.model.dto.ChildAlertDto;
+import com.safetynet.alerts.api.model.dto.FireDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.service.IPersonService;
+import com.safetynet.alerts.api.service.PersonService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link IPersonService} serving read results from a {@link ResponseCache},
+ * other operations are delegated to {@link PersonService}.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CachedPersonService implements IPersonService {
+
+    private final PersonService personService;
+    private final ResponseCache responseCache;
+
+    @Override
+    public void deletePerson(String firstName, String lastName) throws DataNotFoundException {
+        personService.deletePerson(firstName, lastName);
+    }
+
+    @Override
+    public Person updatePerson(Person personToUpdate) throws DataNotFoundException {
+        return personService.updatePerson(personToUpdate);
+    }
+
+    @Override
+    public Person createPerson(Person personToCreate) throws DataAlreadyExistsException {
+        return personService.createPerson(personToCreate);
+    }
+
+    @Override
+    public ChildAlertDto getChildren(String address) {
+        return responseCache.getUnchecked("childAlert", List.of(ResponseCache.normalize(address)),
+                Set.of(ResponseCache.addressTag(address)), () -> personService.getChildren(address));
+    }
+
+    @Override
+    public FireDto getFiredPersons(String address) throws DataNotFoundException {
+        return responseCache.get("fire", List.of(ResponseCache.normalize(address)),
+                Set.of(ResponseCache.addressTag(address)), () -> personService.getFiredPersons(address));
+    }
+
+    @Override
+    public Map<String, ChildAlertDto> getChildrenByAddress(List<String> addresses) {
+        //results are keyed by the addresses as requested : the case is kept
+        return responseCache.getUnchecked("childAlert/addresses", trim(addresses),
+                addressTags(addresses), () -> personService.getChildrenByAddress(addresses));
+    }
+
+    @Override
+    public Map<String, FireDto> getFiredPersonsByAddress(List<String> addresses) {
+        return responseCache.getUnchecked("fire/addresses", trim(addresses),
+                addressTags(addresses), () -> personService.getFiredPersonsByAddress(addresses));
+    }
+
+    @Override
+    public List<PersonDto> getPersonInfo(String firstName, String lastName) {
+        return responseCache.getUnchecked("personInfo", List.of(ResponseCache.normalize(firstName), ResponseCache.normalize(lastName)),
+                Set.of(ResponseCache.nameTag(firstName, lastName)), () -> personService.getPersonInfo(firstName, lastName));
+    }
+
+    @Override
+    public List<String> getEmailsByCity(String city) {
+        return responseCache.getUnchecked("communityEmail", List.of(ResponseCache.normalize(city)),
+                Set.of(ResponseCache.cityTag(city)), () -> personService.getEmailsByCity(city));
+    }
+
+    @Override
+    public List<BatchResultDto> deletePersons(List<Person> personsToDelete) {
+        return personService.deletePersons(personsToDelete);
+    }
+
+    @Override
+    public List<BatchResultDto> updatePersons(List<Person> personsToUpdate) {
+        return personService.updatePersons(personsToUpdate);
+    }
+
+    @Override
+    public List<BatchResultDto> createPersons(List<Person> personsToCreate) {
+        return personService.createPersons(personsToCreate);
+    }
+
+    private static List<String> trim(List<String> addresses) {
+        return addresses.stream().map(String::trim).collect(Collectors.toList());
+    }
+
+    private static Set<String> addressTags(List<String> addresses) {
+        return addresses.stream().map(ResponseCache::addressTag).collect(Collectors.toSet());
+    }
+}
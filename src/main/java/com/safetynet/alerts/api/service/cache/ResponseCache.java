@@ -0,0 +1,336 @@
+package com.safetynet.alerts.api.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.safetynet.alerts.api.datasource.DataChangeSet;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.utils.IAgeUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Cache of query results, bounded by "response-cache.maximum-size" entries and
+ * "response-cache.expire-after-write-ms".
+ *
+ * Each entry is tagged with the data it depends on : addresses, station numbers, person
+ * names or cities. When data change, only the entries tagged with the modified data are
+ * dropped : they are marked as dropped by the data change listener, then removed from the
+ * cache by another thread, so that a write never waits for a result being computed.
+ * Entries are kept by day, as ages change with the day.
+ * Serialized responses are all dropped by any write, as their ETag holds the data version :
+ * this cache keeps computing only the results a write has modified (see ResponseCacheBenchmark).
+ *
+ * Metrics : cache.gets (hit, miss), cache.puts, cache.evictions and cache.size, tagged
+ * with cache=responses.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ResponseCache {
+
+    private final IAlertsDataSource dataSource;
+    private final IAgeUtil ageUtil;
+    private final MeterRegistry meterRegistry;
+
+    @Value( "${response-cache.maximum-size:10000}" )
+    private long maximumSize;
+
+    @Value( "${response-cache.expire-after-write-ms:600000}" )
+    private long expireAfterWriteMillis;
+
+    /*tag of all entries*/
+    private static final String ALL_TAG = "*";
+
+    private Cache<Key, Entry> cache;
+    /*entries by tag*/
+    private final Map<String, Set<Entry>> taggedEntries = new ConcurrentHashMap<>();
+    /*removal of the dropped entries*/
+    private Executor removalExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * Result computation of a query, called on cache miss.
+     *
+     * @param <T> type of the result
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws DataNotFoundException;
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMillis))
+                .removalListener(this::onRemoval)
+                //tags are released as soon as an entry is removed
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "responses");
+        dataSource.addChangeListener(this::onChange);
+    }
+
+    /**
+     * Get the result of a query from the cache, or compute and cache it. Results whose computation
+     * throws an exception are not cached.
+     *
+     * @param query name of the query.
+     * @param parameters normalized parameters of the query.
+     * @param tags tags of the data the result depends on (see {@link #addressTag(String)}, {@link #stationTag(int)},
+     *             {@link #nameTag(String, String)} and {@link #cityTag(String)}).
+     * @param loader computation of the result.
+     * @return the result.
+     * @throws DataNotFoundException thrown by the computation.
+     */
+    public <T> T get(String query, List<?> parameters, Set<String> tags, Loader<T> loader) throws DataNotFoundException {
+        try {
+            return get(new Key(query, parameters, ageUtil.today()), tags, loader);
+        } catch (LoadException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Get the result of a query from the cache, or compute and cache it.
+     *
+     * @param query name of the query.
+     * @param parameters normalized parameters of the query.
+     * @param tags tags of the data the result depends on.
+     * @param loader computation of the result.
+     * @return the result.
+     */
+    public <T> T getUnchecked(String query, List<?> parameters, Set<String> tags, Supplier<T> loader) {
+        return get(new Key(query, parameters, ageUtil.today()), tags, loader::get);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key key, Set<String> tags, Loader<T> loader) {
+        while (true) {
+            Entry entry = cache.get(key, k -> load(k, tags, loader));
+            if (!entry.dropped) {
+                return (T) entry.value;
+            }
+            //dropped by a data change, while computed or before being removed
+            cache.asMap().remove(key, entry);
+        }
+    }
+
+    private Entry load(Key key, Set<String> tags, Loader<?> loader) {
+        //the entry is tagged before the data are read : a change published meanwhile drops it
+        Set<String> entryTags = new HashSet<>(tags);
+        entryTags.add(ALL_TAG);
+        Entry entry = new Entry(key, entryTags);
+        for (String tag : entryTags) {
+            //added within the mapping update : an untag emptying the set cannot remove it meanwhile
+            taggedEntries.compute(tag, (t, entries) -> {
+                if (entries == null) entries = ConcurrentHashMap.newKeySet();
+                entries.add(entry);
+                return entries;
+            });
+        }
+        try {
+            entry.value = loader.load();
+            return entry;
+        } catch (DataNotFoundException e) {
+            untag(entry);
+            throw new LoadException(e);
+        } catch (RuntimeException e) {
+            untag(entry);
+            throw e;
+        }
+    }
+
+    private void onRemoval(Key key, Entry entry, RemovalCause cause) {
+        if (entry != null) {
+            untag(entry);
+        }
+    }
+
+    private void untag(Entry entry) {
+        for (String tag : entry.tags) {
+            taggedEntries.computeIfPresent(tag, (t, entries) -> {
+                entries.remove(entry);
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+
+    /**
+     * Drop the entries tagged with one of the given tags. Entries are no more returned once
+     * this method has returned, they are removed from the cache by the removal executor.
+     *
+     * @param tags the tags.
+     */
+    void invalidate(Set<String> tags) {
+        List<Entry> droppedEntries = new ArrayList<>();
+        for (String tag : tags) {
+            Set<Entry> entries = taggedEntries.get(tag);
+            if (entries == null) continue;
+            for (Entry entry : entries) {
+                entry.dropped = true;
+                droppedEntries.add(entry);
+            }
+        }
+        if (!droppedEntries.isEmpty()) {
+            //waits for the entries being computed, and keeps newer entries of the same keys
+            removalExecutor.execute(() -> droppedEntries.forEach(entry -> cache.asMap().remove(entry.key, entry)));
+        }
+    }
+
+    /**
+     * @return number of entries in the cache.
+     */
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void onChange(DataSnapshot previous, DataSnapshot current, DataChangeSet changes) {
+        if (changes.isAll()) {
+            invalidate(Set.of(ALL_TAG));
+            return;
+        }
+        Set<String> tags = new HashSet<>();
+        Set<String> addresses = new HashSet<>();
+        for (Person person : changes.getPersons()) {
+            tags.add(nameTag(person.getFirstName(), person.getLastName()));
+            tags.add(cityTag(person.getCity()));
+            addresses.add(person.getAddress());
+        }
+        for (FireStation fireStation : changes.getFireStations()) {
+            tags.add(stationTag(fireStation.getStation()));
+            addresses.add(fireStation.getAddress());
+        }
+        for (MedicalRecord medicalRecord : changes.getMedicalRecords()) {
+            tags.add(nameTag(medicalRecord.getFirstName(), medicalRecord.getLastName()));
+            previous.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName()).forEach(p -> addresses.add(p.getAddress()));
+            current.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName()).forEach(p -> addresses.add(p.getAddress()));
+        }
+        for (String address : addresses) {
+            tags.add(addressTag(address));
+            //results of a station depend on the persons living at its addresses
+            previous.getFireStations(address).forEach(f -> tags.add(stationTag(f.getStation())));
+            current.getFireStations(address).forEach(f -> tags.add(stationTag(f.getStation())));
+        }
+        invalidate(tags);
+    }
+
+    /**
+     * @param value an address, a name or a city.
+     * @return the value trimmed and in lower case.
+     */
+    public static String normalize(String value) {
+        return Objects.toString(value, "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return tag of results depending on the persons living at an address, and on its fire station.
+     */
+    public static String addressTag(String address) {
+        return "address:" + normalize(address);
+    }
+
+    /**
+     * @return tag of results depending on the addresses covered by a fire station, and on the persons living there.
+     */
+    public static String stationTag(int stationNumber) {
+        return "station:" + stationNumber;
+    }
+
+    /**
+     * @return tag of results depending on the persons of a given name, and on their medical record.
+     */
+    public static String nameTag(String firstName, String lastName) {
+        return "name:" + normalize(firstName) + "|" + normalize(lastName);
+    }
+
+    /**
+     * @return tag of results depending on the persons living in a city.
+     */
+    public static String cityTag(String city) {
+        return "city:" + normalize(city);
+    }
+
+    /**
+     * Query and parameters of a cached result, for a day.
+     */
+    private static final class Key {
+        private final String query;
+        private final List<?> parameters;
+        private final LocalDate day;
+
+        private Key(String query, List<?> parameters, LocalDate day) {
+            this.query = query;
+            this.parameters = List.copyOf(parameters);
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return query.equals(key.query) && parameters.equals(key.parameters) && Objects.equals(day, key.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, parameters, day);
+        }
+    }
+
+    /**
+     * Cached result with its tags. Entries are compared by identity : a dropped entry is never
+     * mistaken for a newer result of the same query.
+     */
+    private static final class Entry {
+        private final Key key;
+        private final Set<String> tags;
+        private volatile Object value;
+        private volatile boolean dropped;
+
+        private Entry(Key key, Set<String> tags) {
+            this.key = key;
+            this.tags = tags;
+        }
+    }
+
+    /**
+     * Checked exception of a result computation, carried through the cache.
+     */
+    private static final class LoadException extends RuntimeException {
+        private LoadException(DataNotFoundException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized DataNotFoundException getCause() {
+            return (DataNotFoundException) super.getCause();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.safetynet.alerts.api.service.dtomapper;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Entity object to corresponding dto object Mapper
  * @param <T> entity class
@@ -12,4 +16,16 @@ public interface IDtoMapper<T,U> {
      * @return dto object
      */
     public U mapToDto(T entityToMap);
+
+    /**
+     * Map several entity objects to their corresponding dto objects.
+     * Implementations may override it to share work between entities.
+     * @param entitiesToMap entity objects
+     * @return dto objects, in the same order as entity objects
+     */
+    default List<U> mapToDtos(Collection<T> entitiesToMap) {
+        return entitiesToMap.stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
 }
@@ -12,7 +12,10 @@ import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -38,15 +41,33 @@ public class PersonDtoMapper implements IDtoMapper<Person, PersonDto> {
      */
     @Override
     public PersonDto mapToDto(Person p) {
-        Date birthdate;
-        Integer age = null;
-        MedicalRecordDto medicalRecordDto = null;
-
         /*get the medical record of the person*/
         Optional<MedicalRecord> medicalRecordResult = medicalRecordDao.getMedicalRecord(p.getFirstName(),p.getLastName());
+        return mapToDto(p, medicalRecordResult.orElse(null));
+    }
+
+    /**
+     * Map several Person objects to PersonDto objects, medical records of all persons
+     * are got from datasource in one pass.
+     * @param persons Person objects
+     * @return PersonDto objects, in the same order as Person objects
+     */
+    @Override
+    public List<PersonDto> mapToDtos(Collection<Person> persons) {
+        Map<Person, MedicalRecord> medicalRecords = medicalRecordDao.getMedicalRecords(persons);
+        List<PersonDto> personDtos = new ArrayList<>(persons.size());
+        for (Person p : persons) {
+            personDtos.add(mapToDto(p, medicalRecords.get(p)));
+        }
+        return personDtos;
+    }
+
+    private PersonDto mapToDto(Person p, MedicalRecord medicalRecord) {
+        Integer age = null;
+        MedicalRecordDto medicalRecordDto = null;
 
-        if(medicalRecordResult.isPresent()){
-            medicalRecordDto = medicalRecordDtoIDtoMapper.mapToDto(medicalRecordResult.get());
+        if(medicalRecord != null){
+            medicalRecordDto = medicalRecordDtoIDtoMapper.mapToDto(medicalRecord);
 
             /*Compute age of the person according to its birthdate from the medical record*/
             try{
@@ -1,28 +1,60 @@
 package com.safetynet.alerts.api.utils;
 
 import com.safetynet.alerts.api.exception.DataIllegalValueException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.Month;
 import java.time.Period;
-import java.time.ZoneId;
 import java.util.Date;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Age computation. Ages are cached by birthdate for the current day : when the day
+ * changes, only ages of birthdates whose anniversary is the new day are computed again.
+ */
 @Component
 public class AgeUtil implements IAgeUtil {
     private static final int CHILD_AGE_LIMIT = 18;
+    private static final long MS_BY_DAY = 86_400_000L;
+
+    private final Clock clock;
+    private final TimeZone timeZone;
+    private volatile DayAges dayAges;
+
+    public AgeUtil() {
+        this(Clock.systemDefaultZone());
+    }
+
+    AgeUtil(Clock clock) {
+        this.clock = clock;
+        this.timeZone = TimeZone.getTimeZone(clock.getZone());
+        this.dayAges = new DayAges(LocalDate.now(clock), new ConcurrentHashMap<>());
+    }
 
     public int computeFromBirthdate(Date birthdate) throws DataIllegalValueException {
-        LocalDate birthDateLocalDate = birthdate.toInstant()
-                .atZone(ZoneId.systemDefault())
-                .toLocalDate();
-        LocalDate now = LocalDate.now();
-        if(birthDateLocalDate.isBefore(now)){
-            return Period.between(birthDateLocalDate, now).getYears();
+        DayAges currentDayAges = currentDayAges();
+        long birthMillis = birthdate.getTime();
+        long birthEpochDay = Math.floorDiv(birthMillis + timeZone.getOffset(birthMillis), MS_BY_DAY);
+        if (birthEpochDay < currentDayAges.day.toEpochDay()) {
+            return currentDayAges.ages.computeIfAbsent(birthEpochDay,
+                    d -> Period.between(LocalDate.ofEpochDay(d), currentDayAges.day).getYears());
         } else {
-            throw new DataIllegalValueException("Birthdate if after now(" + now.toString() + ")", birthDateLocalDate.toString());
+            throw new DataIllegalValueException("Birthdate if after now(" + currentDayAges.day.toString() + ")", LocalDate.ofEpochDay(birthEpochDay).toString());
         }
     }
 
+    /**
+     * @return the day ages are computed for.
+     */
+    public LocalDate today() {
+        return currentDayAges().day;
+    }
+
     public boolean isAdult(int age)  {
         if(age > CHILD_AGE_LIMIT){
             return true;
@@ -30,4 +62,57 @@ public class AgeUtil implements IAgeUtil {
             return false;
         }
     }
+
+    /**
+     * Move the age cache to the current day. Cached ages of birthdates whose anniversary
+     * is the new day are computed again, other ones are kept. If more than one day has
+     * elapsed since the last roll over, the cache is emptied.
+     * Scheduled at midnight, also called on access if the scheduler has not run yet.
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public synchronized void rollOver() {
+        LocalDate today = LocalDate.now(clock);
+        DayAges previousDayAges = dayAges;
+        if (!today.isAfter(previousDayAges.day)) {
+            return;
+        }
+        Map<Long, Integer> ages = new ConcurrentHashMap<>();
+        if (previousDayAges.day.plusDays(1).equals(today)) {
+            previousDayAges.ages.forEach((birthEpochDay, age) -> {
+                LocalDate birthdate = LocalDate.ofEpochDay(birthEpochDay);
+                ages.put(birthEpochDay, isAnniversary(birthdate, today) ? Period.between(birthdate, today).getYears() : age);
+            });
+        }
+        dayAges = new DayAges(today, ages);
+    }
+
+    private DayAges currentDayAges() {
+        if (clock.millis() >= dayAges.nextDayStartMillis) {
+            rollOver();
+        }
+        return dayAges;
+    }
+
+    private static boolean isAnniversary(LocalDate birthdate, LocalDate day) {
+        if (birthdate.getMonth() == Month.FEBRUARY && birthdate.getDayOfMonth() == 29 && !day.isLeapYear()) {
+            //people born a 29th of February get one year older the 1st of March of non leap years
+            return day.getMonth() == Month.MARCH && day.getDayOfMonth() == 1;
+        }
+        return birthdate.getMonth() == day.getMonth() && birthdate.getDayOfMonth() == day.getDayOfMonth();
+    }
+
+    /**
+     * Ages by birthdate (epoch day) valid for one day.
+     */
+    private final class DayAges {
+        private final LocalDate day;
+        private final long nextDayStartMillis;
+        private final Map<Long, Integer> ages;
+
+        private DayAges(LocalDate day, Map<Long, Integer> ages) {
+            this.day = day;
+            this.nextDayStartMillis = day.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+            this.ages = ages;
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package com.safetynet.alerts.api.utils;
+
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalescing of identical concurrent computations : while a computation of a key is in flight,
+ * the callers asking for the same key wait for it and share its result, or its exception.
+ * Nothing is kept once the computation is over.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the results
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * Computation of a result.
+     *
+     * @param <V> type of the result
+     */
+    @FunctionalInterface
+    public interface Computation<V> {
+        V compute() throws DataNotFoundException;
+    }
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Compute the result of a key, or wait for the computation of the same key in flight.
+     *
+     * @param key the key, identifying the result.
+     * @param computation computation of the result, called if no computation of the key is in flight.
+     * @return the result.
+     * @throws DataNotFoundException thrown by the computation.
+     */
+    public V get(K key, Computation<V> computation) throws DataNotFoundException {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> currentFlight = inFlight.putIfAbsent(key, flight);
+        if (currentFlight != null) {
+            return await(currentFlight);
+        }
+        try {
+            V result = computation.compute();
+            flight.complete(result);
+            return result;
+        } catch (DataNotFoundException | RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return number of computations in flight.
+     */
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) throws DataNotFoundException {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DataNotFoundException) {
+                throw (DataNotFoundException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
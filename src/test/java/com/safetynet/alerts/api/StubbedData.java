@@ -1,6 +1,6 @@
 package com.safetynet.alerts.api;
 
-import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.MedicalRecord;
 import com.safetynet.alerts.api.model.Person;
@@ -14,9 +14,8 @@ import java.util.Objects;
 
 public class StubbedData {
 
-    public static IAlertsDataSource.Data get() throws ParseException {
-        IAlertsDataSource.Data data = new IAlertsDataSource.Data();
-        data.setPersons(
+    public static DataSnapshot get() throws ParseException {
+        List<Person> persons =
                 new ArrayList<>(Arrays.asList(
                         new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6512", "jaboyd@email.com"),
                         new Person("Jacob", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6513", "drk@email.com"),
@@ -41,8 +40,8 @@ public class StubbedData {
                         new Person("Kendrik", "Stelzer", "947 E. Rose Dr", "Paris", "97451", "841-874-7784", "bstel@email.com"),
                         new Person("Clive", "Ferguson", "48 Townings Dr", "Culver", "97451", "841-874-6741", "clivfd@ymail.com"),
                         new Person("Eric", "Cadigan", "951 LoneTree Rd", "Culver", "97451", "841-874-7458", "gramps@email.com")
-                )));
-        data.setFirestations(
+                ));
+        List<FireStation> fireStations =
                 new ArrayList<>(Arrays.asList(
                         new FireStation("1509 Culver St", 3),
                         new FireStation("29 15th St", 2),
@@ -57,10 +56,10 @@ public class StubbedData {
                         new FireStation("748 Townings Dr", 3),
                         new FireStation("951 LoneTree Rd", 2)
                 )
-                ));
+                );
         SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
 
-        data.setMedicalrecords(
+        List<MedicalRecord> medicalRecords =
                 new ArrayList<>(Arrays.asList(
                         new MedicalRecord("John", "Boyd", dateFormat.parse("03/06/1984"), List.of("aznol:350mg", "hydrapermazol:100mg"), List.of("nillacilan")),
                         new MedicalRecord("Jacob", "Boyd", dateFormat.parse("03/06/1989"), List.of("pharmacol:5000mg", "terazine:10mg", "noznazol:250mg"), List.of()),
@@ -86,8 +85,8 @@ public class StubbedData {
                         new MedicalRecord("Clive", "Ferguson", dateFormat.parse("03/06/1994"), List.of(), List.of()),
                         new MedicalRecord("Eric", "Cadigan", dateFormat.parse("08/06/1945"), List.of("tradoxidine:400mg"), List.of())
                 )
-                ));
-        return data;
+                );
+        return DataSnapshot.of(persons, fireStations, medicalRecords);
 
     }
 }
@@ -3,6 +3,9 @@ package com.safetynet.alerts.api.controller;
 import com.safetynet.alerts.api.Json;
 import com.safetynet.alerts.api.datasource.IAlertsDataSource;
 import com.safetynet.alerts.api.model.FireStation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -10,16 +13,20 @@ import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.junit.jupiter.api.Assertions.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.hamcrest.CoreMatchers.is;
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 @SpringBootTest
@@ -32,6 +39,9 @@ class FireStationControllerTest {
     @Autowired
     private IAlertsDataSource dataSource;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value( "${datasource.filepath}" )
     private String dataSourceFilePath;
 
@@ -195,6 +205,12 @@ class FireStationControllerTest {
         mockMvc.perform(get("/phoneAlert?firestation=5"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void getPhoneAlertFireStationInexistentAnyETag() throws Exception {
+        mockMvc.perform(get("/phoneAlert?firestation=5").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
     @Test
     void getFloodStations() throws Exception {
         mockMvc.perform(get("/flood/stations?stations=3,4"))
@@ -228,4 +244,86 @@ class FireStationControllerTest {
                 .andExpect(jsonPath("$[4].persons.[0].lastName",  is("Cooper")));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void endpointMetrics() throws Exception {
+        //ACT
+        mockMvc.perform(get("/firestation?stationNumber=2"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/firestation?stationNumber=5"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/firestation/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(Json.fromObject(new FireStation("644 Gershwin Cir",3))))
+                .andExpect(status().isConflict());
+
+        //CHECK
+        Timer successTimer = meterRegistry.get("alerts.endpoint").tag("uri", "/firestation").tag("method", "GET")
+                .tag("exception", "None").timer();
+        assertTrue(successTimer.count() >= 1);
+        assertEquals(3, successTimer.takeSnapshot().percentileValues().length);
+        assertTrue(meterRegistry.get("alerts.endpoint").tag("uri", "/firestation").tag("method", "GET")
+                .tag("exception", "DataNotFoundException").timer().count() >= 1);
+        assertTrue(meterRegistry.get("alerts.endpoint").tag("uri", "/firestation").tag("method", "POST")
+                .tag("exception", "DataAlreadyExistsException").timer().count() >= 1);
+        DistributionSummary personsOfStation = meterRegistry.get("alerts.result.size").tag("endpoint", "/firestation")
+                .tag("unit", "persons").tag("station", "2").summary();
+        assertEquals(5, personsOfStation.max());
+    }
+
+    @Test
+    void resultSizeRecordedForEachResponse() throws Exception {
+        //PREPARE
+        String eTag = mockMvc.perform(get("/phoneAlert?firestation=4"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        DistributionSummary phonesOfStation = meterRegistry.get("alerts.result.size").tag("endpoint", "/phoneAlert")
+                .tag("unit", "phones").tag("station", "4").summary();
+        long count = phonesOfStation.count();
+
+        //ACT : response served from the cache, then not modified
+        mockMvc.perform(get("/phoneAlert?firestation=4"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/phoneAlert?firestation=4").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        //CHECK
+        assertEquals(count + 2, phonesOfStation.count());
+    }
+
+    @Test
+    void getFloodStationsNotModified() throws Exception {
+        //PREPARE
+        String eTag = mockMvc.perform(get("/flood/stations?stations=3,4"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        //ACT & CHECK : unchanged data
+        mockMvc.perform(get("/flood/stations?stations=3,4").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        //ACT & CHECK : modified data
+        mockMvc.perform(delete("/firestation/489 Manchester St"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/flood/stations?stations=3,4").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)));
+    }
+
+    @Test
+    void deleteFireStationsBatch() throws Exception {
+        //ACT
+        mockMvc.perform(delete("/firestation/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(Json.fromObject(List.of(new FireStation("644 Gershwin Cir", 0), new FireStation("645 Gershwin Cir", 0)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is(204)))
+                .andExpect(jsonPath("$[1].status", is(404)));
+
+        //CHECK
+        assertTrue(dataSource.getData().getFireStations("644 Gershwin Cir").isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package com.safetynet.alerts.api.controller;
+
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImportControllerTest {
+
+    private static final String RECORDS = "{\"person\":{\"firstName\":\"Pierre\",\"lastName\":\"Paul\",\"address\":\"1 Rd Sky\",\"city\":\"Paris\"}}\n"
+            + "{\"person\":{\"firstName\":\"Sophia\",\"lastName\":\"Zemicks\",\"address\":\"1 Rd Sky\",\"city\":\"Paris\"}}\n"
+            + "{\"firestation\":{\"address\":\"1 Rd Sky\",\"station\":\"5\"}}\n"
+            + "{\"medicalrecord\":{\"firstName\":\"Pierre\",\"lastName\":\"Paul\",\"birthdate\":\"03/06/1984\",\"medications\":[],\"allergies\":[]}}\n"
+            + "{\"firestation\":{\"address\":\"1 Rd Sky\"}}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IAlertsDataSource dataSource;
+
+    @Value( "${datasource.filepath}" )
+    private String dataSourceFilePath;
+
+    @BeforeEach
+    private void reloadDatasource() throws IOException {
+        dataSource.load(dataSourceFilePath);
+    }
+
+    @Test
+    void importRecords() throws Exception {
+        //ACT
+        mockMvc.perform(post("/import")
+                        .contentType(MediaType.valueOf(ImportController.NDJSON))
+                        .content(RECORDS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.updated").value(0))
+                .andExpect(jsonPath("$.conflicts").value(1))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.errors.length()").value(2));
+
+        //CHECK
+        assertEquals(1, dataSource.getData().getPersons("Pierre", "Paul").size());
+        assertEquals(5, dataSource.getData().getFireStations("1 Rd Sky").get(0).getStation());
+        assertNotEquals("1 Rd Sky", dataSource.getData().getPersons("Sophia", "Zemicks").get(0).getAddress());
+    }
+
+    @Test
+    void importRecordsWithUpdate() throws Exception {
+        //ACT
+        mockMvc.perform(post("/import?update=true")
+                        .contentType(MediaType.valueOf(ImportController.NDJSON))
+                        .content(RECORDS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.conflicts").value(0));
+
+        //CHECK
+        assertEquals("1 Rd Sky", dataSource.getData().getPersons("Sophia", "Zemicks").get(0).getAddress());
+    }
+
+    @Test
+    void importUnsupportedContentType() throws Exception {
+        //ACT
+        mockMvc.perform(post("/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(RECORDS))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -25,6 +25,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import static org.hamcrest.CoreMatchers.is;
 import java.io.IOException;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 @SpringBootTest
@@ -299,4 +300,46 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$", hasItem("clivfd@ymail.com")))
                 .andExpect(jsonPath("$", hasItem("gramps@email.com")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updatePersonsBatch() throws Exception {
+        //ACT
+        mockMvc.perform(put("/person/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(Json.fromObject(List.of(
+                                new Person("Sophia", "Zemicks", "1 Rd Sky","Paris","15489","0145154871","fsf@jios.com"),
+                                new Person("Pierre", "Paul", "1 Rd Sky","Paris","15489","0145154871","fsf@jios.com")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is(200)))
+                .andExpect(jsonPath("$[1].status", is(404)))
+                .andExpect(jsonPath("$[1].message", is("Data 'Person Pierre Paul' does not exist !")));
+
+        //CHECK
+        assertEquals("1 Rd Sky", dataSource.getData().getPersons("Sophia", "Zemicks").get(0).getAddress());
+    }
+
+    @Test
+    void getChildrenAtAddresses() throws Exception {
+        mockMvc.perform(get("/childAlert/addresses?addresses=1509 Culver St,48 Townings Dr,1509 culver st"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$['1509 Culver St'].children", hasSize(2)))
+                .andExpect(jsonPath("$['1509 Culver St'].children.[0].firstName", is("Tenley")))
+                .andExpect(jsonPath("$['1509 Culver St'].children.[0].phone").doesNotExist())
+                .andExpect(jsonPath("$['1509 Culver St'].adults", hasSize(3)));
+    }
+
+    @Test
+    void getFiredPersonsAtAddresses() throws Exception {
+        mockMvc.perform(get("/fire/addresses")
+                        .param("addresses", "1509 Culver St", "29 15th St", "1 Rd Sky"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$['1509 Culver St'].stationNumber", is(3)))
+                .andExpect(jsonPath("$['1509 Culver St'].persons", hasSize(5)))
+                .andExpect(jsonPath("$['1509 Culver St'].persons.[0].medicalRecord.medications", hasSize(2)))
+                .andExpect(jsonPath("$['1509 Culver St'].persons.[0].address").doesNotExist())
+                .andExpect(jsonPath("$['29 15th St'].stationNumber", is(2)));
+    }
+}
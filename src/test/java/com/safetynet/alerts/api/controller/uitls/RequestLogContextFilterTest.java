@@ -0,0 +1,27 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestLogContextFilterTest {
+
+    private final RequestLogContextFilter requestLogContextFilter = new RequestLogContextFilter();
+
+    @Test
+    void requestRemovedWhenEndpointThrows() {
+        //ACT
+        assertThatThrownBy(() -> requestLogContextFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (request, response) -> {
+                    ThreadContext.put(RequestLogger.REQUEST_KEY, "GET /fire?address=1509 Culver St");
+                    throw new IllegalStateException("unhandled");
+                })).isInstanceOf(IllegalStateException.class);
+
+        //CHECK
+        assertThat(ThreadContext.get(RequestLogger.REQUEST_KEY)).isNull();
+    }
+}
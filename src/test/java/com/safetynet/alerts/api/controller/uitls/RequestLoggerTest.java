@@ -0,0 +1,107 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLoggerTest {
+
+    private static final int NB_THREADS = 8;
+    private static final int NB_REQUESTS_BY_THREAD = 200;
+
+    private RequestLogger requestLogger;
+    private Logger logger;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void initTest() {
+        logger = (Logger) LoggerFactory.getLogger(RequestLogger.class);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        requestLogger = new RequestLogger();
+        ReflectionTestUtils.setField(requestLogger, "bufferSize", NB_THREADS * NB_REQUESTS_BY_THREAD * 2);
+        requestLogger.start();
+    }
+
+    @AfterEach
+    void removeAppender() {
+        logger.detachAppender(appender);
+    }
+
+    private List<String> messages() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    }
+
+    @Test
+    void logRequestAndResponse() throws InterruptedException {
+        //ACT
+        requestLogger.logRequest("GET /firestation?stationNumber=5");
+        requestLogger.logResponseFailure(HttpStatus.NOT_FOUND, "Data 'Fire station number 5' does not exist !");
+        requestLogger.stop();
+
+        //CHECK
+        assertThat(messages()).containsExactly("Request : 'GET /firestation?stationNumber=5'",
+                "FAILURE ! Response to request : 'GET /firestation?stationNumber=5' : Data 'Fire station number 5' does not exist !");
+    }
+
+    @Test
+    void idleWriterWokenByRequest() throws InterruptedException {
+        //PREPARE : let the writer find the buffer empty
+        Thread.sleep(50);
+
+        //ACT
+        requestLogger.logRequest("GET /phoneAlert?firestation=4");
+
+        //CHECK
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (messages().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        requestLogger.stop();
+        assertThat(messages()).containsExactly("Request : 'GET /phoneAlert?firestation=4'");
+    }
+
+    @Test
+    void concurrentRequestsLoggedWithTheirResponse() throws InterruptedException {
+        //ACT
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < NB_THREADS; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < NB_REQUESTS_BY_THREAD; i++) {
+                    String request = "GET /request" + thread + "-" + i;
+                    requestLogger.logRequest(request);
+                    Thread.yield();
+                    requestLogger.logResponseSuccess(HttpStatus.OK, "response" + thread + "-" + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        requestLogger.stop();
+
+        //CHECK
+        List<String> responses = messages().stream().filter(m -> m.startsWith("SUCCES")).collect(Collectors.toList());
+        assertThat(responses).hasSize(NB_THREADS * NB_REQUESTS_BY_THREAD);
+        assertThat(responses).allSatisfy(m -> {
+            String id = m.substring(m.lastIndexOf("response") + "response".length());
+            assertThat(m).startsWith("SUCCES ! Response to request : 'GET /request" + id + "'");
+        });
+        assertThat(messages()).filteredOn(m -> m.startsWith("Request")).hasSize(NB_THREADS * NB_REQUESTS_BY_THREAD);
+    }
+}
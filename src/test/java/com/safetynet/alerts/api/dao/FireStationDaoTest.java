@@ -1,44 +1,40 @@
 package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.StubbedData;
-import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.MedicalRecord;
 import com.safetynet.alerts.api.model.Person;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.*;
 
 import java.text.ParseException;
 import java.util.List;
 import java.util.Optional;
 
-@ExtendWith(MockitoExtension.class)
 class FireStationDaoTest {
 
-    private IAlertsDataSource.Data stubbedData;
+    private DataSnapshot stubbedData;
     private IFireStationDao fireStationDao;
-    @Mock
-    private IAlertsDataSource dataSource;
+    private AlertsDataSource dataSource;
 
     @BeforeEach
     void initializeTest() throws ParseException {
+        dataSource = new AlertsDataSource();
+        dataSource.setData(StubbedData.get());
+        stubbedData = dataSource.getData();
         fireStationDao = new FireStationDao(dataSource);
-        stubbedData = StubbedData.get();
     }
 
     @Test
     void getFireStationExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Optional<FireStation> fireStationResult = fireStationDao.getFireStation("112 Steppes Pl");
         //CHECK
@@ -47,8 +43,6 @@ class FireStationDaoTest {
     }
     @Test
     void getFireStationNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Optional<FireStation> fireStationResult = fireStationDao.getFireStation("1154 avenue Charles de Gaulle");
         //CHECK
@@ -57,8 +51,6 @@ class FireStationDaoTest {
 
     @Test
     void getAddressesNonexistentStation() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         List<String> addresses = fireStationDao.getAddresses(5);
         //CHECK
@@ -66,8 +58,6 @@ class FireStationDaoTest {
     }
     @Test
     void getAddressesExistentStation() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         List<String> addresses = fireStationDao.getAddresses(3);
         //CHECK
@@ -77,33 +67,26 @@ class FireStationDaoTest {
                         "1509 Culver St",
                         "834 Binoc Ave",
                         "748 Townings Dr",
-                        "112 Steppes Pl",
-                        "748 Townings Dr");
+                        "112 Steppes Pl");
     }
 
     @Test
     void deleteFireStationNonexistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         assertThrows(DataNotFoundException.class,() -> fireStationDao.deleteFireStation("1154 avenue Charles de Gaulle"));
     }
 
     @Test
     void deleteFireStationExistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         FireStation fireStationToDelete = stubbedData.getFirestations().get(2); //"834 Binoc Ave" , number 3
         //ACT
         fireStationDao.deleteFireStation("834 Binoc Ave");
         //CHECK
-        assertThat(stubbedData.getFirestations()).doesNotContain(fireStationToDelete);
+        assertThat(dataSource.getData().getFirestations()).doesNotContain(fireStationToDelete);
     }
 
     @Test
     void updateFireStationNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         FireStation fireStationToUpdate = new FireStation("Unknown Address", 3);
           //ACT
         assertThrows(DataNotFoundException.class,() -> fireStationDao.updateFireStation(fireStationToUpdate));
@@ -111,8 +94,6 @@ class FireStationDaoTest {
 
     @Test
     void updateFireStationExistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //PRE CHECK
         FireStation fireStationToUpdate = stubbedData.getFirestations().get(9);
         assertThat(fireStationToUpdate.getAddress()).isEqualTo("947 E. Rose Dr");
@@ -121,6 +102,7 @@ class FireStationDaoTest {
         FireStation fireStationNewMapping = new FireStation("947 E. Rose Dr", 2);
         FireStation updatedStation = fireStationDao.updateFireStation(fireStationNewMapping);
         //CHECK
+        fireStationToUpdate = dataSource.getData().getFirestations().get(9);
         assertThat(fireStationToUpdate.getAddress()).isEqualTo("947 E. Rose Dr");
         assertThat(fireStationToUpdate.getStation()).isEqualTo(2);
         assertEquals(fireStationToUpdate, updatedStation);
@@ -128,8 +110,6 @@ class FireStationDaoTest {
 
     @Test
     void createFireStationAlreadyExist() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         FireStation fireStationToCreate = new FireStation("951 LoneTree Rd", 2);
         assertThrows(DataAlreadyExistsException.class,() -> fireStationDao.createFireStation(fireStationToCreate));
@@ -138,14 +118,13 @@ class FireStationDaoTest {
     @Test
     void createFireStationNewStation() throws DataAlreadyExistsException {
         List<FireStation> fireStations = stubbedData.getFirestations();
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //PRECHECK
         assertThat(fireStations.stream().count()).isEqualTo(12);
         //ACT
         FireStation fireStationToCreate = new FireStation("1154 avenue Charles de Gaulle", 2);
         FireStation fireStationCreated = fireStationDao.createFireStation(fireStationToCreate);
         //CHECK
+        fireStations = dataSource.getData().getFirestations();
         assertThat(fireStations.stream().count()).isEqualTo(13);
         assertThat(fireStations.get(12).getAddress()).isEqualTo("1154 avenue Charles de Gaulle");
         assertThat(fireStations.get(12).getStation()).isEqualTo(2);
@@ -154,19 +133,69 @@ class FireStationDaoTest {
 
     @Test
     void getFireStationNumberNonExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         assertThrows(DataNotFoundException.class,() -> fireStationDao.getFireStationNumber("Unknown address"));
     }
 
     @Test
     void getFireStationNumberExistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         int stationNumber = fireStationDao.getFireStationNumber("951 LoneTree Rd");
         //CHECK
         assertEquals(2, stationNumber);
     }
-}
\ No newline at end of file
+    @Test
+    void getFireStationNumberIgnoreCase() throws DataNotFoundException {
+        //ACT
+        int stationNumber = fireStationDao.getFireStationNumber(" 951 lonetree RD");
+        //CHECK
+        assertEquals(2, stationNumber);
+    }
+
+    @Test
+    void getAddressesAfterUpdate() throws DataNotFoundException {
+        //ACT
+        fireStationDao.updateFireStation(new FireStation("947 E. Rose Dr", 2));
+        //CHECK
+        assertThat(fireStationDao.getAddresses(1)).containsExactly("644 Gershwin Cir", "908 73rd St");
+        assertThat(fireStationDao.getAddresses(2)).containsExactly("29 15th St", "892 Downing Ct", "951 LoneTree Rd", "947 E. Rose Dr");
+        assertEquals(2, fireStationDao.getFireStationNumber("947 E. Rose Dr"));
+    }
+
+    @Test
+    void getAddressesAfterCreateAndDelete() throws DataNotFoundException, DataAlreadyExistsException {
+        //ACT & CHECK
+        fireStationDao.createFireStation(new FireStation("1154 avenue Charles de Gaulle", 5));
+        assertThat(fireStationDao.getAddresses(5)).containsExactly("1154 avenue Charles de Gaulle");
+        assertEquals(5, fireStationDao.getFireStationNumber("1154 avenue Charles de Gaulle"));
+        fireStationDao.deleteFireStation("1154 avenue Charles de Gaulle");
+        assertTrue(fireStationDao.getAddresses(5).isEmpty());
+        assertTrue(fireStationDao.getFireStation("1154 avenue Charles de Gaulle").isEmpty());
+    }
+
+    @Test
+    void getAddressesAfterDeleteDuplicatedMapping() throws DataNotFoundException {
+        //ACT : "748 Townings Dr" is mapped twice to station 3
+        fireStationDao.deleteFireStation("748 Townings Dr");
+        //CHECK
+        assertThat(fireStationDao.getAddresses(3)).contains("748 Townings Dr");
+        fireStationDao.deleteFireStation("748 Townings Dr");
+        assertThat(fireStationDao.getAddresses(3)).doesNotContain("748 Townings Dr");
+    }
+
+    @Test
+    void createAndDeleteFireStations() {
+        //ACT
+        List<ServiceException> createFailures = fireStationDao.createFireStations(List.of(
+                new FireStation("1 Rd Sky", 5), new FireStation("112 Steppes Pl", 5)));
+        List<ServiceException> deleteFailures = fireStationDao.deleteFireStations(List.of(
+                new FireStation("112 Steppes Pl", 0), new FireStation("2 Rd Sky", 0)));
+        //CHECK
+        assertNull(createFailures.get(0));
+        assertTrue(createFailures.get(1) instanceof DataAlreadyExistsException);
+        assertNull(deleteFailures.get(0));
+        assertTrue(deleteFailures.get(1) instanceof DataNotFoundException);
+        assertEquals(5, dataSource.getData().getFireStations("1 Rd Sky").get(0).getStation());
+        assertTrue(dataSource.getData().getFireStations("112 Steppes Pl").isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.StubbedData;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.model.Household;
+import com.safetynet.alerts.api.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdDaoTest {
+
+    private AlertsDataSource dataSource;
+    private HouseholdDao householdDao;
+
+    @BeforeEach
+    void initializeTest() throws ParseException {
+        dataSource = new AlertsDataSource();
+        dataSource.setData(StubbedData.get());
+        householdDao = new HouseholdDao(dataSource);
+    }
+
+    @Test
+    void getHouseholds() {
+        //ACT
+        List<Household> households = householdDao.getHouseholds(List.of("1509 Culver St", "1 Rd Sky"));
+
+        //CHECK
+        assertEquals(3, households.get(0).getStationNumber());
+        assertThat(households.get(0).getResidents())
+                .extracting(Person::getFirstName)
+                .containsExactly("John", "Jacob", "Tenley", "Roger", "Felicia");
+        assertNull(households.get(1).getStationNumber());
+        assertTrue(households.get(1).getResidents().isEmpty());
+    }
+
+    @Test
+    void getHouseholdByNormalizedAddress() {
+        //ACT
+        Household household = householdDao.getHousehold(" 1509 CULVER st");
+
+        //CHECK
+        assertEquals("1509 Culver St", household.getAddress());
+        assertThat(household.getResidents()).hasSize(5);
+    }
+
+    @Test
+    void getHouseholdFromCurrentData() {
+        //ACT
+        dataSource.update(data -> {
+            Person person = data.getPersons("Jonanathan", "Marrack").get(0);
+            Person movedPerson = new Person(person);
+            movedPerson.setAddress("1509 Culver St");
+            return data.replacePerson(person, movedPerson);
+        });
+
+        //CHECK
+        assertThat(householdDao.getHousehold("1509 Culver St").getResidents())
+                .extracting(Person::getFirstName)
+                .containsExactly("John", "Jacob", "Tenley", "Roger", "Felicia", "Jonanathan");
+        assertTrue(householdDao.getHousehold("29 15th St").getResidents().isEmpty());
+        assertEquals(2, householdDao.getHousehold("29 15th St").getStationNumber());
+    }
+}
@@ -0,0 +1,86 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.StubbedData;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.ImportRecordDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportDaoTest {
+
+    private DataSnapshot stubbedData;
+    private IImportDao importDao;
+    private AlertsDataSource dataSource;
+
+    @BeforeEach
+    void initializeTest() throws ParseException {
+        dataSource = new AlertsDataSource();
+        dataSource.setData(StubbedData.get());
+        stubbedData = dataSource.getData();
+        importDao = new ImportDao(dataSource);
+    }
+
+    private List<ImportRecordDto> records() {
+        return List.of(
+                new ImportRecordDto(new Person("Pierre", "Paul", "1 Rd Sky", "Paris", "15489", "0145154871", "pp@email.com")),
+                new ImportRecordDto(new Person("John", "Boyd", "1 Rd Sky", "Paris", "15489", "0145154871", "jb@email.com")),
+                new ImportRecordDto(new FireStation("1 Rd Sky", 5)),
+                new ImportRecordDto(new FireStation("1509 Culver St", 4)),
+                new ImportRecordDto(new MedicalRecord("Pierre", "Paul", new Date(0), new ArrayList<>(), new ArrayList<>())));
+    }
+
+    @Test
+    void importRecordsWithoutUpdate() {
+        //ACT
+        List<IImportDao.ImportResult> results = importDao.importRecords(records(), false);
+        //CHECK
+        assertThat(results).containsExactly(IImportDao.ImportResult.CREATED, IImportDao.ImportResult.CONFLICT,
+                IImportDao.ImportResult.CREATED, IImportDao.ImportResult.CONFLICT, IImportDao.ImportResult.CREATED);
+        DataSnapshot data = dataSource.getData();
+        //the batch is published as a single snapshot
+        assertEquals(stubbedData.getVersion() + 1, data.getVersion());
+        assertEquals(1, data.getPersons("Pierre", "Paul").size());
+        assertEquals("1509 Culver St", data.getPersons("John", "Boyd").get(0).getAddress());
+        assertEquals(5, data.getFireStations("1 Rd Sky").get(0).getStation());
+        assertEquals(3, data.getFireStations("1509 Culver St").get(0).getStation());
+        assertEquals(1, data.getMedicalRecords("Pierre", "Paul").size());
+    }
+
+    @Test
+    void importRecordsWithUpdate() {
+        //ACT
+        List<IImportDao.ImportResult> results = importDao.importRecords(records(), true);
+        //CHECK
+        assertThat(results).containsExactly(IImportDao.ImportResult.CREATED, IImportDao.ImportResult.UPDATED,
+                IImportDao.ImportResult.CREATED, IImportDao.ImportResult.UPDATED, IImportDao.ImportResult.CREATED);
+        DataSnapshot data = dataSource.getData();
+        assertEquals(1, data.getPersons("John", "Boyd").size());
+        assertEquals("1 Rd Sky", data.getPersons("John", "Boyd").get(0).getAddress());
+        assertEquals(4, data.getFireStations("1509 Culver St").get(0).getStation());
+        //the previous snapshot is unchanged
+        assertEquals("1509 Culver St", stubbedData.getPersons("John", "Boyd").get(0).getAddress());
+    }
+
+    @Test
+    void importDuplicatedRecords() {
+        //ACT
+        List<IImportDao.ImportResult> results = importDao.importRecords(List.of(
+                new ImportRecordDto(new FireStation("1 Rd Sky", 5)),
+                new ImportRecordDto(new FireStation("1 Rd Sky", 6))), false);
+        //CHECK
+        assertThat(results).containsExactly(IImportDao.ImportResult.CREATED, IImportDao.ImportResult.CONFLICT);
+        assertEquals(5, dataSource.getData().getFireStations("1 Rd Sky").get(0).getStation());
+    }
+}
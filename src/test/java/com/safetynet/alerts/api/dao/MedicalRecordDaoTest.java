@@ -1,16 +1,16 @@
 package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.StubbedData;
-import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
 import static java.util.Calendar.DECEMBER;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -19,31 +19,29 @@ import java.time.temporal.TemporalField;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
 
-@ExtendWith(MockitoExtension.class)
 class MedicalRecordDaoTest {
-    private IAlertsDataSource.Data stubbedData;
+    private DataSnapshot stubbedData;
     private IMedicalRecordDao medicalRecordDao;
-    @Mock
-    private IAlertsDataSource dataSource;
+    private AlertsDataSource dataSource;
 
     @BeforeEach
     void initializeTest() throws ParseException {
+        dataSource = new AlertsDataSource();
+        dataSource.setData(StubbedData.get());
+        stubbedData = dataSource.getData();
         medicalRecordDao = new MedicalRecordDao(dataSource);
-        stubbedData = StubbedData.get();
     }
 
     @Test
     void getMedicalRecordExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Optional<MedicalRecord> medicalRecord = medicalRecordDao.getMedicalRecord("Eric", "Cadigan");
         //CHECK
@@ -53,8 +51,6 @@ class MedicalRecordDaoTest {
 
     @Test
     void getMedicalRecordNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Optional<MedicalRecord> medicalRecord = medicalRecordDao.getMedicalRecord("Erica", "Cadigan");
         //CHECK
@@ -63,35 +59,29 @@ class MedicalRecordDaoTest {
 
     @Test
     void deleteMedicalRecordExistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         MedicalRecord medicalRecord = stubbedData.getMedicalrecords().get(5); //Jonanathan Marrack
         //PRECHECK
         assertThat(stubbedData.getMedicalrecords()).contains(medicalRecord);
         //ACT
         medicalRecordDao.deleteMedicalRecord("Jonanathan", "Marrack");
         //CHECK
-        assertThat(stubbedData.getMedicalrecords()).doesNotContain(medicalRecord);
+        assertThat(dataSource.getData().getMedicalrecords()).doesNotContain(medicalRecord);
     }
     @Test
     void deleteMedicalRecordNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         assertThrows(DataNotFoundException.class,() ->  medicalRecordDao.deleteMedicalRecord("Erica", "Cadigan"));
     }
 
     @Test
     void updateMedicalRecordExistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //PRE CHECK
 
         //ACT
         MedicalRecord medicalRecord = new MedicalRecord("Roger","Boyd",new Date(1231213), List.of("Aspirine:200mg","thradox:700mg" ), List.of("peanut","poller"));
         MedicalRecord updatedMedicalRecord = medicalRecordDao.updateMedicalRecord(medicalRecord);
         //CHECK
-        MedicalRecord medicalRecordToUpgate = stubbedData.getMedicalrecords().get(3);
+        MedicalRecord medicalRecordToUpgate = dataSource.getData().getMedicalrecords().get(3);
         assertThat(medicalRecordToUpgate)
                 .extracting(
                     MedicalRecord::getFirstName,
@@ -112,8 +102,6 @@ class MedicalRecordDaoTest {
 
     @Test
     void updateMedicalRecordNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         MedicalRecord medicalRecord = new MedicalRecord("Eric","Cadigun",new Date(), List.of("Aspirine:200mg"), List.of());
         //ACT
         assertThrows(DataNotFoundException.class,() -> medicalRecordDao.updateMedicalRecord(medicalRecord));
@@ -121,8 +109,6 @@ class MedicalRecordDaoTest {
 
     @Test
     void createMedicalRecordExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         MedicalRecord medicalRecord = new MedicalRecord("Eric","Cadigan",new Date(), List.of("Aspirine:200mg"), List.of());
         assertThrows(DataAlreadyExistsException.class,() -> medicalRecordDao.createMedicalRecord(medicalRecord));
@@ -131,14 +117,13 @@ class MedicalRecordDaoTest {
     @Test
     void createMedicalRecordNonexistent() throws DataAlreadyExistsException {
         List<MedicalRecord> medicalRecords = stubbedData.getMedicalrecords();
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //PRECHECK
         assertThat(medicalRecords.stream().count()).isEqualTo(23);
         //ACT
         MedicalRecord medicalRecord = new MedicalRecord("Pierre","Roger",new Date(12315648), List.of("Aspirine:200mg","thradox:700mg" ), List.of("peanut","poller"));
         MedicalRecord createdMediaRecord = medicalRecordDao.createMedicalRecord(medicalRecord);
         //CHECK
+        medicalRecords = dataSource.getData().getMedicalrecords();
         assertThat(medicalRecords.stream().count()).isEqualTo(24);
         assertThat(medicalRecords.get(23))
                 .extracting(
@@ -159,8 +144,6 @@ class MedicalRecordDaoTest {
 
     @Test
     void getPersonBirthdateExistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Date birth = medicalRecordDao.getPersonBirthdate("Brian", "Stelzer");
         //CHECK
@@ -173,9 +156,38 @@ class MedicalRecordDaoTest {
 
     @Test
     void getPersonBirthdateNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         assertThrows(DataNotFoundException.class,() -> medicalRecordDao.getPersonBirthdate("BrianI", "Stelzer"));
     }
-}
\ No newline at end of file
+    @Test
+    void getMedicalRecordsOfPersons() {
+        Person eric = new Person("eric", "CADIGAN", "951 LoneTree Rd", "Culver", "97451", "841-874-7458", "gramps@email.com");
+        Person unknown = new Person("Pierre", "Paul", "951 LoneTree Rd", "Culver", "97451", "841-874-7458", "gramps@email.com");
+        //ACT
+        Map<Person, MedicalRecord> medicalRecords = medicalRecordDao.getMedicalRecords(List.of(eric, unknown));
+        //CHECK
+        assertThat(medicalRecords).containsOnlyKeys(eric);
+        assertThat(medicalRecords.get(eric)).isSameAs(stubbedData.getMedicalrecords().get(22));
+    }
+
+    @Test
+    void getMedicalRecordAfterCreateAndDelete() throws DataAlreadyExistsException, DataNotFoundException {
+        //ACT & CHECK
+        MedicalRecord medicalRecordCreated = medicalRecordDao.createMedicalRecord(new MedicalRecord("Pierre", "Paul", new Date(), List.of(), List.of()));
+        assertThat(medicalRecordDao.getMedicalRecord("PIERRE", "paul")).contains(medicalRecordCreated);
+        medicalRecordDao.deleteMedicalRecord("Pierre", "Paul");
+        assertTrue(medicalRecordDao.getMedicalRecord("Pierre", "Paul").isEmpty());
+    }
+
+    @Test
+    void updateMedicalRecords() {
+        //ACT
+        List<ServiceException> failures = medicalRecordDao.updateMedicalRecords(List.of(
+                new MedicalRecord("Eric", "Cadigan", new Date(0), List.of("aznol:60mg"), List.of()),
+                new MedicalRecord("Pierre", "Paul", new Date(0), List.of(), List.of())));
+        //CHECK
+        assertNull(failures.get(0));
+        assertThat(failures.get(1)).isInstanceOf(DataNotFoundException.class);
+        assertThat(dataSource.getData().getMedicalRecords("Eric", "Cadigan").get(0).getMedications()).containsExactly("aznol:60mg");
+    }
+}
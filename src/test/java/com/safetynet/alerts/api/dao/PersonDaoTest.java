@@ -1,21 +1,21 @@
 package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.StubbedData;
-import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.Person;
 import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.text.ParseException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -23,26 +23,23 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
 
-@ExtendWith(MockitoExtension.class)
 class PersonDaoTest {
 
-    private IAlertsDataSource.Data stubbedData;
+    private DataSnapshot stubbedData;
     private IPersonDao personDao;
-    @Mock
-    private IAlertsDataSource dataSource;
+    private AlertsDataSource dataSource;
 
     @BeforeEach
     void initializeTest() throws ParseException {
+        dataSource = new AlertsDataSource();
+        dataSource.setData(StubbedData.get());
+        stubbedData = dataSource.getData();
         personDao = new PersonDao(dataSource);
-        stubbedData = StubbedData.get();
     }
 
     @Test
     void getPersonExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Optional<Person> person = personDao.getPerson("Clive","Ferguson");
         //CHECK
@@ -53,8 +50,6 @@ class PersonDaoTest {
 
     @Test
     void getPersonNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Optional<Person> person = personDao.getPerson("Clive_","Ferguson");
         //CHECK
@@ -63,19 +58,16 @@ class PersonDaoTest {
 
     @Test
     void deletePersonExistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         Person person = stubbedData.getPersons().get(14); //Reginold Walker
         //ACT
         personDao.deletePerson("Reginold","Walker");
         //CHECK
-        assertThat(stubbedData.getPersons()).doesNotContain(person);
+        assertThat(dataSource.getData().getPersons()).doesNotContain(person);
+        assertThat(dataSource.getData().getPersons()).hasSize(22);
     }
 
     @Test
     void deletePersonNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         assertThrows(DataNotFoundException.class,() -> personDao.deletePerson("ReginAld","Walker"));
     }
@@ -83,8 +75,6 @@ class PersonDaoTest {
 
     @Test
     void updatePersonExistent() throws DataNotFoundException {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //PRE CHECK
         Person personToUpdate = stubbedData.getPersons().get(4);//Felicia Boyd
         assertThat(personToUpdate.getFirstName()).isEqualTo("Felicia");
@@ -93,18 +83,19 @@ class PersonDaoTest {
         Person person = new Person("Felicia","Boyd", "10 Rue Eiffel", "Paris", "75000","0145804125", "felicia.boyd@parismail.com");
         Person updatedPerson = personDao.updatePerson(person);
         //CHECK
+        personToUpdate = dataSource.getData().getPersons().get(4);
         assertThat(personToUpdate.getAddress()).isEqualTo("10 Rue Eiffel");
         assertThat(personToUpdate.getCity()).isEqualTo("Paris");
         assertThat(personToUpdate.getZip()).isEqualTo("75000");
         assertThat(personToUpdate.getPhone()).isEqualTo("0145804125");
         assertThat(personToUpdate.getEmail()).isEqualTo("felicia.boyd@parismail.com");
         assertEquals(personToUpdate, updatedPerson);
+        //previous snapshot is unchanged
+        assertThat(stubbedData.getPersons().get(4).getEmail()).isEqualTo("jaboyd@email.com");
     }
 
     @Test
     void updatePersonNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Person personToUpdate = new Person("Helicia","Boyd", "10 Rue Eiffel", "Paris", "75000","0145804125", "felicia.boyd@parismail.com");
         assertThrows(DataNotFoundException.class,() ->personDao.updatePerson(personToUpdate));
@@ -112,8 +103,6 @@ class PersonDaoTest {
 
     @Test
     void createPersonExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         Person person = new Person("Felicia","Boyd", "10 Rue Eiffel", "Paris", "75000","0145804125", "felicia.boyd@parismail.com");
         assertThrows(DataAlreadyExistsException.class,()->personDao.createPerson(person));
@@ -122,14 +111,13 @@ class PersonDaoTest {
     @Test
     void createPersonNonexistent() throws DataAlreadyExistsException {
         List<Person> persons = stubbedData.getPersons();
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //PRECHECK
         assertThat(persons.stream().count()).isEqualTo(23);
         //ACT
         Person personToCreate =  new Person("Robert","Dupont", "10 Rue Eiffel", "Paris", "75000","0145804125", "felicia.boyd@parismail.com");
         Person personCreated = personDao.createPerson(personToCreate);
         //CHECK
+        persons = dataSource.getData().getPersons();
         assertThat(persons.stream().count()).isEqualTo(24);
         assertThat(persons.get(23).getFirstName()).isEqualTo("Robert");
         assertThat(persons.get(23).getLastName()).isEqualTo("Dupont");
@@ -138,8 +126,6 @@ class PersonDaoTest {
 
     @Test
     void getPersonsByAddressExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         List<Person> persons = personDao.getPersonsByAddress("892 Downing Ct");
         //CHECK
@@ -159,8 +145,6 @@ class PersonDaoTest {
 
     @Test
     void getPersonsByAddressNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         List<Person> persons = personDao.getPersonsByAddress("Unknown address");
         //CHECK
@@ -169,8 +153,6 @@ class PersonDaoTest {
 
     @Test
     void getPersonsByCityExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         List<Person> persons = personDao.getPersonsByCity("Paris");
         //CHECK
@@ -189,8 +171,6 @@ class PersonDaoTest {
 
     @Test
     void getPersonsByCityNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         List<Person> persons = personDao.getPersonsByCity("Niort");
         //CHECK
@@ -199,8 +179,6 @@ class PersonDaoTest {
 
     @Test
     void getPersonsOneExistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         List<Person> persons = personDao.getPersons("Zach", "Zemicks");
         //CHECK
@@ -217,12 +195,122 @@ class PersonDaoTest {
 
     @Test
     void getPersonsNonexistent() {
-        //STUB
-        when(dataSource.getData()).thenReturn(stubbedData);
         //ACT
         List<Person> persons = personDao.getPersons("Pierre","Paul");
         //CHECK
         assertTrue(persons.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getPersonIgnoreCase() {
+        //ACT
+        Optional<Person> person = personDao.getPerson("cLIVE","fERGUSON");
+        //CHECK
+        assertTrue(person.isPresent());
+        assertEquals("841-874-6741", person.get().getPhone());
+    }
+
+    @Test
+    void getPersonAfterCreateAndDelete() throws DataAlreadyExistsException, DataNotFoundException {
+        //ACT & CHECK
+        assertTrue(personDao.getPerson("Robert","Dupont").isEmpty());
+        Person personCreated = personDao.createPerson(new Person("Robert","Dupont", "10 Rue Eiffel", "Paris", "75000","0145804125", "rdupont@parismail.com"));
+        assertThat(personDao.getPerson("robert","dupont")).contains(personCreated);
+        assertThat(personDao.getPersons("Robert","Dupont")).containsExactly(personCreated);
+        personDao.deletePerson("Robert","Dupont");
+        assertTrue(personDao.getPerson("Robert","Dupont").isEmpty());
+        assertTrue(personDao.getPersons("Robert","Dupont").isEmpty());
+    }
+
+    @Test
+    void getPersonAfterDataReload() throws ParseException {
+        DataSnapshot reloadedData = DataSnapshot.of(
+                stubbedData.getPersons().stream().filter(p -> !p.getFirstName().equals("Clive")).collect(Collectors.toList()),
+                stubbedData.getFirestations(),
+                stubbedData.getMedicalrecords());
+        //ACT & CHECK
+        assertTrue(personDao.getPerson("Clive","Ferguson").isPresent());
+        dataSource.setData(reloadedData);
+        assertTrue(personDao.getPerson("Clive","Ferguson").isEmpty());
+    }
+
+    @Test
+    void getPersonsByAddressNormalized() {
+        //ACT
+        List<Person> persons = personDao.getPersonsByAddress("  892 DOWNING ct ");
+        //CHECK
+        assertThat(persons)
+                .extracting(Person::getFirstName)
+                .containsExactly("Sophia", "Warren", "Zach");
+    }
+
+    @Test
+    void getPersonsByAddressAndCityAfterUpdate() throws DataNotFoundException {
+        //ACT
+        Person person = new Person("Zach","Zemicks", "947 E. Rose Dr", "Paris", "97451","841-874-7512", "zarc@email.com");
+        personDao.updatePerson(person);
+        //CHECK
+        assertThat(personDao.getPersonsByAddress("892 Downing Ct"))
+                .extracting(Person::getFirstName)
+                .containsExactly("Sophia", "Warren");
+        assertThat(personDao.getPersonsByAddress("947 E. Rose Dr"))
+                .extracting(Person::getFirstName)
+                .containsExactly("Brian", "Shawna", "Kendrik", "Zach");
+        assertThat(personDao.getPersonsByCity("paris"))
+                .extracting(Person::getFirstName)
+                .containsExactly("Brian", "Shawna", "Kendrik", "Zach");
+    }
+
+    @Test
+    void getPersonsByAddressAfterDelete() throws DataNotFoundException {
+        //ACT
+        personDao.deletePerson("Warren","Zemicks");
+        //CHECK
+        assertThat(personDao.getPersonsByAddress("892 Downing Ct"))
+                .extracting(Person::getFirstName)
+                .containsExactly("Sophia", "Zach");
+    }
+
+    @Test
+    void createPersons() {
+        //ACT
+        List<ServiceException> failures = personDao.createPersons(List.of(
+                new Person("Pierre", "Paul", "1 Rd Sky", "Paris", "15489", "0145154871", "pp@email.com"),
+                new Person("Clive", "Ferguson", "1 Rd Sky", "Paris", "15489", "0145154871", "cf@email.com"),
+                new Person("Jacques", "Paul", "1 Rd Sky", "Paris", "15489", "0145154872", "jp@email.com")));
+        //CHECK
+        assertNull(failures.get(0));
+        assertThat(failures.get(1)).isInstanceOf(DataAlreadyExistsException.class);
+        assertNull(failures.get(2));
+        //the batch is published as a single snapshot
+        assertEquals(stubbedData.getVersion() + 1, dataSource.getData().getVersion());
+        assertThat(dataSource.getData().getPersonsByAddress("1 Rd Sky")).hasSize(2);
+    }
+
+    @Test
+    void updateAndDeletePersons() {
+        //ACT
+        List<ServiceException> updateFailures = personDao.updatePersons(List.of(
+                new Person("Clive", "Ferguson", "1 Rd Sky", "Paris", "15489", "0145154871", "cf@email.com"),
+                new Person("Pierre", "Paul", "1 Rd Sky", "Paris", "15489", "0145154871", "pp@email.com")));
+        List<ServiceException> deleteFailures = personDao.deletePersons(List.of(
+                new Person("Reginold", "Walker", null, null, null, null, null),
+                new Person("Reginold", "Walker", null, null, null, null, null)));
+        //CHECK
+        assertNull(updateFailures.get(0));
+        assertThat(updateFailures.get(1)).isInstanceOf(DataNotFoundException.class);
+        assertEquals("1 Rd Sky", dataSource.getData().getPersons("Clive", "Ferguson").get(0).getAddress());
+        assertNull(deleteFailures.get(0));
+        assertThat(deleteFailures.get(1)).isInstanceOf(DataNotFoundException.class);
+        assertThat(dataSource.getData().getPersons()).hasSize(22);
+    }
+
+    @Test
+    void rejectedBatchKeepsSnapshot() {
+        //ACT
+        List<ServiceException> failures = personDao.deletePersons(List.of(new Person("ReginAld", "Walker", null, null, null, null, null)));
+        //CHECK
+        assertThat(failures.get(0)).isInstanceOf(DataNotFoundException.class);
+        assertSame(stubbedData, dataSource.getData());
+    }
+}
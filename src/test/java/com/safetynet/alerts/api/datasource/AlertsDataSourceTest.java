@@ -1,15 +1,30 @@
 package com.safetynet.alerts.api.datasource;
 
+import com.safetynet.alerts.api.StubbedData;
+import com.safetynet.alerts.api.model.Person;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.text.SimpleDateFormat;
 import java.util.Locale;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 class AlertsDataSourceTest {
@@ -43,7 +58,7 @@ class AlertsDataSourceTest {
         alertsDataSource.load("data-test.json");
 
         //check
-        IAlertsDataSource.Data data = alertsDataSource.getData();
+        DataSnapshot data = alertsDataSource.getData();
         assertNotNull(data);
         //check persons
         assertEquals("Lily", data.getPersons().get(0).getFirstName());
@@ -55,4 +70,221 @@ class AlertsDataSourceTest {
         assertEquals("Roger", data.getMedicalrecords().get(3).getFirstName());
         assertEquals("09/06/2017", simpleDateFormat.format(data.getMedicalrecords().get(3).getBirthdate()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadFilesystemPath() throws IOException {
+        alertsDataSource.load("src/test/resources/data-test.json");
+
+        //check
+        DataSnapshot data = alertsDataSource.getData();
+        assertEquals("Lily", data.getPersons().get(0).getFirstName());
+        assertEquals(3, data.getFireStations("1509 culver st").get(0).getStation());
+        assertEquals("09/06/2017", simpleDateFormat.format(data.getMedicalRecords("Roger", "Boyd").get(0).getBirthdate()));
+    }
+
+    @ParameterizedTest(name="parallel load = ''{0}''")
+    @ValueSource(booleans = {false, true})
+    void loadFileSectionsInAnyOrder(boolean parallelLoad, @TempDir Path tempDir) throws IOException {
+        alertsDataSource.setParallelLoad(parallelLoad);
+        Path file = tempDir.resolve("data.json");
+        Files.writeString(file, "{ \"medicalrecords\": [ { \"firstName\":\"Lily\", \"lastName\":\"Cooper\", \"birthdate\":\"03/06/1994\", \"medications\":[], \"allergies\":[] } ],"
+                + " \"firestations\": null, \"unknown\": [ { \"persons\": [] } ],"
+                + " \"persons\": [ { \"firstName\":\"Lily\", \"lastName\":\"Cooper\" }, { \"firstName\":\"Tony\", \"lastName\":\"Cooper\" } ] }");
+
+        alertsDataSource.load(file.toString());
+
+        //check
+        DataSnapshot data = alertsDataSource.getData();
+        assertEquals(2, data.getPersons().size());
+        assertEquals("Tony", data.getPersons().get(1).getFirstName());
+        assertTrue(data.getFirestations().isEmpty());
+        assertEquals(1, data.getMedicalRecords("Lily", "Cooper").size());
+    }
+
+    @ParameterizedTest(name="parallel load = ''{0}''")
+    @ValueSource(booleans = {false, true})
+    void reloadAppliesDifferences(boolean parallelLoad, @TempDir Path tempDir) throws IOException {
+        alertsDataSource.setParallelLoad(parallelLoad);
+        Path file = tempDir.resolve("data.json");
+        Files.copy(Path.of("src/test/resources/data-test.json"), file);
+        alertsDataSource.load(file.toString());
+        DataSnapshot before = alertsDataSource.getData();
+        String data = Files.readString(file)
+                .replace("841-874-9845", "841-874-0001")
+                .replace("{ \"address\":\"29 15th St\", \"station\":\"2\" },", "")
+                .replace("\"allergies\":[\"nillacilan\"] },", "\"allergies\":[\"nillacilan\"] },"
+                        + " { \"firstName\":\"Jane\", \"lastName\":\"Doe\", \"birthdate\":\"01/01/2000\", \"medications\":[], \"allergies\":[] },");
+        Files.writeString(file, data);
+
+        //ACT
+        alertsDataSource.reload(file.toString());
+
+        //CHECK
+        DataSnapshot after = alertsDataSource.getData();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals("841-874-0001", after.getPersons("Lily", "Cooper").get(0).getPhone());
+        assertEquals("841-874-9845", before.getPersons("Lily", "Cooper").get(0).getPhone());
+        assertTrue(after.getFireStations("29 15th St").isEmpty());
+        assertEquals(before.getFirestations().size() - 1, after.getFirestations().size());
+        assertEquals(1, after.getMedicalRecords("Jane", "Doe").size());
+        //unchanged entities are kept
+        assertSame(before.getPersons("Sophia", "Zemicks").get(0), after.getPersons("Sophia", "Zemicks").get(0));
+        assertSame(before.getMedicalRecords("John", "Boyd").get(0), after.getMedicalRecords("John", "Boyd").get(0));
+    }
+
+    @Test
+    void reloadUnchangedFile(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        Files.copy(Path.of("src/test/resources/data-test.json"), file);
+        alertsDataSource.load(file.toString());
+        DataSnapshot before = alertsDataSource.getData();
+
+        //ACT
+        alertsDataSource.reload(file.toString());
+
+        //CHECK
+        assertSame(before, alertsDataSource.getData());
+    }
+
+    @Test
+    void loadInputStream() throws IOException {
+        String json = "{ \"unknown\": { \"persons\": [] },"
+                + " \"persons\": [ { \"firstName\":\"Lily\", \"lastName\":\"Cooper\", \"address\":\"489 Manchester St\" } ],"
+                + " \"firestations\": null,"
+                + " \"medicalrecords\": [ { \"firstName\":\"Lily\", \"lastName\":\"Cooper\", \"birthdate\":\"03/06/1994\", \"medications\":[], \"allergies\":[] } ] }";
+        InputStream inputStream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        alertsDataSource.loadJson(inputStream);
+
+        //check
+        DataSnapshot data = alertsDataSource.getData();
+        assertEquals(1, data.getPersons().size());
+        assertEquals(1, data.getPersonsByAddress("489 manchester st").size());
+        assertTrue(data.getFirestations().isEmpty());
+        assertEquals("03/06/1994", simpleDateFormat.format(data.getMedicalRecords("lily", "cooper").get(0).getBirthdate()));
+    }
+
+    @Test
+    void loadInvalidInputStream() throws IOException {
+        alertsDataSource.load("data-test.json");
+        DataSnapshot data = alertsDataSource.getData();
+        InputStream inputStream = new ByteArrayInputStream("{ \"persons\": [ { \"firstName\":\"Lily\" }".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> alertsDataSource.loadJson(inputStream));
+        //previous data are kept
+        assertSame(data, alertsDataSource.getData());
+    }
+
+    @Test
+    void writeAndLoadSnapshot(@TempDir Path tempDir) throws IOException, ParseException {
+        Path snapshotFile = tempDir.resolve("data.snapshot");
+        DataSnapshot stubbedData = StubbedData.get();
+        alertsDataSource.setData(stubbedData);
+
+        alertsDataSource.writeSnapshot(snapshotFile);
+        AlertsDataSource reloadedDataSource = new AlertsDataSource();
+        reloadedDataSource.loadSnapshot(snapshotFile);
+
+        //check
+        DataSnapshot data = reloadedDataSource.getData();
+        assertThat(data.getPersons()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(stubbedData.getPersons());
+        assertThat(data.getFirestations()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(stubbedData.getFirestations());
+        assertThat(data.getMedicalrecords()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(stubbedData.getMedicalrecords());
+        assertEquals(2, data.getFireStations("748 Townings Dr").size());
+    }
+
+    @Test
+    void loadPrefersNewerSnapshot(@TempDir Path tempDir) throws IOException, ParseException {
+        Path jsonFile = tempDir.resolve("data.json");
+        Path snapshotFile = tempDir.resolve("data.snapshot");
+        Files.copy(Path.of("src/test/resources/data-test.json"), jsonFile);
+
+        //no snapshot : json is loaded and the snapshot is written
+        alertsDataSource.load(jsonFile.toString(), snapshotFile.toString());
+        assertEquals(7, alertsDataSource.getData().getPersons().size());
+        assertTrue(Files.isRegularFile(snapshotFile));
+
+        //newer snapshot is preferred
+        alertsDataSource.setData(StubbedData.get());
+        alertsDataSource.writeSnapshot(snapshotFile);
+        Files.setLastModifiedTime(jsonFile, FileTime.fromMillis(Files.getLastModifiedTime(snapshotFile).toMillis() - 1000));
+        AlertsDataSource reloadedDataSource = new AlertsDataSource();
+        reloadedDataSource.load(jsonFile.toString(), snapshotFile.toString());
+        assertEquals(23, reloadedDataSource.getData().getPersons().size());
+
+        //newer json is preferred
+        Files.setLastModifiedTime(jsonFile, FileTime.fromMillis(Files.getLastModifiedTime(snapshotFile).toMillis() + 1000));
+        reloadedDataSource.load(jsonFile.toString(), snapshotFile.toString());
+        assertEquals(7, reloadedDataSource.getData().getPersons().size());
+    }
+
+    @Test
+    void loadCorruptedSnapshot(@TempDir Path tempDir) throws IOException {
+        Path snapshotFile = tempDir.resolve("data.snapshot");
+        Files.writeString(snapshotFile, "not a snapshot");
+
+        assertThrows(IOException.class, () -> alertsDataSource.loadSnapshot(snapshotFile));
+        //falls back to json, and the snapshot is rewritten
+        alertsDataSource.load("data-test.json", snapshotFile.toString());
+        assertEquals(7, alertsDataSource.getData().getPersons().size());
+        AlertsDataSource reloadedDataSource = new AlertsDataSource();
+        reloadedDataSource.loadSnapshot(snapshotFile);
+        assertEquals(7, reloadedDataSource.getData().getPersons().size());
+    }
+
+    @Test
+    void updatePublishesNewSnapshot() throws IOException {
+        alertsDataSource.load("data-test.json");
+        DataSnapshot before = alertsDataSource.getData();
+        Person lily = before.getPersons("lily", "COOPER").get(0);
+        Person movedLily = new Person(lily);
+        movedLily.setAddress("29 15th St");
+
+        //ACT
+        boolean replaced = alertsDataSource.update(data -> data.replacePerson(lily, movedLily));
+
+        //CHECK
+        DataSnapshot after = alertsDataSource.getData();
+        assertTrue(replaced);
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertSame(movedLily, after.getPersons().get(0));
+        assertTrue(after.getPersonsByAddress("29 15th st").contains(movedLily));
+        assertTrue(after.getPersonsByAddress("489 Manchester St").isEmpty());
+        //previous snapshot is unchanged
+        assertSame(lily, before.getPersons().get(0));
+        assertEquals(List.of(lily), before.getPersonsByAddress("489 Manchester St"));
+    }
+
+    @Test
+    void notifiedVersionSetOnceListenersNotified() throws IOException {
+        alertsDataSource.load("data-test.json");
+        long loadedVersion = alertsDataSource.getData().getVersion();
+        assertEquals(loadedVersion, alertsDataSource.getNotifiedVersion());
+        List<Long> notifiedVersionsSeenByListener = new ArrayList<>();
+        alertsDataSource.addChangeListener((previous, current, changes) -> notifiedVersionsSeenByListener.add(alertsDataSource.getNotifiedVersion()));
+
+        //ACT
+        alertsDataSource.update(data -> data.removePerson(data.getPersons().get(0)));
+
+        //CHECK
+        assertEquals(List.of(loadedVersion), notifiedVersionsSeenByListener);
+        assertEquals(loadedVersion + 1, alertsDataSource.getNotifiedVersion());
+    }
+
+    @Test
+    void updateFailedPublishesNothing() throws IOException {
+        alertsDataSource.load("data-test.json");
+        DataSnapshot before = alertsDataSource.getData();
+        Person lily = before.getPersons().get(0);
+
+        //ACT
+        assertThrows(IOException.class, () -> alertsDataSource.update(data -> {
+            data.removePerson(lily);
+            throw new IOException("update failed");
+        }));
+
+        //CHECK
+        assertSame(before, alertsDataSource.getData());
+        assertEquals(List.of(lily), alertsDataSource.getData().getPersons("Lily", "Cooper"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.safetynet.alerts.api.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataFileWatcherTest {
+
+    private static final String RELOADED_DATA = "{ \"persons\": [ { \"firstName\":\"Jane\", \"lastName\":\"Doe\", \"address\":\"1 Main St\","
+            + " \"city\":\"Culver\", \"zip\":\"97451\", \"phone\":\"841-874-0000\", \"email\":\"jdoe@email.com\" } ],"
+            + " \"firestations\": [ { \"address\":\"1 Main St\", \"station\":\"5\" } ], \"medicalrecords\": [] }";
+
+    private AlertsDataSource alertsDataSource;
+    private DataFileWatcher dataFileWatcher;
+
+    @TempDir
+    Path tempDir;
+
+    private Path dataFile;
+
+    @BeforeEach
+    void initTest() throws IOException {
+        dataFile = tempDir.resolve("data.json");
+        Files.copy(Path.of("src/test/resources/data-test.json"), dataFile);
+        alertsDataSource = new AlertsDataSource();
+        alertsDataSource.load(dataFile.toString());
+        dataFileWatcher = new DataFileWatcher(alertsDataSource);
+        ReflectionTestUtils.setField(dataFileWatcher, "dataSourceFilePath", dataFile.toString());
+        ReflectionTestUtils.setField(dataFileWatcher, "quietPeriodMillis", 50L);
+        dataFileWatcher.start();
+    }
+
+    @AfterEach
+    void stopWatcher() throws IOException {
+        dataFileWatcher.stop();
+    }
+
+    private DataSnapshot awaitReload(DataSnapshot before) throws InterruptedException {
+        for (int i = 0; i < 200 && alertsDataSource.getData() == before; i++) {
+            Thread.sleep(50);
+        }
+        return alertsDataSource.getData();
+    }
+
+    @Test
+    void reloadModifiedFile() throws IOException, InterruptedException {
+        //STUB
+        DataSnapshot before = alertsDataSource.getData();
+
+        //ACT
+        Files.writeString(dataFile, RELOADED_DATA, StandardCharsets.UTF_8);
+        DataSnapshot after = awaitReload(before);
+
+        //CHECK
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(1, after.getPersons().size());
+        assertEquals(1, after.getFireStations(5).size());
+        //the previous snapshot is unchanged
+        assertEquals(1, before.getPersons("Lily", "Cooper").size());
+        assertTrue(before.getPersons("Jane", "Doe").isEmpty());
+    }
+
+    @Test
+    void reloadReplacedFile() throws IOException, InterruptedException {
+        //STUB
+        DataSnapshot before = alertsDataSource.getData();
+        Path newFile = tempDir.resolve("data.json.new");
+        Files.writeString(newFile, RELOADED_DATA, StandardCharsets.UTF_8);
+
+        //ACT
+        Files.move(newFile, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        DataSnapshot after = awaitReload(before);
+
+        //CHECK
+        assertEquals(1, after.getPersons("Jane", "Doe").size());
+    }
+
+    @Test
+    void reloadIncrementally() throws IOException, InterruptedException {
+        //STUB
+        ReflectionTestUtils.setField(dataFileWatcher, "incremental", true);
+        DataSnapshot before = alertsDataSource.getData();
+
+        //ACT
+        Files.writeString(dataFile, Files.readString(dataFile).replace("841-874-9845", "841-874-0001"), StandardCharsets.UTF_8);
+        DataSnapshot after = awaitReload(before);
+
+        //CHECK
+        assertEquals("841-874-0001", after.getPersons("Lily", "Cooper").get(0).getPhone());
+        assertSame(before.getPersons("Sophia", "Zemicks").get(0), after.getPersons("Sophia", "Zemicks").get(0));
+    }
+
+    @Test
+    void invalidFileKeepsData() throws IOException, InterruptedException {
+        //STUB
+        DataSnapshot before = alertsDataSource.getData();
+
+        //ACT
+        Files.writeString(dataFile, "{ \"persons\": [ { \"firstName\":", StandardCharsets.UTF_8);
+        Thread.sleep(1000);
+
+        //CHECK
+        assertSame(before, alertsDataSource.getData());
+    }
+}
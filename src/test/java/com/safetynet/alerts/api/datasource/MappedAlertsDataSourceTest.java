@@ -0,0 +1,157 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.StubbedData;
+import com.safetynet.alerts.api.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedAlertsDataSourceTest {
+
+    private MappedAlertsDataSource mappedDataSource;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void initTest() {
+        mappedDataSource = new MappedAlertsDataSource();
+    }
+
+    @Test
+    void writeAndLoadSnapshot() throws IOException, ParseException {
+        Path snapshotFile = tempDir.resolve("data.mapped");
+        DataSnapshot stubbedData = StubbedData.get();
+        mappedDataSource.setData(stubbedData);
+
+        //ACT
+        mappedDataSource.writeSnapshot(snapshotFile);
+        MappedAlertsDataSource reloadedDataSource = new MappedAlertsDataSource();
+        reloadedDataSource.loadSnapshot(snapshotFile);
+
+        //CHECK
+        DataSnapshot data = reloadedDataSource.getData();
+        assertFalse(data.isMaterialized());
+        assertThat(data.getPersons()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(stubbedData.getPersons());
+        assertThat(data.getFirestations()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(stubbedData.getFirestations());
+        assertThat(data.getMedicalrecords()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(stubbedData.getMedicalrecords());
+    }
+
+    @Test
+    void queryMappedSnapshot() throws IOException, ParseException {
+        Path snapshotFile = tempDir.resolve("data.mapped");
+        mappedDataSource.setData(StubbedData.get());
+        mappedDataSource.writeSnapshot(snapshotFile);
+
+        //ACT
+        mappedDataSource.loadSnapshot(snapshotFile);
+
+        //CHECK
+        DataSnapshot data = mappedDataSource.getData();
+        assertThat(data.getPersons(" zach", "ZEMICKS")).extracting(Person::getEmail).containsExactly("zarc@email.com");
+        assertThat(data.getPersonsByAddress("892 downing ct")).extracting(Person::getFirstName).containsExactly("Sophia", "Warren", "Zach");
+        assertThat(data.getPersonsByCity("Paris")).extracting(Person::getFirstName).containsExactly("Brian", "Shawna", "Kendrik");
+        assertThat(data.getStationAddresses(3)).containsExactly("1509 Culver St", "834 Binoc Ave", "748 Townings Dr", "112 Steppes Pl");
+        assertEquals(2, data.getFireStations("748 townings dr").size());
+        assertThat(data.getMedicalRecords("Eric", "Cadigan").get(0).getMedications()).containsExactly("tradoxidine:400mg");
+        assertTrue(data.getPersons("Pierre", "Paul").isEmpty());
+        assertTrue(data.getFireStations(5).isEmpty());
+    }
+
+    @Test
+    void loadWritesAndMapsSnapshot() throws IOException {
+        Path jsonFile = tempDir.resolve("data.json");
+        Path snapshotFile = tempDir.resolve("data.mapped");
+        Files.copy(Path.of("src/test/resources/data-test.json"), jsonFile);
+
+        //ACT
+        mappedDataSource.load(jsonFile.toString(), snapshotFile.toString());
+
+        //CHECK
+        assertTrue(Files.isRegularFile(snapshotFile));
+        assertFalse(mappedDataSource.getData().isMaterialized());
+        assertEquals("Lily", mappedDataSource.getData().getPersons().get(0).getFirstName());
+    }
+
+    @Test
+    void updateMappedSnapshot() throws IOException, ParseException {
+        Path snapshotFile = tempDir.resolve("data.mapped");
+        mappedDataSource.setData(StubbedData.get());
+        mappedDataSource.writeSnapshot(snapshotFile);
+        mappedDataSource.loadSnapshot(snapshotFile);
+        long version = mappedDataSource.getData().getVersion();
+
+        //ACT
+        mappedDataSource.update(data -> {
+            data.removePerson(data.getPersons("Zach", "Zemicks").get(0));
+            return null;
+        });
+
+        //CHECK
+        DataSnapshot data = mappedDataSource.getData();
+        assertFalse(data.isMaterialized());
+        assertEquals(1, ((OverlayTable<Person>) data.persons()).overlaySize());
+        assertEquals(version + 1, data.getVersion());
+        assertTrue(data.getPersons("Zach", "Zemicks").isEmpty());
+        assertThat(data.getPersonsByAddress("892 Downing Ct")).extracting(Person::getFirstName).containsExactly("Sophia", "Warren");
+        assertEquals(22, data.getPersons().size());
+    }
+
+    /*moves a person, removes another one, adds a third one then moves the added one*/
+    private static Void updatePersons(DataSnapshot.Editor data) {
+        Person brian = data.getPersons("Brian", "Stelzer").get(0);
+        Person movedBrian = new Person(brian);
+        movedBrian.setAddress("1 Rue de Rivoli");
+        data.replacePerson(brian, movedBrian);
+        data.removePerson(data.getPersons("John", "Boyd").get(0));
+        data.addPerson(new Person("Pierre", "Paul", "892 Downing Ct", "Culver", "97451", "841-874-0000", "pp@email.com"));
+        Person pierre = data.getPersons("Pierre", "Paul").get(0);
+        Person movedPierre = new Person(pierre);
+        movedPierre.setAddress("1 Rue de Rivoli");
+        data.replacePerson(pierre, movedPierre);
+        return null;
+    }
+
+    @Test
+    void updatesOfMappedSnapshotMatchHeapUpdates() throws IOException, ParseException {
+        Path snapshotFile = tempDir.resolve("data.mapped");
+        AlertsDataSource heapDataSource = new AlertsDataSource();
+        heapDataSource.setData(StubbedData.get());
+        mappedDataSource.setData(StubbedData.get());
+        mappedDataSource.writeSnapshot(snapshotFile);
+        mappedDataSource.loadSnapshot(snapshotFile);
+
+        //ACT
+        heapDataSource.update(MappedAlertsDataSourceTest::updatePersons);
+        mappedDataSource.update(MappedAlertsDataSourceTest::updatePersons);
+        mappedDataSource.update(data -> data.removePerson(data.getPersons("Pierre", "Paul").get(0)));
+        heapDataSource.update(data -> data.removePerson(data.getPersons("Pierre", "Paul").get(0)));
+
+        //CHECK
+        DataSnapshot data = mappedDataSource.getData();
+        DataSnapshot heapData = heapDataSource.getData();
+        assertFalse(data.isMaterialized());
+        assertEquals(2, ((OverlayTable<Person>) data.persons()).overlaySize());
+        assertThat(data.getPersons()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(heapData.getPersons());
+        assertThat(data.getPersonsByAddress("1 rue de rivoli")).extracting(Person::getFirstName).containsExactly("Brian");
+        assertThat(data.getPersonsByCity("Culver")).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(heapData.getPersonsByCity("Culver"));
+        assertTrue(data.getPersons("John", "Boyd").isEmpty());
+        assertTrue(data.getPersons("Pierre", "Paul").isEmpty());
+        //overlay rows written as any other rows
+        Path updatedSnapshotFile = tempDir.resolve("updated.mapped");
+        mappedDataSource.writeSnapshot(updatedSnapshotFile);
+        MappedAlertsDataSource reloadedDataSource = new MappedAlertsDataSource();
+        reloadedDataSource.loadSnapshot(updatedSnapshotFile);
+        assertThat(reloadedDataSource.getData().getPersons()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(heapData.getPersons());
+    }
+}
@@ -0,0 +1,77 @@
+package com.safetynet.alerts.api.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotCompactionJobTest {
+
+    private SnapshotCompactionJob snapshotCompactionJob;
+    private MeterRegistry meterRegistry;
+    @Mock
+    private IAlertsDataSource dataSource;
+
+    @BeforeEach
+    void initTest() {
+        meterRegistry = new SimpleMeterRegistry();
+        snapshotCompactionJob = new SnapshotCompactionJob(dataSource, meterRegistry);
+        ReflectionTestUtils.setField(snapshotCompactionJob, "snapshotFilePath", "data.snapshot");
+        ReflectionTestUtils.setField(snapshotCompactionJob, "minLogRecords", 10L);
+        snapshotCompactionJob.registerMetrics();
+    }
+
+    @Test
+    void compactLongLog() throws IOException {
+        //STUB
+        when(dataSource.getWriteAheadLogRecords()).thenReturn(12L, 0L);
+        when(dataSource.compact(Paths.get("data.snapshot"))).thenReturn(2048L);
+
+        //ACT
+        snapshotCompactionJob.compact();
+
+        //CHECK
+        verify(dataSource, times(1)).compact(Paths.get("data.snapshot"));
+        assertEquals(1, meterRegistry.get("datasource.snapshot.duration").timer().count());
+        assertEquals(2048, meterRegistry.get("datasource.snapshot.size").gauge().value());
+        assertEquals(0, meterRegistry.get("datasource.wal.records").gauge().value());
+    }
+
+    @Test
+    void skipShortLog() throws IOException {
+        //STUB
+        when(dataSource.getWriteAheadLogRecords()).thenReturn(9L);
+
+        //ACT
+        snapshotCompactionJob.compact();
+
+        //CHECK
+        verify(dataSource, never()).compact(any());
+        assertEquals(0, meterRegistry.get("datasource.snapshot.duration").timer().count());
+    }
+
+    @Test
+    void compactFailure() throws IOException {
+        //STUB
+        when(dataSource.getWriteAheadLogRecords()).thenReturn(12L);
+        when(dataSource.compact(any())).thenThrow(new IOException("disk full"));
+
+        //ACT
+        snapshotCompactionJob.compact();
+
+        //CHECK
+        assertEquals(0, meterRegistry.get("datasource.snapshot.duration").timer().count());
+        assertEquals(0, meterRegistry.get("datasource.snapshot.size").gauge().value());
+    }
+}
@@ -0,0 +1,117 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Startup load time of 1M persons (plus 250k fire station mappings and 1M medical records)
+ * from the Json data file and from the binary snapshot. Not part of the test suite, run it with :
+ *   mvn test -Dtest=SnapshotLoadBenchmark -DargLine="-Xmx3g"
+ *
+ * Results of 3 runs on a 1 core host, 5 GB RAM, JDK 17 runtime, -Xmx3g (json file 298 MB, snapshot file 79 MB) :
+ *   json stream, sequential          : 10.1 s to 13.2 s
+ *   json file, sections in parallel  : 12.4 s to 13.7 s (no gain expected with a single core)
+ *   binary snapshot                  : 6.7 s to 7.7 s
+ * The parallel read first scans the whole file to find the sections, it is slower on a single core :
+ * the json file is read sequentially unless "datasource.parallel-load" is set. No measurement on
+ * several cores yet, measure there before enabling it.
+ * Most of the snapshot load time is spent building the indexes and in GC, decoding itself is cheap.
+ */
+class SnapshotLoadBenchmark {
+
+    private static final int PERSONS = 1_000_000;
+    private static final int ADDRESSES = PERSONS / 4;
+    private static final int RUNS = 3;
+
+    @Test
+    void loadJsonVersusSnapshot(@TempDir Path tempDir) throws IOException {
+        Path jsonFile = tempDir.resolve("data.json");
+        Path snapshotFile = tempDir.resolve("data.snapshot");
+        writeJson(jsonFile);
+        writeSnapshot(jsonFile, snapshotFile);
+        System.out.println("json file " + Files.size(jsonFile) / 1_000_000 + " MB, snapshot file " + Files.size(snapshotFile) / 1_000_000 + " MB");
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            try (InputStream inputStream = Files.newInputStream(jsonFile)) {
+                new AlertsDataSource().loadJson(inputStream);
+            }
+            long jsonStream = System.nanoTime();
+            new AlertsDataSource().load(jsonFile.toString());
+            long jsonFileSequential = System.nanoTime();
+            AlertsDataSource parallelDataSource = new AlertsDataSource();
+            parallelDataSource.setParallelLoad(true);
+            parallelDataSource.load(jsonFile.toString());
+            parallelDataSource = null;
+            long jsonFileParallel = System.nanoTime();
+            AlertsDataSource snapshotDataSource = new AlertsDataSource();
+            snapshotDataSource.loadSnapshot(snapshotFile);
+            long snapshot = System.nanoTime();
+            assertEquals(PERSONS, snapshotDataSource.getData().getPersons().size());
+            snapshotDataSource = null;
+            System.out.println("run " + run + " : json stream " + (jsonStream - start) / 1_000_000
+                    + " ms, json file " + (jsonFileSequential - jsonStream) / 1_000_000
+                    + " ms, json file in parallel " + (jsonFileParallel - jsonFileSequential) / 1_000_000
+                    + " ms, snapshot " + (snapshot - jsonFileParallel) / 1_000_000 + " ms");
+        }
+    }
+
+    private static void writeSnapshot(Path jsonFile, Path snapshotFile) throws IOException {
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.load(jsonFile.toString());
+        dataSource.writeSnapshot(snapshotFile);
+    }
+
+    private static void writeJson(Path jsonFile) throws IOException {
+        try (JsonGenerator generator = new JsonFactory().createGenerator(jsonFile.toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("persons");
+            for (int i = 0; i < PERSONS; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("firstName", "First" + i);
+                generator.writeStringField("lastName", "Last" + i % 50_000);
+                generator.writeStringField("address", (i % ADDRESSES) + " Culver St");
+                generator.writeStringField("city", "City" + i % 100);
+                generator.writeStringField("zip", String.valueOf(97000 + i % 1000));
+                generator.writeStringField("phone", "841-874-" + i % 10_000);
+                generator.writeStringField("email", "first" + i + "@email.com");
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("firestations");
+            for (int i = 0; i < ADDRESSES; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("address", i + " Culver St");
+                generator.writeStringField("station", String.valueOf(1 + i % 10));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("medicalrecords");
+            for (int i = 0; i < PERSONS; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("firstName", "First" + i);
+                generator.writeStringField("lastName", "Last" + i % 50_000);
+                generator.writeStringField("birthdate", String.format("%02d/%02d/%d", 1 + i % 12, 1 + i % 28, 1930 + i % 90));
+                generator.writeArrayFieldStart("medications");
+                generator.writeString("aznol:" + (i % 20) * 50 + "mg");
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("allergies");
+                if (i % 3 == 0) generator.writeString("peanut");
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.StubbedData;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    private AlertsDataSource alertsDataSource;
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+
+    @BeforeEach
+    void initTest() throws ParseException {
+        alertsDataSource = new AlertsDataSource();
+        alertsDataSource.setData(StubbedData.get());
+        logFile = tempDir.resolve("data.wal");
+    }
+
+    @AfterEach
+    void closeLog() throws IOException {
+        alertsDataSource.close();
+    }
+
+    private AlertsDataSource reopen(WriteAheadLog.FsyncPolicy fsyncPolicy) throws IOException, ParseException {
+        alertsDataSource.close();
+        AlertsDataSource reopenedDataSource = new AlertsDataSource();
+        reopenedDataSource.setData(StubbedData.get());
+        reopenedDataSource.openWriteAheadLog(logFile, fsyncPolicy, 10);
+        return reopenedDataSource;
+    }
+
+    private void modifyData() {
+        alertsDataSource.update(data -> {
+            data.addPerson(new Person("Jane", "Doe", "1 Main St", "Culver", "97451", "841-874-0000", "jdoe@email.com"));
+            Person john = data.getPersons("John", "Boyd").get(0);
+            Person movedJohn = new Person(john);
+            movedJohn.setAddress("29 15th St");
+            return data.replacePerson(john, movedJohn);
+        });
+        //second of two identical mappings
+        alertsDataSource.update(data -> {
+            FireStation fireStation = data.getFireStations("748 Townings Dr").get(1);
+            return data.replaceFireStation(fireStation, new FireStation(fireStation.getAddress(), 4));
+        });
+        alertsDataSource.update(data -> {
+            MedicalRecord medicalRecord = data.getMedicalRecords("John", "Boyd").get(0);
+            MedicalRecord updatedRecord = new MedicalRecord(medicalRecord);
+            updatedRecord.setBirthdate(new Date(451_238_400_123L));
+            updatedRecord.setAllergies(new ArrayList<>());
+            data.replaceMedicalRecord(medicalRecord, updatedRecord);
+            return data.removePerson(data.getPersons("Tony", "Cooper").get(0));
+        });
+    }
+
+    @Test
+    void replayModifications() throws IOException, ParseException {
+        //STUB
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        modifyData();
+        DataSnapshot expected = alertsDataSource.getData();
+
+        //ACT
+        AlertsDataSource reopenedDataSource = reopen(WriteAheadLog.FsyncPolicy.ALWAYS);
+
+        //CHECK
+        DataSnapshot data = reopenedDataSource.getData();
+        assertThat(data.getPersons()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(expected.getPersons());
+        assertThat(data.getFirestations()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(expected.getFirestations());
+        assertThat(data.getMedicalrecords()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(expected.getMedicalrecords());
+        assertEquals(3, data.getFireStations("748 Townings Dr").get(0).getStation());
+        assertEquals(4, data.getFireStations("748 Townings Dr").get(1).getStation());
+        assertEquals(451_238_400_123L, data.getMedicalRecords("John", "Boyd").get(0).getBirthdate().getTime());
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void replayIgnoresTornRecord() throws IOException, ParseException {
+        //STUB
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.NEVER, 10);
+        modifyData();
+        alertsDataSource.close();
+        long size = Files.size(logFile);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        //ACT
+        AlertsDataSource reopenedDataSource = reopen(WriteAheadLog.FsyncPolicy.ALWAYS);
+
+        //CHECK
+        DataSnapshot data = reopenedDataSource.getData();
+        assertEquals(1, data.getPersons("Jane", "Doe").size());
+        assertEquals(4, data.getFireStations("748 Townings Dr").get(1).getStation());
+        assertEquals(1, data.getPersons("Tony", "Cooper").size());
+        assertTrue(Files.size(logFile) < size - 3);
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void replayFailureLeavesLogUnchanged() throws IOException {
+        //STUB : a log whose first record does not apply to the data it is opened on
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        modifyData();
+        alertsDataSource.close();
+        byte[] logContent = Files.readAllBytes(logFile);
+        AlertsDataSource reopenedDataSource = new AlertsDataSource();
+        long version = reopenedDataSource.getData().getVersion();
+
+        //ACT
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> reopenedDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10));
+
+        //CHECK
+        assertThat(exception.getMessage()).contains("record 1");
+        assertArrayEquals(logContent, Files.readAllBytes(logFile));
+        assertEquals(version, reopenedDataSource.getData().getVersion());
+        assertEquals(0, reopenedDataSource.getWriteAheadLogRecords());
+    }
+
+    @Test
+    void resetReplacesLogFile() throws IOException, ParseException {
+        //STUB : a crash after the log file has been created, before its header is written
+        Files.createFile(logFile);
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        modifyData();
+
+        //ACT
+        alertsDataSource.setData(StubbedData.get());
+        alertsDataSource.update(data -> {
+            data.addFireStation(new FireStation("1 Main St", 5));
+            return null;
+        });
+        AlertsDataSource reopenedDataSource = reopen(WriteAheadLog.FsyncPolicy.ALWAYS);
+
+        //CHECK
+        assertEquals(1, reopenedDataSource.getWriteAheadLogRecords());
+        assertEquals(1, reopenedDataSource.getData().getFireStations("1 Main St").size());
+        assertTrue(reopenedDataSource.getData().getPersons("Jane", "Doe").isEmpty());
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(logFile);
+        }
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void concurrentUpdatesAreLogged() throws Exception {
+        //STUB
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        //ACT
+        for (int i = 0; i < 200; i++) {
+            String firstName = "First" + i;
+            futures.add(executor.submit(() -> alertsDataSource.update(data -> {
+                data.addPerson(new Person(firstName, "Last", "1 Main St", "Culver", "97451", "841-874-0000", "mail@email.com"));
+                return null;
+            })));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        AlertsDataSource reopenedDataSource = reopen(WriteAheadLog.FsyncPolicy.INTERVAL);
+
+        //CHECK
+        assertEquals(200, reopenedDataSource.getData().getPersonsByAddress("1 main st").size());
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void compactDropsRecordsHeldBySnapshot() throws IOException, ParseException {
+        //STUB
+        Path snapshotFile = tempDir.resolve("data.snapshot");
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        modifyData();
+        long logSize = alertsDataSource.getWriteAheadLogSize();
+
+        //ACT
+        long snapshotSize = alertsDataSource.compact(snapshotFile);
+        alertsDataSource.update(data -> {
+            data.removePerson(data.getPersons("Jane", "Doe").get(0));
+            return null;
+        });
+        DataSnapshot expected = alertsDataSource.getData();
+        alertsDataSource.close();
+        AlertsDataSource reopenedDataSource = new AlertsDataSource();
+        reopenedDataSource.loadSnapshot(snapshotFile);
+        reopenedDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+
+        //CHECK
+        assertEquals(Files.size(snapshotFile), snapshotSize);
+        assertEquals(1, reopenedDataSource.getWriteAheadLogRecords());
+        assertTrue(reopenedDataSource.getWriteAheadLogSize() < logSize);
+        DataSnapshot data = reopenedDataSource.getData();
+        assertThat(data.getPersons()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(expected.getPersons());
+        assertThat(data.getFirestations()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(expected.getFirestations());
+        assertTrue(data.getPersons("Jane", "Doe").isEmpty());
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void replaySkipsRecordsHeldBySnapshot() throws IOException {
+        //STUB : crash after a snapshot is written, before the log is compacted
+        Path snapshotFile = tempDir.resolve("data.snapshot");
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        modifyData();
+        alertsDataSource.writeSnapshot(snapshotFile);
+        alertsDataSource.update(data -> {
+            data.addFireStation(new FireStation("1 Main St", 5));
+            return null;
+        });
+        alertsDataSource.close();
+
+        //ACT
+        AlertsDataSource reopenedDataSource = new AlertsDataSource();
+        reopenedDataSource.loadSnapshot(snapshotFile);
+        reopenedDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+
+        //CHECK
+        DataSnapshot data = reopenedDataSource.getData();
+        assertEquals(1, data.getPersons("Jane", "Doe").size());
+        assertEquals(2, data.getFireStations("748 Townings Dr").size());
+        assertEquals(1, data.getFireStations("1 Main St").size());
+        assertEquals(4, data.getLogSequence());
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void updatesRejectedOnceLogWriteFailed() throws IOException {
+        //STUB : the log file can no longer be written
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        WriteAheadLog wal = (WriteAheadLog) ReflectionTestUtils.getField(alertsDataSource, "writeAheadLog");
+        ((FileChannel) ReflectionTestUtils.getField(wal, "channel")).close();
+        assertThrows(UncheckedIOException.class, this::modifyData);
+        long version = alertsDataSource.getData().getVersion();
+
+        //ACT
+        assertThrows(UncheckedIOException.class, () -> alertsDataSource.update(data -> {
+            data.addFireStation(new FireStation("1 Main St", 5));
+            return null;
+        }));
+
+        //CHECK
+        assertEquals(version, alertsDataSource.getData().getVersion());
+        assertTrue(alertsDataSource.getData().getFireStations("1 Main St").isEmpty());
+    }
+
+    @Test
+    void updateNotPublishedIfLogWriteFails() throws IOException {
+        //STUB : the log file can no longer be written
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        WriteAheadLog wal = (WriteAheadLog) ReflectionTestUtils.getField(alertsDataSource, "writeAheadLog");
+        ((FileChannel) ReflectionTestUtils.getField(wal, "channel")).close();
+        long version = alertsDataSource.getData().getVersion();
+        List<Long> notifiedVersions = new ArrayList<>();
+        alertsDataSource.addChangeListener((previous, current, changes) -> notifiedVersions.add(current.getVersion()));
+
+        //ACT
+        assertThrows(UncheckedIOException.class, () -> alertsDataSource.update(data -> {
+            data.addFireStation(new FireStation("1 Main St", 5));
+            return null;
+        }));
+
+        //CHECK
+        assertEquals(version, alertsDataSource.getData().getVersion());
+        assertEquals(version, alertsDataSource.getNotifiedVersion());
+        assertTrue(alertsDataSource.getData().getFireStations("1 Main St").isEmpty());
+        assertTrue(notifiedVersions.isEmpty());
+    }
+
+    @Test
+    void setDataDiscardsLog() throws IOException, ParseException {
+        //STUB
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.INTERVAL, 10);
+        modifyData();
+
+        //ACT
+        alertsDataSource.setData(StubbedData.get());
+        AlertsDataSource reopenedDataSource = reopen(WriteAheadLog.FsyncPolicy.ALWAYS);
+
+        //CHECK
+        assertThat(reopenedDataSource.getData().getPersons()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(StubbedData.get().getPersons());
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void logDiscardedIfDataFileIsNewer() throws IOException {
+        //STUB
+        Path dataFile = tempDir.resolve("data.json");
+        Files.copy(Path.of("src/test/resources/data-test.json"), dataFile);
+        alertsDataSource.load(dataFile.toString());
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        alertsDataSource.update(data -> {
+            data.removePerson(data.getPersons("Lily", "Cooper").get(0));
+            return null;
+        });
+        alertsDataSource.close();
+        Files.setLastModifiedTime(dataFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+        //ACT
+        AlertsDataSource reopenedDataSource = new AlertsDataSource();
+        reopenedDataSource.load(dataFile.toString());
+        reopenedDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+
+        //CHECK
+        assertEquals(1, reopenedDataSource.getData().getPersons("Lily", "Cooper").size());
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void incrementalReloadKeepsFollowingWrites() throws IOException {
+        //STUB
+        Path dataFile = tempDir.resolve("data.json");
+        Files.copy(Path.of("src/test/resources/data-test.json"), dataFile);
+        alertsDataSource.load(dataFile.toString());
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        alertsDataSource.update(data -> data.removePerson(data.getPersons("Lily", "Cooper").get(0)));
+        Files.writeString(dataFile, Files.readString(dataFile).replace("841-874-7878", "841-874-0000"));
+        Files.setLastModifiedTime(dataFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+        //ACT
+        alertsDataSource.reload(dataFile.toString());
+        alertsDataSource.update(data -> {
+            data.addPerson(new Person("Jane", "Doe", "1 Main St", "Culver", "97451", "841-874-0000", "jdoe@email.com"));
+            return null;
+        });
+        DataSnapshot expected = alertsDataSource.getData();
+        alertsDataSource.close();
+        AlertsDataSource reopenedDataSource = new AlertsDataSource();
+        reopenedDataSource.load(dataFile.toString());
+        reopenedDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+
+        //CHECK
+        DataSnapshot data = reopenedDataSource.getData();
+        assertEquals(1, reopenedDataSource.getWriteAheadLogRecords());
+        assertEquals(1, data.getPersons("Jane", "Doe").size());
+        assertEquals("841-874-0000", data.getPersons("Sophia", "Zemicks").get(0).getPhone());
+        //reverted by the reload : the file holds the reference data
+        assertEquals(1, data.getPersons("Lily", "Cooper").size());
+        assertThat(data.getPersons()).usingRecursiveFieldByFieldElementComparator().containsExactlyInAnyOrderElementsOf(expected.getPersons());
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void logKeptOnCompactionSnapshotLoad() throws IOException {
+        //STUB
+        Path dataFile = tempDir.resolve("data.json");
+        Path snapshotFile = tempDir.resolve("data.snapshot");
+        Files.copy(Path.of("src/test/resources/data-test.json"), dataFile);
+        Files.setLastModifiedTime(dataFile, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        alertsDataSource.load(dataFile.toString());
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        alertsDataSource.update(data -> data.removePerson(data.getPersons("Lily", "Cooper").get(0)));
+        alertsDataSource.compact(snapshotFile);
+        alertsDataSource.update(data -> data.removePerson(data.getPersons("Sophia", "Zemicks").get(0)));
+        alertsDataSource.close();
+
+        //ACT
+        AlertsDataSource reopenedDataSource = new AlertsDataSource();
+        reopenedDataSource.load(dataFile.toString(), snapshotFile.toString());
+        reopenedDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+
+        //CHECK
+        DataSnapshot data = reopenedDataSource.getData();
+        assertTrue(data.getPersons("Lily", "Cooper").isEmpty());
+        assertTrue(data.getPersons("Sophia", "Zemicks").isEmpty());
+        reopenedDataSource.close();
+    }
+
+    @Test
+    void compactedLogRefusedOnJsonLoad() throws IOException {
+        //STUB : a compacted log, its snapshot lost
+        Path dataFile = tempDir.resolve("data.json");
+        Path snapshotFile = tempDir.resolve("data.snapshot");
+        Files.copy(Path.of("src/test/resources/data-test.json"), dataFile);
+        Files.setLastModifiedTime(dataFile, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        alertsDataSource.load(dataFile.toString());
+        alertsDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        alertsDataSource.update(data -> data.removePerson(data.getPersons("Lily", "Cooper").get(0)));
+        alertsDataSource.compact(snapshotFile);
+        alertsDataSource.update(data -> data.removePerson(data.getPersons("Sophia", "Zemicks").get(0)));
+        alertsDataSource.close();
+        Files.delete(snapshotFile);
+        byte[] logContent = Files.readAllBytes(logFile);
+        AlertsDataSource reopenedDataSource = new AlertsDataSource();
+        reopenedDataSource.load(dataFile.toString(), snapshotFile.toString());
+
+        //ACT
+        IOException exception = assertThrows(IOException.class,
+                () -> reopenedDataSource.openWriteAheadLog(logFile, WriteAheadLog.FsyncPolicy.ALWAYS, 10));
+
+        //CHECK
+        assertThat(exception.getMessage()).contains("compacted");
+        assertArrayEquals(logContent, Files.readAllBytes(logFile));
+        assertEquals(1, reopenedDataSource.getData().getPersons("Sophia", "Zemicks").size());
+        assertEquals(0, reopenedDataSource.getWriteAheadLogRecords());
+    }
+}
@@ -1,15 +1,15 @@
 package com.safetynet.alerts.api.service;
 
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
 import com.safetynet.alerts.api.dao.IFireStationDao;
-import com.safetynet.alerts.api.dao.IPersonDao;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
 import com.safetynet.alerts.api.model.FireStation;
-import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
 import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
 import com.safetynet.alerts.api.model.dto.FloodDto;
 import com.safetynet.alerts.api.model.dto.PersonDto;
-import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
 import com.safetynet.alerts.api.utils.IAgeUtil;
 import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,15 +29,12 @@ import static org.mockito.Mockito.*;
 class FireStationServiceTest {
     private IFireStationService fireStationService;
     @Mock
-    private IPersonDao personDao;
-    @Mock
     private IFireStationDao fireStationDao;
     @Mock
-    private IDtoMapper<Person, PersonDto> personDtoMapper;
+    private IHouseholdService householdService;
     @Mock
     private IAgeUtil ageUtil;
 
-    private  Map<String, List<Person>> addressPersonsMap;
     private  Map<String, List<PersonDto>> addressPersonDtosMap;
     private final String ADDRESS_1 = "892 Downing Ct";
     private final String ADDRESS_2 = "947 E. Rose Dr";
@@ -46,24 +43,11 @@ class FireStationServiceTest {
     private final int AGE_ADULT = 20;
     @BeforeEach
     void initializeTest(){
-        fireStationService = new FireStationService(fireStationDao,personDao, personDtoMapper, ageUtil);
-
-        addressPersonsMap =   new HashMap<>() {{
-            put(ADDRESS_1,
-                    new ArrayList<Person>(Arrays.asList(
-                            new Person("IamAChild18A", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com"),
-                            new Person("IamAdult", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7512", "ward@email.com"),
-                            new Person("IamNullAge", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7512", "zarc@email.com"))));
-            put(ADDRESS_2,
-                    new ArrayList<Person>(Arrays.asList(
-                        new Person("Brian", "Stelzer", "947 E. Rose Dr","Culver", "97451","841-874-7512", "bstel@email.com" ),
-                        new Person("Shawna", "Stelzer", "947 E. Rose Dr","Culver", "97451", "841-874-7513", "zarc@email.com"),
-                        new Person("IamNullAge", "Zemicks", "947 E. Rose Dr","Culver", "97451", "841-874-7514", "zarc@email.com"))));
-            put(ADDRESS_3,
-                    new ArrayList<Person>(Arrays.asList(
-                            new Person("Eric", "Cadigan", "951 LoneTree Rd","Culver", "97451","841-874-7512", "bstel@email.com" ))));
-
-        }};
+        //station 88 covers ADDRESS_1 and ADDRESS_2, its persons and phones are served by the view
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.setData(DataSnapshot.of(List.of(),
+                List.of(new FireStation(ADDRESS_1, 88), new FireStation(ADDRESS_2, 88)), List.of()));
+        fireStationService = new FireStationService(fireStationDao, householdService, new FireStationView(dataSource, householdService, ageUtil));
 
         addressPersonDtosMap =   new HashMap<>() {{
             put(ADDRESS_1,
@@ -82,6 +66,15 @@ class FireStationServiceTest {
 
         }};
     }
+
+    private List<HouseholdDto> households(List<String> addresses) {
+        List<HouseholdDto> households = new ArrayList<>();
+        for(String address : addresses){
+            households.add(new HouseholdDto(address, 88, addressPersonDtosMap.get(address)));
+        }
+        return households;
+    }
+
     @Test
     void deleteFireStation() throws DataNotFoundException {
         //ACT
@@ -120,15 +113,7 @@ class FireStationServiceTest {
     void getPersonsOk() throws DataNotFoundException {
         //PREPARE
         List<String> addresses = List.of(ADDRESS_1,ADDRESS_2);
-        when(fireStationDao.getAddresses(any())).thenReturn(addresses);
-        for(String address : addresses){
-            when(personDao.getPersonsByAddress(address)).thenReturn(addressPersonsMap.get(address));
-            List<Person> persons = addressPersonsMap.get(address);
-            List<PersonDto> personDtos = addressPersonDtosMap.get(address);
-            for(int i = 0; i < persons.size(); i++){
-                when(personDtoMapper.mapToDto(persons.get(i))).thenReturn(personDtos.get(i));
-            }
-        }
+        when(householdService.getHouseholds(addresses)).thenReturn(households(addresses));
         when(ageUtil.isAdult(AGE_CHILD)).thenReturn(false);
         when(ageUtil.isAdult(AGE_ADULT)).thenReturn(true);
 
@@ -136,8 +121,7 @@ class FireStationServiceTest {
         FireStationPersonsDto fireStationPersonsDto = fireStationService.getPersons(88);
 
         //CHECK
-        verify(fireStationDao,times(1)).getAddresses(88);
-        verify(personDao,times(addresses.size())).getPersonsByAddress(any());
+        verify(householdService,times(1)).getHouseholds(addresses);
 
         //check children
         assertThat(fireStationPersonsDto.getPersons())
@@ -155,31 +139,24 @@ class FireStationServiceTest {
     }
     @Test
     void getPersonsUnknownFireStation() throws DataNotFoundException {
-        //PREPARE
-        when(fireStationDao.getAddresses(any())).thenReturn(List.of());
-
         //ACT
-        assertThrows(DataNotFoundException.class,() -> fireStationService.getPersons(88));
+        assertThrows(DataNotFoundException.class,() -> fireStationService.getPersons(89));
 
         //CHECK
-        verify(fireStationDao,times(1)).getAddresses(88);
+        verify(householdService, never()).getHouseholds(any());
     }
 
     @Test
     void getPhonesOk() throws DataNotFoundException {
         //PREPARE
         List<String> addresses = List.of(ADDRESS_1,ADDRESS_2);
-        when(fireStationDao.getAddresses(any())).thenReturn(List.of(ADDRESS_1,ADDRESS_2));
-        for(String address : addresses){
-            when(personDao.getPersonsByAddress(address)).thenReturn(addressPersonsMap.get(address));
-        }
+        when(householdService.getHouseholds(addresses)).thenReturn(households(addresses));
 
         //ACT
         List<String> phones = fireStationService.getPhones(88);
 
         //CHECK
-        verify(fireStationDao,times(1)).getAddresses(88);
-        verify(personDao,times(addresses.size())).getPersonsByAddress(any());
+        verify(householdService,times(1)).getHouseholds(addresses);
         //check children
         assertThat(phones)
                 .containsExactly(
@@ -191,14 +168,11 @@ class FireStationServiceTest {
 
     @Test
     void getPhoneUnknownStation() throws DataNotFoundException {
-        //PREPARE
-        when(fireStationDao.getAddresses(any())).thenReturn(List.of());
-
         //ACT
-        assertThrows(DataNotFoundException.class,() -> fireStationService.getPhones(88));
+        assertThrows(DataNotFoundException.class,() -> fireStationService.getPhones(89));
 
         //CHECK
-        verify(fireStationDao,times(1)).getAddresses(88);
+        verify(householdService, never()).getHouseholds(any());
     }
 
     @Test
@@ -209,20 +183,15 @@ class FireStationServiceTest {
         when(fireStationDao.getAddresses(1)).thenReturn(List.of(ADDRESS_1,ADDRESS_2));
         when(fireStationDao.getAddresses(2)).thenReturn(List.of(ADDRESS_3));
 
-        for(String address : addressPersonsMap.keySet()) {
-            when(personDao.getPersonsByAddress(address)).thenReturn(addressPersonsMap.get(address));
-            List<Person> persons = addressPersonsMap.get(address);
-            List<PersonDto> personDtos = addressPersonDtosMap.get(address);
-            for (int i = 0; i < persons.size(); i++) {
-                when(personDtoMapper.mapToDto(persons.get(i))).thenReturn(personDtos.get(i));
-            }
-        }
+        List<String> addresses = List.of(ADDRESS_1,ADDRESS_2,ADDRESS_3);
+        when(householdService.getHouseholds(addresses)).thenReturn(households(addresses));
 
         //ACT
         List<FloodDto> floodDtos = fireStationService.getFloodHomes(stations);
 
         //CHECK
         verify(fireStationDao,times(2)).getAddresses(any());
+        verify(householdService,times(1)).getHouseholds(addresses);
 
         //check station 1 ADDDRESS_1
         assertThat(floodDtos.get(0).getPersons())
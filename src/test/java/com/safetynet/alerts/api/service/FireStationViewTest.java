@@ -0,0 +1,225 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.StubbedData;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.utils.IAgeUtil;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FireStationViewTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2022, 3, 1);
+
+    private AlertsDataSource dataSource;
+    private FireStationView fireStationView;
+    @Mock
+    private IHouseholdService householdService;
+    @Mock
+    private IAgeUtil ageUtil;
+
+    /*addresses of the households read by the view, by call*/
+    private List<List<String>> readAddresses;
+
+    @BeforeEach
+    void initTest() throws ParseException {
+        dataSource = new AlertsDataSource();
+        dataSource.setData(StubbedData.get());
+        fireStationView = new FireStationView(dataSource, householdService, ageUtil);
+        fireStationView.listen();
+        readAddresses = new ArrayList<>();
+        lenient().when(ageUtil.today()).thenReturn(TODAY);
+        lenient().when(ageUtil.isAdult(anyInt())).thenAnswer(invocation -> (int) invocation.getArgument(0) > 18);
+        lenient().when(householdService.getHouseholds(any())).thenAnswer(invocation -> {
+            List<String> addresses = new ArrayList<>(invocation.<Collection<String>>getArgument(0));
+            readAddresses.add(addresses);
+            return households(addresses);
+        });
+    }
+
+    /*households of the current data, the age of a resident being computed from his birth year*/
+    private List<HouseholdDto> households(List<String> addresses) {
+        DataSnapshot data = dataSource.getData();
+        List<HouseholdDto> households = new ArrayList<>();
+        for (String address : addresses) {
+            List<PersonDto> residents = new ArrayList<>();
+            for (Person person : data.getPersonsByAddress(address)) {
+                Integer age = data.getMedicalRecords(person.getFirstName(), person.getLastName()).stream()
+                        .map(m -> TODAY.getYear() - m.getBirthdate().toInstant().atZone(ZoneId.systemDefault()).getYear())
+                        .findFirst().orElse(null);
+                residents.add(new PersonDto(person.getFirstName(), person.getLastName(), person.getAddress(), person.getCity(),
+                        person.getZip(), person.getPhone(), person.getEmail(), age, null));
+            }
+            households.add(new HouseholdDto(address, null, residents));
+        }
+        return households;
+    }
+
+    private void getPersonsOfStations() throws DataNotFoundException {
+        for (int station = 1; station <= 4; station++) {
+            fireStationView.getPersons(station);
+        }
+    }
+
+    private void assertSameAsFreshView() throws DataNotFoundException {
+        FireStationView freshView = new FireStationView(dataSource, householdService, ageUtil);
+        for (int station = 1; station <= 4; station++) {
+            FireStationPersonsDto persons = fireStationView.getPersons(station);
+            FireStationPersonsDto freshPersons = freshView.getPersons(station);
+            assertThat(persons.getPersons()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(freshPersons.getPersons());
+            assertThat(persons.getNumberOfAdults()).isEqualTo(freshPersons.getNumberOfAdults());
+            assertThat(persons.getNumberOfChildren()).isEqualTo(freshPersons.getNumberOfChildren());
+            assertThat(fireStationView.getPhones(station)).containsExactlyInAnyOrderElementsOf(freshView.getPhones(station));
+        }
+    }
+
+    @Test
+    void getPersonsBuiltOnce() throws DataNotFoundException {
+        //ACT
+        fireStationView.getPersons(3);
+        FireStationPersonsDto persons = fireStationView.getPersons(3);
+        List<String> phones = fireStationView.getPhones(3);
+
+        //CHECK
+        assertThat(readAddresses).containsExactly(List.of("1509 Culver St", "834 Binoc Ave", "748 Townings Dr", "112 Steppes Pl"));
+        assertThat(persons.getPersons())
+                .extracting(PersonDto::getFirstName, PersonDto::getLastName)
+                .containsExactly(
+                        Tuple.tuple("John", "Boyd"),
+                        Tuple.tuple("Jacob", "Boyd"),
+                        Tuple.tuple("Tenley", "Boyd"),
+                        Tuple.tuple("Roger", "Boyd"),
+                        Tuple.tuple("Felicia", "Boyd"),
+                        Tuple.tuple("Tessa", "Carman"),
+                        Tuple.tuple("Foster", "Shepard"),
+                        Tuple.tuple("Tony", "Cooper"),
+                        Tuple.tuple("Ron", "Peters"),
+                        Tuple.tuple("Allison", "Boyd"));
+        assertThat(persons.getNumberOfAdults() + persons.getNumberOfChildren()).isEqualTo(10);
+        assertThat(phones).containsExactly("841-874-6512", "841-874-6513", "841-874-6544", "841-874-6874", "841-874-8888", "841-874-9888");
+    }
+
+    @Test
+    void getPersonsUnknownStation() {
+        //ACT
+        assertThrows(DataNotFoundException.class, () -> fireStationView.getPersons(5));
+        assertThrows(DataNotFoundException.class, () -> fireStationView.getPhones(5));
+
+        //CHECK
+        assertThat(readAddresses).isEmpty();
+    }
+
+    @Test
+    void medicalRecordChangeUpdatesAddressOfPerson() throws DataNotFoundException {
+        //PREPARE
+        getPersonsOfStations();
+        readAddresses.clear();
+        assertThat(fireStationView.getPersons(4).getNumberOfAdults()).isEqualTo(1);
+
+        //ACT
+        dataSource.update(data -> {
+            MedicalRecord medicalRecord = data.getMedicalRecords("Lily", "Cooper").get(0);
+            MedicalRecord updatedRecord = new MedicalRecord(medicalRecord);
+            try {
+                updatedRecord.setBirthdate(new SimpleDateFormat("MM/dd/yyyy").parse("03/06/2015"));
+            } catch (ParseException e) {
+                throw new IllegalStateException(e);
+            }
+            return data.replaceMedicalRecord(medicalRecord, updatedRecord);
+        });
+        getPersonsOfStations();
+
+        //CHECK
+        assertThat(readAddresses).containsExactly(List.of("489 Manchester St"));
+        assertThat(fireStationView.getPersons(4).getNumberOfAdults()).isZero();
+        assertThat(fireStationView.getPersons(4).getNumberOfChildren()).isEqualTo(1);
+        assertSameAsFreshView();
+    }
+
+    @Test
+    void personMoveUpdatesBothAddresses() throws DataNotFoundException {
+        //PREPARE
+        getPersonsOfStations();
+        readAddresses.clear();
+
+        //ACT
+        dataSource.update(data -> {
+            Person person = data.getPersons("Tony", "Cooper").get(0);
+            Person movedPerson = new Person(person);
+            movedPerson.setAddress("29 15th St");
+            return data.replacePerson(person, movedPerson);
+        });
+        getPersonsOfStations();
+
+        //CHECK
+        assertThat(readAddresses).containsExactly(List.of("29 15th St"), List.of("112 Steppes Pl"));
+        assertThat(fireStationView.getPersons(2).getPersons()).extracting(PersonDto::getFirstName).contains("Tony");
+        assertThat(fireStationView.getPersons(3).getPersons()).extracting(PersonDto::getFirstName).doesNotContain("Tony");
+        assertThat(fireStationView.getPhones(2)).contains("841-874-6874");
+        assertThat(fireStationView.getPhones(3)).doesNotContain("841-874-6874");
+        assertSameAsFreshView();
+    }
+
+    @Test
+    void mappingChangeMovesAddressBetweenStations() throws DataNotFoundException {
+        //PREPARE
+        getPersonsOfStations();
+        readAddresses.clear();
+
+        //ACT
+        dataSource.update(data -> {
+            FireStation fireStation = data.getFireStations("489 Manchester St").get(0);
+            return data.replaceFireStation(fireStation, new FireStation(fireStation.getAddress(), 1));
+        });
+
+        //CHECK
+        assertThrows(DataNotFoundException.class, () -> fireStationView.getPersons(4));
+        assertThat(fireStationView.getPersons(1).getPersons()).extracting(PersonDto::getFirstName).endsWith("Lily");
+        assertThat(fireStationView.getPhones(1)).endsWith("841-874-9845");
+        assertThat(readAddresses).containsExactly(List.of("489 Manchester St"));
+    }
+
+    @Test
+    void dataReplacedOrDayChangeBuildsAllStationsAgain() throws DataNotFoundException, ParseException {
+        //PREPARE
+        getPersonsOfStations();
+        readAddresses.clear();
+
+        //ACT
+        dataSource.setData(StubbedData.get());
+        getPersonsOfStations();
+        when(ageUtil.today()).thenReturn(TODAY.plusDays(1));
+        getPersonsOfStations();
+
+        //CHECK
+        assertThat(readAddresses).hasSize(8);
+        assertThat(readAddresses.subList(4, 8)).isEqualTo(readAddresses.subList(0, 4));
+        assertThat(readAddresses.get(2)).containsExactly("1509 Culver St", "834 Binoc Ave", "748 Townings Dr", "112 Steppes Pl");
+    }
+}
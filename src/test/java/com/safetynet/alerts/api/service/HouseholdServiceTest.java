@@ -0,0 +1,108 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.StubbedData;
+import com.safetynet.alerts.api.dao.HouseholdDao;
+import com.safetynet.alerts.api.dao.MedicalRecordDao;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.service.dtomapper.MedicalRecordDtoMapper;
+import com.safetynet.alerts.api.service.dtomapper.PersonDtoMapper;
+import com.safetynet.alerts.api.utils.AgeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdServiceTest {
+
+    private AlertsDataSource dataSource;
+    private HouseholdService householdService;
+
+    @BeforeEach
+    void initializeTest() throws ParseException {
+        dataSource = new AlertsDataSource();
+        dataSource.setData(StubbedData.get());
+        AgeUtil ageUtil = new AgeUtil();
+        householdService = new HouseholdService(dataSource, new HouseholdDao(dataSource),
+                new PersonDtoMapper(new MedicalRecordDao(dataSource), new MedicalRecordDtoMapper(), ageUtil), ageUtil);
+        householdService.listen();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int nbKeptHouseholds() {
+        return ((Map<String, ?>) ReflectionTestUtils.getField(householdService, "households")).size();
+    }
+
+    @Test
+    void getHouseholds() {
+        //ACT
+        List<HouseholdDto> households = householdService.getHouseholds(List.of("1509 Culver St", "1 Rd Sky"));
+
+        //CHECK
+        assertEquals(3, households.get(0).getStationNumber());
+        assertThat(households.get(0).getResidents())
+                .extracting(PersonDto::getFirstName)
+                .containsExactly("John", "Jacob", "Tenley", "Roger", "Felicia");
+        assertThat(households.get(0).getResidents()).allMatch(p -> p.getAge() != null && p.getMedicalRecord() != null);
+        assertNull(households.get(1).getStationNumber());
+        assertTrue(households.get(1).getResidents().isEmpty());
+        //nobody lives at "1 Rd Sky" and it is not covered : not kept
+        assertEquals(1, nbKeptHouseholds());
+    }
+
+    @Test
+    void getHouseholdKeptByNormalizedAddress() {
+        //ACT
+        HouseholdDto household = householdService.getHousehold("1509 Culver St");
+
+        //CHECK
+        assertSame(household, householdService.getHousehold(" 1509 CULVER st"));
+        assertEquals("1509 Culver St", householdService.getHousehold(" 1509 CULVER st").getAddress());
+    }
+
+    @Test
+    void medicalRecordChangeRebuildsHouseholdOfPerson() {
+        //PREPARE
+        HouseholdDto boyds = householdService.getHousehold("1509 Culver St");
+        HouseholdDto marracks = householdService.getHousehold("29 15th St");
+
+        //ACT
+        dataSource.update(data -> {
+            MedicalRecord medicalRecord = data.getMedicalRecords("John", "Boyd").get(0);
+            MedicalRecord updatedRecord = new MedicalRecord(medicalRecord);
+            updatedRecord.setAllergies(List.of("peanut"));
+            return data.replaceMedicalRecord(medicalRecord, updatedRecord);
+        });
+
+        //CHECK
+        HouseholdDto updatedBoyds = householdService.getHousehold("1509 Culver St");
+        assertNotSame(boyds, updatedBoyds);
+        assertThat(updatedBoyds.getResidents().get(0).getMedicalRecord().getAllergies()).containsExactly("peanut");
+        assertSame(marracks, householdService.getHousehold("29 15th St"));
+    }
+
+    @Test
+    void householdsOfModifiedAddressesNotKept() {
+        //PREPARE
+        householdService.getHouseholds(List.of("1509 Culver St", "29 15th St"));
+
+        //ACT
+        dataSource.update(data -> {
+            Person person = data.getPersons("Jonanathan", "Marrack").get(0);
+            return data.removePerson(person);
+        });
+
+        //CHECK
+        assertEquals(1, nbKeptHouseholds());
+        assertTrue(householdService.getHousehold("29 15th St").getResidents().isEmpty());
+    }
+}
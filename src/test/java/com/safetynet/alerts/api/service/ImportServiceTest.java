@@ -0,0 +1,98 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.dao.IImportDao;
+import com.safetynet.alerts.api.model.dto.ImportRecordDto;
+import com.safetynet.alerts.api.model.dto.ImportSummaryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    private IImportService importService;
+    @Mock
+    private IImportDao importDao;
+    @Captor
+    private ArgumentCaptor<List<ImportRecordDto>> batches;
+
+    @BeforeEach
+    void initializeTest() {
+        importService = new ImportService(importDao);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+    }
+
+    private static InputStream lines(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importRecordsByBatches() throws IOException {
+        //STUB
+        when(importDao.importRecords(anyList(), eq(false))).thenReturn(
+                List.of(IImportDao.ImportResult.CREATED, IImportDao.ImportResult.CREATED),
+                List.of(IImportDao.ImportResult.CONFLICT));
+        //ACT
+        ImportSummaryDto summary = importService.importRecords(lines(
+                "{\"person\":{\"firstName\":\"Pierre\",\"lastName\":\"Paul\",\"address\":\"1 Rd Sky\"}}",
+                "",
+                "{\"firestation\":{\"address\":\"1 Rd Sky\",\"station\":\"5\"}}",
+                "{\"medicalrecord\":{\"firstName\":\"Pierre\",\"lastName\":\"Paul\",\"birthdate\":\"03/06/1984\"}}"), false);
+        //CHECK
+        verify(importDao, times(2)).importRecords(batches.capture(), eq(false));
+        assertEquals(2, summary.getCreated());
+        assertEquals(0, summary.getUpdated());
+        assertEquals(1, summary.getConflicts());
+        assertEquals(0, summary.getInvalid());
+        assertThat(summary.getErrors()).containsExactly("line 4 : Data 'Medical record of Pierre Paul' already exists !");
+        assertThat(batches.getAllValues().get(0)).hasSize(2);
+        //missing lists are imported as empty lists
+        assertThat(batches.getAllValues().get(1).get(0).getMedicalrecord().getAllergies()).isEmpty();
+    }
+
+    @Test
+    void importInvalidRecords() throws IOException {
+        //STUB
+        when(importDao.importRecords(anyList(), eq(true))).thenReturn(List.of(IImportDao.ImportResult.UPDATED));
+        //ACT
+        ImportSummaryDto summary = importService.importRecords(lines(
+                "{\"person\":{\"firstName\":\"Pierre\"",
+                "{\"person\":{\"firstName\":\"Pierre\",\"lastName\":\" \"}}",
+                "{\"firestation\":{\"address\":\"1 Rd Sky\"}}",
+                "{\"medicalrecord\":{\"firstName\":\"Pierre\",\"lastName\":\"Paul\"}}",
+                "{\"person\":{\"firstName\":\"Pierre\",\"lastName\":\"Paul\"},\"firestation\":{\"address\":\"1 Rd Sky\",\"station\":\"5\"}}",
+                "{\"person\":{\"firstName\":\"Pierre\",\"lastName\":\"Paul\"}}"), true);
+        //CHECK
+        verify(importDao, times(1)).importRecords(anyList(), eq(true));
+        assertEquals(1, summary.getUpdated());
+        assertEquals(5, summary.getInvalid());
+        assertThat(summary.getErrors()).hasSize(5);
+        assertThat(summary.getErrors().get(1)).isEqualTo("line 2 : person first name and last name are mandatory");
+    }
+
+    @Test
+    void importEmptyInput() throws IOException {
+        //ACT
+        ImportSummaryDto summary = importService.importRecords(lines(""), false);
+        //CHECK
+        verify(importDao, never()).importRecords(anyList(), anyBoolean());
+        assertEquals(0, summary.getCreated());
+    }
+}
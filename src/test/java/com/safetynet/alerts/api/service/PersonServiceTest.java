@@ -1,10 +1,11 @@
 package com.safetynet.alerts.api.service;
 
-import com.safetynet.alerts.api.dao.IFireStationDao;
 import com.safetynet.alerts.api.dao.IPersonDao;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.HouseholdDto;
 import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.dto.ChildAlertDto;
 import com.safetynet.alerts.api.model.dto.FireDto;
 import com.safetynet.alerts.api.model.dto.PersonDto;
@@ -20,6 +21,7 @@ import static org.junit.Assert.assertThrows;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -32,14 +34,14 @@ class PersonServiceTest {
     @Mock
     private IPersonDao personDao;
     @Mock
-    private IFireStationDao fireStationDao;
+    private IHouseholdService householdService;
     @Mock
     private IDtoMapper<Person, PersonDto> personDtoMapper;
     @Mock
     private IAgeUtil ageUtil;
     @BeforeEach
     void initializeTest(){
-        personService = new PersonService(personDao,fireStationDao,personDtoMapper, ageUtil);
+        personService = new PersonService(personDao,householdService,personDtoMapper, ageUtil);
     }
 
     @Test
@@ -79,29 +81,20 @@ class PersonServiceTest {
     @Test
     void getChildren() {
         //PREPARE
-        List<Person> persons =   new ArrayList<>(Arrays.asList(
-                new Person("IamAChild18A", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com"),
-                new Person("IamAChild2A", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com"),
-                new Person("IamAdult", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7512", "ward@email.com"),
-                new Person("IamNullAge", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7512", "zarc@email.com")));
         List<PersonDto> personDtos =   new ArrayList<>(Arrays.asList(
                 new PersonDto("IamAChild18A", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com",18,null),
                 new PersonDto("IamAChild2A", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com",2,null),
                 new PersonDto("IamAdult", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7512", "ward@email.com",19,null),
                 new PersonDto("IamNullAge", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7512", "zarc@email.com",null,null)));
 
-        when(personDao.getPersonsByAddress(any(String.class))).thenReturn(persons);
-        for(int i = 0; i < persons.size(); i++){
-            when(personDtoMapper.mapToDto(persons.get(i))).thenReturn(personDtos.get(i));
-        }
+        when(householdService.getHousehold(any(String.class))).thenReturn(new HouseholdDto("892 Downing Ct", 2, personDtos));
         when(ageUtil.isAdult(18)).thenReturn(false);
         when(ageUtil.isAdult(2)).thenReturn(false);
         when(ageUtil.isAdult(19)).thenReturn(true);
         //ACT
         ChildAlertDto childAlertDto = personService.getChildren("892 Downing Ct");
         //CHECK
-        verify(personDao,times(1)).getPersonsByAddress("892 Downing Ct");
-        verify(personDtoMapper,times(2*personDtos.size())).mapToDto(any(Person.class));
+        verify(householdService,times(1)).getHousehold("892 Downing Ct");
         //check children
         assertThat(childAlertDto.getChildren())
                 .extracting(PersonDto::getFirstName, PersonDto::getLastName, PersonDto::getAge)
@@ -115,39 +108,27 @@ class PersonServiceTest {
     @Test
     void getFiredPersonsNoBodyNoFireStationAtAddress() throws DataNotFoundException {
         //PREPARE
-        List<Person> persons =   new ArrayList<>();
-        when(personDao.getPersonsByAddress(any(String.class))).thenReturn(persons);
-        when(fireStationDao.getFireStationNumber(any(String.class))).thenThrow(DataNotFoundException.class);
+        when(householdService.getHousehold(any(String.class))).thenReturn(new HouseholdDto("892 Downing Ct", null, new ArrayList<>()));
         //ACT
         assertThrows(DataNotFoundException.class,  () -> personService.getFiredPersons("892 Downing Ct"));
         //CHECK
-        verify(personDao,times(1)).getPersonsByAddress("892 Downing Ct");
-        verify(fireStationDao,times(1)).getFireStationNumber("892 Downing Ct");
+        verify(householdService,times(1)).getHousehold("892 Downing Ct");
         verify(personDtoMapper,never()).mapToDto(any(Person.class));
     }
 
     @Test
     void getFiredPersonsNoFireStationAtAddressButPeopleYes() throws DataNotFoundException {
         //PREPARE
-        List<Person> persons =   new ArrayList<>(Arrays.asList(
-                new Person("Pierre", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com"),
-                new Person("Paul", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com")));
         List<PersonDto> personDtos =   new ArrayList<>(Arrays.asList(
                 new PersonDto("Pierre", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com",18,null),
                 new PersonDto("Paul", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com",2,null)));
 
-        when(personDao.getPersonsByAddress(any(String.class))).thenReturn(persons);
-        for(int i = 0; i < persons.size(); i++){
-            when(personDtoMapper.mapToDto(persons.get(i))).thenReturn(personDtos.get(i));
-        }
-        when(fireStationDao.getFireStationNumber(any(String.class))).thenThrow(DataNotFoundException.class);
+        when(householdService.getHousehold(any(String.class))).thenReturn(new HouseholdDto("892 Downing Ct", null, personDtos));
 
         //ACT
         FireDto fireDto = personService.getFiredPersons("892 Downing Ct");
         //CHECK
-        verify(personDao,times(1)).getPersonsByAddress("892 Downing Ct");
-        verify(fireStationDao,times(1)).getFireStationNumber("892 Downing Ct");
-        verify(personDtoMapper,times(personDtos.size())).mapToDto(any(Person.class));
+        verify(householdService,times(1)).getHousehold("892 Downing Ct");
         //check persons
         assertThat(fireDto.getPersons())
                 .extracting(PersonDto::getFirstName, PersonDto::getLastName)
@@ -159,25 +140,16 @@ class PersonServiceTest {
     @Test
     void getFiredPersonsAllOk() throws DataNotFoundException {
         //PREPARE
-        List<Person> persons =   new ArrayList<>(Arrays.asList(
-                new Person("Pierre", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com"),
-                new Person("Paul", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com")));
         List<PersonDto> personDtos =   new ArrayList<>(Arrays.asList(
                 new PersonDto("Pierre", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com",18,null),
                 new PersonDto("Paul", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com",2,null)));
         int stationNumber = 3;
-        when(personDao.getPersonsByAddress(any(String.class))).thenReturn(persons);
-        for(int i = 0; i < persons.size(); i++){
-            when(personDtoMapper.mapToDto(persons.get(i))).thenReturn(personDtos.get(i));
-        }
-        when(fireStationDao.getFireStationNumber(any(String.class))).thenReturn(stationNumber);
+        when(householdService.getHousehold(any(String.class))).thenReturn(new HouseholdDto("892 Downing Ct", stationNumber, personDtos));
 
         //ACT
         FireDto fireDto = personService.getFiredPersons("892 Downing Ct");
         //CHECK
-        verify(personDao,times(1)).getPersonsByAddress("892 Downing Ct");
-        verify(fireStationDao,times(1)).getFireStationNumber("892 Downing Ct");
-        verify(personDtoMapper,times(personDtos.size())).mapToDto(any(Person.class));
+        verify(householdService,times(1)).getHousehold("892 Downing Ct");
         //check persons
         assertThat(fireDto.getPersons())
                 .extracting(PersonDto::getFirstName, PersonDto::getLastName)
@@ -197,15 +169,13 @@ class PersonServiceTest {
                 new PersonDto("Pierre", "Zemicks", "893 Downing Ct", "Paris", "7000", "841-874-7878", "soph@paris.com",2,null)));
 
         when(personDao.getPersons(any(), any())).thenReturn(persons);
-        for(int i = 0; i < persons.size(); i++){
-            when(personDtoMapper.mapToDto(persons.get(i))).thenReturn(personDtos.get(i));
-        }
+        when(personDtoMapper.mapToDtos(persons)).thenReturn(personDtos);
 
         //ACT
         List<PersonDto> returnedPersonDtos = personService.getPersonInfo("Pierre", "Zemicks");
         //CHECK
         verify(personDao,times(1)).getPersons("Pierre", "Zemicks");
-        verify(personDtoMapper,times(personDtos.size())).mapToDto(any(Person.class));
+        verify(personDtoMapper,times(1)).mapToDtos(persons);
         //check persons
         assertThat(returnedPersonDtos)
                 .extracting(PersonDto::getFirstName, PersonDto::getLastName, PersonDto::getEmail)
@@ -227,4 +197,55 @@ class PersonServiceTest {
         assertThat(returnedEmails)
                  .containsExactly("soph@email.com", "soph@paris.com");
     }
-}
\ No newline at end of file
+
+    @Test
+    void createPersons() {
+        //PREPARE
+        List<Person> personsToCreate = List.of(
+                new Person("Pierre","Paul", "10 Rue Eiffel", "Paris", "75000","0145804125", "pp@parismail.com"),
+                new Person("Jacques","Paul", "10 Rue Eiffel", "Paris", "75000","0145804125", "jp@parismail.com"));
+        when(personDao.createPersons(personsToCreate)).thenReturn(Arrays.asList(null, new DataAlreadyExistsException("Person Jacques Paul")));
+        //ACT
+        List<BatchResultDto> results = personService.createPersons(personsToCreate);
+        //CHECK
+        assertThat(results).extracting(BatchResultDto::getStatus).containsExactly(201, 409);
+        assertThat(results.get(0).getMessage()).isNull();
+        assertThat(results.get(1).getMessage()).isEqualTo("Data 'Person Jacques Paul' already exists !");
+    }
+
+    @Test
+    void getFiredPersonsByAddress() throws DataNotFoundException {
+        //PREPARE
+        PersonDto pierreDto = new PersonDto("Pierre", "Zemicks", "892 Downing Ct", "Culver", "97451", "841-874-7878", "soph@email.com",18,null);
+        PersonDto paulDto = new PersonDto("Paul", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-7878", "soph@email.com",2,null);
+        when(householdService.getHouseholds(List.of("892 Downing Ct", "1509 Culver St", "1 Rd Sky"))).thenReturn(List.of(
+                new HouseholdDto("892 Downing Ct", 1, List.of(pierreDto)),
+                new HouseholdDto("1509 Culver St", 3, List.of(paulDto)),
+                new HouseholdDto("1 Rd Sky", null, List.of())));
+        //ACT
+        Map<String, FireDto> fireDtos = personService.getFiredPersonsByAddress(
+                List.of("892 Downing Ct", "1509 Culver St", " 892 downing ct", "1 Rd Sky"));
+        //CHECK
+        verify(householdService,times(1)).getHouseholds(anyCollection());
+        assertThat(fireDtos).containsOnlyKeys("892 Downing Ct", "1509 Culver St");
+        assertThat(fireDtos.get("892 Downing Ct").getStationNumber()).isEqualTo(1);
+        assertThat(fireDtos.get("892 Downing Ct").getPersons()).containsExactly(pierreDto);
+        assertThat(fireDtos.get("1509 Culver St").getStationNumber()).isEqualTo(3);
+        assertThat(fireDtos.get("1509 Culver St").getPersons()).containsExactly(paulDto);
+    }
+
+    @Test
+    void getChildrenByAddressSkipsNullAddresses() {
+        //PREPARE
+        PersonDto paulDto = new PersonDto("Paul", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-7878", "soph@email.com",2,null);
+        when(householdService.getHouseholds(List.of("1509 Culver St"))).thenReturn(List.of(
+                new HouseholdDto("1509 Culver St", 3, List.of(paulDto))));
+        when(ageUtil.isAdult(2)).thenReturn(false);
+        //ACT
+        Map<String, ChildAlertDto> childAlertDtos = personService.getChildrenByAddress(
+                Arrays.asList("1509 Culver St", null, " ", "1509 CULVER ST"));
+        //CHECK
+        assertThat(childAlertDtos).containsOnlyKeys("1509 Culver St");
+        assertThat(childAlertDtos.get("1509 Culver St").getChildren()).containsExactly(paulDto);
+    }
+}
@@ -0,0 +1,147 @@
+package com.safetynet.alerts.api.service.cache;
+
+import com.safetynet.alerts.api.dao.FireStationDao;
+import com.safetynet.alerts.api.dao.HouseholdDao;
+import com.safetynet.alerts.api.dao.MedicalRecordDao;
+import com.safetynet.alerts.api.dao.PersonDao;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.DataSnapshot;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.service.FireStationService;
+import com.safetynet.alerts.api.service.FireStationView;
+import com.safetynet.alerts.api.service.HouseholdService;
+import com.safetynet.alerts.api.service.IFireStationService;
+import com.safetynet.alerts.api.service.IPersonService;
+import com.safetynet.alerts.api.service.PersonService;
+import com.safetynet.alerts.api.service.dtomapper.MedicalRecordDtoMapper;
+import com.safetynet.alerts.api.service.dtomapper.PersonDtoMapper;
+import com.safetynet.alerts.api.utils.AgeUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Read time of /fire and /firestation queries between writes, computed by the services and
+ * served by the {@link ResponseCache}. Serialized responses are all dropped by a write (their
+ * ETag holds the data version) : this is the work left once a write has been made.
+ * Not part of the test suite, run it with :
+ *   mvn test -Dtest=ResponseCacheBenchmark
+ *
+ * Results of 3 runs on a 1 core host, JDK 17 runtime (100k persons, 25k addresses, 10 stations ;
+ * each round : 1 person update, then 500 /fire queries and the 10 /firestation queries) :
+ *   services       : 0.25 s to 0.6 s for 200 rounds
+ *   response cache : 0.2 s to 1.0 s for 200 rounds
+ * A write only drops the results of the modified data : one address and one station here. The services
+ * keep the households (HouseholdService) and maintain the station results (FireStationView), and map to
+ * dto only the residents of the modified address again ; the station replaces the contribution of that
+ * address only.
+ */
+class ResponseCacheBenchmark {
+
+    private static final int PERSONS = 100_000;
+    private static final int ADDRESSES = PERSONS / 4;
+    private static final int STATIONS = 10;
+    private static final int QUERIED_ADDRESSES = 500;
+    private static final int ROUNDS = 200;
+    private static final int RUNS = 3;
+
+    @Test
+    void servicesVersusResponseCache() throws DataNotFoundException {
+        for (int run = 0; run < RUNS; run++) {
+            AlertsDataSource dataSource = dataSource();
+            PersonService personService = personService(dataSource);
+            FireStationService fireStationService = fireStationService(dataSource);
+            long services = time(dataSource, personService, fireStationService);
+
+            dataSource = dataSource();
+            ResponseCache responseCache = responseCache(dataSource);
+            long cached = time(dataSource,
+                    new CachedPersonService(personService(dataSource), responseCache),
+                    new CachedFireStationService(fireStationService(dataSource), responseCache));
+            System.out.println("run " + run + " : services " + services / 1_000_000 + " ms, response cache " + cached / 1_000_000 + " ms");
+        }
+    }
+
+    private static long time(AlertsDataSource dataSource, IPersonService personService, IFireStationService fireStationService) throws DataNotFoundException {
+        //first round computes all results
+        round(dataSource, personService, fireStationService, 0);
+        long start = System.nanoTime();
+        for (int round = 1; round <= ROUNDS; round++) {
+            round(dataSource, personService, fireStationService, round);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void round(AlertsDataSource dataSource, IPersonService personService, IFireStationService fireStationService, int round) throws DataNotFoundException {
+        //update of a person living at an address that is not queried
+        int updated = QUERIED_ADDRESSES + round % (ADDRESSES - QUERIED_ADDRESSES);
+        dataSource.update(data -> {
+            Person person = data.getPersons("First" + updated, "Last" + updated).get(0);
+            Person updatedPerson = new Person(person);
+            updatedPerson.setPhone("841-874-" + round);
+            return data.replacePerson(person, updatedPerson);
+        });
+        for (int i = 0; i < QUERIED_ADDRESSES; i++) {
+            personService.getFiredPersons(address(i));
+        }
+        for (int station = 1; station <= STATIONS; station++) {
+            fireStationService.getPersons(station);
+        }
+    }
+
+    private static String address(int i) {
+        return i + " Culver St";
+    }
+
+    private static AlertsDataSource dataSource() {
+        List<Person> persons = new ArrayList<>(PERSONS);
+        List<MedicalRecord> medicalRecords = new ArrayList<>(PERSONS);
+        for (int i = 0; i < PERSONS; i++) {
+            persons.add(new Person("First" + i, "Last" + i, address(i % ADDRESSES), "Culver", "97451", "841-874-" + i % 10_000, "first" + i + "@email.com"));
+            medicalRecords.add(new MedicalRecord("First" + i, "Last" + i, new Date((i % 20_000) * 86_400_000L), List.of("aznol:350mg"), List.of()));
+        }
+        List<FireStation> fireStations = new ArrayList<>(ADDRESSES);
+        for (int i = 0; i < ADDRESSES; i++) {
+            fireStations.add(new FireStation(address(i), 1 + i % STATIONS));
+        }
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.setData(DataSnapshot.of(persons, fireStations, medicalRecords));
+        return dataSource;
+    }
+
+    private static PersonService personService(AlertsDataSource dataSource) {
+        return new PersonService(new PersonDao(dataSource), householdService(dataSource), personDtoMapper(dataSource), new AgeUtil());
+    }
+
+    private static FireStationService fireStationService(AlertsDataSource dataSource) {
+        HouseholdService householdService = householdService(dataSource);
+        FireStationView fireStationView = new FireStationView(dataSource, householdService, new AgeUtil());
+        fireStationView.listen();
+        return new FireStationService(new FireStationDao(dataSource), householdService, fireStationView);
+    }
+
+    private static PersonDtoMapper personDtoMapper(AlertsDataSource dataSource) {
+        return new PersonDtoMapper(new MedicalRecordDao(dataSource), new MedicalRecordDtoMapper(), new AgeUtil());
+    }
+
+    private static HouseholdService householdService(AlertsDataSource dataSource) {
+        HouseholdService householdService = new HouseholdService(dataSource, new HouseholdDao(dataSource), personDtoMapper(dataSource), new AgeUtil());
+        householdService.listen();
+        return householdService;
+    }
+
+    private static ResponseCache responseCache(AlertsDataSource dataSource) {
+        ResponseCache responseCache = new ResponseCache(dataSource, new AgeUtil(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(responseCache, "maximumSize", 10_000L);
+        ReflectionTestUtils.setField(responseCache, "expireAfterWriteMillis", 600_000L);
+        responseCache.init();
+        return responseCache;
+    }
+}
@@ -0,0 +1,221 @@
+package com.safetynet.alerts.api.service.cache;
+
+import com.safetynet.alerts.api.StubbedData;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.utils.AgeUtil;
+import com.safetynet.alerts.api.utils.IAgeUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2022, 3, 1);
+
+    private AlertsDataSource dataSource;
+    private ResponseCache responseCache;
+    private MeterRegistry meterRegistry;
+    @Mock
+    private IAgeUtil ageUtil;
+
+    /*queries computed, in order*/
+    private List<String> loadedQueries;
+
+    @BeforeEach
+    void initTest() throws ParseException {
+        dataSource = new AlertsDataSource();
+        dataSource.setData(StubbedData.get());
+        meterRegistry = new SimpleMeterRegistry();
+        responseCache = new ResponseCache(dataSource, ageUtil, meterRegistry);
+        ReflectionTestUtils.setField(responseCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(responseCache, "expireAfterWriteMillis", 60_000L);
+        responseCache.init();
+        loadedQueries = new ArrayList<>();
+        lenient().when(ageUtil.today()).thenReturn(TODAY);
+    }
+
+    private String get(String query, String tag) {
+        return responseCache.getUnchecked(query, List.of(), Set.of(tag), () -> {
+            loadedQueries.add(query);
+            return "result of " + query;
+        });
+    }
+
+    private void getAll() {
+        get("childAlert 1509 Culver St", ResponseCache.addressTag("1509 Culver St"));
+        get("firestation 1", ResponseCache.stationTag(1));
+        get("firestation 2", ResponseCache.stationTag(2));
+        get("personInfo John Boyd", ResponseCache.nameTag("John", "Boyd"));
+        get("personInfo Tony Cooper", ResponseCache.nameTag("Tony", "Cooper"));
+    }
+
+    @Test
+    void getComputedOnce() {
+        //ACT
+        String result = get("firestation 1", ResponseCache.stationTag(1));
+        String cachedResult = get("firestation 1", ResponseCache.stationTag(1));
+
+        //CHECK
+        assertEquals("result of firestation 1", cachedResult);
+        assertSame(result, cachedResult);
+        assertThat(loadedQueries).containsExactly("firestation 1");
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "responses").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "responses").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void personMoveDropsEntriesOfPersonOnly() {
+        //PREPARE
+        getAll();
+        loadedQueries.clear();
+
+        //ACT : Tony Cooper moves from 112 Steppes Pl (station 3) to 29 15th St (station 2)
+        dataSource.update(data -> {
+            Person person = data.getPersons("Tony", "Cooper").get(0);
+            Person movedPerson = new Person(person);
+            movedPerson.setAddress("29 15th St");
+            return data.replacePerson(person, movedPerson);
+        });
+        getAll();
+
+        //CHECK
+        assertThat(loadedQueries).containsExactly("firestation 2", "personInfo Tony Cooper");
+    }
+
+    @Test
+    void dataReplacedOrDayChangeDropsAllEntries() throws ParseException {
+        //PREPARE
+        getAll();
+        loadedQueries.clear();
+
+        //ACT
+        dataSource.setData(StubbedData.get());
+        getAll();
+        when(ageUtil.today()).thenReturn(TODAY.plusDays(1));
+        getAll();
+
+        //CHECK
+        assertThat(loadedQueries).hasSize(10);
+    }
+
+    @Test
+    void dataChangeDoesNotWaitForComputation() throws Exception {
+        //PREPARE : a computation of station 2 in progress
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> responseCache.getUnchecked("firestation 2", List.of(),
+                Set.of(ResponseCache.stationTag(2)), () -> {
+                    loadedQueries.add("firestation 2");
+                    computing.countDown();
+                    awaitUninterruptibly(release);
+                    return "result of firestation 2, version " + dataSource.getData().getVersion();
+                }));
+        assertTrue(computing.await(5, TimeUnit.SECONDS));
+
+        //ACT : a fire station of station 2 moves to station 4
+        CompletableFuture<Void> update = CompletableFuture.runAsync(() -> dataSource.update(data -> {
+            FireStation fireStation = data.getFireStations("29 15th St").get(0);
+            return data.replaceFireStation(fireStation, new FireStation("29 15th St", 4));
+        }));
+        update.get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        //CHECK : the result computed meanwhile is dropped, the computation is made again from the new data
+        assertEquals("result of firestation 2, version " + dataSource.getData().getVersion(), result.get(5, TimeUnit.SECONDS));
+        assertThat(loadedQueries).containsExactly("firestation 2", "firestation 2");
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void failedComputationNotCached() {
+        //ACT
+        for (int i = 0; i < 2; i++) {
+            assertThrows(DataNotFoundException.class, () -> responseCache.get("firestation 5", List.of(5),
+                    Set.of(ResponseCache.stationTag(5)), () -> {
+                        loadedQueries.add("firestation 5");
+                        throw new DataNotFoundException("Fire station number 5");
+                    }));
+        }
+
+        //CHECK
+        assertThat(loadedQueries).hasSize(2);
+        assertEquals(0, responseCache.size());
+    }
+
+    @Test
+    void concurrentTaggingKeepsEntriesInvalidable() throws Exception {
+        //PREPARE : entries loaded, evicted and dropped concurrently, their tags added and released meanwhile
+        int threads = 4;
+        int queries = 64;
+        String tag = ResponseCache.stationTag(1);
+        Queue<String> loads = new ConcurrentLinkedQueue<>();
+        //a real clock : the mock would record every call
+        ResponseCache responseCache = new ResponseCache(dataSource, new AgeUtil(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(responseCache, "maximumSize", 16L);
+        ReflectionTestUtils.setField(responseCache, "expireAfterWriteMillis", 60_000L);
+        responseCache.init();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    String query = "firestation " + ((i * 7 + thread) % queries);
+                    responseCache.getUnchecked(query, List.of(), Set.of(tag), () -> query);
+                    if (i % 250 == thread) responseCache.invalidate(Set.of(tag));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //ACT
+        responseCache.invalidate(Set.of(tag));
+        for (int i = 0; i < queries; i++) {
+            String query = "firestation " + i;
+            responseCache.getUnchecked(query, List.of(), Set.of(tag), () -> {
+                loads.add(query);
+                return query;
+            });
+        }
+
+        //CHECK : every cached entry was still tagged, and has been dropped
+        assertThat(loads).hasSize(queries);
+    }
+}
@@ -7,6 +7,7 @@ import com.safetynet.alerts.api.model.Person;
 import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 import com.safetynet.alerts.api.utils.IAgeUtil;
+import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,10 +17,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -142,4 +147,26 @@ class PersonDtoMapperTest {
                         List.of("lactose","fructose")
                 );
     }
+    @Test
+    void mapToDtosOneMedicalRecordLookup() throws DataIllegalValueException {
+        //PREPARE
+        Person personWithoutMedicalRecord = new Person("Jean","Paul","100 Av De Gaulle", "Paris", "75000", "0145100203","jean.paul@gmail.com");
+        List<Person> persons = List.of(person, personWithoutMedicalRecord);
+        when(medicalRecordDao.getMedicalRecords(persons)).thenReturn(Map.of(person, medicalRecord));
+        when(medicalRecordDtoMapper.mapToDto(medicalRecord)).thenReturn(medicalRecordDto);
+        when(ageUtil.computeFromBirthdate(any())).thenReturn(10);
+
+        //ACT
+        List<PersonDto> personDtos = personDtoMapper.mapToDtos(persons);
+
+        //CHECK
+        verify(medicalRecordDao, times(1)).getMedicalRecords(persons);
+        verify(medicalRecordDao, never()).getMedicalRecord(any(), any());
+        assertThat(personDtos)
+                .extracting(PersonDto::getFirstName, PersonDto::getAge, PersonDto::getMedicalRecord)
+                .containsExactly(
+                        Tuple.tuple("Pierre", 10, medicalRecordDto),
+                        Tuple.tuple("Jean", null, null));
+    }
+
 }
\ No newline at end of file
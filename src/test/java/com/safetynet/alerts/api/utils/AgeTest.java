@@ -6,6 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,4 +52,68 @@ class AgeTest {
         assertFalse(ageUtil.isAdult(0));
         assertFalse(ageUtil.isAdult(Integer.MIN_VALUE));
     }
+    @Test
+    void computeFromBirthdateDayChange() throws DataIllegalValueException {
+        MutableClock clock = new MutableClock(Instant.parse("2020-06-14T12:00:00Z"));
+        ageUtil = new AgeUtil(clock);
+        Date birthdayTomorrow = Date.from(Instant.parse("2000-06-15T00:00:00Z"));
+        Date birthdayLater = Date.from(Instant.parse("2000-06-20T00:00:00Z"));
+        assertEquals(19, ageUtil.computeFromBirthdate(birthdayTomorrow));
+        assertEquals(19, ageUtil.computeFromBirthdate(birthdayLater));
+        //ACT : no scheduled roll over, next access detects the day change
+        clock.instant = Instant.parse("2020-06-15T00:00:01Z");
+        //CHECK
+        assertEquals(20, ageUtil.computeFromBirthdate(birthdayTomorrow));
+        assertEquals(19, ageUtil.computeFromBirthdate(birthdayLater));
+    }
+
+    @Test
+    void rollOverBornFebruary29() throws DataIllegalValueException {
+        MutableClock clock = new MutableClock(Instant.parse("2021-02-28T12:00:00Z"));
+        ageUtil = new AgeUtil(clock);
+        Date birthdate = Date.from(Instant.parse("2000-02-29T00:00:00Z"));
+        assertEquals(20, ageUtil.computeFromBirthdate(birthdate));
+        //ACT
+        clock.instant = Instant.parse("2021-03-01T00:00:00Z");
+        ((AgeUtil) ageUtil).rollOver();
+        //CHECK
+        assertEquals(21, ageUtil.computeFromBirthdate(birthdate));
+    }
+
+    @Test
+    void rollOverSeveralDays() throws DataIllegalValueException {
+        MutableClock clock = new MutableClock(Instant.parse("2020-06-14T12:00:00Z"));
+        ageUtil = new AgeUtil(clock);
+        Date birthdate = Date.from(Instant.parse("2000-06-16T00:00:00Z"));
+        assertEquals(19, ageUtil.computeFromBirthdate(birthdate));
+        //ACT
+        clock.instant = Instant.parse("2020-06-17T10:00:00Z");
+        ((AgeUtil) ageUtil).rollOver();
+        //CHECK
+        assertEquals(20, ageUtil.computeFromBirthdate(birthdate));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
 }
\ No newline at end of file
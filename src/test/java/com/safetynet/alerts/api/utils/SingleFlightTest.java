@@ -0,0 +1,109 @@
+package com.safetynet.alerts.api.utils;
+
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int NB_CALLERS = 8;
+
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+    private AtomicInteger computationCount;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void initTest() {
+        singleFlight = new SingleFlight<>();
+        executor = Executors.newFixedThreadPool(NB_CALLERS);
+        computationCount = new AtomicInteger();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*starts the callers of a key, whose computation waits for the release*/
+    private List<Future<String>> callConcurrently(String key, SingleFlight.Computation<String> computation) throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < NB_CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.get(key, () -> {
+                computationCount.incrementAndGet();
+                awaitRelease();
+                return computation.compute();
+            })));
+        }
+        //waits for the callers to join the computation in flight
+        while (computationCount.get() == 0) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        return results;
+    }
+
+    @Test
+    void concurrentCallsShareComputation() throws Exception {
+        //ACT
+        List<Future<String>> results = callConcurrently("flood 1,2,3", () -> "result");
+        release.countDown();
+
+        //CHECK
+        for (Future<String> result : results) {
+            assertEquals("result", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computationCount.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void concurrentCallsShareException() throws Exception {
+        //ACT
+        List<Future<String>> results = callConcurrently("firestation 5", () -> {
+            throw new DataNotFoundException("Fire station number 5");
+        });
+        release.countDown();
+
+        //CHECK
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof DataNotFoundException);
+        }
+        assertEquals(1, computationCount.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void sequentialCallsComputeAgain() throws DataNotFoundException {
+        //ACT
+        singleFlight.get("firestation 3", () -> "result " + computationCount.incrementAndGet());
+        String result = singleFlight.get("firestation 3", () -> "result " + computationCount.incrementAndGet());
+
+        //CHECK
+        assertEquals("result 2", result);
+    }
+}